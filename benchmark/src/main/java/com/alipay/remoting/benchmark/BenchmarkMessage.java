@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.benchmark;
+
+import java.io.Serializable;
+
+/**
+ * Message used as request and response of the benchmarks.
+ *
+ * @author tsui
+ * @version $Id: BenchmarkMessage.java, v 0.1 2018-10-18 20:05 tsui Exp $
+ */
+public class BenchmarkMessage implements Serializable {
+
+    private static final long serialVersionUID = -6532498735290181372L;
+
+    private int               id;
+
+    private String            name;
+
+    private byte[]            body;
+
+    public BenchmarkMessage() {
+    }
+
+    public BenchmarkMessage(int id, String name, int bodySize) {
+        this.id = id;
+        this.name = name;
+        this.body = new byte[bodySize];
+        for (int i = 0; i < bodySize; ++i) {
+            this.body[i] = (byte) i;
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public void setBody(byte[] body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alipay.remoting.exception.CodecException;
+import com.alipay.remoting.serialization.Serializer;
+import com.alipay.remoting.serialization.SerializerManager;
+
+/**
+ * Serialize and deserialize of a byte[] payload by the raw bytes serializer, against hessian.
+ *
+ * @author tsui
+ * @version $Id: BytesSerializerBenchmark.java, v 0.1 2018-10-18 22:30 tsui Exp $
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BytesSerializerBenchmark {
+
+    /** 1: hessian2, 3: bytes */
+    @Param({ "1", "3" })
+    byte       serializerType;
+
+    @Param({ "64", "1024", "16384", "1048576" })
+    int        payloadSize;
+
+    Serializer serializer;
+
+    byte[]     payload;
+
+    byte[]     serialized;
+
+    @Setup(Level.Trial)
+    public void setup() throws CodecException {
+        serializer = SerializerManager.getSerializer(serializerType);
+        payload = new BenchmarkMessage(1, "serializer", payloadSize).getBody();
+        serialized = serializer.serialize(payload);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws CodecException {
+        return serializer.serialize(payload);
+    }
+
+    @Benchmark
+    public Object deserialize() throws CodecException {
+        return serializer.deserialize(serialized, byte[].class.getName());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.ProtocolCode;
+import com.alipay.remoting.config.switches.ProtocolSwitch;
+import com.alipay.remoting.exception.SerializationException;
+import com.alipay.remoting.rpc.RpcCodec;
+import com.alipay.remoting.rpc.RpcCommandFactory;
+import com.alipay.remoting.rpc.protocol.RpcProtocol;
+import com.alipay.remoting.rpc.protocol.RpcProtocolManager;
+import com.alipay.remoting.rpc.protocol.RpcProtocolV2;
+import com.alipay.remoting.rpc.protocol.RpcRequestCommand;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Encode and decode of a request command by the codec installed in the pipeline,
+ * V1 encoder/decoder for codec V1, V2 encoder/decoder with protocol version 2 for the others.
+ *
+ * @author tsui
+ * @version $Id: CodecBenchmark.java, v 0.1 2018-10-18 20:10 tsui Exp $
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    @Param({ "64", "1024", "16384", "1048576" })
+    int               payloadSize;
+
+    @Param({ "V1", "V2", "V2_CRC" })
+    String            codec;
+
+    EmbeddedChannel   encodeChannel;
+
+    EmbeddedChannel   decodeChannel;
+
+    RpcRequestCommand command;
+
+    ByteBuf           encoded;
+
+    @Setup(Level.Trial)
+    public void setup() throws SerializationException {
+        RpcProtocolManager.initProtocols();
+        encodeChannel = newChannel(new RpcCodec().newEncoder());
+        decodeChannel = newChannel(new RpcCodec().newDecoder());
+
+        command = new RpcCommandFactory().createRequestCommand(new BenchmarkMessage(1, "codec",
+            payloadSize));
+        command.setTimeout(3000);
+        command.setRequestClass(BenchmarkMessage.class.getName());
+        command.setProtocolSwitch("V2_CRC".equals(codec) ? ProtocolSwitch
+            .create(new int[] { ProtocolSwitch.CRC_SWITCH_INDEX }) : new ProtocolSwitch());
+        command.serialize();
+
+        encodeChannel.writeOutbound(command);
+        encoded = encodeChannel.readOutbound();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        encoded.release();
+        encodeChannel.finishAndReleaseAll();
+        decodeChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encode() {
+        encodeChannel.writeOutbound(command);
+        ByteBuf out = encodeChannel.readOutbound();
+        int length = out.readableBytes();
+        out.release();
+        return length;
+    }
+
+    @Benchmark
+    public Object decode() {
+        decodeChannel.writeInbound(encoded.retainedDuplicate());
+        return decodeChannel.readInbound();
+    }
+
+    private EmbeddedChannel newChannel(io.netty.channel.ChannelHandler handler) {
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        if ("V1".equals(codec)) {
+            channel.attr(Connection.PROTOCOL).set(ProtocolCode.fromBytes(RpcProtocol.PROTOCOL_CODE));
+        } else {
+            channel.attr(Connection.PROTOCOL).set(
+                ProtocolCode.fromBytes(RpcProtocolV2.PROTOCOL_CODE));
+            channel.attr(Connection.VERSION).set(RpcProtocolV2.PROTOCOL_VERSION_2);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.rpc.RpcClient;
+import com.alipay.remoting.rpc.RpcServer;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+
+/**
+ * Round trips of {@link RpcClient} against a {@link RpcServer} on loopback, which echoes the request.
+ * Oneway only measures the client side, it waits for the channel to be writable, but the server may drop requests
+ * when its executor is full.
+ *
+ * @author tsui
+ * @version $Id: InvokeBenchmark.java, v 0.1 2018-10-18 20:30 tsui Exp $
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvokeBenchmark {
+
+    @Param({ "64", "1024", "16384", "1048576" })
+    int              payloadSize;
+
+    @Param({ "V1", "V2", "V2_CRC" })
+    String           codec;
+
+    RpcServer        server;
+
+    RpcClient        client;
+
+    String           addr;
+
+    BenchmarkMessage request;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        int port = selectPort();
+        server = new RpcServer(port);
+        server.registerUserProcessor(new EchoUserProcessor());
+        server.start();
+
+        client = new RpcClient();
+        client.init();
+
+        addr = "127.0.0.1:" + port
+               + ("V1".equals(codec) ? "?_PROTOCOL=1" : "?_PROTOCOL=2&_VERSION=2");
+        request = new BenchmarkMessage(1, "invoke", payloadSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public Object sync() throws Exception {
+        return client.invokeSync(addr, request, newInvokeContext(), 3000);
+    }
+
+    @Benchmark
+    public Object future() throws Exception {
+        return client.invokeWithFuture(addr, request, newInvokeContext(), 3000).get();
+    }
+
+    @Benchmark
+    public Object callback() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Object[] result = new Object[1];
+        client.invokeWithCallback(addr, request, newInvokeContext(), new InvokeCallback() {
+            @Override
+            public void onResponse(Object response) {
+                result[0] = response;
+                latch.countDown();
+            }
+
+            @Override
+            public void onException(Throwable e) {
+                result[0] = e;
+                latch.countDown();
+            }
+
+            @Override
+            public Executor getExecutor() {
+                return null;
+            }
+        }, 3000);
+        latch.await();
+        return result[0];
+    }
+
+    @Benchmark
+    public void oneway() throws Exception {
+        Connection conn = client.getConnection(addr, 3000);
+        // back off instead of failing with write overflow
+        while (!conn.getChannel().isWritable()) {
+            Thread.yield();
+        }
+        client.oneway(conn, request, newInvokeContext());
+    }
+
+    private InvokeContext newInvokeContext() {
+        InvokeContext invokeContext = new InvokeContext();
+        invokeContext.put(InvokeContext.BOLT_CRC_SWITCH, "V2_CRC".equals(codec));
+        return invokeContext;
+    }
+
+    private static int selectPort() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Echo the request back.
+     */
+    public static class EchoUserProcessor extends SyncUserProcessor<BenchmarkMessage> {
+        @Override
+        public Object handleRequest(BizContext bizCtx, BenchmarkMessage request) throws Exception {
+            return request;
+        }
+
+        @Override
+        public String interest() {
+            return BenchmarkMessage.class.getName();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.util.IDGenerator;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Contention of request id allocation: the jvm wide {@link IDGenerator} against the sequence of each connection.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RequestIdBenchmark -t 8
+ * </pre>
+ * or run {@link #main(String[])} to measure with 1, 8 and 32 threads.
+ *
+ * @author tsui
+ * @version $Id: RequestIdBenchmark.java, v 0.1 2018-10-18 17:40 tsui Exp $
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestIdBenchmark {
+
+    /**
+     * One connection shared by all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedConnection {
+        Connection connection;
+
+        @Setup
+        public void setup() {
+            connection = new Connection(new EmbeddedChannel());
+        }
+
+        @TearDown
+        public void tearDown() {
+            connection.close();
+        }
+    }
+
+    /**
+     * One connection for each benchmark thread, which is the common case of a client with a pool of connections.
+     */
+    @State(Scope.Thread)
+    public static class ThreadConnection {
+        Connection connection;
+
+        @Setup
+        public void setup() {
+            connection = new Connection(new EmbeddedChannel());
+        }
+
+        @TearDown
+        public void tearDown() {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int globalGenerator() {
+        return IDGenerator.nextId();
+    }
+
+    @Benchmark
+    public int sharedConnection(SharedConnection state) {
+        return state.connection.nextRequestId();
+    }
+
+    @Benchmark
+    public int connectionPerThread(ThreadConnection state) {
+        return state.connection.nextRequestId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8, 32 }) {
+            Options opt = new OptionsBuilder().include(RequestIdBenchmark.class.getSimpleName())
+                .threads(threads).build();
+            new Runner(opt).run();
+        }
+    }
+}
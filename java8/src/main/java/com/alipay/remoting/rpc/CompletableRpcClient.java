@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.Url;
+
+/**
+ * {@link RpcClient} with async invocations returning {@link CompletableFuture}.
+ * The future is completed from the callback path of {@link RpcClient#invokeAsync(String, Object, int)},
+ * by the response, the timeout or the connection closed event, no thread is parked for it.
+ * The failure to start the invocation, e.g. no connection, completes the future exceptionally too.
+ *
+ * Dependent stages without an executor run in the thread completing the future, which is usually the io thread,
+ * so do not block in them.
+ *
+ * @author tsui
+ * @version $Id: CompletableRpcClient.java, v 0.1 2018-10-19 10:40 tsui Exp $
+ */
+public class CompletableRpcClient {
+
+    private final RpcClient client;
+
+    public CompletableRpcClient(RpcClient client) {
+        if (null == client) {
+            throw new IllegalArgumentException("client should not be null!");
+        }
+        this.client = client;
+    }
+
+    /**
+     * Getter method for property <tt>client</tt>.
+     *
+     * @return property value of client
+     */
+    public RpcClient getRpcClient() {
+        return client;
+    }
+
+    /**
+     * Async invocation, see {@link RpcClient#invokeAsync(String, Object, int)}.
+     *
+     * @param addr
+     * @param request
+     * @param timeoutMillis
+     * @return future of the response object
+     */
+    public CompletableFuture<Object> invokeAsync(String addr, Object request, int timeoutMillis) {
+        return RpcCompletableFutures.invoke(() -> client.invokeAsync(addr, request, timeoutMillis));
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, see {@link RpcClient#invokeAsync(String, Object, InvokeContext, int)}.
+     *
+     * @param addr
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return future of the response object
+     */
+    public CompletableFuture<Object> invokeAsync(String addr, Object request,
+                                                 InvokeContext invokeContext, int timeoutMillis) {
+        return RpcCompletableFutures.invoke(() -> client.invokeAsync(addr, request, invokeContext,
+            timeoutMillis));
+    }
+
+    /**
+     * Async invocation using a parsed {@link Url}, see {@link RpcClient#invokeAsync(Url, Object, int)}.
+     *
+     * @param url
+     * @param request
+     * @param timeoutMillis
+     * @return future of the response object
+     */
+    public CompletableFuture<Object> invokeAsync(Url url, Object request, int timeoutMillis) {
+        return RpcCompletableFutures.invoke(() -> client.invokeAsync(url, request, timeoutMillis));
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, see {@link RpcClient#invokeAsync(Url, Object, InvokeContext, int)}.
+     *
+     * @param url
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return future of the response object
+     */
+    public CompletableFuture<Object> invokeAsync(Url url, Object request,
+                                                 InvokeContext invokeContext, int timeoutMillis) {
+        return RpcCompletableFutures.invoke(() -> client.invokeAsync(url, request, invokeContext,
+            timeoutMillis));
+    }
+
+    /**
+     * Async invocation using a {@link Connection}, see {@link RpcClient#invokeAsync(Connection, Object, int)}.
+     *
+     * @param conn
+     * @param request
+     * @param timeoutMillis
+     * @return future of the response object
+     */
+    public CompletableFuture<Object> invokeAsync(Connection conn, Object request, int timeoutMillis) {
+        return RpcCompletableFutures.invoke(() -> client.invokeAsync(conn, request, timeoutMillis));
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, see {@link RpcClient#invokeAsync(Connection, Object, InvokeContext, int)}.
+     *
+     * @param conn
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return future of the response object
+     */
+    public CompletableFuture<Object> invokeAsync(Connection conn, Object request,
+                                                 InvokeContext invokeContext, int timeoutMillis) {
+        return RpcCompletableFutures.invoke(() -> client.invokeAsync(conn, request, invokeContext,
+            timeoutMillis));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.exception.RemotingException;
+
+/**
+ * Adapt the futures of async invocations to {@link CompletableFuture}.
+ *
+ * @author tsui
+ * @version $Id: RpcCompletableFutures.java, v 0.1 2018-10-19 10:40 tsui Exp $
+ */
+public final class RpcCompletableFutures {
+
+    private RpcCompletableFutures() {
+    }
+
+    /**
+     * Get a completable future completed by the listener of the future, i.e. in the thread completing it,
+     * which is usually the io thread.
+     *
+     * @param future future of async invocation
+     * @return completable future with the same result or cause
+     */
+    public static CompletableFuture<Object> toCompletableFuture(RpcAsyncResponseFuture future) {
+        final CompletableFuture<Object> completable = new CompletableFuture<Object>();
+        future.addListener(new InvokeCallback() {
+            @Override
+            public void onResponse(Object result) {
+                completable.complete(result);
+            }
+
+            @Override
+            public void onException(Throwable e) {
+                completable.completeExceptionally(e);
+            }
+
+            @Override
+            public Executor getExecutor() {
+                return null;
+            }
+        });
+        return completable;
+    }
+
+    /**
+     * Start the invocation, the failure to start, e.g. no connection, completes the future exceptionally too.
+     */
+    static CompletableFuture<Object> invoke(AsyncInvocation invocation) {
+        try {
+            return toCompletableFuture(invocation.invoke());
+        } catch (RemotingException e) {
+            return failed(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(e);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    private static CompletableFuture<Object> failed(Throwable cause) {
+        CompletableFuture<Object> future = new CompletableFuture<Object>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+    /**
+     * an async invocation to start
+     */
+    @FunctionalInterface
+    interface AsyncInvocation {
+        RpcAsyncResponseFuture invoke() throws RemotingException, InterruptedException;
+    }
+}
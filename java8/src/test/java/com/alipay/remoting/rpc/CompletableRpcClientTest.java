@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.ConnectionEventType;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+
+/**
+ * test the async invocations returning completable futures
+ *
+ * @author tsui
+ * @version $Id: CompletableRpcClientTest.java, v 0.1 2018-10-19 10:40 tsui Exp $
+ */
+public class CompletableRpcClientTest {
+
+    RpcServer                    server;
+    RpcClient                    client;
+
+    int                          port;
+    String                       addr;
+
+    AtomicReference<Connection> serverConnection = new AtomicReference<Connection>();
+
+    @Before
+    public void init() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        port = socket.getLocalPort();
+        socket.close();
+        addr = "127.0.0.1:" + port;
+
+        server = new RpcServer(port, true);
+        server.addConnectionEventProcessor(ConnectionEventType.CONNECT,
+            (remoteAddr, conn) -> serverConnection.set(conn));
+        server.registerUserProcessor(new EchoProcessor("server"));
+        server.start();
+
+        client = new RpcClient();
+        client.registerUserProcessor(new EchoProcessor("client"));
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testCompose() throws Exception {
+        CompletableRpcClient completable = new CompletableRpcClient(client);
+        CompletableFuture<Object> future = completable.invokeAsync(addr, "hello", 3000)
+            .thenCompose(response -> completable.invokeAsync(addr, response, 3000));
+        Assert.assertEquals("server:server:hello", future.get(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        CompletableFuture<Object> future = new CompletableRpcClient(client).invokeAsync(addr,
+            "sleep", 100);
+        try {
+            future.get(3, TimeUnit.SECONDS);
+            Assert.fail("Should not reach here!");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof InvokeTimeoutException);
+        }
+    }
+
+    @Test
+    public void testFailedToStart() throws Exception {
+        CompletableFuture<Object> future = new CompletableRpcClient(client).invokeAsync(
+            "127.0.0.1:1", "hello", 1000);
+        Assert.assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testServerInvoke() throws Exception {
+        Assert.assertEquals("server:hello",
+            new CompletableRpcClient(client).invokeAsync(addr, "hello", 3000).get());
+        CompletableFuture<Object> future = new CompletableRpcServer(server).invokeAsync(
+            serverConnection.get(), "hello", 3000);
+        Assert.assertEquals("client:hello", future.get(3, TimeUnit.SECONDS));
+    }
+
+    static class EchoProcessor extends SyncUserProcessor<String> {
+
+        private final String name;
+
+        EchoProcessor(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object handleRequest(BizContext bizCtx, String request) throws Exception {
+            if ("sleep".equals(request)) {
+                Thread.sleep(1000);
+            }
+            return this.name + ":" + request;
+        }
+
+        @Override
+        public String interest() {
+            return String.class.getName();
+        }
+    }
+}
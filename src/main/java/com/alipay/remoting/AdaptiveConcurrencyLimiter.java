@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive limiter of concurrent requests 自适应并发限制器<br>
+ * The limit is adjusted by the gradient between the no load latency and the average latency of each sample window:
+ * <ul>
+ *   <li>while the average latency stays within no load latency * tolerance, the limit grows by sqrt(limit), 
+ *   unless the in-flight requests never reached half of the limit in the window</li>
+ *   <li>otherwise the limit shrinks by the gradient, at most halved in one window</li>
+ * </ul>
+ * The no load latency is the min average latency seen, and is reset periodically to follow the change of the service.
+ *
+ * @author tsui
+ * @version $Id: AdaptiveConcurrencyLimiter.java, v 0.1 2018-10-18 15:10 tsui Exp $
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /** reset the no load latency every this count of windows */
+    private static final int    NO_LOAD_RTT_RESET_WINDOWS = 100;
+
+    /** the weight of new limit when smoothing */
+    private static final double SMOOTHING                 = 0.2;
+
+    private final int           minLimit;
+
+    private final int           maxLimit;
+
+    private final double        tolerance;
+
+    private final int           windowSize;
+
+    private final AtomicInteger inFlight                  = new AtomicInteger();
+
+    private final AtomicLong    rejected                  = new AtomicLong();
+
+    private volatile int        limit;
+
+    /** the following are guarded by this */
+    private double              estimatedLimit;
+    private long                noLoadRttNanos;
+    private int                 sampleCount;
+    private long                sampleRttSum;
+    private int                 sampleMaxInFlight;
+    private long                windows;
+
+    /**
+     * Constructor
+     *
+     * @param initialLimit
+     * @param minLimit
+     * @param maxLimit
+     * @param tolerance
+     * @param windowSize
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, int windowSize) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Illegal limit range [" + minLimit + ", " + maxLimit
+                                               + "]");
+        }
+        if (tolerance < 1.0 || windowSize <= 0) {
+            throw new IllegalArgumentException("Illegal tolerance " + tolerance
+                                               + " or window size " + windowSize);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+        this.estimatedLimit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+        this.limit = (int) this.estimatedLimit;
+    }
+
+    /**
+     * Try to acquire a permit for a request, {@link #release(long)} must be called once acquired.
+     *
+     * @return false if the in-flight requests have reached the limit
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = this.inFlight.get();
+            if (current >= this.limit) {
+                this.rejected.incrementAndGet();
+                return false;
+            }
+            if (this.inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release the permit of a finished request, and sample its latency.
+     *
+     * @param rttNanos the latency of the request, from acquired to finished
+     */
+    public void release(long rttNanos) {
+        int current = this.inFlight.getAndDecrement();
+        sample(rttNanos, current);
+    }
+
+    private synchronized void sample(long rttNanos, int currentInFlight) {
+        ++this.sampleCount;
+        this.sampleRttSum += rttNanos;
+        this.sampleMaxInFlight = Math.max(this.sampleMaxInFlight, currentInFlight);
+        if (this.sampleCount < this.windowSize) {
+            return;
+        }
+
+        long avgRtt = Math.max(1, this.sampleRttSum / this.sampleCount);
+        if (++this.windows % NO_LOAD_RTT_RESET_WINDOWS == 0 || this.noLoadRttNanos == 0
+            || avgRtt < this.noLoadRttNanos) {
+            this.noLoadRttNanos = avgRtt;
+        }
+        double gradient = Math.max(0.5,
+            Math.min(1.0, this.tolerance * this.noLoadRttNanos / avgRtt));
+        double newLimit = this.estimatedLimit * gradient + Math.sqrt(this.estimatedLimit);
+        if (this.sampleMaxInFlight < this.estimatedLimit / 2) {
+            // not limited by the limit, no evidence to grow
+            newLimit = Math.min(newLimit, this.estimatedLimit);
+        }
+        newLimit = this.estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+        this.limit = (int) this.estimatedLimit;
+
+        this.sampleCount = 0;
+        this.sampleRttSum = 0;
+        this.sampleMaxInFlight = 0;
+    }
+
+    /**
+     * Current limit of concurrent requests.
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Count of requests acquired but not released yet.
+     */
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Count of requests rejected since created.
+     */
+    public long getRejectedCount() {
+        return this.rejected.get();
+    }
+
+    /**
+     * The no load latency currently used, 0 if not sampled yet.
+     */
+    public synchronized long getNoLoadRttNanos() {
+        return this.noLoadRttNanos;
+    }
+}
@@ -16,10 +16,13 @@
  */
 package com.alipay.remoting;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 
+import com.alipay.remoting.config.ConfigManager;
 import com.alipay.remoting.exception.RemotingException;
 import com.alipay.remoting.log.BoltLoggerFactory;
 import com.alipay.remoting.util.RemotingUtil;
@@ -41,8 +44,12 @@ public abstract class BaseRemoting {
 
     protected CommandFactory    commandFactory;
 
+    /** whether to expire the futures by sweeping connections instead of a timeout for each */
+    private final boolean       timerSweep;
+
     public BaseRemoting(CommandFactory commandFactory) {
         this.commandFactory = commandFactory;
+        this.timerSweep = ConfigManager.timer_sweep_switch();
     }
 
     /**
@@ -70,6 +77,8 @@ public abstract class BaseRemoting {
                         future.putResponse(commandFactory.createSendFailedResponse(
                             conn.getRemoteAddress(), f.cause()));
                         logger.error("Invoke send failed, id={}", request.getId(), f.cause());
+                    } else {
+                        markWritten(request);
                     }
                 }
 
@@ -85,8 +94,11 @@ public abstract class BaseRemoting {
         RemotingCommand response = future.waitResponse(timeoutMillis);
 
         if (response == null) {
-            conn.removeInvokeFuture(request.getId());
             response = this.commandFactory.createTimeoutResponse(conn.getRemoteAddress());
+            if (null != conn.removeInvokeFuture(request.getId())) {
+                // complete the future as the other invocations do on timeout, e.g. for its metrics
+                future.putResponse(response);
+            }
             logger.warn("Wait response, request id={} timeout!", request.getId());
         }
 
@@ -106,28 +118,35 @@ public abstract class BaseRemoting {
                                       final InvokeCallback invokeCallback, final int timeoutMillis) {
         final InvokeFuture future = createInvokeFuture(conn, request, request.getInvokeContext(),
             invokeCallback);
+        final boolean expirable = setDeadline(future, timeoutMillis);
         conn.addInvokeFuture(future);
 
         try {
-            //add timeout
-            Timeout timeout = TimerHolder.getTimer().newTimeout(new TimerTask() {
-                @Override
-                public void run(Timeout timeout) throws Exception {
-                    InvokeFuture future = conn.removeInvokeFuture(request.getId());
-                    if (future != null) {
-                        future.putResponse(commandFactory.createTimeoutResponse(conn
-                            .getRemoteAddress()));
-                        future.tryAsyncExecuteInvokeCallbackAbnormally();
+            //add timeout, or sweep the connection for the expired
+            if (expirable) {
+                conn.startSweep();
+            } else {
+                Timeout timeout = TimerHolder.getTimer().newTimeout(new TimerTask() {
+                    @Override
+                    public void run(Timeout timeout) throws Exception {
+                        InvokeFuture future = conn.removeInvokeFuture(request.getId());
+                        if (future != null) {
+                            future.putResponse(commandFactory.createTimeoutResponse(conn
+                                .getRemoteAddress()));
+                            future.tryAsyncExecuteInvokeCallbackAbnormally();
+                        }
                     }
-                }
 
-            }, timeoutMillis, TimeUnit.MILLISECONDS);
-            future.addTimeout(timeout);
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+                future.addTimeout(timeout);
+            }
             conn.getChannel().writeAndFlush(request).addListener(new ChannelFutureListener() {
 
                 @Override
                 public void operationComplete(ChannelFuture cf) throws Exception {
-                    if (!cf.isSuccess()) {
+                    if (cf.isSuccess()) {
+                        markWritten(request);
+                    } else {
                         InvokeFuture f = conn.removeInvokeFuture(request.getId());
                         if (f != null) {
                             f.cancelTimeout();
@@ -163,29 +182,68 @@ public abstract class BaseRemoting {
      */
     protected InvokeFuture invokeWithFuture(final Connection conn, final RemotingCommand request,
                                             final int timeoutMillis) {
+        return doInvokeWithFuture(conn, request, timeoutMillis, true);
+    }
 
-        final InvokeFuture future = createInvokeFuture(request, request.getInvokeContext());
+    /**
+     * Batch invocation with futures returned.
+     * All requests are written to the channel first and flushed only once at last,
+     * so that they can leave in as few packets as possible.
+     * 
+     * @param conn
+     * @param requests
+     * @param timeoutMillis
+     * @return futures in the same order of requests
+     */
+    protected List<InvokeFuture> invokeBatchWithFutures(final Connection conn,
+                                                        final List<? extends RemotingCommand> requests,
+                                                        final int timeoutMillis) {
+        List<InvokeFuture> futures = new ArrayList<InvokeFuture>(requests.size());
+        for (RemotingCommand request : requests) {
+            futures.add(doInvokeWithFuture(conn, request, timeoutMillis, false));
+        }
+        try {
+            conn.getChannel().flush();
+        } catch (Exception e) {
+            logger.error("Exception caught when flushing batch invocation. The address is {}",
+                RemotingUtil.parseRemoteAddress(conn.getChannel()), e);
+        }
+        return futures;
+    }
+
+    private InvokeFuture doInvokeWithFuture(final Connection conn, final RemotingCommand request,
+                                            final int timeoutMillis, final boolean flush) {
+        final InvokeFuture future = createReturnedInvokeFuture(request, request.getInvokeContext());
+        final boolean expirable = setDeadline(future, timeoutMillis);
         conn.addInvokeFuture(future);
         try {
-            //add timeout
-            Timeout timeout = TimerHolder.getTimer().newTimeout(new TimerTask() {
-                @Override
-                public void run(Timeout timeout) throws Exception {
-                    InvokeFuture future = conn.removeInvokeFuture(request.getId());
-                    if (future != null) {
-                        future.putResponse(commandFactory.createTimeoutResponse(conn
-                            .getRemoteAddress()));
+            //add timeout, or sweep the connection for the expired
+            if (expirable) {
+                conn.startSweep();
+            } else {
+                Timeout timeout = TimerHolder.getTimer().newTimeout(new TimerTask() {
+                    @Override
+                    public void run(Timeout timeout) throws Exception {
+                        InvokeFuture future = conn.removeInvokeFuture(request.getId());
+                        if (future != null) {
+                            future.putResponse(commandFactory.createTimeoutResponse(conn
+                                .getRemoteAddress()));
+                        }
                     }
-                }
 
-            }, timeoutMillis, TimeUnit.MILLISECONDS);
-            future.addTimeout(timeout);
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+                future.addTimeout(timeout);
+            }
 
-            conn.getChannel().writeAndFlush(request).addListener(new ChannelFutureListener() {
+            ChannelFuture writeFuture = flush ? conn.getChannel().writeAndFlush(request) : conn
+                .getChannel().write(request);
+            writeFuture.addListener(new ChannelFutureListener() {
 
                 @Override
                 public void operationComplete(ChannelFuture cf) throws Exception {
-                    if (!cf.isSuccess()) {
+                    if (cf.isSuccess()) {
+                        markWritten(request);
+                    } else {
                         InvokeFuture f = conn.removeInvokeFuture(request.getId());
                         if (f != null) {
                             f.cancelTimeout();
@@ -210,6 +268,23 @@ public abstract class BaseRemoting {
         return future;
     }
 
+    /**
+     * Set the deadline of the future to be expired by the sweep of connection, if timer sweep enabled.
+     *
+     * @param future
+     * @param timeoutMillis
+     * @return true if the deadline set, otherwise a timeout should be registered for the future
+     */
+    private boolean setDeadline(InvokeFuture future, int timeoutMillis) {
+        if (this.timerSweep && future instanceof ExpirableInvokeFuture) {
+            ((ExpirableInvokeFuture) future).setDeadline(System.nanoTime()
+                                                         + TimeUnit.MILLISECONDS
+                                                             .toNanos(timeoutMillis));
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Oneway invocation.
      * 
@@ -226,6 +301,8 @@ public abstract class BaseRemoting {
                     if (!f.isSuccess()) {
                         logger.error("Invoke send failed. The address is {}",
                             RemotingUtil.parseRemoteAddress(conn.getChannel()), f.cause());
+                    } else {
+                        markWritten(request);
                     }
                 }
 
@@ -240,6 +317,18 @@ public abstract class BaseRemoting {
         }
     }
 
+    /**
+     * Record the time when the request written to the socket, if timing enabled in its invoke context.
+     *
+     * @param request
+     */
+    private void markWritten(RemotingCommand request) {
+        InvokeContext invokeContext = request.getInvokeContext();
+        if (null != invokeContext) {
+            invokeContext.mark(InvokePhase.CLIENT_REQUEST_WRITTEN);
+        }
+    }
+
     /**
      * Create invoke future with {@link InvokeContext}.
      * @param request
@@ -249,6 +338,18 @@ public abstract class BaseRemoting {
     protected abstract InvokeFuture createInvokeFuture(final RemotingCommand request,
                                                        final InvokeContext invokeContext);
 
+    /**
+     * Create invoke future returned to the caller, whose response may be never read, e.g. invocation with future.
+     * The same as {@link #createInvokeFuture(RemotingCommand, InvokeContext)} by default.
+     * @param request
+     * @param invokeContext
+     * @return
+     */
+    protected InvokeFuture createReturnedInvokeFuture(final RemotingCommand request,
+                                                      final InvokeContext invokeContext) {
+        return createInvokeFuture(request, invokeContext);
+    }
+
     /**
      * Create invoke future with {@link InvokeContext}.
      * @param conn
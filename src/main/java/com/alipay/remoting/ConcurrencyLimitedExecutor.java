@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor limiting the count of tasks submitted but not finished yet 限制并发任务数的线程池<br>
+ * Tasks exceeding the limit are rejected at once with {@link RejectedExecutionException} instead of being queued,
+ * which is required for executors without a bounded queue, e.g. virtual thread per task executor.
+ *
+ * @author tsui
+ * @version $Id: ConcurrencyLimitedExecutor.java, v 0.1 2018-10-18 14:05 tsui Exp $
+ */
+public class ConcurrencyLimitedExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    private final Semaphore       permits;
+
+    private final int             maxConcurrency;
+
+    /**
+     * Constructor
+     *
+     * @param delegate
+     * @param maxConcurrency
+     */
+    public ConcurrencyLimitedExecutor(ExecutorService delegate, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency should be positive, but now is "
+                                               + maxConcurrency);
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+     */
+    @Override
+    public void execute(final Runnable command) {
+        if (!this.permits.tryAcquire()) {
+            throw new RejectedExecutionException("Concurrency limit " + this.maxConcurrency
+                                                 + " exceeded");
+        }
+        try {
+            this.delegate.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Count of tasks submitted but not finished yet.
+     */
+    public int getActiveCount() {
+        return this.maxConcurrency - this.permits.availablePermits();
+    }
+
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    public ExecutorService getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public void shutdown() {
+        this.delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return this.delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import com.alipay.remoting.config.ConfigManager;
+import com.alipay.remoting.rpc.protocol.AbstractUserProcessor;
+import com.alipay.remoting.rpc.protocol.UserProcessor;
+
+/**
+ * Create the adaptive concurrency limiters of user processors.<br>
+ * The limiter is held by the user processor, one for each processor registered, see {@link AbstractUserProcessor#setConcurrencyLimiter(AdaptiveConcurrencyLimiter)}.
+ *
+ * @author tsui
+ * @version $Id: ConcurrencyLimiterManager.java, v 0.1 2018-10-18 15:40 tsui Exp $
+ */
+public class ConcurrencyLimiterManager {
+
+    private static final boolean ENABLED = ConfigManager.concurrency_limiter_switch();
+
+    /**
+     * Whether the concurrency limiter is enabled by config for all user processors.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Get the limiter of user processor.<br>
+     * If the limiter is enabled by config, it is created with the configured limits on first use, 
+     * otherwise only the one set to the processor is returned.
+     *
+     * @param processor
+     * @return null if no limiter for processor
+     */
+    public static AdaptiveConcurrencyLimiter getLimiter(UserProcessor<?> processor) {
+        if (processor instanceof AbstractUserProcessor) {
+            return ((AbstractUserProcessor<?>) processor).getConcurrencyLimiter();
+        }
+        return null;
+    }
+
+    /**
+     * Create a limiter with the configured limits.
+     */
+    public static AdaptiveConcurrencyLimiter newLimiter() {
+        return new AdaptiveConcurrencyLimiter(ConfigManager.concurrency_limiter_initial(),
+            ConfigManager.concurrency_limiter_min(), ConfigManager.concurrency_limiter_max(),
+            ConfigManager.concurrency_limiter_tolerance(),
+            ConfigManager.concurrency_limiter_window());
+    }
+}
@@ -18,18 +18,24 @@ package com.alipay.remoting;
 
 import java.net.InetSocketAddress;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 
 import com.alipay.remoting.log.BoltLoggerFactory;
 import com.alipay.remoting.rpc.protocol.RpcProtocolV2;
+import com.alipay.remoting.rpc.stream.StreamRegistry;
 import com.alipay.remoting.util.ConcurrentHashSet;
+import com.alipay.remoting.util.ConcurrentIntObjectHashMap;
+import com.alipay.remoting.util.ConcurrentIntObjectHashMap.Filter;
 import com.alipay.remoting.util.RemotingUtil;
 
 import io.netty.channel.Channel;
@@ -43,15 +49,15 @@ import io.netty.util.AttributeKey;
  * @author yunliang.shi
  * @version $Id: Connection.java, v 0.1 Mar 10, 2016 11:30:54 AM yunliang.shi Exp $
  */
-public class Connection {
+public class Connection implements ShardedWheelTimer.Sweepable {
 
     private static final Logger                                                   logger           = BoltLoggerFactory
                                                                                                        .getLogger("CommonDefault");
 
     private Channel                                                               channel;
 
-    private final ConcurrentHashMap<Integer, InvokeFuture>                        invokeFutureMap  = new ConcurrentHashMap<Integer, InvokeFuture>(
-                                                                                                       4);
+    /** in-flight invoke futures keyed by request id, the key is not boxed */
+    private final ConcurrentIntObjectHashMap<InvokeFuture>                        invokeFutureMap  = new ConcurrentIntObjectHashMap<InvokeFuture>();
 
     /** Attribute key for connection */
     public static final AttributeKey<Connection>                                  CONNECTION       = AttributeKey
@@ -64,6 +70,10 @@ public class Connection {
     public static final AttributeKey<Boolean>                                     HEARTBEAT_SWITCH = AttributeKey
                                                                                                        .valueOf("heartbeatSwitch");
 
+    /** Attribute key for whether a compressed command received, which shows the peer supports compression */
+    public static final AttributeKey<Boolean>                                     COMPRESS         = AttributeKey
+                                                                                                       .valueOf("compress");
+
     /** Attribute key for protocol */
     public static final AttributeKey<ProtocolCode>                                PROTOCOL         = AttributeKey
                                                                                                        .valueOf("protocol");
@@ -76,8 +86,7 @@ public class Connection {
 
     private Url                                                                   url;
 
-    private final ConcurrentHashMap<Integer/* id */, String/* poolKey */>       id2PoolKey       = new ConcurrentHashMap<Integer, String>(
-                                                                                                       256);
+    private final ConcurrentIntObjectHashMap<String/* poolKey */>                id2PoolKey       = new ConcurrentIntObjectHashMap<String>();
 
     private Set<String>                                                           poolKeys         = new ConcurrentHashSet<String>();
 
@@ -89,6 +98,26 @@ public class Connection {
     /** the reference count used for this connection. If equals 2, it means this connection has been referenced 2 times */
     private final AtomicInteger                                                   referenceCount   = new AtomicInteger();
 
+    /** sequence of request ids allocated by this connection */
+    private final AtomicInteger                                                   requestIdSeq     = new AtomicInteger();
+
+    /** whether the request id sequence has wrapped around, ids may collide with in-flight ones since then */
+    private volatile boolean                                                      requestIdWrapped = false;
+
+    /** lock to wait with until the channel becomes writable, a monitor would pin the carrier of a virtual thread */
+    private final Lock                                                            writableLock     = new ReentrantLock();
+
+    /** signalled when the writability of channel changed or closed */
+    private final Condition                                                       writableChanged  = writableLock
+                                                                                                       .newCondition();
+
+    /** streams in flight, following the requests or responses */
+    private final StreamRegistry                                                  streamRegistry   = new StreamRegistry(
+                                                                                                       this);
+
+    /** whether registered to the timer to sweep the expired invoke futures */
+    private final AtomicBoolean                                                   sweeping         = new AtomicBoolean();
+
     /** no reference of the current connection */
     private static final int                                                      NO_REFERENCE     = 0;
 
@@ -246,6 +275,25 @@ public class Connection {
         return this.channel;
     }
 
+    /**
+     * Allocate the next request id of this connection.
+     * Once the sequence has wrapped around, ids still owned by an in-flight InvokeFuture are skipped.
+     *
+     * @return request id
+     */
+    public int nextRequestId() {
+        for (;;) {
+            int id = this.requestIdSeq.incrementAndGet();
+            if (id == Integer.MIN_VALUE) {
+                this.requestIdWrapped = true;
+            }
+            if (id == 0 || (this.requestIdWrapped && this.invokeFutureMap.get(id) != null)) {
+                continue;
+            }
+            return id;
+        }
+    }
+
     /**
      * Get the InvokeFuture with invokeId of id.
      *
@@ -276,21 +324,97 @@ public class Connection {
         return this.invokeFutureMap.remove(id);
     }
 
+    /**
+     * Register to the timer to sweep the {@link ExpirableInvokeFuture}s every tick, only once.
+     */
+    public void startSweep() {
+        if (this.sweeping.compareAndSet(false, true)) {
+            TimerHolder.sweep(this);
+        }
+    }
+
+    /**
+     * Expire the {@link ExpirableInvokeFuture}s whose deadline passed.
+     *
+     * @see com.alipay.remoting.ShardedWheelTimer.Sweepable#sweep(long)
+     */
+    @Override
+    public boolean sweep(final long nowNanos) {
+        List<InvokeFuture> expired = this.invokeFutureMap.removeIf(new Filter<InvokeFuture>() {
+            @Override
+            public boolean accept(InvokeFuture future) {
+                return future instanceof ExpirableInvokeFuture
+                       && ((ExpirableInvokeFuture) future).isExpired(nowNanos);
+            }
+        });
+        if (!expired.isEmpty()) {
+            InetSocketAddress address = this.getRemoteAddress();
+            for (InvokeFuture future : expired) {
+                ((ExpirableInvokeFuture) future).expire(address);
+            }
+        }
+        // keep sweeping the futures added after closed till they expire
+        return this.channel.isActive() || !this.invokeFutureMap.isEmpty();
+    }
+
+    /**
+     * Count of the in-flight InvokeFutures, i.e. requests waiting for responses.
+     *
+     * @return
+     */
+    public int getInvokeFutureCount() {
+        return this.invokeFutureMap.size();
+    }
+
+    /**
+     * Wait until the channel becomes writable, or closed, or timeout.
+     *
+     * @param timeoutMillis
+     * @return whether the channel is writable
+     * @throws InterruptedException
+     */
+    public boolean awaitWritable(long timeoutMillis) throws InterruptedException {
+        if (this.channel.isWritable()) {
+            return true;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.writableLock.lock();
+        try {
+            while (!this.channel.isWritable() && this.isFine() && remaining > 0) {
+                remaining = this.writableChanged.awaitNanos(remaining);
+            }
+        } finally {
+            this.writableLock.unlock();
+        }
+        return this.channel.isWritable();
+    }
+
+    /**
+     * Wake up the threads waiting for writable, called when the writability of channel changed or closed.
+     */
+    public void onWritabilityChanged() {
+        this.writableLock.lock();
+        try {
+            this.writableChanged.signalAll();
+        } finally {
+            this.writableLock.unlock();
+        }
+    }
+
     /**
      * Do something when closing.
      */
     public void onClose() {
-        Iterator<Entry<Integer, InvokeFuture>> iter = invokeFutureMap.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<Integer, InvokeFuture> entry = iter.next();
-            iter.remove();
-            InvokeFuture future = entry.getValue();
+        List<InvokeFuture> futures = invokeFutureMap.removeAll();
+        for (InvokeFuture future : futures) {
             if (future != null) {
                 future.putResponse(future.createConnectionClosedResponse(this.getRemoteAddress()));
                 future.cancelTimeout();
                 future.tryAsyncExecuteInvokeCallbackAbnormally();
             }
         }
+        streamRegistry.closeAll();
+        onWritabilityChanged();
     }
 
     /**
@@ -370,7 +494,7 @@ public class Connection {
      * @param id
      * @param poolKey
      */
-    public void addIdPoolKeyMapping(Integer id, String poolKey) {
+    public void addIdPoolKeyMapping(int id, String poolKey) {
         this.id2PoolKey.put(id, poolKey);
     }
 
@@ -380,7 +504,7 @@ public class Connection {
      * @param id
      * @return
      */
-    public String removeIdPoolKeyMapping(Integer id) {
+    public String removeIdPoolKeyMapping(int id) {
         return this.id2PoolKey.remove(id);
     }
 
@@ -436,7 +560,16 @@ public class Connection {
      *
      * @return property value of invokeFutureMap
      */
-    public ConcurrentHashMap<Integer, InvokeFuture> getInvokeFutureMap() {
+    public ConcurrentIntObjectHashMap<InvokeFuture> getInvokeFutureMap() {
         return invokeFutureMap;
     }
+
+    /**
+     * Getter method for property <tt>streamRegistry</tt>.
+     *
+     * @return property value of streamRegistry
+     */
+    public StreamRegistry getStreamRegistry() {
+        return streamRegistry;
+    }
 }
@@ -17,12 +17,14 @@
 package com.alipay.remoting;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 
 import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.util.CoarseClock;
 
 /**
  * Connection pool
@@ -33,20 +35,29 @@ import com.alipay.remoting.log.BoltLoggerFactory;
 public class ConnectionPool implements Scannable {
     // ~~~ constants
     /** logger */
-    private static final Logger              logger            = BoltLoggerFactory
-                                                                   .getLogger("CommonDefault");
+    private static final Logger           logger            = BoltLoggerFactory
+                                                                .getLogger("CommonDefault");
 
-    /** connections */
-    private CopyOnWriteArrayList<Connection> conns             = new CopyOnWriteArrayList<Connection>();
+    /** empty snapshot */
+    private static final List<Connection> EMPTY             = Collections.emptyList();
+
+    /**
+     * connections, an immutable snapshot replaced on every add and remove,
+     * so that it can be handed to the select strategy directly without copy
+     */
+    private volatile List<Connection>     conns             = EMPTY;
+
+    /** lock for replacing the snapshot */
+    private final Object                  lock              = new Object();
 
     /** strategy */
-    private ConnectionSelectStrategy         strategy;
+    private ConnectionSelectStrategy      strategy;
 
     /** timestamp to record the last time this pool be accessed */
-    private volatile long                    lastAccessTimestamp;
+    private volatile long                 lastAccessTimestamp;
 
     /** whether async create connection done */
-    private volatile boolean                 asyncCreationDone = true;
+    private volatile boolean              asyncCreationDone = true;
 
     /**
      * Constructor
@@ -69,7 +80,16 @@ public class ConnectionPool implements Scannable {
         if (null == connection) {
             return;
         }
-        boolean res = this.conns.addIfAbsent(connection);
+        boolean res = false;
+        synchronized (this.lock) {
+            List<Connection> current = this.conns;
+            if (!current.contains(connection)) {
+                Connection[] updated = current.toArray(new Connection[current.size() + 1]);
+                updated[current.size()] = connection;
+                this.conns = Collections.unmodifiableList(Arrays.asList(updated));
+                res = true;
+            }
+        }
         if (res) {
             connection.increaseRef();
         }
@@ -94,7 +114,25 @@ public class ConnectionPool implements Scannable {
         if (null == connection) {
             return;
         }
-        boolean res = this.conns.remove(connection);
+        boolean res = false;
+        synchronized (this.lock) {
+            List<Connection> current = this.conns;
+            int index = current.indexOf(connection);
+            if (index >= 0) {
+                if (current.size() == 1) {
+                    this.conns = EMPTY;
+                } else {
+                    Connection[] updated = new Connection[current.size() - 1];
+                    for (int i = 0, j = 0; i < current.size(); ++i) {
+                        if (i != index) {
+                            updated[j++] = current.get(i);
+                        }
+                    }
+                    this.conns = Collections.unmodifiableList(Arrays.asList(updated));
+                }
+                res = true;
+            }
+        }
         if (res) {
             connection.decreaseRef();
         }
@@ -110,7 +148,6 @@ public class ConnectionPool implements Scannable {
         for (Connection conn : this.conns) {
             removeAndTryClose(conn);
         }
-        this.conns.clear();
     }
 
     /**
@@ -120,13 +157,9 @@ public class ConnectionPool implements Scannable {
      */
     public Connection get() {
         markAccess();
-        if (null != this.conns) {
-            List<Connection> snapshot = new ArrayList<Connection>(this.conns);
-            if (snapshot.size() > 0) {
-                return this.strategy.select(snapshot);
-            } else {
-                return null;
-            }
+        List<Connection> snapshot = this.conns;
+        if (snapshot.size() > 0) {
+            return this.strategy.select(snapshot);
         } else {
             return null;
         }
@@ -170,10 +203,13 @@ public class ConnectionPool implements Scannable {
     }
 
     /**
-     * do mark the time stamp when access this pool
+     * do mark the time stamp when access this pool, skip the write if the coarse time not changed
      */
     private void markAccess() {
-        this.lastAccessTimestamp = System.currentTimeMillis();
+        long now = CoarseClock.currentTimeMillis();
+        if (now != this.lastAccessTimestamp) {
+            this.lastAccessTimestamp = now;
+        }
     }
 
     /**
@@ -203,8 +239,9 @@ public class ConnectionPool implements Scannable {
      */
     @Override
     public void scan() {
-        if (null != this.conns && !this.conns.isEmpty()) {
-            for (Connection conn : conns) {
+        List<Connection> snapshot = this.conns;
+        if (!snapshot.isEmpty()) {
+            for (Connection conn : snapshot) {
                 if (!conn.isFine()) {
                     logger.warn(
                         "Remove bad connection when scanning conns of ConnectionPool - {}:{}",
@@ -397,6 +397,17 @@ public class DefaultConnectionManager implements ConnectionManager, ConnectionHe
      */
     @Override
     public void check(Connection connection) throws RemotingException {
+        check(connection, true);
+    }
+
+    /**
+     * check a connection whether available, if not, throw RemotingException
+     *
+     * @param connection
+     * @param checkWritable whether an unwritable connection is considered unavailable
+     * @throws RemotingException
+     */
+    public void check(Connection connection, boolean checkWritable) throws RemotingException {
         if (connection == null) {
             throw new RemotingException("Connection is null when do check!");
         }
@@ -405,7 +416,7 @@ public class DefaultConnectionManager implements ConnectionManager, ConnectionHe
             throw new RemotingException("Check connection failed for address: "
                                         + connection.getUrl());
         }
-        if (!connection.getChannel().isWritable()) {
+        if (checkWritable && !connection.getChannel().isWritable()) {
             // No remove. Most of the time it is unwritable temporarily.
             throw new RemotingException("Check connection failed for address: "
                                         + connection.getUrl() + ", maybe write overflow!");
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import java.net.InetSocketAddress;
+
+/**
+ * An {@link InvokeFuture} carrying its own deadline, expired by the sweep of its connection
+ * instead of a {@link io.netty.util.Timeout} registered for each invocation.
+ *  带有截止时间的调用future, 由连接统一扫描超时
+ *
+ * @author tsui
+ * @version $Id: ExpirableInvokeFuture.java, v 0.1 2018-10-19 11:20 tsui Exp $
+ */
+public interface ExpirableInvokeFuture extends InvokeFuture {
+
+    /**
+     * Set the deadline, before the future added to the connection.
+     *
+     * @param deadlineNanos deadline in {@link System#nanoTime()}
+     */
+    void setDeadline(long deadlineNanos);
+
+    /**
+     * Whether the deadline has been set and passed.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return true if expired
+     */
+    boolean isExpired(long nowNanos);
+
+    /**
+     * Complete the future with a timeout response, and execute the callback if any.
+     *
+     * @param address remote address of the connection
+     */
+    void expire(InetSocketAddress address);
+}
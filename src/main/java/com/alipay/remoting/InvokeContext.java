@@ -16,8 +16,11 @@
  */
 package com.alipay.remoting;
 
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.alipay.remoting.config.ConfigManager;
+
 /** 
  * Invoke context
  *
@@ -45,18 +48,40 @@ public class InvokeContext {
     public final static String                BOLT_PROCESS_WAIT_TIME = "bolt.invoke.wait.time";
     public final static String                BOLT_CUSTOM_SERIALIZER = "bolt.invoke.custom.serializer";
     public final static String                BOLT_CRC_SWITCH        = "bolt.invoke.crc.switch";
+    /** whether to compress the request, and the response as well, overrides {@link com.alipay.remoting.config.Configs#COMPRESS_SWITCH}, only if the server supports compression */
+    public final static String                BOLT_COMPRESS_SWITCH   = "bolt.invoke.compress.switch";
+    /** the {@link java.io.InputStream} of the chunks following the request, set on server side if the request is sent with a {@link com.alipay.remoting.rpc.stream.StreamBody} */
+    public final static String                BOLT_REQUEST_STREAM    = "bolt.invoke.request.stream";
+    /**
+     * the absolute time in milliseconds when the caller gives up waiting, set on server side for each request.
+     * the invocation with it in invoke context uses the remaining time as timeout, so that the deadline is propagated to nested invocations
+     */
+    public final static String                BOLT_INVOKE_DEADLINE   = "bolt.invoke.deadline";
 
     // ~~~ constants
     public final static int                   INITIAL_SIZE           = 8;
 
+    /** whether timing is enabled by config for all invoke contexts */
+    private final static boolean              TIMING_ENABLED         = ConfigManager
+                                                                         .invoke_timing_switch();
+
+    /** number of invocation phases, the length of timestamps */
+    private final static int                  PHASE_COUNT            = InvokePhase.values().length;
+
     /** context */
     private ConcurrentHashMap<String, Object> context;
 
+    /** timestamps of invocation phases by System.nanoTime(), indexed by ordinal of {@link InvokePhase}, null if timing disabled */
+    private long[]                            timestamps;
+
     /**
      * default construct
      */
     public InvokeContext() {
         this.context = new ConcurrentHashMap<String, Object>(INITIAL_SIZE);
+        if (TIMING_ENABLED) {
+            this.timestamps = new long[PHASE_COUNT];
+        }
     }
 
     /**
@@ -108,5 +133,65 @@ public class InvokeContext {
      */
     public void clear() {
         this.context.clear();
+        if (null != this.timestamps) {
+            Arrays.fill(this.timestamps, 0);
+        }
+    }
+
+    /**
+     * enable timing for this context, which is enabled for all if {@link com.alipay.remoting.config.Configs#INVOKE_TIMING_SWITCH} set
+     */
+    public void enableTiming() {
+        if (null == this.timestamps) {
+            this.timestamps = new long[PHASE_COUNT];
+        }
+    }
+
+    /**
+     * whether timing is enabled
+     *
+     * @return
+     */
+    public boolean isTimingEnabled() {
+        return null != this.timestamps;
+    }
+
+    /**
+     * record the timestamp of phase, nothing done if timing disabled
+     *
+     * @param phase
+     */
+    public void mark(InvokePhase phase) {
+        long[] stamps = this.timestamps;
+        if (null != stamps) {
+            stamps[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    /**
+     * get the timestamp of phase by System.nanoTime()
+     *
+     * @param phase
+     * @return 0 if not recorded
+     */
+    public long getTimestamp(InvokePhase phase) {
+        long[] stamps = this.timestamps;
+        return null == stamps ? 0 : stamps[phase.ordinal()];
+    }
+
+    /**
+     * get the time elapsed between two phases in nanoseconds
+     *
+     * @param from
+     * @param to
+     * @return -1 if any of the phases not recorded
+     */
+    public long getElapsedNanos(InvokePhase from, InvokePhase to) {
+        long start = getTimestamp(from);
+        long end = getTimestamp(to);
+        if (0 == start || 0 == end) {
+            return -1;
+        }
+        return end - start;
     }
 }
\ No newline at end of file
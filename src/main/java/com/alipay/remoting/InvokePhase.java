@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+/**
+ * Phases of an invocation whose timestamps are recorded in {@link InvokeContext} if timing enabled.<br>
+ * 调用各阶段, 开启计时后其时间戳(System.nanoTime)记录在 InvokeContext 中
+ *
+ * @author tsui
+ * @version $Id: InvokePhase.java, v 0.1 2018-10-18 21:40 tsui Exp $
+ */
+public enum InvokePhase {
+    // ~~~ client side
+    /** invocation by url started, before the connection acquired */
+    CLIENT_INVOKE_START,
+    /** connection acquired, created if absent */
+    CLIENT_CONN_ACQUIRED,
+    /** request starts to be serialized */
+    CLIENT_SERIALIZE_START,
+    /** request serialized */
+    CLIENT_REQUEST_SERIALIZED,
+    /** request written to the socket */
+    CLIENT_REQUEST_WRITTEN,
+    /** response arrived, or created locally on timeout and failure */
+    CLIENT_RESPONSE_RECEIVED,
+    /** response deserialized */
+    CLIENT_RESPONSE_DESERIALIZED,
+
+    // ~~~ server side
+    /** request decoded and dispatched by io thread */
+    SERVER_REQUEST_ARRIVED,
+    /** request starts to be processed, in the executor of user processor if any */
+    SERVER_PROCESS_START,
+    /** request deserialized */
+    SERVER_REQUEST_DESERIALIZED,
+    /** response returned by user processor */
+    SERVER_USER_PROCESSED,
+    /** response serialized */
+    SERVER_RESPONSE_SERIALIZED,
+    /** response written to the socket */
+    SERVER_RESPONSE_WRITTEN
+}
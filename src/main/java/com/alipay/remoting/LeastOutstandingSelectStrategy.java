@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.config.switches.GlobalSwitch;
+import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.util.StringUtils;
+
+import io.netty.util.internal.ThreadLocalRandom;
+
+/**
+ * Select the connection with fewer outstanding requests 选择未完成请求更少的连接<br>
+ * Two connections are picked randomly and the less loaded one wins (power of two choices),
+ * a connection whose channel is not writable is considered loaded heavily, for its socket buffer is above the high watermark.
+ * No list is allocated during selection.
+ *
+ * @author tsui
+ * @version $Id: LeastOutstandingSelectStrategy.java, v 0.1 2018-10-18 18:10 tsui Exp $
+ */
+public class LeastOutstandingSelectStrategy implements ConnectionSelectStrategy {
+    /** logger */
+    private static final Logger logger             = BoltLoggerFactory.getLogger("CommonDefault");
+
+    /** load of unavailable connection */
+    private static final int    UNAVAILABLE        = Integer.MAX_VALUE;
+
+    /** load added for the connection not writable */
+    private static final int    UNWRITABLE_PENALTY = 1 << 20;
+
+    private GlobalSwitch        globalSwitch;
+
+    public LeastOutstandingSelectStrategy() {
+    }
+
+    public LeastOutstandingSelectStrategy(GlobalSwitch globalSwitch) {
+        this.globalSwitch = globalSwitch;
+    }
+
+    /**
+     * @see com.alipay.remoting.ConnectionSelectStrategy#select(java.util.List)
+     */
+    @Override
+    public Connection select(List<Connection> conns) {
+        try {
+            if (conns == null) {
+                return null;
+            }
+            int size = conns.size();
+            if (size == 0) {
+                return null;
+            }
+            if (size == 1) {
+                Connection conn = conns.get(0);
+                return load(conn) == UNAVAILABLE ? null : conn;
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            // pick another one different from the first
+            int second = (first + 1 + random.nextInt(size - 1)) % size;
+            Connection a = conns.get(first);
+            Connection b = conns.get(second);
+            int loadA = load(a);
+            int loadB = load(b);
+            if (loadA == UNAVAILABLE && loadB == UNAVAILABLE) {
+                return leastLoaded(conns);
+            }
+            return loadA <= loadB ? a : b;
+        } catch (Throwable e) {
+            logger.error("Choose connection failed using LeastOutstandingSelectStrategy!", e);
+            return null;
+        }
+    }
+
+    /**
+     * scan all the connections for the least loaded one, in case both the picked ones are unavailable
+     */
+    private Connection leastLoaded(List<Connection> conns) {
+        Connection result = null;
+        int minLoad = UNAVAILABLE;
+        for (int i = 0; i < conns.size(); ++i) {
+            Connection conn = conns.get(i);
+            int load = load(conn);
+            if (load < minLoad) {
+                minLoad = load;
+                result = conn;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * the load of connection, {@link #UNAVAILABLE} if it can not be used
+     */
+    private int load(Connection conn) {
+        if (null == conn || !conn.isFine()) {
+            return UNAVAILABLE;
+        }
+        if (null != this.globalSwitch && this.globalSwitch.isOn(GlobalSwitch.CONN_MONITOR_SWITCH)) {
+            String serviceStatus = (String) conn.getAttribute(Configs.CONN_SERVICE_STATUS);
+            if (StringUtils.equals(serviceStatus, Configs.CONN_SERVICE_STATUS_OFF)) {
+                return UNAVAILABLE;
+            }
+        }
+        int load = conn.getInvokeFutureCount();
+        if (!conn.getChannel().isWritable()) {
+            load += UNWRITABLE_PENALTY;
+        }
+        return load;
+    }
+}
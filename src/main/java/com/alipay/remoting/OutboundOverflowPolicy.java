@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+/**
+ * What to do when the pending outbound bytes of a connection exceed the limit,
+ * usually because the peer is slow to read.
+ * 连接待发送字节数超过限制时的处理策略
+ *
+ * @author tsui
+ * @version $Id: OutboundOverflowPolicy.java, v 0.1 2018-10-18 21:40 tsui Exp $
+ */
+public enum OutboundOverflowPolicy {
+    /** stop reading new requests from the connection until the pending bytes drained */
+    PAUSE,
+    /** drop the response and send a small error response instead */
+    DROP,
+    /** close the connection */
+    CLOSE;
+
+    /**
+     * Parse policy by name, case insensitive.
+     *
+     * @param name
+     * @return policy, or {@link #PAUSE} if the name is unknown
+     */
+    public static OutboundOverflowPolicy parse(String name) {
+        if (null != name) {
+            for (OutboundOverflowPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return PAUSE;
+    }
+}
@@ -16,9 +16,11 @@
  */
 package com.alipay.remoting;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -63,13 +65,45 @@ public class ProcessorManager {
     private long                                                 keepAliveTime  = ConfigManager
                                                                                     .default_tp_keepalive_time();
 
+    /** whether to run the default executor on virtual threads */
+    private boolean                                              virtualThread  = ConfigManager
+                                                                                    .default_tp_virtual_thread();
+
+    private int                                                  maxConcurrency = ConfigManager
+                                                                                    .default_tp_virtual_thread_max_concurrency();
+
     // 创建队列大小为600的有界阻塞队列.和名字前缀为Bolt-default-executro的命名线程工厂
     public ProcessorManager() {
+        if (virtualThread) {
+            ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+            if (virtualThreadExecutor != null) {
+                defaultExecutor = new ConcurrencyLimitedExecutor(virtualThreadExecutor,
+                    maxConcurrency);
+                return;
+            }
+        }
         defaultExecutor = new ThreadPoolExecutor(minPoolSize, maxPoolSize, keepAliveTime,
             TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new NamedThreadFactory(
                 "Bolt-default-executor", true));
     }
 
+    /**
+     * Create a virtual thread per task executor by reflection, return null if virtual thread is not supported by the jdk.
+     *
+     * @return
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Throwable t) {
+            logger.warn("Virtual thread is not supported by the current jdk {}, "
+                        + "use the thread pool as default executor instead.",
+                System.getProperty("java.version"));
+            return null;
+        }
+    }
+
     /**
      * Register processor to process command that has the command code of cmdCode.
      * 注册处理器以处理命令代码为cmdCode的命令。
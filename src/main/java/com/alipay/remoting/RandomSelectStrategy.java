@@ -16,9 +16,7 @@
  */
 package com.alipay.remoting;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 import org.slf4j.Logger;
 
@@ -27,6 +25,8 @@ import com.alipay.remoting.config.switches.GlobalSwitch;
 import com.alipay.remoting.log.BoltLoggerFactory;
 import com.alipay.remoting.util.StringUtils;
 
+import io.netty.util.internal.ThreadLocalRandom;
+
 /**
  * Select a connection randomly
  *
@@ -40,9 +40,6 @@ public class RandomSelectStrategy implements ConnectionSelectStrategy {
     /** max retry times */
     private static final int    MAX_TIMES = 5;
 
-    /** random */
-    private final Random        random    = new Random();
-
     private GlobalSwitch        globalSwitch;
 
     public RandomSelectStrategy() {
@@ -66,23 +63,12 @@ public class RandomSelectStrategy implements ConnectionSelectStrategy {
                 return null;
             }
 
-            Connection result = null;
-            if (null != this.globalSwitch
-                && this.globalSwitch.isOn(GlobalSwitch.CONN_MONITOR_SWITCH)) {
-                List<Connection> serviceStatusOnConns = new ArrayList<Connection>();
-                for (Connection conn : conns) {
-                    String serviceStatus = (String) conn.getAttribute(Configs.CONN_SERVICE_STATUS);
-                    if (!StringUtils.equals(serviceStatus, Configs.CONN_SERVICE_STATUS_OFF)) {
-                        serviceStatusOnConns.add(conn);
-                    }
-                }
-                if (serviceStatusOnConns.size() == 0) {
-                    throw new Exception(
-                        "No available connection when select in RandomSelectStrategy.");
-                }
-                result = randomGet(serviceStatusOnConns);
-            } else {
-                result = randomGet(conns);
+            boolean checkServiceStatus = null != this.globalSwitch
+                                         && this.globalSwitch
+                                             .isOn(GlobalSwitch.CONN_MONITOR_SWITCH);
+            Connection result = randomGet(conns, checkServiceStatus);
+            if (null == result && checkServiceStatus && !hasServiceStatusOn(conns)) {
+                throw new Exception("No available connection when select in RandomSelectStrategy.");
             }
             return result;
         } catch (Throwable e) {
@@ -92,26 +78,55 @@ public class RandomSelectStrategy implements ConnectionSelectStrategy {
     }
 
     /**
-     * get one connection randomly
+     * get one connection randomly, connections are picked from the list in place without any copy
      * 
      * @param conns
+     * @param checkServiceStatus whether to skip the connections whose service status is off
      * @return
      */
-    private Connection randomGet(List<Connection> conns) {
+    private Connection randomGet(List<Connection> conns, boolean checkServiceStatus) {
         if (null == conns || conns.isEmpty()) {
             return null;
         }
 
         int size = conns.size();
-        int tries = 0;
-        Connection result = null;
-        while ((result == null || !result.isFine()) && tries++ < MAX_TIMES) {
-            result = conns.get(this.random.nextInt(size));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int tries = 0; tries < MAX_TIMES; ++tries) {
+            Connection conn = conns.get(random.nextInt(size));
+            if (isAvailable(conn, checkServiceStatus)) {
+                return conn;
+            }
         }
 
-        if (result != null && !result.isFine()) {
-            result = null;
+        // random tries failed, scan from a random offset for an available one
+        int offset = random.nextInt(size);
+        for (int i = 0; i < size; ++i) {
+            Connection conn = conns.get((offset + i) % size);
+            if (isAvailable(conn, checkServiceStatus)) {
+                return conn;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAvailable(Connection conn, boolean checkServiceStatus) {
+        if (null == conn || !conn.isFine()) {
+            return false;
         }
-        return result;
+        return !checkServiceStatus || !isServiceStatusOff(conn);
+    }
+
+    private boolean hasServiceStatusOn(List<Connection> conns) {
+        for (int i = 0; i < conns.size(); ++i) {
+            if (!isServiceStatusOff(conns.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isServiceStatusOff(Connection conn) {
+        String serviceStatus = (String) conn.getAttribute(Configs.CONN_SERVICE_STATUS);
+        return StringUtils.equals(serviceStatus, Configs.CONN_SERVICE_STATUS_OFF);
     }
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
+import com.alipay.remoting.util.RemotingUtil;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.util.AttributeKey;
+
+/**
+ * Limit the pending outbound bytes of each connection when sending responses,
+ * so that a client slow to read can not make the server buffer responses unboundedly.<br>
+ * Reading is paused and resumed in the io thread of the connection only.
+ * 限制每个连接待发送的响应字节数
+ *
+ * @author tsui
+ * @version $Id: ResponseOutboundLimiter.java, v 0.1 2018-10-18 21:40 tsui Exp $
+ */
+public class ResponseOutboundLimiter {
+    /** logger */
+    private static final Logger                               logger  = BoltLoggerFactory
+                                                                          .getLogger("RpcRemoting");
+
+    /** Attribute key for the limiter of channel */
+    public static final AttributeKey<ResponseOutboundLimiter> LIMITER = AttributeKey
+                                                                          .valueOf("responseOutboundLimiter");
+
+    /** Attribute key to mark the reading of channel paused by limiter */
+    private static final AttributeKey<Boolean>                PAUSED  = AttributeKey
+                                                                          .valueOf("responseOutboundPaused");
+
+    /** Attribute key to mark the channel closed by limiter */
+    private static final AttributeKey<Boolean>                CLOSED  = AttributeKey
+                                                                          .valueOf("responseOutboundClosed");
+
+    /** max pending outbound bytes of each connection */
+    private final long                                        limit;
+
+    private final OutboundOverflowPolicy                      policy;
+
+    private final AtomicLong                                  paused  = new AtomicLong();
+
+    private final AtomicLong                                  resumed = new AtomicLong();
+
+    private final AtomicLong                                  dropped = new AtomicLong();
+
+    private final AtomicLong                                  closed  = new AtomicLong();
+
+    /**
+     * @param limit max pending outbound bytes of each connection
+     * @param policy what to do when the limit exceeded
+     */
+    public ResponseOutboundLimiter(long limit, OutboundOverflowPolicy policy) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit should be positive, but " + limit);
+        }
+        if (null == policy) {
+            throw new IllegalArgumentException("policy should not be null");
+        }
+        this.limit = limit;
+        this.policy = policy;
+    }
+
+    /**
+     * Get the limiter of channel.
+     *
+     * @param channel
+     * @return limiter, null if none
+     */
+    public static ResponseOutboundLimiter get(Channel channel) {
+        return channel.attr(LIMITER).get();
+    }
+
+    /**
+     * Bytes written to the channel but not yet to the socket.
+     *
+     * @param channel
+     * @return pending bytes
+     */
+    public static long pendingBytes(Channel channel) {
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        return null == buffer ? 0 : buffer.totalPendingWriteBytes();
+    }
+
+    /**
+     * whether the pending outbound bytes of channel exceed the limit
+     *
+     * @param channel
+     * @return
+     */
+    public boolean isOverflow(Channel channel) {
+        return pendingBytes(channel) > this.limit;
+    }
+
+    /**
+     * Stop reading new requests from the channel.
+     *
+     * @param channel
+     */
+    public void pauseRead(final Channel channel) {
+        channel.eventLoop().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (null == channel.attr(PAUSED).setIfAbsent(Boolean.TRUE)) {
+                    channel.config().setAutoRead(false);
+                    paused.incrementAndGet();
+                    recordOverflow(OutboundOverflowPolicy.PAUSE);
+                    logger.warn("Pending outbound bytes {} exceed limit {}, pause reading from {}",
+                        pendingBytes(channel), limit, RemotingUtil.parseRemoteAddress(channel));
+                }
+            }
+        });
+    }
+
+    /**
+     * Resume reading if paused and the pending outbound bytes drained below half of the limit.
+     * The check is deferred as the bytes of the written message are released after its listeners notified.
+     *
+     * @param channel
+     */
+    public void tryResumeRead(final Channel channel) {
+        if (null == channel.attr(PAUSED).get()) {
+            return;
+        }
+        channel.eventLoop().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (pendingBytes(channel) <= limit / 2
+                    && null != channel.attr(PAUSED).getAndSet(null)) {
+                    channel.config().setAutoRead(true);
+                    resumed.incrementAndGet();
+                    logger.warn("Pending outbound bytes drained, resume reading from {}",
+                        RemotingUtil.parseRemoteAddress(channel));
+                }
+            }
+        });
+    }
+
+    /**
+     * record a response dropped
+     */
+    public void onDropped() {
+        this.dropped.incrementAndGet();
+        recordOverflow(OutboundOverflowPolicy.DROP);
+    }
+
+    /**
+     * Close the channel, only once even if called by several responses concurrently.
+     *
+     * @param channel
+     */
+    public void closeChannel(Channel channel) {
+        if (null == channel.attr(CLOSED).setIfAbsent(Boolean.TRUE)) {
+            this.closed.incrementAndGet();
+            recordOverflow(OutboundOverflowPolicy.CLOSE);
+            logger.warn("Pending outbound bytes {} exceed limit {}, close the connection to {}",
+                pendingBytes(channel), this.limit, RemotingUtil.parseRemoteAddress(channel));
+            channel.close();
+        }
+    }
+
+    private static void recordOverflow(OutboundOverflowPolicy policy) {
+        RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+        if (null != metrics) {
+            metrics.onOutboundOverflow(policy);
+        }
+    }
+
+    public long getLimit() {
+        return this.limit;
+    }
+
+    public OutboundOverflowPolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * @return times of reading paused
+     */
+    public long getPausedCount() {
+        return this.paused.get();
+    }
+
+    /**
+     * @return times of reading resumed
+     */
+    public long getResumedCount() {
+        return this.resumed.get();
+    }
+
+    /**
+     * @return count of responses dropped
+     */
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * @return count of connections closed
+     */
+    public long getClosedCount() {
+        return this.closed.get();
+    }
+}
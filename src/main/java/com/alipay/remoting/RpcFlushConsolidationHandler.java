@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Merge the flushes of a connection into fewer socket writes.
+ *
+ * <ul>
+ * <li>flushes issued while reading, e.g. responses processed in io thread, are merged until read complete</li>
+ * <li>flushes issued from other threads, e.g. requests and responses of biz threads, are merged until the end of
+ * current event loop task, or until the delay expires if configured</li>
+ * <li>flush at once after {@link #maxFlushes} merged flushes, or when the channel becomes unwritable,
+ * so that the write buffer watermark still works</li>
+ * </ul>
+ * The write promises of sync, future, callback and oneway invocations complete after the merged flush as usual,
+ * the delay is at most one event loop task or the configured delay.
+ *  合并连接的flush操作, 减少系统调用
+ *
+ * Notice: this is stateful, a new instance is needed for each channel.
+ *
+ * @author tsui
+ * @version $Id: RpcFlushConsolidationHandler.java, v 0.1 2018-10-18 21:05 tsui Exp $
+ */
+public class RpcFlushConsolidationHandler extends ChannelDuplexHandler {
+
+    /** max flushes to merge */
+    private final int             maxFlushes;
+
+    /** max delay of merged flush, time unit: microseconds, 0 means the end of current event loop task */
+    private final long            delayMicros;
+
+    private ChannelHandlerContext ctx;
+
+    private Runnable              flushTask;
+
+    private int                   flushPendingCount;
+
+    private boolean               readInProgress;
+
+    private Future<?>             nextScheduledFlush;
+
+    /**
+     * Constructor
+     *
+     * @param maxFlushes max flushes to merge
+     * @param delayMicros max delay of merged flush, time unit: microseconds
+     */
+    public RpcFlushConsolidationHandler(int maxFlushes, long delayMicros) {
+        if (maxFlushes <= 0) {
+            throw new IllegalArgumentException("Illegal max flushes [" + maxFlushes
+                                               + "], must be positive.");
+        }
+        if (delayMicros < 0) {
+            throw new IllegalArgumentException("Illegal delay [" + delayMicros
+                                               + "], must not be negative.");
+        }
+        this.maxFlushes = maxFlushes;
+        this.delayMicros = delayMicros;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+        this.flushTask = new Runnable() {
+            @Override
+            public void run() {
+                if (flushPendingCount > 0 && !readInProgress) {
+                    nextScheduledFlush = null;
+                    flushNow(RpcFlushConsolidationHandler.this.ctx);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (++flushPendingCount >= maxFlushes || !ctx.channel().isWritable()) {
+            flushNow(ctx);
+        } else if (!readInProgress) {
+            scheduleFlush(ctx);
+        }
+        // else flush at read complete
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        readInProgress = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        resetReadAndFlushIfNeeded(ctx);
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            // drain the outbound buffer to get writable again
+            flushIfNeeded(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        resetReadAndFlushIfNeeded(ctx);
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        resetReadAndFlushIfNeeded(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        resetReadAndFlushIfNeeded(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfNeeded(ctx);
+    }
+
+    private void resetReadAndFlushIfNeeded(ChannelHandlerContext ctx) {
+        readInProgress = false;
+        flushIfNeeded(ctx);
+    }
+
+    private void flushIfNeeded(ChannelHandlerContext ctx) {
+        if (flushPendingCount > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        cancelScheduledFlush();
+        flushPendingCount = 0;
+        ctx.flush();
+    }
+
+    private void scheduleFlush(final ChannelHandlerContext ctx) {
+        if (nextScheduledFlush == null) {
+            if (delayMicros > 0) {
+                nextScheduledFlush = ctx.channel().eventLoop()
+                    .schedule(flushTask, delayMicros, TimeUnit.MICROSECONDS);
+            } else {
+                nextScheduledFlush = ctx.channel().eventLoop().submit(flushTask);
+            }
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (nextScheduledFlush != null) {
+            nextScheduledFlush.cancel(false);
+            nextScheduledFlush = null;
+        }
+    }
+}
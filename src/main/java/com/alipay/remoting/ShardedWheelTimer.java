@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.log.BoltLoggerFactory;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+
+/**
+ * A {@link Timer} made up of several {@link HashedWheelTimer}, each with its own worker thread.
+ * A timeout is registered to the wheel chosen by the registering thread, so that threads invoking concurrently
+ * do not contend on the pending queue of one wheel, and one worker does not have to expire all timeouts.
+ *
+ * <p>Each wheel runs a probe every {@link #LAG_PROBE_INTERVAL} ms to measure how late the worker fires timeouts.
+ *
+ * <p>Owners of many deadlines, e.g. the invoke futures of a connection, can be registered by {@link #sweep(Sweepable)}
+ * to be swept by a wheel every tick, instead of registering a timeout for each deadline.
+ *  由多个时间轮组成的定时器
+ *
+ * @author tsui
+ * @version $Id: ShardedWheelTimer.java, v 0.1 2018-10-18 19:10 tsui Exp $
+ */
+public class ShardedWheelTimer implements Timer {
+
+    private static final Logger      logger             = BoltLoggerFactory
+                                                            .getLogger("CommonDefault");
+
+    /** interval of the lag probe, time unit: ms */
+    public static final long         LAG_PROBE_INTERVAL = 1000;
+
+    private final HashedWheelTimer[] wheels;
+
+    private final LagProbe[]         probes;
+
+    private final Sweeper[]          sweepers;
+
+    private final long               tickDuration;
+
+    /**
+     * Constructor
+     *
+     * @param name prefix of the worker thread name
+     * @param shards number of wheels
+     * @param tickDuration tick duration, time unit: ms
+     * @param ticksPerWheel ticks per wheel
+     */
+    public ShardedWheelTimer(String name, int shards, long tickDuration, int ticksPerWheel) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Illegal shards [" + shards + "], must be positive.");
+        }
+        this.wheels = new HashedWheelTimer[shards];
+        this.probes = new LagProbe[shards];
+        this.sweepers = new Sweeper[shards];
+        this.tickDuration = tickDuration;
+        for (int i = 0; i < shards; ++i) {
+            this.wheels[i] = new HashedWheelTimer(new NamedThreadFactory(name + "-" + i, true),
+                tickDuration, TimeUnit.MILLISECONDS, ticksPerWheel);
+            this.probes[i] = new LagProbe(this.wheels[i]);
+            this.probes[i].schedule();
+            this.sweepers[i] = new Sweeper(this.wheels[i]);
+        }
+    }
+
+    @Override
+    public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+        return select().newTimeout(task, delay, unit);
+    }
+
+    /**
+     * Sweep the target every tick on the wheel chosen by its identity, until it returns false.
+     * Registering a target being swept takes no effect.
+     *
+     * @param target
+     */
+    public void sweep(Sweepable target) {
+        this.sweepers[(System.identityHashCode(target) & Integer.MAX_VALUE) % this.sweepers.length]
+            .add(target);
+    }
+
+    @Override
+    public Set<Timeout> stop() {
+        Set<Timeout> unprocessed = new HashSet<Timeout>();
+        for (HashedWheelTimer wheel : this.wheels) {
+            unprocessed.addAll(wheel.stop());
+        }
+        return unprocessed;
+    }
+
+    /**
+     * Number of pending timeouts of all wheels, the lag probes and sweepers excluded.
+     * Deadlines of the swept targets are not counted.
+     *
+     * @return pending timeouts
+     */
+    public long pendingTimeouts() {
+        long pending = 0;
+        for (HashedWheelTimer wheel : this.wheels) {
+            pending += wheel.pendingTimeouts();
+        }
+        for (Sweeper sweeper : this.sweepers) {
+            if (sweeper.started.get()) {
+                --pending;
+            }
+        }
+        return Math.max(0, pending - this.wheels.length);
+    }
+
+    /**
+     * The max lag measured by the last probe of each wheel, time unit: ms.
+     *
+     * @return lag of timer
+     */
+    public long lagMillis() {
+        long lag = 0;
+        for (LagProbe probe : this.probes) {
+            lag = Math.max(lag, probe.lagMillis);
+        }
+        return lag;
+    }
+
+    /**
+     * @return number of wheels
+     */
+    public int shards() {
+        return this.wheels.length;
+    }
+
+    private HashedWheelTimer select() {
+        if (this.wheels.length == 1) {
+            return this.wheels[0];
+        }
+        return this.wheels[(int) (Thread.currentThread().getId() % this.wheels.length)];
+    }
+
+    /**
+     * Something owning deadlines, swept by a wheel every tick.
+     */
+    public interface Sweepable {
+        /**
+         * Expire the deadlines passed, called in the worker thread of wheel.
+         *
+         * @param nowNanos current {@link System#nanoTime()}
+         * @return whether to be swept again, false to be removed from the wheel
+         */
+        boolean sweep(long nowNanos);
+    }
+
+    /**
+     * Periodic task of a wheel sweeping its targets every tick, started on the first target registered.
+     */
+    private final class Sweeper implements TimerTask {
+        private final HashedWheelTimer wheel;
+
+        private final Set<Sweepable>   targets = Collections
+                                                   .newSetFromMap(new ConcurrentHashMap<Sweepable, Boolean>());
+
+        final AtomicBoolean            started = new AtomicBoolean();
+
+        Sweeper(HashedWheelTimer wheel) {
+            this.wheel = wheel;
+        }
+
+        void add(Sweepable target) {
+            this.targets.add(target);
+            if (this.started.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            this.wheel.newTimeout(this, tickDuration, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            long now = System.nanoTime();
+            for (Sweepable target : this.targets) {
+                try {
+                    if (!target.sweep(now)) {
+                        this.targets.remove(target);
+                    }
+                } catch (Throwable t) {
+                    logger.warn("Exception caught when sweeping {}", target, t);
+                }
+            }
+            try {
+                schedule();
+            } catch (IllegalStateException e) {
+                // the wheel has been stopped
+                logger.debug("Timer stopped, sweeper exits.");
+            }
+        }
+    }
+
+    /**
+     * Periodic task measuring how late the wheel fires it.
+     */
+    private static final class LagProbe implements TimerTask {
+        private final HashedWheelTimer wheel;
+
+        private long                   scheduledNanos;
+
+        volatile long                  lagMillis;
+
+        LagProbe(HashedWheelTimer wheel) {
+            this.wheel = wheel;
+        }
+
+        void schedule() {
+            this.scheduledNanos = System.nanoTime();
+            this.wheel.newTimeout(this, LAG_PROBE_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.scheduledNanos);
+            this.lagMillis = Math.max(0, elapsed - LAG_PROBE_INTERVAL);
+            try {
+                schedule();
+            } catch (IllegalStateException e) {
+                // the wheel has been stopped
+                logger.debug("Timer stopped, lag probe exits.");
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+/**
+ * Async context able to send partial responses, for the request invoked with a response stream.
+ * Check the {@link AsyncContext} passed to the user processor with instanceof before using it.
+ *
+ * @author tsui
+ * @version $Id: StreamingAsyncContext.java, v 0.1 2018-10-19 10:50 tsui Exp $
+ */
+public interface StreamingAsyncContext extends AsyncContext {
+    /**
+     * send a partial response back, more responses follow and {@link #sendResponse(Object)} ends them.
+     * only for the request invoked with a response stream, blocks until the client is ready to receive more.
+     *
+     * @param responseObject
+     * @return false if the client no longer receives, e.g. closed the stream or timeout
+     */
+    boolean sendPartialResponse(Object responseObject);
+}
@@ -16,9 +16,8 @@
  */
 package com.alipay.remoting;
 
-import java.util.concurrent.TimeUnit;
+import com.alipay.remoting.config.ConfigManager;
 
-import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timer;
 
 /**
@@ -30,13 +29,15 @@ import io.netty.util.Timer;
  */
 public class TimerHolder {
 
-    private final static long defaultTickDuration = 10;
+    private final static long defaultTickDuration = ConfigManager.timer_tick_duration();
 
-    // Netty时间轮算法实现
+    // Netty时间轮算法实现, 可配置为多个时间轮
     private static class DefaultInstance {
-        static final Timer INSTANCE = new HashedWheelTimer(new NamedThreadFactory(
-                                        "DefaultTimer" + defaultTickDuration, true),
-                                        defaultTickDuration, TimeUnit.MILLISECONDS);
+        static final ShardedWheelTimer INSTANCE = new ShardedWheelTimer("DefaultTimer"
+                                                                        + defaultTickDuration,
+                                                    ConfigManager.timer_shards(),
+                                                    defaultTickDuration,
+                                                    ConfigManager.timer_ticks_per_wheel());
     }
 
     private TimerHolder() {
@@ -51,4 +52,34 @@ public class TimerHolder {
     public static Timer getTimer() {
         return DefaultInstance.INSTANCE;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sweep the target every tick of the timer, see {@link ShardedWheelTimer#sweep(ShardedWheelTimer.Sweepable)}.
+     *  定时扫描目标中的超时
+     *
+     * @param target
+     */
+    public static void sweep(ShardedWheelTimer.Sweepable target) {
+        DefaultInstance.INSTANCE.sweep(target);
+    }
+
+    /**
+     * Number of timeouts pending in the timer.
+     *  定时器中等待的超时数
+     *
+     * @return pending timeouts
+     */
+    public static long pendingTimeouts() {
+        return DefaultInstance.INSTANCE.pendingTimeouts();
+    }
+
+    /**
+     * How late the timer fires timeouts, measured periodically, time unit: ms.
+     *  定时器的延迟
+     *
+     * @return lag of timer
+     */
+    public static long timerLagMillis() {
+        return DefaultInstance.INSTANCE.lagMillis();
+    }
+}
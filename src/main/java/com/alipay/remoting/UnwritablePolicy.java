@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting;
+
+/**
+ * What to do when invoking on a connection which is not writable,
+ * i.e. its outbound buffer is above the high watermark.
+ * 连接不可写时的处理策略
+ *
+ * @author tsui
+ * @version $Id: UnwritablePolicy.java, v 0.1 2018-10-18 20:40 tsui Exp $
+ */
+public enum UnwritablePolicy {
+    /** write anyway, the outbound buffer keeps growing */
+    NONE,
+    /** fail fast */
+    FAIL,
+    /** wait for the connection to be writable for a bounded time, fail if timeout */
+    WAIT,
+    /** route to another writable connection in the same pool, fail if none */
+    ROUTE;
+
+    /**
+     * Parse policy by name, case insensitive.
+     *
+     * @param name
+     * @return policy, or {@link #NONE} if the name is unknown
+     */
+    public static UnwritablePolicy parse(String name) {
+        if (null != name) {
+            for (UnwritablePolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return NONE;
+    }
+}
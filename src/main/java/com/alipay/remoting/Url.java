@@ -60,6 +60,12 @@ public class Url {
     /** URL agrs: whether need warm up connection */
     private boolean    connWarmup;
 
+    /** URL agrs: whether use crc32c for the frame crc */
+    private boolean    crc32c;
+
+    /** URL agrs: whether the server supports compression, and compress requests by default */
+    private boolean    compress;
+
     /** URL agrs: all parsed args of each originUrl */
     private Properties properties;
 
@@ -219,6 +225,22 @@ public class Url {
         this.connWarmup = connWarmup;
     }
 
+    public boolean isCrc32c() {
+        return crc32c;
+    }
+
+    public void setCrc32c(boolean crc32c) {
+        this.crc32c = crc32c;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
     public Properties getProperties() {
         return properties;
     }
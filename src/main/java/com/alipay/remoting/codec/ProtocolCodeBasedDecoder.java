@@ -23,6 +23,8 @@ import com.alipay.remoting.Protocol;
 import com.alipay.remoting.ProtocolCode;
 import com.alipay.remoting.ProtocolManager;
 import com.alipay.remoting.exception.CodecException;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
@@ -91,7 +93,14 @@ public class ProtocolCodeBasedDecoder extends AbstractBatchDecoder {
             Protocol protocol = ProtocolManager.getProtocol(protocolCode);
             if (null != protocol) {
                 in.resetReaderIndex();
-                protocol.getDecoder().decode(ctx, in, out);
+                RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+                if (null != metrics) {
+                    int readerIndex = in.readerIndex();
+                    protocol.getDecoder().decode(ctx, in, out);
+                    metrics.onBytesRead(in.readerIndex() - readerIndex);
+                } else {
+                    protocol.getDecoder().decode(ctx, in, out);
+                }
             } else {
                 throw new CodecException("Unknown protocol code: [" + protocolCode
                                          + "] while decode in ProtocolDecoder.");
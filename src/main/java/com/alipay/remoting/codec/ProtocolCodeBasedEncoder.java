@@ -22,6 +22,8 @@ import com.alipay.remoting.Connection;
 import com.alipay.remoting.Protocol;
 import com.alipay.remoting.ProtocolCode;
 import com.alipay.remoting.ProtocolManager;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
@@ -58,7 +60,14 @@ public class ProtocolCodeBasedEncoder extends MessageToByteEncoder<Serializable>
             protocolCode = att.get();
         }
         Protocol protocol = ProtocolManager.getProtocol(protocolCode);
-        protocol.getEncoder().encode(ctx, msg, out);
+        RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+        if (null != metrics) {
+            int writerIndex = out.writerIndex();
+            protocol.getEncoder().encode(ctx, msg, out);
+            metrics.onBytesWritten(out.writerIndex() - writerIndex);
+        } else {
+            protocol.getEncoder().encode(ctx, msg, out);
+        }
     }
 
 }
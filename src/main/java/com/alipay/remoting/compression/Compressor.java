@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.compression;
+
+import com.alipay.remoting.exception.CodecException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Compressor for the content of rpc commands, used when {@link com.alipay.remoting.config.switches.ProtocolSwitch#COMPRESS_SWITCH_INDEX} is on.
+ * 用于压缩rpc命令内容的程序接口类
+ *
+ * @author tsui
+ * @version $Id: Compressor.java, v 0.1 2018-10-18 22:50 tsui Exp $
+ */
+public interface Compressor {
+    /**
+     * Compress all the readable bytes of in, and write the result into out.
+     * 压缩in中全部可读字节, 并写入out
+     *
+     * @param in data to compress
+     * @param out buffer to write into
+     * @throws CodecException
+     */
+    void compress(ByteBuf in, ByteBuf out) throws CodecException;
+
+    /**
+     * Decompress all the readable bytes of in, and write the result into out.
+     * The result is bounded by the max capacity of out, so that a small frame can not inflate into a huge buffer.
+     * 解压in中全部可读字节, 并写入out, 结果大小不超过out的最大容量
+     *
+     * @param in compressed data
+     * @param out buffer to write into
+     * @throws CodecException if the data is corrupted, or the result exceeds the max capacity of out
+     */
+    void decompress(ByteBuf in, ByteBuf out) throws CodecException;
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.compression;
+
+/**
+ * Manage all compressors.
+ * 管理所有压缩程序
+ *
+ * The code of compressor is written as the first byte of the compressed content, so the peer knows how to decompress.
+ *
+ * @author tsui
+ * @version $Id: CompressorManager.java, v 0.1 2018-10-18 22:50 tsui Exp $
+ */
+public class CompressorManager {
+
+    private static Compressor[] compressors = new Compressor[5];
+    /**
+     * 内容未压缩
+     */
+    public static final byte    None        = 0;
+    /**
+     * 默认压缩工具 Deflate
+     */
+    public static final byte    Deflate     = 1;
+
+    static {
+        addCompressor(Deflate, new DeflateCompressor());
+    }
+
+    public static Compressor getCompressor(int idx) {
+        if (idx < 0 || idx >= compressors.length) {
+            return null;
+        }
+        return compressors[idx];
+    }
+
+    public static void addCompressor(int idx, Compressor compressor) {
+        if (idx <= None) {
+            throw new IllegalArgumentException("Illegal compressor index " + idx
+                                               + ", should be greater than " + None);
+        }
+        if (compressors.length <= idx) {
+            Compressor[] newCompressors = new Compressor[idx + 5];
+            System.arraycopy(compressors, 0, newCompressors, 0, compressors.length);
+            compressors = newCompressors;
+        }
+        compressors[idx] = compressor;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.compression;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.alipay.remoting.exception.CodecException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Deflate compressor based on {@link java.util.zip}.
+ * The deflater and inflater are reused by each thread, and the data is fed in chunks through a scratch array,
+ * so that buffers not backed by an array are never copied as a whole.
+ *
+ * @author tsui
+ * @version $Id: DeflateCompressor.java, v 0.1 2018-10-18 22:50 tsui Exp $
+ */
+public class DeflateCompressor implements Compressor {
+
+    private static final int                   CHUNK_SIZE = 8 * 1024;
+
+    private static final ThreadLocal<Deflater> DEFLATER   = new ThreadLocal<Deflater>() {
+                                                              @Override
+                                                              protected Deflater initialValue() {
+                                                                  return new Deflater();
+                                                              }
+                                                          };
+
+    private static final ThreadLocal<Inflater> INFLATER   = new ThreadLocal<Inflater>() {
+                                                              @Override
+                                                              protected Inflater initialValue() {
+                                                                  return new Inflater();
+                                                              }
+                                                          };
+
+    /** two chunks, the first for input and the second for output */
+    private static final ThreadLocal<byte[]>   SCRATCH    = new ThreadLocal<byte[]>() {
+                                                              @Override
+                                                              protected byte[] initialValue() {
+                                                                  return new byte[2 * CHUNK_SIZE];
+                                                              }
+                                                          };
+
+    /**
+     * @see Compressor#compress(ByteBuf, ByteBuf)
+     */
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) throws CodecException {
+        Deflater deflater = DEFLATER.get();
+        byte[] scratch = SCRATCH.get();
+        try {
+            while (in.isReadable()) {
+                setInput(deflater, in, scratch);
+                while (!deflater.needsInput()) {
+                    out.writeBytes(scratch, CHUNK_SIZE,
+                        deflater.deflate(scratch, CHUNK_SIZE, CHUNK_SIZE));
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                out.writeBytes(scratch, CHUNK_SIZE,
+                    deflater.deflate(scratch, CHUNK_SIZE, CHUNK_SIZE));
+            }
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * @see Compressor#decompress(ByteBuf, ByteBuf)
+     */
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out) throws CodecException {
+        Inflater inflater = INFLATER.get();
+        byte[] scratch = SCRATCH.get();
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (!in.isReadable()) {
+                        throw new CodecException("Deflate data is truncated!");
+                    }
+                    setInput(inflater, in, scratch);
+                }
+                int length = inflater.inflate(scratch, CHUNK_SIZE, CHUNK_SIZE);
+                if (length == 0 && inflater.needsDictionary()) {
+                    throw new CodecException(
+                        "Deflate data with preset dictionary is not supported!");
+                }
+                if (length > out.maxWritableBytes()) {
+                    throw new CodecException("Deflate data inflates beyond the max length: "
+                                             + out.maxCapacity());
+                }
+                out.writeBytes(scratch, CHUNK_SIZE, length);
+            }
+        } catch (DataFormatException e) {
+            throw new CodecException("DataFormatException occurred when Deflate decompress!", e);
+        } finally {
+            inflater.reset();
+        }
+    }
+
+    /**
+     * feed the next chunk of in, array backed buffer is fed without copy
+     */
+    private void setInput(Deflater deflater, ByteBuf in, byte[] scratch) {
+        int length = Math.min(in.readableBytes(), CHUNK_SIZE);
+        if (in.hasArray()) {
+            deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), length);
+        } else {
+            in.getBytes(in.readerIndex(), scratch, 0, length);
+            deflater.setInput(scratch, 0, length);
+        }
+        in.skipBytes(length);
+    }
+
+    /**
+     * feed the next chunk of in, array backed buffer is fed without copy
+     */
+    private void setInput(Inflater inflater, ByteBuf in, byte[] scratch) {
+        int length = Math.min(in.readableBytes(), CHUNK_SIZE);
+        if (in.hasArray()) {
+            inflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), length);
+        } else {
+            in.getBytes(in.readerIndex(), scratch, 0, length);
+            inflater.setInput(scratch, 0, length);
+        }
+        in.skipBytes(length);
+    }
+}
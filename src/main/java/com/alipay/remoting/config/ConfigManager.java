@@ -78,6 +78,20 @@ public class ConfigManager {
         return getBool(Configs.NETTY_EPOLL_LT, Configs.NETTY_EPOLL_LT_DEFAULT);
     }
 
+    public static boolean netty_flush_consolidation() {
+        return getBool(Configs.NETTY_FLUSH_CONSOLIDATION, Configs.NETTY_FLUSH_CONSOLIDATION_DEFAULT);
+    }
+
+    public static int netty_flush_consolidation_max() {
+        return getInt(Configs.NETTY_FLUSH_CONSOLIDATE_MAX,
+            Configs.NETTY_FLUSH_CONSOLIDATE_MAX_DEFAULT);
+    }
+
+    public static long netty_flush_consolidation_delay() {
+        return getLong(Configs.NETTY_FLUSH_CONSOLIDATE_DELAY,
+            Configs.NETTY_FLUSH_CONSOLIDATE_DELAY_DEFAULT);
+    }
+
     // ~~~ properties for idle 空闲属性
     public static boolean tcp_idle_switch() {
         return getBool(Configs.TCP_IDLE_SWITCH, Configs.TCP_IDLE_SWITCH_DEFAULT);
@@ -113,6 +127,11 @@ public class ConfigManager {
             Configs.CONN_CREATE_TP_KEEPALIVE_TIME_DEFAULT);
     }
 
+    public static boolean conn_select_least_outstanding() {
+        return getBool(Configs.CONN_SELECT_LEAST_OUTSTANDING,
+            Configs.CONN_SELECT_LEAST_OUTSTANDING_DEFAULT);
+    }
+
     // ~~~ properties for processor manager 处理器管理器的属性
     public static int default_tp_min_size() {
         return getInt(Configs.TP_MIN_SIZE, Configs.TP_MIN_SIZE_DEFAULT);
@@ -130,6 +149,15 @@ public class ConfigManager {
         return getInt(Configs.TP_KEEPALIVE_TIME, Configs.TP_KEEPALIVE_TIME_DEFAULT);
     }
 
+    public static boolean default_tp_virtual_thread() {
+        return getBool(Configs.TP_VIRTUAL_THREAD, Configs.TP_VIRTUAL_THREAD_DEFAULT);
+    }
+
+    public static int default_tp_virtual_thread_max_concurrency() {
+        return getInt(Configs.TP_VIRTUAL_MAX_CONCURRENCY,
+            Configs.TP_VIRTUAL_MAX_CONCURRENCY_DEFAULT);
+    }
+
     // ~~~ properties for reconnect manager 重新连接管理器的属性
     public static boolean conn_reconnect_switch() {
         return getBool(Configs.CONN_RECONNECT_SWITCH, Configs.CONN_RECONNECT_SWITCH_DEFAULT);
@@ -164,7 +192,142 @@ public class ConfigManager {
         return getByte(Configs.SERIALIZER, Configs.SERIALIZER_DEFAULT);
     }
 
+    public static int serializer_buffer_max_retained() {
+        return getInt(Configs.SERIALIZE_BUFFER_MAX_RETAINED,
+            Configs.SERIALIZE_BUFFER_MAX_RETAINED_DEFAULT);
+    }
+
+    // ~~~ properties for codec 编解码器的属性
+    public static boolean codec_zero_copy_decode() {
+        return getBool(Configs.CODEC_ZERO_COPY_DECODE, Configs.CODEC_ZERO_COPY_DECODE_DEFAULT);
+    }
+
+    /** whether to serialize content into the outbound buffer by the encoder, read only once */
+    public static final boolean codec_zero_copy_encode = codec_zero_copy_encode();
+
+    public static boolean codec_zero_copy_encode() {
+        return getBool(Configs.CODEC_ZERO_COPY_ENCODE, Configs.CODEC_ZERO_COPY_ENCODE_DEFAULT);
+    }
+
+    // ~~~ properties for compression 内容压缩的属性
+    public static boolean compress_switch() {
+        return getBool(Configs.COMPRESS_SWITCH, Configs.COMPRESS_SWITCH_DEFAULT);
+    }
+
+    public static int compress_threshold() {
+        return getInt(Configs.COMPRESS_THRESHOLD, Configs.COMPRESS_THRESHOLD_DEFAULT);
+    }
+
+    /** compressor of commands, read only once */
+    public static final byte compressor = compressor();
+
+    public static byte compressor() {
+        return getByte(Configs.COMPRESSOR, Configs.COMPRESSOR_DEFAULT);
+    }
+
+    public static int compress_max_inflated() {
+        return getInt(Configs.COMPRESS_MAX_INFLATED, Configs.COMPRESS_MAX_INFLATED_DEFAULT);
+    }
+
+    // ~~~ properties for stream 分块流传输的属性
+    public static int stream_chunk_size() {
+        return getInt(Configs.STREAM_CHUNK_SIZE, Configs.STREAM_CHUNK_SIZE_DEFAULT);
+    }
+
+    public static int stream_window() {
+        return getInt(Configs.STREAM_WINDOW, Configs.STREAM_WINDOW_DEFAULT);
+    }
+
+    public static int stream_timeout() {
+        return getInt(Configs.STREAM_TIMEOUT, Configs.STREAM_TIMEOUT_DEFAULT);
+    }
+
+    // ~~~ properties for request id 请求编号的属性
+    public static boolean request_id_per_connection() {
+        return getBool(Configs.REQUEST_ID_PER_CONNECTION, Configs.REQUEST_ID_PER_CONNECTION_DEFAULT);
+    }
+
+    // ~~~ properties for timer 定时器的属性
+    public static long timer_tick_duration() {
+        return getLong(Configs.TIMER_TICK_DURATION, Configs.TIMER_TICK_DURATION_DEFAULT);
+    }
+
+    public static int timer_ticks_per_wheel() {
+        return getInt(Configs.TIMER_TICKS_PER_WHEEL, Configs.TIMER_TICKS_PER_WHEEL_DEFAULT);
+    }
+
+    public static int timer_shards() {
+        return getInt(Configs.TIMER_SHARDS, Configs.TIMER_SHARDS_DEFAULT);
+    }
+
+    public static boolean timer_sweep_switch() {
+        return getBool(Configs.TIMER_SWEEP_SWITCH, Configs.TIMER_SWEEP_SWITCH_DEFAULT);
+    }
+
+    // ~~~ properties for concurrency limiter 并发限制的属性
+    public static boolean concurrency_limiter_switch() {
+        return getBool(Configs.CONCURRENCY_LIMITER_SWITCH,
+            Configs.CONCURRENCY_LIMITER_SWITCH_DEFAULT);
+    }
+
+    public static int concurrency_limiter_initial() {
+        return getInt(Configs.CONCURRENCY_LIMITER_INITIAL,
+            Configs.CONCURRENCY_LIMITER_INITIAL_DEFAULT);
+    }
+
+    public static int concurrency_limiter_min() {
+        return getInt(Configs.CONCURRENCY_LIMITER_MIN, Configs.CONCURRENCY_LIMITER_MIN_DEFAULT);
+    }
+
+    public static int concurrency_limiter_max() {
+        return getInt(Configs.CONCURRENCY_LIMITER_MAX, Configs.CONCURRENCY_LIMITER_MAX_DEFAULT);
+    }
+
+    public static double concurrency_limiter_tolerance() {
+        return getDouble(Configs.CONCURRENCY_LIMITER_TOLERANCE,
+            Configs.CONCURRENCY_LIMITER_TOLERANCE_DEFAULT);
+    }
+
+    public static int concurrency_limiter_window() {
+        return getInt(Configs.CONCURRENCY_LIMITER_WINDOW,
+            Configs.CONCURRENCY_LIMITER_WINDOW_DEFAULT);
+    }
+
+    // ~~~ properties for backpressure 背压的属性
+    public static String invoke_unwritable_policy() {
+        return getString(Configs.INVOKE_UNWRITABLE_POLICY, Configs.INVOKE_UNWRITABLE_POLICY_DEFAULT);
+    }
+
+    public static int invoke_unwritable_wait_timeout() {
+        return getInt(Configs.INVOKE_UNWRITABLE_TIMEOUT, Configs.INVOKE_UNWRITABLE_TIMEOUT_DEFAULT);
+    }
+
+    public static long server_response_outbound_limit() {
+        return getLong(Configs.SERVER_OUTBOUND_LIMIT, Configs.SERVER_OUTBOUND_LIMIT_DEFAULT);
+    }
+
+    public static String server_response_outbound_policy() {
+        return getString(Configs.SERVER_OUTBOUND_POLICY, Configs.SERVER_OUTBOUND_POLICY_DEFAULT);
+    }
+
+    // ~~~ properties for metrics 指标统计的属性
+    public static boolean metrics_switch() {
+        return getBool(Configs.METRICS_SWITCH, Configs.METRICS_SWITCH_DEFAULT);
+    }
+
+    public static boolean metrics_jmx_switch() {
+        return getBool(Configs.METRICS_JMX_SWITCH, Configs.METRICS_JMX_SWITCH_DEFAULT);
+    }
+
+    public static boolean invoke_timing_switch() {
+        return getBool(Configs.INVOKE_TIMING_SWITCH, Configs.INVOKE_TIMING_SWITCH_DEFAULT);
+    }
+
     // ~~~ public helper methods to retrieve system property 用于检索系统属性的公共帮助方法
+    public static String getString(String key, String defaultValue) {
+        return System.getProperty(key, defaultValue);
+    }
+
     public static boolean getBool(String key, String defaultValue) {
         return Boolean.parseBoolean(System.getProperty(key, defaultValue));
     }
@@ -180,4 +343,8 @@ public class ConfigManager {
     public static long getLong(String key, String defaultValue) {
         return Long.parseLong(System.getProperty(key, defaultValue));
     }
+
+    public static double getDouble(String key, String defaultValue) {
+        return Double.parseDouble(System.getProperty(key, defaultValue));
+    }
 }
\ No newline at end of file
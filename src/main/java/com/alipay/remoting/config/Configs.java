@@ -16,6 +16,7 @@
  */
 package com.alipay.remoting.config;
 
+import com.alipay.remoting.compression.CompressorManager;
 import com.alipay.remoting.serialization.SerializerManager;
 
 /**
@@ -72,6 +73,21 @@ public class Configs {
     public static final String NETTY_EPOLL_LT                        = "bolt.netty.epoll.lt";
     public static final String NETTY_EPOLL_LT_DEFAULT                = "true";
 
+    /**
+     * Netty flush consolidation switch, flushes of a connection are merged into one syscall,
+     * see {@link com.alipay.remoting.RpcFlushConsolidationHandler}
+     */
+    public static final String NETTY_FLUSH_CONSOLIDATION             = "bolt.netty.flush.consolidation";
+    public static final String NETTY_FLUSH_CONSOLIDATION_DEFAULT     = "false";
+
+    /** Max flushes to merge before flushing to socket */
+    public static final String NETTY_FLUSH_CONSOLIDATE_MAX           = "bolt.netty.flush.consolidation.max";
+    public static final String NETTY_FLUSH_CONSOLIDATE_MAX_DEFAULT   = "256";
+
+    /** Max delay of the merged flush, time unit: microseconds, 0 means flushing at the end of current event loop task */
+    public static final String NETTY_FLUSH_CONSOLIDATE_DELAY         = "bolt.netty.flush.consolidation.delay";
+    public static final String NETTY_FLUSH_CONSOLIDATE_DELAY_DEFAULT = "0";
+
     // ~~~ configs and default values for idle
     /**
      * 空闲的配置和默认值
@@ -113,6 +129,10 @@ public class Configs {
     public static final String CONN_CREATE_TP_KEEPALIVE_TIME         = "bolt.conn.create.tp.keepalive";
     public static final String CONN_CREATE_TP_KEEPALIVE_TIME_DEFAULT = "60";
 
+    /** select the connection with fewer outstanding requests instead of randomly 按未完成请求数选择连接 */
+    public static final String CONN_SELECT_LEAST_OUTSTANDING         = "bolt.conn.select.least.outstanding";
+    public static final String CONN_SELECT_LEAST_OUTSTANDING_DEFAULT = "false";
+
     /** Default connect timeout value, time unit: ms  */
     public static final int    DEFAULT_CONNECT_TIMEOUT               = 1000;
 
@@ -151,6 +171,18 @@ public class Configs {
     public static final String TP_KEEPALIVE_TIME                     = "bolt.tp.keepalive";
     public static final String TP_KEEPALIVE_TIME_DEFAULT             = "60";
 
+    /**
+     * Whether to run the default executor on virtual threads, only takes effect on JDK 21+.
+     */
+    public static final String TP_VIRTUAL_THREAD                     = "bolt.tp.virtual";
+    public static final String TP_VIRTUAL_THREAD_DEFAULT             = "false";
+
+    /**
+     * Max concurrent tasks of the virtual thread executor, tasks exceeding it are rejected as server busy.
+     */
+    public static final String TP_VIRTUAL_MAX_CONCURRENCY            = "bolt.tp.virtual.max.concurrency";
+    public static final String TP_VIRTUAL_MAX_CONCURRENCY_DEFAULT    = "10000";
+
     // ~~~ configs and default values for reconnect manager
     /**
      * 重新连接管理器的配置和默认值
@@ -205,6 +237,198 @@ public class Configs {
     public static final String SERIALIZER_DEFAULT                    = String
                                                                          .valueOf(SerializerManager.Hessian2);
 
+    /** max capacity of the serialize buffer retained by each thread for reuse, larger ones are dropped after use, time unit: byte */
+    public static final String SERIALIZE_BUFFER_MAX_RETAINED         = "bolt.serializer.buffer.max.retained";
+    public static final String SERIALIZE_BUFFER_MAX_RETAINED_DEFAULT = "65536";
+
     /** Charset */
     public static final String DEFAULT_CHARSET                       = "UTF-8";
-}
\ No newline at end of file
+
+    // ~~~ configs and default values for codec
+    /**
+     * 编解码器的配置和默认值
+     */
+
+    /**
+     * Decode the content of rpc command as a retained slice of the inbound buffer instead of copying it into a byte[].
+     * The slice is released after the content is deserialized, or when the command is discarded.
+     */
+    public static final String CODEC_ZERO_COPY_DECODE                = "bolt.codec.zerocopy.decode";
+    public static final String CODEC_ZERO_COPY_DECODE_DEFAULT        = "false";
+
+    /**
+     * Serialize the content of rpc command directly into the outbound buffer by the encoder, instead of into an intermediate byte[].
+     * Only takes effect for serializers implementing {@link com.alipay.remoting.serialization.StreamSerializer}.
+     * <p>
+     *   Notice: the request or response object is serialized in io thread when this is on,
+     *   so it must not be modified until the command has been written.
+     * </p>
+     */
+    public static final String CODEC_ZERO_COPY_ENCODE                = "bolt.codec.zerocopy.encode";
+    public static final String CODEC_ZERO_COPY_ENCODE_DEFAULT        = "false";
+
+    // ~~~ configs and default values for compression
+    /**
+     * 内容压缩的配置和默认值
+     */
+
+    /**
+     * Whether to compress the content of requests by default, can be overridden by {@link com.alipay.remoting.InvokeContext#BOLT_COMPRESS_SWITCH}.
+     * The server compresses the response only if the request is sent with the compress switch on.
+     * <p>
+     *   Notice: for compatibility, the switch only takes effect on the connections of which the peer is known to support compression,
+     *   declared by {@link com.alipay.remoting.rpc.RpcConfigs#COMPRESS_KEY} in url, or shown by a compressed command received from the peer.
+     *   The requests to other servers are never compressed, as a server not supporting it would take the compressed content as it is.
+     * </p>
+     */
+    public static final String COMPRESS_SWITCH                       = "bolt.compress.switch";
+    public static final String COMPRESS_SWITCH_DEFAULT               = "false";
+
+    /** content shorter than this is sent uncompressed even if the compress switch is on, time unit: byte */
+    public static final String COMPRESS_THRESHOLD                    = "bolt.compress.threshold";
+    public static final String COMPRESS_THRESHOLD_DEFAULT            = "2048";
+
+    /** compressor used for requests, see {@link com.alipay.remoting.compression.CompressorManager} */
+    public static final String COMPRESSOR                            = "bolt.compressor";
+    public static final String COMPRESSOR_DEFAULT                    = String
+                                                                         .valueOf(CompressorManager.Deflate);
+
+    /**
+     * max length of the content decompressed, the frame inflating beyond it fails with {@link com.alipay.remoting.exception.CodecException},
+     * in case of the decompression bomb, time unit: byte
+     */
+    public static final String COMPRESS_MAX_INFLATED                 = "bolt.compress.max.inflated";
+    public static final String COMPRESS_MAX_INFLATED_DEFAULT         = "67108864";
+
+    // ~~~ configs and default values for stream
+    /**
+     * 分块流传输的配置和默认值
+     */
+
+    /** max bytes of each chunk when sending a stream, see {@link com.alipay.remoting.rpc.stream.StreamBody}, time unit: byte */
+    public static final String STREAM_CHUNK_SIZE                     = "bolt.stream.chunk.size";
+    public static final String STREAM_CHUNK_SIZE_DEFAULT             = "65536";
+
+    /** max chunks of each stream sent before credited by the receiver, which bounds the memory buffered by the receiver, the stream beyond it is aborted */
+    public static final String STREAM_WINDOW                         = "bolt.stream.window";
+    public static final String STREAM_WINDOW_DEFAULT                 = "8";
+
+    /** max time to wait for the next chunk or credit from the peer, or for the stream received to be claimed by its request or response, the stream fails after that, time unit: ms */
+    public static final String STREAM_TIMEOUT                        = "bolt.stream.timeout";
+    public static final String STREAM_TIMEOUT_DEFAULT                = "60000";
+
+    // ~~~ configs and default values for request id
+    /**
+     * 请求编号的配置和默认值
+     */
+
+    /**
+     * Allocate request ids from a sequence of each connection, instead of the jvm wide {@link com.alipay.remoting.util.IDGenerator}.
+     * Ids are unique among the in-flight requests of a connection, which is all that the response dispatching relies on.
+     */
+    public static final String REQUEST_ID_PER_CONNECTION             = "bolt.request.id.per.connection";
+    public static final String REQUEST_ID_PER_CONNECTION_DEFAULT     = "false";
+
+    // ~~~ configs and default values for timer
+    /**
+     * 超时定时器的配置和默认值
+     */
+
+    /** tick duration of the timing wheel, time unit: ms */
+    public static final String TIMER_TICK_DURATION                   = "bolt.timer.tick.duration";
+    public static final String TIMER_TICK_DURATION_DEFAULT           = "10";
+
+    /** ticks per timing wheel, will be rounded up to power of two */
+    public static final String TIMER_TICKS_PER_WHEEL                 = "bolt.timer.ticks.per.wheel";
+    public static final String TIMER_TICKS_PER_WHEEL_DEFAULT         = "512";
+
+    /**
+     * Number of timing wheels, each with its own worker thread.
+     * Timeouts are registered to the wheel chosen by the registering thread, so threads do not contend on one queue.
+     */
+    public static final String TIMER_SHARDS                          = "bolt.timer.shards";
+    public static final String TIMER_SHARDS_DEFAULT                  = "1";
+
+    /**
+     * Whether to expire the invoke futures with callback or returned by sweeping the connections every tick,
+     * instead of registering a timeout for each invocation.
+     */
+    public static final String TIMER_SWEEP_SWITCH                    = "bolt.timer.sweep.switch";
+    public static final String TIMER_SWEEP_SWITCH_DEFAULT            = "false";
+
+    // ~~~ configs and default values for concurrency limiter
+    /**
+     * 服务端自适应并发限制的配置和默认值
+     */
+
+    /**
+     * Whether to limit the concurrent requests of each user processor adaptively,
+     * requests beyond the limit are rejected with SERVER_THREADPOOL_BUSY before queued.
+     */
+    public static final String CONCURRENCY_LIMITER_SWITCH            = "bolt.concurrency.limiter";
+    public static final String CONCURRENCY_LIMITER_SWITCH_DEFAULT    = "false";
+
+    /** initial limit of concurrent requests for each user processor */
+    public static final String CONCURRENCY_LIMITER_INITIAL           = "bolt.concurrency.limiter.initial";
+    public static final String CONCURRENCY_LIMITER_INITIAL_DEFAULT   = "20";
+
+    /** min limit of concurrent requests for each user processor */
+    public static final String CONCURRENCY_LIMITER_MIN               = "bolt.concurrency.limiter.min";
+    public static final String CONCURRENCY_LIMITER_MIN_DEFAULT       = "1";
+
+    /** max limit of concurrent requests for each user processor */
+    public static final String CONCURRENCY_LIMITER_MAX               = "bolt.concurrency.limiter.max";
+    public static final String CONCURRENCY_LIMITER_MAX_DEFAULT       = "1000";
+
+    /** the limit shrinks once the average latency exceeds the no load latency multiplied by this tolerance */
+    public static final String CONCURRENCY_LIMITER_TOLERANCE         = "bolt.concurrency.limiter.tolerance";
+    public static final String CONCURRENCY_LIMITER_TOLERANCE_DEFAULT = "2.0";
+
+    /** count of latency samples to adjust the limit once */
+    public static final String CONCURRENCY_LIMITER_WINDOW            = "bolt.concurrency.limiter.window";
+    public static final String CONCURRENCY_LIMITER_WINDOW_DEFAULT    = "100";
+
+    // ~~~ configs and default values for backpressure
+    /**
+     * 连接不可写时背压的配置和默认值
+     */
+
+    /**
+     * What to do when invoking on a connection whose outbound buffer is above the high watermark,
+     * one of none, fail, wait and route, see {@link com.alipay.remoting.UnwritablePolicy}
+     */
+    public static final String INVOKE_UNWRITABLE_POLICY              = "bolt.invoke.unwritable.policy";
+    public static final String INVOKE_UNWRITABLE_POLICY_DEFAULT      = "none";
+
+    /** max time to wait for an unwritable connection with policy wait, also bounded by the invoke timeout, time unit: ms */
+    public static final String INVOKE_UNWRITABLE_TIMEOUT             = "bolt.invoke.unwritable.wait.timeout";
+    public static final String INVOKE_UNWRITABLE_TIMEOUT_DEFAULT     = "1000";
+
+    /** max pending outbound bytes of each connection when server sends responses, 0 means no limit */
+    public static final String SERVER_OUTBOUND_LIMIT                 = "bolt.server.response.outbound.limit";
+    public static final String SERVER_OUTBOUND_LIMIT_DEFAULT         = "0";
+
+    /**
+     * What to do when the limit of pending outbound bytes exceeded,
+     * one of pause, drop and close, see {@link com.alipay.remoting.OutboundOverflowPolicy}
+     */
+    public static final String SERVER_OUTBOUND_POLICY                = "bolt.server.response.outbound.policy";
+    public static final String SERVER_OUTBOUND_POLICY_DEFAULT        = "pause";
+
+    // ~~~ configs and default values for metrics
+    /**
+     * 指标统计的配置和默认值
+     */
+
+    /** whether to record the metrics of rpc invocations and processing, see {@link com.alipay.remoting.metrics.RpcMetrics} */
+    public static final String METRICS_SWITCH                        = "bolt.metrics";
+    public static final String METRICS_SWITCH_DEFAULT                = "false";
+
+    /** whether to register the default metrics recorder as a JMX MXBean when metrics enabled */
+    public static final String METRICS_JMX_SWITCH                    = "bolt.metrics.jmx";
+    public static final String METRICS_JMX_SWITCH_DEFAULT            = "true";
+
+    /** whether to record the timestamps of invocation phases in every invoke context, see {@link com.alipay.remoting.InvokePhase} */
+    public static final String INVOKE_TIMING_SWITCH                  = "bolt.invoke.timing";
+    public static final String INVOKE_TIMING_SWITCH_DEFAULT          = "false";
+}
@@ -28,6 +28,14 @@ public class ProtocolSwitch implements Switch {
 
     // switche index
     public static final int     CRC_SWITCH_INDEX         = 0x000;
+    /** use CRC32C instead of CRC32 for the frame crc, only takes effect when crc switch is on */
+    public static final int     CRC32C_SWITCH_INDEX      = 0x001;
+    /** the content is prefixed by the code of compressor, see {@link com.alipay.remoting.compression.CompressorManager} */
+    public static final int     COMPRESS_SWITCH_INDEX    = 0x002;
+    /** the command is followed by a stream of chunks with the same id, see {@link com.alipay.remoting.rpc.protocol.RpcStreamCommand} */
+    public static final int     STREAM_SWITCH_INDEX      = 0x003;
+    /** on request, the client accepts partial responses. on response, more responses of the same request follow */
+    public static final int     PARTIAL_SWITCH_INDEX     = 0x004;
 
     // default value
     public static final boolean CRC_SWITCH_DEFAULT_VALUE = true;
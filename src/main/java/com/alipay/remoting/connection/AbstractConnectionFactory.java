@@ -26,6 +26,7 @@ import com.alipay.remoting.ConnectionEventHandler;
 import com.alipay.remoting.ConnectionEventType;
 import com.alipay.remoting.NamedThreadFactory;
 import com.alipay.remoting.ProtocolCode;
+import com.alipay.remoting.RpcFlushConsolidationHandler;
 import com.alipay.remoting.Url;
 import com.alipay.remoting.codec.Codec;
 import com.alipay.remoting.config.ConfigManager;
@@ -104,11 +105,19 @@ public abstract class AbstractConnectionFactory implements ConnectionFactory {
             this.bootstrap.option(ChannelOption.ALLOCATOR, UnpooledByteBufAllocator.DEFAULT);
         }
 
+        final boolean flushConsolidation = ConfigManager.netty_flush_consolidation();
         bootstrap.handler(new ChannelInitializer<SocketChannel>() {
 
             @Override
             protected void initChannel(SocketChannel channel) {
                 ChannelPipeline pipeline = channel.pipeline();
+                if (flushConsolidation) {
+                    pipeline.addLast(
+                        "flushConsolidationHandler",
+                        new RpcFlushConsolidationHandler(ConfigManager
+                            .netty_flush_consolidation_max(), ConfigManager
+                            .netty_flush_consolidation_delay()));
+                }
                 pipeline.addLast("decoder", codec.newDecoder());
                 pipeline.addLast("encoder", codec.newEncoder());
 
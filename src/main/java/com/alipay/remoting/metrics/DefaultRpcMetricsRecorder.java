@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.metrics;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.alipay.remoting.OutboundOverflowPolicy;
+import com.alipay.remoting.ResponseStatus;
+import com.alipay.remoting.UnwritablePolicy;
+import com.alipay.remoting.util.RemotingUtil;
+
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Default lock free implementation of {@link RpcMetricsRecorder}, with striped counters and log-linear histograms.
+ *
+ * @author tsui
+ * @version $Id: DefaultRpcMetricsRecorder.java, v 0.1 2018-10-18 20:55 tsui Exp $
+ */
+public class DefaultRpcMetricsRecorder implements RpcMetricsRecorder, RpcMetricsMXBean {
+
+    private static final UnwritablePolicy[]                  UNWRITABLES     = UnwritablePolicy
+                                                                                 .values();
+
+    private static final OutboundOverflowPolicy[]            OVERFLOWS       = OutboundOverflowPolicy
+                                                                                 .values();
+
+    private final ConcurrentMap<InetSocketAddress, RpcStats> clientTargets   = new ConcurrentHashMap<InetSocketAddress, RpcStats>();
+
+    private final ConcurrentMap<String, RpcStats>            clientInterests = new ConcurrentHashMap<String, RpcStats>();
+
+    private final ConcurrentMap<String, RpcStats>            serverInterests = new ConcurrentHashMap<String, RpcStats>();
+
+    private final RpcStats                                   serverResponses = new RpcStats();
+
+    private final LongCounter                                clientInFlight  = PlatformDependent
+                                                                                 .newLongCounter();
+
+    private final LongCounter                                serverInFlight  = PlatformDependent
+                                                                                 .newLongCounter();
+
+    private final LongCounter                                bytesRead       = PlatformDependent
+                                                                                 .newLongCounter();
+
+    private final LongCounter                                bytesWritten    = PlatformDependent
+                                                                                 .newLongCounter();
+
+    private final LongCounter                                serverRejected  = PlatformDependent
+                                                                                 .newLongCounter();
+
+    private final LongCounter[]                              unwritableOk    = new LongCounter[UNWRITABLES.length];
+
+    private final LongCounter[]                              unwritableFail  = new LongCounter[UNWRITABLES.length];
+
+    private final LongCounter[]                              overflows       = new LongCounter[OVERFLOWS.length];
+
+    public DefaultRpcMetricsRecorder() {
+        for (int i = 0; i < UNWRITABLES.length; ++i) {
+            this.unwritableOk[i] = PlatformDependent.newLongCounter();
+            this.unwritableFail[i] = PlatformDependent.newLongCounter();
+        }
+        for (int i = 0; i < OVERFLOWS.length; ++i) {
+            this.overflows[i] = PlatformDependent.newLongCounter();
+        }
+    }
+
+    @Override
+    public void onInvokeStart(String interest) {
+        this.clientInFlight.increment();
+    }
+
+    @Override
+    public void onInvokeComplete(InetSocketAddress target, String interest, ResponseStatus status,
+                                 long latencyNanos) {
+        this.clientInFlight.decrement();
+        if (null != target) {
+            record(getStats(this.clientTargets, target), status, latencyNanos);
+        }
+        if (null != interest) {
+            record(getStats(this.clientInterests, interest), status, latencyNanos);
+        }
+    }
+
+    @Override
+    public void onRequestSerialized(String interest, long nanos) {
+        if (null != interest) {
+            getStats(this.clientInterests, interest).record(LatencyPhase.SERIALIZE, nanos);
+        }
+    }
+
+    @Override
+    public void onUnwritable(UnwritablePolicy policy, boolean passed) {
+        if (passed) {
+            this.unwritableOk[policy.ordinal()].increment();
+        } else {
+            this.unwritableFail[policy.ordinal()].increment();
+        }
+    }
+
+    @Override
+    public void onRequestRejected(String interest) {
+        this.serverRejected.increment();
+        if (null != interest) {
+            getStats(this.serverInterests, interest).increment(
+                ResponseStatus.SERVER_THREADPOOL_BUSY);
+        }
+    }
+
+    @Override
+    public void onProcessStart(String interest, long queueNanos) {
+        this.serverInFlight.increment();
+        if (null != interest) {
+            RpcStats stats = getStats(this.serverInterests, interest);
+            stats.increment();
+            stats.record(LatencyPhase.QUEUE, queueNanos);
+        }
+    }
+
+    @Override
+    public void onProcessEnd(String interest, long processNanos) {
+        this.serverInFlight.decrement();
+        if (null != interest) {
+            getStats(this.serverInterests, interest).record(LatencyPhase.PROCESS, processNanos);
+        }
+    }
+
+    @Override
+    public void onResponseSent(ResponseStatus status, long serializeNanos) {
+        this.serverResponses.increment();
+        this.serverResponses.increment(status);
+        this.serverResponses.record(LatencyPhase.SERIALIZE, serializeNanos);
+    }
+
+    @Override
+    public void onOutboundOverflow(OutboundOverflowPolicy policy) {
+        this.overflows[policy.ordinal()].increment();
+    }
+
+    @Override
+    public void onBytesRead(long bytes) {
+        this.bytesRead.add(bytes);
+    }
+
+    @Override
+    public void onBytesWritten(long bytes) {
+        this.bytesWritten.add(bytes);
+    }
+
+    private static void record(RpcStats stats, ResponseStatus status, long latencyNanos) {
+        stats.increment();
+        stats.increment(status);
+        stats.record(LatencyPhase.ROUND_TRIP, latencyNanos);
+    }
+
+    private static <K> RpcStats getStats(ConcurrentMap<K, RpcStats> statsMap, K key) {
+        RpcStats stats = statsMap.get(key);
+        if (null == stats) {
+            stats = new RpcStats();
+            RpcStats prev = statsMap.putIfAbsent(key, stats);
+            if (null != prev) {
+                stats = prev;
+            }
+        }
+        return stats;
+    }
+
+    // ~~~ programmatic access
+
+    /**
+     * Stats of invocations keyed by target address, with latencies of {@link LatencyPhase#ROUND_TRIP}.
+     */
+    public Map<InetSocketAddress, RpcStats> getClientTargetStats() {
+        return Collections.unmodifiableMap(this.clientTargets);
+    }
+
+    /**
+     * Stats of invocations keyed by interest, 
+     * with latencies of {@link LatencyPhase#ROUND_TRIP} and {@link LatencyPhase#SERIALIZE}.
+     */
+    public Map<String, RpcStats> getClientInterestStats() {
+        return Collections.unmodifiableMap(this.clientInterests);
+    }
+
+    /**
+     * Stats of requests processed keyed by interest, 
+     * with latencies of {@link LatencyPhase#QUEUE} and {@link LatencyPhase#PROCESS}.
+     */
+    public Map<String, RpcStats> getServerInterestStats() {
+        return Collections.unmodifiableMap(this.serverInterests);
+    }
+
+    /**
+     * Stats of responses sent, with status breakdown and latencies of {@link LatencyPhase#SERIALIZE}.
+     */
+    public RpcStats getServerResponseStats() {
+        return this.serverResponses;
+    }
+
+    // ~~~ RpcMetricsMXBean
+
+    @Override
+    public long getBytesRead() {
+        return this.bytesRead.value();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return this.bytesWritten.value();
+    }
+
+    @Override
+    public long getClientInFlight() {
+        return this.clientInFlight.value();
+    }
+
+    @Override
+    public long getServerInFlight() {
+        return this.serverInFlight.value();
+    }
+
+    @Override
+    public Map<String, String> getClientTargets() {
+        Map<String, String> summary = new TreeMap<String, String>();
+        for (Map.Entry<InetSocketAddress, RpcStats> entry : this.clientTargets.entrySet()) {
+            summary.put(RemotingUtil.parseSocketAddressToString(entry.getKey()), entry.getValue()
+                .toString());
+        }
+        return summary;
+    }
+
+    @Override
+    public Map<String, String> getClientInterests() {
+        return summarize(this.clientInterests);
+    }
+
+    @Override
+    public Map<String, String> getServerInterests() {
+        return summarize(this.serverInterests);
+    }
+
+    @Override
+    public String getServerResponses() {
+        return this.serverResponses.toString();
+    }
+
+    @Override
+    public long getServerRejected() {
+        return this.serverRejected.value();
+    }
+
+    @Override
+    public Map<String, Long> getClientUnwritable() {
+        Map<String, Long> summary = new TreeMap<String, Long>();
+        for (int i = 0; i < UNWRITABLES.length; ++i) {
+            putIfPositive(summary, UNWRITABLES[i] + ".passed", this.unwritableOk[i].value());
+            putIfPositive(summary, UNWRITABLES[i] + ".failed", this.unwritableFail[i].value());
+        }
+        return summary;
+    }
+
+    @Override
+    public Map<String, Long> getServerOutboundOverflow() {
+        Map<String, Long> summary = new TreeMap<String, Long>();
+        for (int i = 0; i < OVERFLOWS.length; ++i) {
+            putIfPositive(summary, OVERFLOWS[i].name(), this.overflows[i].value());
+        }
+        return summary;
+    }
+
+    private static void putIfPositive(Map<String, Long> summary, String key, long value) {
+        if (value > 0) {
+            summary.put(key, value);
+        }
+    }
+
+    private static Map<String, String> summarize(Map<String, RpcStats> statsMap) {
+        Map<String, String> summary = new TreeMap<String, String>();
+        for (Map.Entry<String, RpcStats> entry : statsMap.entrySet()) {
+            summary.put(entry.getKey(), entry.getValue().toString());
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A lock free histogram of latencies in microseconds, with log-linear buckets like HdrHistogram.<br>
+ * 每个2的幂区间再线性划分为 {@link #SUB_BUCKETS} 个桶, 相对误差不超过 1/{@link #SUB_BUCKETS}
+ *
+ * @author tsui
+ * @version $Id: LatencyHistogram.java, v 0.1 2018-10-18 20:30 tsui Exp $
+ */
+public class LatencyHistogram {
+
+    /** bits of linear buckets in each power of two */
+    private static final int      SUB_BUCKET_BITS = 3;
+
+    /** count of linear buckets in each power of two */
+    public static final int       SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+
+    /** max exponent of power of two tracked, about 19 hours in microseconds, larger values are clamped */
+    private static final int      MAX_EXPONENT    = 36;
+
+    /** max value tracked in microseconds */
+    public static final long      MAX_VALUE       = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final int      BUCKET_COUNT    = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray buckets         = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongCounter     count           = PlatformDependent.newLongCounter();
+
+    private final LongCounter     sum             = PlatformDependent.newLongCounter();
+
+    private final AtomicLong      max             = new AtomicLong();
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds, negative value is recorded as 0
+     */
+    public void recordNanos(long nanos) {
+        record(nanos <= 0 ? 0 : nanos / 1000);
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param micros latency in microseconds, negative value is recorded as 0
+     */
+    public void record(long micros) {
+        long value = micros < 0 ? 0 : Math.min(micros, MAX_VALUE);
+        this.buckets.incrementAndGet(bucketIndex(value));
+        this.count.increment();
+        this.sum.add(value);
+        long currentMax = this.max.get();
+        while (value > currentMax && !this.max.compareAndSet(currentMax, value)) {
+            currentMax = this.max.get();
+        }
+    }
+
+    /**
+     * Count of latencies recorded.
+     */
+    public long getCount() {
+        return this.count.value();
+    }
+
+    /**
+     * Max latency recorded in microseconds.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Mean latency in microseconds.
+     */
+    public double getMean() {
+        long n = this.count.value();
+        return n == 0 ? 0 : (double) this.sum.value() / n;
+    }
+
+    /**
+     * Latency at the percentile in microseconds, which is the upper bound of the bucket it falls in, 
+     * but no more than the max recorded.
+     *
+     * @param percentile in range (0, 100]
+     * @return 0 if nothing recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * total);
+        rank = Math.max(rank, 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * index of the bucket the value falls in, values less than {@link #SUB_BUCKETS} each has its own bucket
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * the max value falls in the bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long) (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + (long) getMean() + "us, p50="
+               + getPercentile(50) + "us, p99=" + getPercentile(99) + "us, max=" + getMax() + "us";
+    }
+}
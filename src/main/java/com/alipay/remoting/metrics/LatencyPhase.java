@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.metrics;
+
+/**
+ * Phases of an rpc whose latencies are recorded.
+ *
+ * @author tsui
+ * @version $Id: LatencyPhase.java, v 0.1 2018-10-18 20:35 tsui Exp $
+ */
+public enum LatencyPhase {
+    /** time a request waits in the executor before processed, server side */
+    QUEUE,
+    /** time the user processor spends on a request, deserializing included, server side */
+    PROCESS,
+    /** time spent serializing the request on client side, or the response on server side */
+    SERIALIZE,
+    /** round trip time from a request sent till its response arrived, client side, all phases above included */
+    ROUND_TRIP
+}
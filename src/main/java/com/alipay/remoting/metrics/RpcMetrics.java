@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.config.ConfigManager;
+import com.alipay.remoting.log.BoltLoggerFactory;
+
+/**
+ * Holder of the metrics recorder.<br>
+ * If metrics enabled by {@link com.alipay.remoting.config.Configs#METRICS_SWITCH}, 
+ * a {@link DefaultRpcMetricsRecorder} is created and registered to JMX, 
+ * otherwise nothing is recorded unless a recorder set explicitly.
+ *
+ * @author tsui
+ * @version $Id: RpcMetrics.java, v 0.1 2018-10-18 21:00 tsui Exp $
+ */
+public class RpcMetrics {
+
+    private static final Logger                logger      = BoltLoggerFactory
+                                                               .getLogger("CommonDefault");
+
+    /** object name of the default recorder registered to JMX */
+    public static final String                 OBJECT_NAME = "com.alipay.remoting:type=RpcMetrics";
+
+    private static volatile RpcMetricsRecorder recorder;
+
+    static {
+        if (ConfigManager.metrics_switch()) {
+            DefaultRpcMetricsRecorder defaultRecorder = new DefaultRpcMetricsRecorder();
+            if (ConfigManager.metrics_jmx_switch()) {
+                registerMBean(defaultRecorder);
+            }
+            recorder = defaultRecorder;
+        }
+    }
+
+    /**
+     * Get the recorder.
+     *
+     * @return null if metrics disabled
+     */
+    public static RpcMetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Set the recorder to replace the default one, null to disable metrics.<br>
+     * The recorder is registered to JMX in place of the previous one if it is a {@link RpcMetricsMXBean}.
+     *
+     * @param metricsRecorder
+     */
+    public static void setRecorder(RpcMetricsRecorder metricsRecorder) {
+        if (metricsRecorder instanceof RpcMetricsMXBean && ConfigManager.metrics_jmx_switch()) {
+            registerMBean((RpcMetricsMXBean) metricsRecorder);
+        }
+        recorder = metricsRecorder;
+    }
+
+    private static void registerMBean(RpcMetricsMXBean mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (Exception e) {
+            logger.warn("Register rpc metrics to JMX failed.", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link DefaultRpcMetricsRecorder}, registered as {@link RpcMetrics#OBJECT_NAME}.
+ *
+ * @author tsui
+ * @version $Id: RpcMetricsMXBean.java, v 0.1 2018-10-18 20:50 tsui Exp $
+ */
+public interface RpcMetricsMXBean {
+
+    /** total bytes decoded */
+    long getBytesRead();
+
+    /** total bytes encoded */
+    long getBytesWritten();
+
+    /** invocations waiting for responses */
+    long getClientInFlight();
+
+    /** requests being processed */
+    long getServerInFlight();
+
+    /** summary of invocations keyed by target address */
+    Map<String, String> getClientTargets();
+
+    /** summary of invocations keyed by interest */
+    Map<String, String> getClientInterests();
+
+    /** summary of requests processed keyed by interest */
+    Map<String, String> getServerInterests();
+
+    /** summary of responses sent */
+    String getServerResponses();
+
+    /** requests rejected by concurrency limiters */
+    long getServerRejected();
+
+    /** invocations met unwritable connections keyed by policy and whether passed, e.g. WAIT.passed */
+    Map<String, Long> getClientUnwritable();
+
+    /** overflows of pending outbound bytes keyed by policy */
+    Map<String, Long> getServerOutboundOverflow();
+}
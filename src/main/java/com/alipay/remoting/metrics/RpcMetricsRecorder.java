@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.metrics;
+
+import java.net.InetSocketAddress;
+
+import com.alipay.remoting.OutboundOverflowPolicy;
+import com.alipay.remoting.ResponseStatus;
+import com.alipay.remoting.UnwritablePolicy;
+
+/**
+ * SPI to record the metrics of rpc, set by {@link RpcMetrics#setRecorder(RpcMetricsRecorder)}.<br>
+ * Methods are called in io threads and user threads, implementations should be thread safe and cheap.
+ *
+ * @author tsui
+ * @version $Id: RpcMetricsRecorder.java, v 0.1 2018-10-18 20:45 tsui Exp $
+ */
+public interface RpcMetricsRecorder {
+
+    /**
+     * An invocation expecting a response started, client side.
+     *
+     * @param interest class name of the request
+     */
+    void onInvokeStart(String interest);
+
+    /**
+     * The response of an invocation arrived, or an error response created locally, e.g. timeout, client side.
+     *
+     * @param target address of the remote, may be null
+     * @param interest class name of the request
+     * @param status status of the response
+     * @param latencyNanos time since the invocation started
+     */
+    void onInvokeComplete(InetSocketAddress target, String interest, ResponseStatus status,
+                          long latencyNanos);
+
+    /**
+     * A request serialized, client side.
+     *
+     * @param interest class name of the request
+     * @param nanos time spent
+     */
+    void onRequestSerialized(String interest, long nanos);
+
+    /**
+     * An invocation met an unwritable connection, client side.
+     *
+     * @param policy policy handling the invocation
+     * @param passed whether the invocation went on, i.e. the connection became writable or another one routed to
+     */
+    void onUnwritable(UnwritablePolicy policy, boolean passed);
+
+    /**
+     * A request rejected by the concurrency limiter of its user processor or by the executor, server side.
+     *
+     * @param interest class name of the request, null if unknown
+     */
+    void onRequestRejected(String interest);
+
+    /**
+     * A request starts to be processed, server side.
+     *
+     * @param interest class name of the request
+     * @param queueNanos time waited since dispatched
+     */
+    void onProcessStart(String interest, long queueNanos);
+
+    /**
+     * A request has been processed, server side.
+     *
+     * @param interest class name of the request
+     * @param processNanos time spent
+     */
+    void onProcessEnd(String interest, long processNanos);
+
+    /**
+     * A response is being sent, server side.
+     *
+     * @param status status of the response
+     * @param serializeNanos time spent serializing the response
+     */
+    void onResponseSent(ResponseStatus status, long serializeNanos);
+
+    /**
+     * The pending outbound bytes of a connection exceed the limit, server side.<br>
+     * Called once per connection paused or closed, and once per response dropped.
+     *
+     * @param policy policy taken
+     */
+    void onOutboundOverflow(OutboundOverflowPolicy policy);
+
+    /**
+     * Bytes decoded from a connection.
+     */
+    void onBytesRead(long bytes);
+
+    /**
+     * Bytes encoded to a connection.
+     */
+    void onBytesWritten(long bytes);
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.alipay.remoting.ResponseStatus;
+
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Request counts, response status breakdown and latencies of each phase for a target or an interest.
+ *
+ * @author tsui
+ * @version $Id: RpcStats.java, v 0.1 2018-10-18 20:40 tsui Exp $
+ */
+public class RpcStats {
+
+    private static final ResponseStatus[] STATUSES  = ResponseStatus.values();
+
+    private static final LatencyPhase[]   PHASES    = LatencyPhase.values();
+
+    private final LongCounter             count     = PlatformDependent.newLongCounter();
+
+    private final LongCounter[]           statuses  = new LongCounter[STATUSES.length];
+
+    private final LatencyHistogram[]      latencies = new LatencyHistogram[PHASES.length];
+
+    public RpcStats() {
+        for (int i = 0; i < STATUSES.length; ++i) {
+            this.statuses[i] = PlatformDependent.newLongCounter();
+        }
+        for (int i = 0; i < PHASES.length; ++i) {
+            this.latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Count a request or a response.
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * Count a response of the status.
+     *
+     * @param status null is ignored
+     */
+    public void increment(ResponseStatus status) {
+        if (null != status) {
+            this.statuses[status.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Record a latency of the phase.
+     */
+    public void record(LatencyPhase phase, long nanos) {
+        this.latencies[phase.ordinal()].recordNanos(nanos);
+    }
+
+    /**
+     * Count of requests or responses.
+     */
+    public long getCount() {
+        return this.count.value();
+    }
+
+    /**
+     * Count of responses of the status.
+     */
+    public long getCount(ResponseStatus status) {
+        return this.statuses[status.ordinal()].value();
+    }
+
+    /**
+     * Count of responses of each status, statuses never seen excluded.
+     */
+    public Map<ResponseStatus, Long> getStatusCounts() {
+        Map<ResponseStatus, Long> counts = new LinkedHashMap<ResponseStatus, Long>();
+        for (int i = 0; i < STATUSES.length; ++i) {
+            long value = this.statuses[i].value();
+            if (value > 0) {
+                counts.put(STATUSES[i], value);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Latency histogram of the phase.
+     */
+    public LatencyHistogram getLatency(LatencyPhase phase) {
+        return this.latencies[phase.ordinal()];
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("count=").append(getCount()).append(", status=").append(getStatusCounts());
+        for (LatencyPhase phase : PHASES) {
+            LatencyHistogram latency = this.latencies[phase.ordinal()];
+            if (latency.getCount() > 0) {
+                sb.append(", ").append(phase.name().toLowerCase()).append("=[").append(latency)
+                    .append("]");
+            }
+        }
+        return sb.toString();
+    }
+}
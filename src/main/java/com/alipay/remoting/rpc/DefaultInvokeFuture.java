@@ -26,15 +26,17 @@ import org.slf4j.Logger;
 
 import com.alipay.remoting.CommandFactory;
 import com.alipay.remoting.CommandHandler;
+import com.alipay.remoting.ExpirableInvokeFuture;
 import com.alipay.remoting.InvokeCallback;
 import com.alipay.remoting.InvokeCallbackListener;
 import com.alipay.remoting.InvokeContext;
-import com.alipay.remoting.InvokeFuture;
+import com.alipay.remoting.InvokePhase;
 import com.alipay.remoting.Protocol;
 import com.alipay.remoting.ProtocolCode;
 import com.alipay.remoting.ProtocolManager;
 import com.alipay.remoting.RemotingCommand;
 import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
 
 import io.netty.util.Timeout;
 
@@ -44,7 +46,7 @@ import io.netty.util.Timeout;
  * @author jiangping
  * @version $Id: DefaultInvokeFuture.java, v 0.1 2015-9-27 PM6:30:22 tao Exp $
  */
-public class DefaultInvokeFuture implements InvokeFuture {
+public class DefaultInvokeFuture implements ExpirableInvokeFuture {
 
     private static final Logger      logger                  = BoltLoggerFactory
                                                                  .getLogger("RpcRemoting");
@@ -63,6 +65,11 @@ public class DefaultInvokeFuture implements InvokeFuture {
 
     private Timeout                  timeout;
 
+    /** deadline in nanos if expirable, written before added to the connection and read by its sweep */
+    private long                     deadline;
+
+    private boolean                  expirable;
+
     private Throwable                cause;
 
     private ClassLoader              classLoader;
@@ -73,6 +80,19 @@ public class DefaultInvokeFuture implements InvokeFuture {
 
     private CommandFactory           commandFactory;
 
+    /** metrics recorder of this invocation, null if metrics disabled, set before the future added to connection */
+    private RpcMetricsRecorder       metrics;
+
+    private String                   interest;
+
+    private long                     startNanos;
+
+    /** whether to copy the content of response out of the inbound buffer once received */
+    private boolean                  detachContent;
+
+    /** so that the metrics recorded only once, on the first response put */
+    private final AtomicBoolean      metricsRecorded         = new AtomicBoolean(false);
+
     /**
      * Constructor.
      *
@@ -131,10 +151,47 @@ public class DefaultInvokeFuture implements InvokeFuture {
      */
     @Override
     public void putResponse(RemotingCommand response) {
+        if (this.detachContent && response instanceof RpcCommand) {
+            // the buffer would never be released if the response is never read
+            ((RpcCommand) response).getContent();
+        }
         this.responseCommand = (ResponseCommand) response;
+        if (null != this.invokeContext) {
+            this.invokeContext.mark(InvokePhase.CLIENT_RESPONSE_RECEIVED);
+        }
+        // record before count down, so that the metrics can be seen once the response returned
+        RpcMetricsRecorder metricsRecorder = this.metrics;
+        if (null != metricsRecorder && this.metricsRecorded.compareAndSet(false, true)) {
+            metricsRecorder.onInvokeComplete(this.responseCommand.getResponseHost(), this.interest,
+                this.responseCommand.getResponseStatus(), System.nanoTime() - this.startNanos);
+        }
         this.countDownLatch.countDown();
     }
 
+    /**
+     * Copy the content of response out of the inbound buffer once received, for the response that may be never read.
+     *
+     * @param detachContent
+     */
+    public void setDetachContent(boolean detachContent) {
+        this.detachContent = detachContent;
+    }
+
+    /**
+     * Start to record the metrics of this invocation, which completes on the first response put.
+     *
+     * @param metrics metrics recorder
+     * @param interest class name of the request
+     */
+    void startMetrics(RpcMetricsRecorder metrics, String interest) {
+        this.interest = interest;
+        this.startNanos = System.nanoTime();
+        // not volatile, the fields set here are published to the thread completing this future by
+        // the segment lock of the invoke future map, taken by Connection#addInvokeFuture afterwards
+        this.metrics = metrics;
+        metrics.onInvokeStart(interest);
+    }
+
     /**
      * 
      * @see com.alipay.remoting.InvokeFuture#isDone()
@@ -192,6 +249,34 @@ public class DefaultInvokeFuture implements InvokeFuture {
         }
     }
 
+    /**
+     * @see com.alipay.remoting.ExpirableInvokeFuture#setDeadline(long)
+     */
+    @Override
+    public void setDeadline(long deadlineNanos) {
+        this.deadline = deadlineNanos;
+        this.expirable = true;
+    }
+
+    /**
+     * @see com.alipay.remoting.ExpirableInvokeFuture#isExpired(long)
+     */
+    @Override
+    public boolean isExpired(long nowNanos) {
+        return this.expirable && nowNanos - this.deadline >= 0;
+    }
+
+    /**
+     * @see com.alipay.remoting.ExpirableInvokeFuture#expire(java.net.InetSocketAddress)
+     */
+    @Override
+    public void expire(InetSocketAddress address) {
+        this.putResponse(this.commandFactory.createTimeoutResponse(address));
+        if (null != this.callback) {
+            this.tryAsyncExecuteInvokeCallbackAbnormally();
+        }
+    }
+
     /** 
      * @see com.alipay.remoting.InvokeFuture#setCause(java.lang.Throwable)
      */
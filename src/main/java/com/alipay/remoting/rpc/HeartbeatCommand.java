@@ -38,4 +38,14 @@ public class HeartbeatCommand extends RequestCommand {
         this.setId(IDGenerator.nextId());
     }
 
+    /**
+     * Construction with id.
+     *
+     * @param id
+     */
+    public HeartbeatCommand(int id) {
+        super(CommonCommandCode.HEARTBEAT);
+        this.setId(id);
+    }
+
 }
@@ -263,6 +263,20 @@ public class RpcAddressParser implements RemotingAddressParser {
             connWarmup = Boolean.parseBoolean(connWarmupStr);
         }
         url.setConnWarmup(connWarmup);
+
+        String crc32cStr = url.getProperty(RpcConfigs.CRC32C_KEY);
+        boolean crc32c = false;
+        if (StringUtils.isNotBlank(crc32cStr)) {
+            crc32c = Boolean.parseBoolean(crc32cStr);
+        }
+        url.setCrc32c(crc32c);
+
+        String compressStr = url.getProperty(RpcConfigs.COMPRESS_KEY);
+        boolean compress = false;
+        if (StringUtils.isNotBlank(compressStr)) {
+            compress = Boolean.parseBoolean(compressStr);
+        }
+        url.setCompress(compress);
     }
 
     /**
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.log.BoltLoggerFactory;
+
+/**
+ * The future of an async invocation, completed directly by the response, timeout or connection closed event,
+ * no thread is parked to wait for the response.
+ * 
+ * Listeners added by {@link #addListener(InvokeCallback)} are notified in the executor of the listener if specified,
+ * otherwise in the thread completing the future, which is usually the io thread, so do not block in them.
+ * On Java 8+, the module bolt-java8 adapts it to a CompletableFuture, see CompletableRpcClient and CompletableRpcServer.
+ * 
+ * @author tsui
+ * @version $Id: RpcAsyncResponseFuture.java, v 0.1 2018-10-18 11:30 tsui Exp $
+ */
+public class RpcAsyncResponseFuture implements Future<Object> {
+    private static final Logger  logger         = BoltLoggerFactory.getLogger("RpcRemoting");
+
+    private final CountDownLatch countDownLatch = new CountDownLatch(1);
+
+    /** listeners not notified yet, set to null once completed */
+    private List<InvokeCallback> listeners      = new ArrayList<InvokeCallback>(2);
+
+    private volatile boolean     done           = false;
+
+    private Object               result;
+
+    private Throwable            cause;
+
+    /**
+     * The callback to complete this future, the response is handled in the io thread.
+     */
+    private final InvokeCallback callback       = new InvokeCallback() {
+                                                    @Override
+                                                    public void onResponse(Object result) {
+                                                        complete(result, null);
+                                                    }
+
+                                                    @Override
+                                                    public void onException(Throwable e) {
+                                                        complete(null, e);
+                                                    }
+
+                                                    @Override
+                                                    public Executor getExecutor() {
+                                                        return null;
+                                                    }
+                                                };
+
+    /**
+     * Add a listener, it is notified at once if this future is already done.
+     * 
+     * @param listener
+     * @return this future
+     */
+    public RpcAsyncResponseFuture addListener(InvokeCallback listener) {
+        if (null == listener) {
+            throw new IllegalArgumentException("listener should not be null");
+        }
+        synchronized (this) {
+            if (!this.done) {
+                this.listeners.add(listener);
+                return this;
+            }
+        }
+        notifyListener(listener);
+        return this;
+    }
+
+    /**
+     * Whether the invocation succeeded, false if not done yet.
+     */
+    public boolean isSuccess() {
+        return this.done && null == this.cause;
+    }
+
+    /**
+     * Get the cause of the failed invocation, null if not done yet or succeeded.
+     */
+    public Throwable getCause() {
+        return this.done ? this.cause : null;
+    }
+
+    /**
+     * Cancel is not supported, for the request may have been sent.
+     * 
+     * @see java.util.concurrent.Future#cancel(boolean)
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return this.done;
+    }
+
+    /**
+     * Block until the invocation done, the failure of invocation is wrapped in {@link ExecutionException}.
+     * 
+     * @see java.util.concurrent.Future#get()
+     */
+    @Override
+    public Object get() throws InterruptedException, ExecutionException {
+        this.countDownLatch.await();
+        return report();
+    }
+
+    /**
+     * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                                                  TimeoutException {
+        if (!this.countDownLatch.await(timeout, unit)) {
+            throw new TimeoutException("Future get result timeout!");
+        }
+        return report();
+    }
+
+    /**
+     * Get the callback to complete this future.
+     */
+    InvokeCallback getCallback() {
+        return this.callback;
+    }
+
+    /**
+     * Complete this future, only the first completion takes effect.
+     * 
+     * @param result
+     * @param cause
+     */
+    void complete(Object result, Throwable cause) {
+        List<InvokeCallback> toNotify;
+        synchronized (this) {
+            if (this.done) {
+                return;
+            }
+            this.result = result;
+            this.cause = cause;
+            this.done = true;
+            toNotify = this.listeners;
+            this.listeners = null;
+        }
+        this.countDownLatch.countDown();
+        for (InvokeCallback listener : toNotify) {
+            notifyListener(listener);
+        }
+    }
+
+    private Object report() throws ExecutionException {
+        if (null != this.cause) {
+            throw new ExecutionException(this.cause);
+        }
+        return this.result;
+    }
+
+    private void notifyListener(final InvokeCallback listener) {
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (null == cause) {
+                        listener.onResponse(result);
+                    } else {
+                        listener.onException(cause);
+                    }
+                } catch (Throwable e) {
+                    logger.error("Exception occurred in listener of async invocation", e);
+                }
+            }
+        };
+        Executor executor = listener.getExecutor();
+        if (null == executor) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Listener thread pool busy.");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+
+/**
+ * The aggregate future of a batch invocation, wraps one {@link RpcResponseFuture} for each request.
+ * 
+ * Requests failed before sending (e.g. serialization failure) are recorded as failed elements directly,
+ * so that one bad request does not fail the whole batch.
+ * 
+ * @author tsui
+ * @version $Id: RpcBatchResponseFuture.java, v 0.1 2018-10-18 10:20 tsui Exp $
+ */
+public class RpcBatchResponseFuture {
+    /** response futures, null if the request failed before sending */
+    private final RpcResponseFuture[] futures;
+
+    /** the failure of requests that failed before sending */
+    private final Throwable[]         failures;
+
+    /**
+     * Constructor
+     * 
+     * @param futures
+     * @param failures
+     */
+    public RpcBatchResponseFuture(RpcResponseFuture[] futures, Throwable[] failures) {
+        this.futures = futures;
+        this.failures = failures;
+    }
+
+    /**
+     * Count of requests in the batch.
+     */
+    public int size() {
+        return this.futures.length;
+    }
+
+    /**
+     * Whether all the requests in the batch are done.
+     */
+    public boolean isDone() {
+        for (RpcResponseFuture future : this.futures) {
+            if (null != future && !future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the future of the request at index, null if the request failed before sending.
+     * 
+     * @param index
+     * @return
+     */
+    public RpcResponseFuture getFuture(int index) {
+        return this.futures[index];
+    }
+
+    /**
+     * get results with timeout specified, the timeout is shared by the whole batch
+     * 
+     * requests not done in time are marked with InvokeTimeoutException
+     */
+    public RpcBatchResult get(int timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        Object[] responses = new Object[this.futures.length];
+        Throwable[] exceptions = new Throwable[this.futures.length];
+        for (int i = 0; i < this.futures.length; ++i) {
+            if (null == this.futures[i]) {
+                exceptions[i] = this.failures[i];
+                continue;
+            }
+            long remain = deadline - System.currentTimeMillis();
+            try {
+                if (remain <= 0 && !this.futures[i].isDone()) {
+                    throw new InvokeTimeoutException("Future get result timeout!");
+                }
+                responses[i] = this.futures[i].get((int) Math.max(remain, 0));
+            } catch (RemotingException e) {
+                exceptions[i] = e;
+            }
+        }
+        return new RpcBatchResult(responses, exceptions);
+    }
+
+    /**
+     * get results, wait until all the requests done, each request is still limited by its own invoke timeout
+     */
+    public RpcBatchResult get() throws InterruptedException {
+        Object[] responses = new Object[this.futures.length];
+        Throwable[] exceptions = new Throwable[this.futures.length];
+        for (int i = 0; i < this.futures.length; ++i) {
+            if (null == this.futures[i]) {
+                exceptions[i] = this.failures[i];
+                continue;
+            }
+            try {
+                responses[i] = this.futures[i].get();
+            } catch (RemotingException e) {
+                exceptions[i] = e;
+            }
+        }
+        return new RpcBatchResult(responses, exceptions);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a batch invocation, holds the response or the failure of each request in order.
+ * 
+ * @author tsui
+ * @version $Id: RpcBatchResult.java, v 0.1 2018-10-18 10:20 tsui Exp $
+ */
+public class RpcBatchResult {
+    /** response objects, null for failed requests */
+    private final Object[]    responses;
+
+    /** failures, null for succeeded requests */
+    private final Throwable[] exceptions;
+
+    /**
+     * Constructor
+     * 
+     * @param responses
+     * @param exceptions
+     */
+    public RpcBatchResult(Object[] responses, Throwable[] exceptions) {
+        this.responses = responses;
+        this.exceptions = exceptions;
+    }
+
+    /**
+     * Count of requests in the batch.
+     */
+    public int size() {
+        return this.responses.length;
+    }
+
+    /**
+     * Whether the request at index succeeded.
+     */
+    public boolean isSuccess(int index) {
+        return null == this.exceptions[index];
+    }
+
+    /**
+     * Whether all the requests succeeded.
+     */
+    public boolean isAllSuccess() {
+        for (Throwable exception : this.exceptions) {
+            if (null != exception) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the response of the request at index, null if failed.
+     */
+    public Object getResponse(int index) {
+        return this.responses[index];
+    }
+
+    /**
+     * Get the failure of the request at index, null if succeeded.
+     */
+    public Throwable getException(int index) {
+        return this.exceptions[index];
+    }
+
+    /**
+     * Get all the responses in order, null for failed requests.
+     */
+    public List<Object> getResponses() {
+        List<Object> list = new ArrayList<Object>(this.responses.length);
+        for (Object response : this.responses) {
+            list.add(response);
+        }
+        return list;
+    }
+}
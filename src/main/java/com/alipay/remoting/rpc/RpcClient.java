@@ -34,12 +34,14 @@ import com.alipay.remoting.DefaultConnectionManager;
 import com.alipay.remoting.DefaultConnectionMonitor;
 import com.alipay.remoting.InvokeCallback;
 import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.LeastOutstandingSelectStrategy;
 import com.alipay.remoting.RandomSelectStrategy;
 import com.alipay.remoting.ReconnectManager;
 import com.alipay.remoting.RemotingAddressParser;
 import com.alipay.remoting.ScheduledDisconnectStrategy;
 import com.alipay.remoting.Url;
 import com.alipay.remoting.config.AbstractConfigurableInstance;
+import com.alipay.remoting.config.ConfigManager;
 import com.alipay.remoting.config.configs.ConfigType;
 import com.alipay.remoting.config.switches.GlobalSwitch;
 import com.alipay.remoting.connection.ConnectionFactory;
@@ -47,6 +49,7 @@ import com.alipay.remoting.exception.RemotingException;
 import com.alipay.remoting.log.BoltLoggerFactory;
 import com.alipay.remoting.rpc.protocol.UserProcessor;
 import com.alipay.remoting.rpc.protocol.UserProcessorRegisterHelper;
+import com.alipay.remoting.rpc.stream.ResponseStream;
 
 /**
  * Client for Rpc.
@@ -80,8 +83,11 @@ public class RpcClient extends AbstractConfigurableInstance {
     private RemotingAddressParser                       addressParser;
 
     /** connection select strategy */
-    private ConnectionSelectStrategy                    connectionSelectStrategy = new RandomSelectStrategy(
-                                                                                     switches());
+    private ConnectionSelectStrategy                    connectionSelectStrategy = ConfigManager
+                                                                                     .conn_select_least_outstanding() ? new LeastOutstandingSelectStrategy(
+                                                                                     switches())
+                                                                                     : new RandomSelectStrategy(
+                                                                                         switches());
 
     /** connection manager */
     private DefaultConnectionManager                    connectionManager        = new DefaultConnectionManager(
@@ -657,6 +663,336 @@ public class RpcClient extends AbstractConfigurableInstance {
             timeoutMillis);
     }
 
+    /**
+     * Async invocation using a string address, address format example - 127.0.0.1:12200?key1=value1&key2=value2 <br>
+     * The returned {@link RpcAsyncResponseFuture} is completed by the response, timeout or connection closed event directly, 
+     * no thread is parked for the outstanding request, you can add listeners to it to compose calls.
+     * <p>
+     * Notice:<br>
+     *   <ol>
+     *   <li><b>DO NOT modify the request object concurrently when this method is called.</b></li>
+     *   <li>When do invocation, use the string address to find a available connection, if none then create one</li>
+     *   <li>Listeners without executor are notified in io thread, DO NOT block in them.</li>
+     *   </ol>
+     *
+     * @param addr
+     * @param request
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final String addr, final Object request,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        return this.rpcRemoting.invokeAsync(addr, request, null, timeoutMillis);
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, common api notice please see {@link #invokeAsync(String, Object, int)}
+     *
+     * @param addr
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final String addr, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        return this.rpcRemoting.invokeAsync(addr, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Async invocation using a parsed {@link Url}, common api notice please see {@link #invokeAsync(String, Object, int)}
+     *
+     * @param url
+     * @param request
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Url url, final Object request,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        return this.rpcRemoting.invokeAsync(url, request, null, timeoutMillis);
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, common api notice please see {@link #invokeAsync(Url, Object, int)}
+     *
+     * @param url
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Url url, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        return this.rpcRemoting.invokeAsync(url, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Async invocation using a {@link Connection}, common api notice please see {@link #invokeAsync(String, Object, int)}
+     *
+     * @param conn
+     * @param request
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Connection conn, final Object request,
+                                              final int timeoutMillis) throws RemotingException {
+        return this.rpcRemoting.invokeAsync(conn, request, null, timeoutMillis);
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, common api notice please see {@link #invokeAsync(Connection, Object, int)}
+     *
+     * @param conn
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Connection conn, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException {
+        return this.rpcRemoting.invokeAsync(conn, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Invocation with all the responses returned in a stream using a string address, address format example - 127.0.0.1:12200?key1=value1&key2=value2 <br>
+     * The server sends the partial responses by {@link com.alipay.remoting.StreamingAsyncContext#sendPartialResponse(Object)}, no faster than they are consumed,
+     * and ends them by {@link com.alipay.remoting.AsyncContext#sendResponse(Object)}. A sync processor just sends the final one.
+     * <p>
+     * Notice:<br>
+     *   <ol>
+     *   <li><b>DO NOT modify the request object concurrently when this method is called.</b></li>
+     *   <li>Only supported by protocol v2, i.e. the address with _PROTOCOL=2.</li>
+     *   <li>The timeout covers all the responses. Close the stream to stop receiving before the final response.</li>
+     *   <li>The address notice is the same as {@link #invokeSync(String, Object, int)}.</li>
+     *   </ol>
+     *
+     * @param addr
+     * @param request
+     * @param timeoutMillis
+     * @return ResponseStream
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public ResponseStream invokeWithResponseStream(final String addr, final Object request,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException,
+                                                                           InterruptedException {
+        return this.rpcRemoting.invokeWithResponseStream(addr, request, null, timeoutMillis);
+    }
+
+    /**
+     * Invocation with a {@link InvokeContext}, common api notice please see {@link #invokeWithResponseStream(String, Object, int)}
+     *
+     * @param addr
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return ResponseStream
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public ResponseStream invokeWithResponseStream(final String addr, final Object request,
+                                                   final InvokeContext invokeContext,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException,
+                                                                           InterruptedException {
+        return this.rpcRemoting.invokeWithResponseStream(addr, request, invokeContext,
+            timeoutMillis);
+    }
+
+    /**
+     * Invocation using a parsed {@link Url}, common api notice please see {@link #invokeWithResponseStream(String, Object, int)}
+     *
+     * @param url
+     * @param request
+     * @param timeoutMillis
+     * @return ResponseStream
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public ResponseStream invokeWithResponseStream(final Url url, final Object request,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException,
+                                                                           InterruptedException {
+        return this.rpcRemoting.invokeWithResponseStream(url, request, null, timeoutMillis);
+    }
+
+    /**
+     * Invocation with a {@link InvokeContext}, common api notice please see {@link #invokeWithResponseStream(Url, Object, int)}
+     *
+     * @param url
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return ResponseStream
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public ResponseStream invokeWithResponseStream(final Url url, final Object request,
+                                                   final InvokeContext invokeContext,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException,
+                                                                           InterruptedException {
+        return this.rpcRemoting
+            .invokeWithResponseStream(url, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Invocation using a {@link Connection}, common api notice please see {@link #invokeWithResponseStream(String, Object, int)}
+     *
+     * @param conn
+     * @param request
+     * @param timeoutMillis
+     * @return ResponseStream
+     * @throws RemotingException
+     */
+    public ResponseStream invokeWithResponseStream(final Connection conn, final Object request,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException {
+        return this.rpcRemoting.invokeWithResponseStream(conn, request, null, timeoutMillis);
+    }
+
+    /**
+     * Invocation with a {@link InvokeContext}, common api notice please see {@link #invokeWithResponseStream(Connection, Object, int)}
+     *
+     * @param conn
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return ResponseStream
+     * @throws RemotingException
+     */
+    public ResponseStream invokeWithResponseStream(final Connection conn, final Object request,
+                                                   final InvokeContext invokeContext,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException {
+        return this.rpcRemoting.invokeWithResponseStream(conn, request, invokeContext,
+            timeoutMillis);
+    }
+
+    /**
+     * Batch invocation using a string address, address format example - 127.0.0.1:12200?key1=value1&key2=value2 <br>
+     * All the requests are sent through one connection with only one flush, and the result of each request is returned in order.
+     * <p>
+     * Notice:<br>
+     *   <ol>
+     *   <li><b>DO NOT modify the request objects concurrently when this method is called.</b></li>
+     *   <li>A failed request, e.g. failed to serialize, timeout or exception thrown by server, does not fail the others, 
+     *   check it with {@link RpcBatchResult#isSuccess(int)} and {@link RpcBatchResult#getException(int)}.</li>
+     *   <li>The address notice is the same as {@link #invokeSync(String, Object, int)}.</li>
+     *   </ol>
+     *
+     * @param addr
+     * @param requests
+     * @param timeoutMillis
+     * @return RpcBatchResult
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcBatchResult invokeBatch(final String addr, final List<?> requests,
+                                      final int timeoutMillis) throws RemotingException,
+                                                              InterruptedException {
+        return this.rpcRemoting.invokeBatchWithFuture(addr, requests, timeoutMillis).get();
+    }
+
+    /**
+     * Batch invocation using a parsed {@link Url}, common api notice please see {@link #invokeBatch(String, List, int)}
+     *
+     * @param url
+     * @param requests
+     * @param timeoutMillis
+     * @return RpcBatchResult
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcBatchResult invokeBatch(final Url url, final List<?> requests, final int timeoutMillis)
+                                                                                                     throws RemotingException,
+                                                                                                     InterruptedException {
+        return this.rpcRemoting.invokeBatchWithFuture(url, requests, timeoutMillis).get();
+    }
+
+    /**
+     * Batch invocation using a {@link Connection}, common api notice please see {@link #invokeBatch(String, List, int)}
+     *
+     * @param conn
+     * @param requests
+     * @param timeoutMillis
+     * @return RpcBatchResult
+     * @throws InterruptedException
+     */
+    public RpcBatchResult invokeBatch(final Connection conn, final List<?> requests,
+                                      final int timeoutMillis) throws InterruptedException {
+        return this.rpcRemoting.invokeBatchWithFuture(conn, requests, timeoutMillis).get();
+    }
+
+    /**
+     * Batch future invocation using a string address, common api notice please see {@link #invokeBatch(String, List, int)}<br>
+     * You can get results use the returned {@link RpcBatchResponseFuture}.
+     *
+     * @param addr
+     * @param requests
+     * @param timeoutMillis
+     * @return RpcBatchResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcBatchResponseFuture invokeBatchWithFuture(final String addr, final List<?> requests,
+                                                        final int timeoutMillis)
+                                                                                throws RemotingException,
+                                                                                InterruptedException {
+        return this.rpcRemoting.invokeBatchWithFuture(addr, requests, timeoutMillis);
+    }
+
+    /**
+     * Batch future invocation using a parsed {@link Url}, common api notice please see {@link #invokeBatch(String, List, int)}<br>
+     * You can get results use the returned {@link RpcBatchResponseFuture}.
+     *
+     * @param url
+     * @param requests
+     * @param timeoutMillis
+     * @return RpcBatchResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcBatchResponseFuture invokeBatchWithFuture(final Url url, final List<?> requests,
+                                                        final int timeoutMillis)
+                                                                                throws RemotingException,
+                                                                                InterruptedException {
+        return this.rpcRemoting.invokeBatchWithFuture(url, requests, timeoutMillis);
+    }
+
+    /**
+     * Batch future invocation using a {@link Connection}, common api notice please see {@link #invokeBatch(String, List, int)}<br>
+     * You can get results use the returned {@link RpcBatchResponseFuture}.
+     *
+     * @param conn
+     * @param requests
+     * @param timeoutMillis
+     * @return RpcBatchResponseFuture
+     */
+    public RpcBatchResponseFuture invokeBatchWithFuture(final Connection conn,
+                                                        final List<?> requests,
+                                                        final int timeoutMillis) {
+        return this.rpcRemoting.invokeBatchWithFuture(conn, requests, timeoutMillis);
+    }
+
     /**
      * Add processor to process connection event.
      * 
@@ -16,15 +16,20 @@
  */
 package com.alipay.remoting.rpc;
 
+import java.util.List;
+
 import com.alipay.remoting.CommandFactory;
 import com.alipay.remoting.Connection;
 import com.alipay.remoting.DefaultConnectionManager;
 import com.alipay.remoting.InvokeCallback;
 import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.InvokePhase;
 import com.alipay.remoting.RemotingAddressParser;
 import com.alipay.remoting.RemotingCommand;
+import com.alipay.remoting.UnwritablePolicy;
 import com.alipay.remoting.Url;
 import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.stream.ResponseStream;
 import com.alipay.remoting.util.RemotingUtil;
 
 /**
@@ -48,7 +53,7 @@ public class RpcClientRemoting extends RpcRemoting {
                                                                             throws RemotingException,
                                                                             InterruptedException {
         final Connection conn = getConnectionAndInitInvokeContext(url, invokeContext);
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         this.oneway(conn, request, invokeContext);
     }
 
@@ -60,7 +65,7 @@ public class RpcClientRemoting extends RpcRemoting {
                                                                                                      throws RemotingException,
                                                                                                      InterruptedException {
         final Connection conn = getConnectionAndInitInvokeContext(url, invokeContext);
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         return this.invokeSync(conn, request, invokeContext, timeoutMillis);
     }
 
@@ -72,10 +77,22 @@ public class RpcClientRemoting extends RpcRemoting {
                                               int timeoutMillis) throws RemotingException,
                                                                 InterruptedException {
         final Connection conn = getConnectionAndInitInvokeContext(url, invokeContext);
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         return this.invokeWithFuture(conn, request, invokeContext, timeoutMillis);
     }
 
+    /**
+     * @see com.alipay.remoting.rpc.RpcRemoting#invokeBatchWithFuture(com.alipay.remoting.Url, java.util.List, int)
+     */
+    @Override
+    public RpcBatchResponseFuture invokeBatchWithFuture(Url url, List<?> requests, int timeoutMillis)
+                                                                                                     throws RemotingException,
+                                                                                                     InterruptedException {
+        final Connection conn = getConnectionAndInitInvokeContext(url, null);
+        checkConnection(conn);
+        return this.invokeBatchWithFuture(conn, requests, timeoutMillis);
+    }
+
     /**
      * @see com.alipay.remoting.rpc.RpcRemoting#invokeWithCallback(com.alipay.remoting.Url, java.lang.Object, InvokeContext, com.alipay.remoting.InvokeCallback, int)
      */
@@ -85,10 +102,23 @@ public class RpcClientRemoting extends RpcRemoting {
                                                                                     throws RemotingException,
                                                                                     InterruptedException {
         final Connection conn = getConnectionAndInitInvokeContext(url, invokeContext);
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         this.invokeWithCallback(conn, request, invokeContext, invokeCallback, timeoutMillis);
     }
 
+    /**
+     * @see com.alipay.remoting.rpc.RpcRemoting#invokeWithResponseStream(com.alipay.remoting.Url, java.lang.Object, InvokeContext, int)
+     */
+    @Override
+    public ResponseStream invokeWithResponseStream(Url url, Object request,
+                                                   InvokeContext invokeContext, int timeoutMillis)
+                                                                                                  throws RemotingException,
+                                                                                                  InterruptedException {
+        final Connection conn = getConnectionAndInitInvokeContext(url, invokeContext);
+        checkConnection(conn);
+        return this.invokeWithResponseStream(conn, request, invokeContext, timeoutMillis);
+    }
+
     /**
      * @see RpcRemoting#preProcessInvokeContext(InvokeContext, RemotingCommand, Connection)
      */
@@ -118,6 +148,9 @@ public class RpcClientRemoting extends RpcRemoting {
     protected Connection getConnectionAndInitInvokeContext(Url url, InvokeContext invokeContext)
                                                                                                 throws RemotingException,
                                                                                                 InterruptedException {
+        if (null != invokeContext) {
+            invokeContext.mark(InvokePhase.CLIENT_INVOKE_START);
+        }
         long start = System.currentTimeMillis();
         Connection conn;
         try {
@@ -128,6 +161,31 @@ public class RpcClientRemoting extends RpcRemoting {
                     (System.currentTimeMillis() - start));
             }
         }
+        if (UnwritablePolicy.ROUTE == this.unwritablePolicy && null != conn
+            && !conn.getChannel().isWritable()) {
+            conn = routeWritable(url, conn);
+        }
+        if (null != invokeContext) {
+            invokeContext.mark(InvokePhase.CLIENT_CONN_ACQUIRED);
+        }
+        return conn;
+    }
+
+    /**
+     * Route to another writable connection of the same url, or the given one if none
+     *
+     * @param url
+     * @param conn the unwritable connection
+     * @return connection
+     */
+    private Connection routeWritable(Url url, Connection conn) {
+        List<Connection> candidates = this.connectionManager.getAll(url.getUniqueKey());
+        for (Connection candidate : candidates) {
+            if (candidate != conn && candidate.isFine() && candidate.getChannel().isWritable()) {
+                UnwritableStats.onRouted();
+                return candidate;
+            }
+        }
         return conn;
     }
 }
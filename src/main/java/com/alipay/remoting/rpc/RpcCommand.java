@@ -27,6 +27,15 @@ import com.alipay.remoting.exception.DeserializationException;
 import com.alipay.remoting.exception.SerializationException;
 import com.alipay.remoting.rpc.protocol.RpcDeserializeLevel;
 import com.alipay.remoting.rpc.protocol.RpcProtocol;
+import com.alipay.remoting.serialization.Serializer;
+import com.alipay.remoting.serialization.SerializerManager;
+import com.alipay.remoting.serialization.StreamSerializer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * 远程命令
@@ -55,6 +64,11 @@ public abstract class RpcCommand implements RemotingCommand {
      * Notice: this can not be changed after initialized at runtime. 在运行时初始化后无法更改
      */
     private byte              serializer       = ConfigManager.serializer;
+    /**
+     * Compressor of the content, only takes effect when {@link ProtocolSwitch#COMPRESS_SWITCH_INDEX} is on.
+     * 内容的压缩程序, 仅当压缩开关打开时生效
+     */
+    private byte              compressor       = ConfigManager.compressor;
     /**
      * protocol switches 协议开关
      */
@@ -70,6 +84,16 @@ public abstract class RpcCommand implements RemotingCommand {
     private byte[]            header;
     /** The bytes format of the content of the command. 命令内容的字节格式 */
     private byte[]            content;
+    /**
+     * Retained slice of the inbound buffer holding the content, only set when decoding in zero copy mode.
+     * 零拷贝解码模式下持有内容的入站缓冲区切片
+     */
+    private transient ByteBuf contentBuf;
+    /**
+     * Object whose serialization is deferred to the encoder, only set when encoding in zero copy mode.
+     * 零拷贝编码模式下延迟到编码器序列化的对象
+     */
+    private transient Object  deferredContent;
     /** invoke context of each rpc command. 调用每个rpc命令的上下文 */
     private InvokeContext     invokeContext;
 
@@ -248,6 +272,14 @@ public abstract class RpcCommand implements RemotingCommand {
         this.serializer = serializer;
     }
 
+    public byte getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(byte compressor) {
+        this.compressor = compressor;
+    }
+
     public void setProtocolSwitch(ProtocolSwitch protocolSwitch) {
         this.protocolSwitch = protocolSwitch;
     }
@@ -272,7 +304,17 @@ public abstract class RpcCommand implements RemotingCommand {
         }
     }
 
+    /**
+     * Get the bytes format of the content.<br>
+     * If the content is held by a retained buffer, it will be copied into a byte[] and the buffer released.
+     *
+     * @return content bytes
+     */
     public byte[] getContent() {
+        if (this.content == null && this.contentBuf != null) {
+            this.content = ByteBufUtil.getBytes(this.contentBuf);
+            this.releaseContentBuf();
+        }
         return content;
     }
 
@@ -283,6 +325,110 @@ public abstract class RpcCommand implements RemotingCommand {
         }
     }
 
+    /**
+     * Getter method for property <tt>contentBuf</tt>.
+     *
+     * @return property value of contentBuf, null if the content is not held by a buffer
+     */
+    public ByteBuf getContentBuf() {
+        return contentBuf;
+    }
+
+    /**
+     * Hold the content by a retained buffer, the ownership of the buffer is transferred to this command.
+     *
+     * @param contentBuf retained buffer of content
+     */
+    public void setContentBuf(ByteBuf contentBuf) {
+        if (contentBuf != null) {
+            this.contentBuf = contentBuf;
+            this.contentLength = contentBuf.readableBytes();
+        }
+    }
+
+    /**
+     * Release the buffer holding the content if any.
+     * This is safe to call more than once.
+     */
+    public void releaseContentBuf() {
+        ByteBuf buf = this.contentBuf;
+        if (buf != null) {
+            this.contentBuf = null;
+            ReferenceCountUtil.safeRelease(buf);
+        }
+    }
+
+    /**
+     * Deserialize the content held by buffer with the serializer of this command.
+     * Stream serializers read the buffer directly, others read from a copied byte[].
+     * Notice: the caller is responsible to call {@link #releaseContentBuf()} afterwards.
+     *
+     * @param classOfT class of original data
+     * @return deserialized object
+     * @throws CodecException
+     */
+    protected <T> T deserializeContentBuf(String classOfT) throws CodecException {
+        Serializer serializer = SerializerManager.getSerializer(this.getSerializer());
+        if (serializer instanceof StreamSerializer) {
+            return ((StreamSerializer) serializer).deserialize(new ByteBufInputStream(
+                this.contentBuf), classOfT);
+        }
+        return serializer.deserialize(this.getContent(), classOfT);
+    }
+
+    /**
+     * Defer the serialization of the content object to the encoder if zero copy encode is on,
+     * and the serializer of this command is able to write into a stream.
+     *
+     * @param contentObject the object to serialize as content
+     * @return true if deferred, then no need to set content bytes
+     */
+    protected boolean deferContentSerialization(Object contentObject) {
+        if (ConfigManager.codec_zero_copy_encode
+            && SerializerManager.getSerializer(this.getSerializer()) instanceof StreamSerializer) {
+            this.deferredContent = contentObject;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the content should be serialized by the encoder via {@link #serializeDeferredContent(ByteBuf)}.
+     *
+     * @return true if the content serialization is deferred
+     */
+    public boolean isContentDeferred() {
+        return this.deferredContent != null;
+    }
+
+    /**
+     * Serialize the deferred content object into the buffer directly.
+     *
+     * @param out the buffer to write into
+     * @return the length of content written
+     * @throws SerializationException
+     */
+    public int serializeDeferredContent(ByteBuf out) throws SerializationException {
+        int start = out.writerIndex();
+        try {
+            ((StreamSerializer) SerializerManager.getSerializer(this.getSerializer())).serialize(
+                this.deferredContent, new ByteBufOutputStream(out));
+        } catch (CodecException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+        return out.writerIndex() - start;
+    }
+
+    /**
+     * Whether the content is written to the channel separately right after the frame, e.g. as a file region,
+     * so that the encoder writes the content length only.
+     *
+     * @return true if the content is detached from the frame
+     */
+    public boolean isContentDetached() {
+        return false;
+    }
+
     public short getHeaderLength() {
         return headerLength;
     }
@@ -16,14 +16,17 @@
  */
 package com.alipay.remoting.rpc;
 
+import java.io.InputStream;
 import java.net.InetSocketAddress;
 
 import com.alipay.remoting.CommandFactory;
 import com.alipay.remoting.RemotingCommand;
 import com.alipay.remoting.ResponseStatus;
+import com.alipay.remoting.config.switches.ProtocolSwitch;
 import com.alipay.remoting.rpc.exception.RpcServerException;
 import com.alipay.remoting.rpc.protocol.RpcRequestCommand;
 import com.alipay.remoting.rpc.protocol.RpcResponseCommand;
+import com.alipay.remoting.rpc.stream.StreamBody;
 
 /**
  * command factory for rpc protocol
@@ -38,17 +41,52 @@ public class RpcCommandFactory implements CommandFactory {
         return new RpcRequestCommand(requestObject);
     }
 
+    /**
+     * create a request command with request object and specified id, without taking a global id
+     * 用请求实体和指定的id生成请求命令
+     * @param requestObject the request object included in request command
+     * @param id the request id
+     * @return
+     */
+    public RpcRequestCommand createRequestCommand(Object requestObject, int id) {
+        return new RpcRequestCommand(requestObject, id);
+    }
+
     @Override
     public RpcResponseCommand createResponse(final Object responseObject,
                                              final RemotingCommand requestCmd) {
-        RpcResponseCommand response = new RpcResponseCommand(requestCmd.getId(), responseObject);
-        if (null != responseObject) {
-            response.setResponseClass(responseObject.getClass().getName());
+        Object message = responseObject;
+        InputStream stream = null;
+        if (responseObject instanceof StreamBody) {
+            message = ((StreamBody) responseObject).getMessage();
+            stream = ((StreamBody) responseObject).getStream();
+        }
+        RpcResponseCommand response = new RpcResponseCommand(requestCmd.getId(), message);
+        if (null != message) {
+            response.setResponseClass(message.getClass().getName());
         } else {
             response.setResponseClass(null);
         }
         response.setSerializer(requestCmd.getSerializer());
-        response.setProtocolSwitch(requestCmd.getProtocolSwitch());
+        ProtocolSwitch protocolSwitch = requestCmd.getProtocolSwitch();
+        if (null != protocolSwitch
+            && (null != stream || protocolSwitch.isOn(ProtocolSwitch.STREAM_SWITCH_INDEX) || protocolSwitch
+                .isOn(ProtocolSwitch.PARTIAL_SWITCH_INDEX))) {
+            // the stream switches tell about the response itself, the final one by default
+            protocolSwitch = ProtocolSwitch.create(protocolSwitch.toByte());
+            protocolSwitch.turnOff(ProtocolSwitch.PARTIAL_SWITCH_INDEX);
+            if (null != stream) {
+                protocolSwitch.turnOn(ProtocolSwitch.STREAM_SWITCH_INDEX);
+            } else {
+                protocolSwitch.turnOff(ProtocolSwitch.STREAM_SWITCH_INDEX);
+            }
+        }
+        response.setProtocolSwitch(protocolSwitch);
+        response.setResponseStream(stream);
+        if (requestCmd instanceof RpcCommand) {
+            // compress the response in the way the request does
+            response.setCompressor(((RpcCommand) requestCmd).getCompressor());
+        }
         response.setResponseStatus(ResponseStatus.SUCCESS);
         return response;
     }
@@ -48,6 +48,16 @@ public class RpcConfigs {
      */
     public static final String CONNECTION_WARMUP_KEY                         = "_CONNECTIONWARMUP";
 
+    /**
+     * whether to use crc32c instead of crc32 for the frame crc of the connections
+     */
+    public static final String CRC32C_KEY                                    = "_CRC32C";
+
+    /**
+     * whether the server supports the compress switch of protocol v2, and the requests to it are compressed by default
+     */
+    public static final String COMPRESS_KEY                                  = "_COMPRESS";
+
     /**
      * Whether to dispatch message list in default executor.
      */
@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import com.alipay.remoting.InvokeCallback;
 import com.alipay.remoting.InvokeCallbackListener;
 import com.alipay.remoting.InvokeFuture;
+import com.alipay.remoting.InvokePhase;
 import com.alipay.remoting.ResponseStatus;
 import com.alipay.remoting.exception.CodecException;
 import com.alipay.remoting.exception.ConnectionClosedException;
@@ -165,6 +166,9 @@ public class RpcInvokeCallbackListener implements InvokeCallbackListener {
                     response.setInvokeContext(future.getInvokeContext());
                     RpcResponseCommand rpcResponse = (RpcResponseCommand) response;
                     response.deserialize();
+                    if (null != future.getInvokeContext()) {
+                        future.getInvokeContext().mark(InvokePhase.CLIENT_RESPONSE_DESERIALIZED);
+                    }
                     try {
                         callback.onResponse(rpcResponse.getResponseObject());
                     } catch (Throwable e) {
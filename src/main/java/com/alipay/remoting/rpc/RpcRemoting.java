@@ -16,6 +16,10 @@
  */
 package com.alipay.remoting.rpc;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
 
 import com.alipay.remoting.BaseRemoting;
@@ -25,16 +29,28 @@ import com.alipay.remoting.DefaultConnectionManager;
 import com.alipay.remoting.InvokeCallback;
 import com.alipay.remoting.InvokeContext;
 import com.alipay.remoting.InvokeFuture;
+import com.alipay.remoting.InvokePhase;
 import com.alipay.remoting.RemotingAddressParser;
 import com.alipay.remoting.RemotingCommand;
+import com.alipay.remoting.UnwritablePolicy;
 import com.alipay.remoting.Url;
+import com.alipay.remoting.config.ConfigManager;
 import com.alipay.remoting.config.switches.ProtocolSwitch;
 import com.alipay.remoting.exception.CodecException;
 import com.alipay.remoting.exception.RemotingException;
 import com.alipay.remoting.exception.SerializationException;
 import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+import com.alipay.remoting.rpc.exception.InvokeUnwritableException;
 import com.alipay.remoting.rpc.protocol.RpcProtocolManager;
 import com.alipay.remoting.rpc.protocol.RpcRequestCommand;
+import com.alipay.remoting.rpc.stream.OutboundStream;
+import com.alipay.remoting.rpc.stream.ResponseStream;
+import com.alipay.remoting.rpc.stream.StreamBody;
+import com.alipay.remoting.rpc.stream.StreamRegistry;
+import com.alipay.remoting.util.IDGenerator;
 import com.alipay.remoting.util.RemotingUtil;
 
 /**
@@ -48,7 +64,8 @@ public abstract class RpcRemoting extends BaseRemoting {
         RpcProtocolManager.initProtocols();
     }
     /** logger */
-    private static final Logger        logger = BoltLoggerFactory.getLogger("RpcRemoting");
+    private static final Logger        logger                = BoltLoggerFactory
+                                                                 .getLogger("RpcRemoting");
 
     /** address parser to get custom args */
     protected RemotingAddressParser    addressParser;
@@ -56,6 +73,17 @@ public abstract class RpcRemoting extends BaseRemoting {
     /** connection manager */
     protected DefaultConnectionManager connectionManager;
 
+    /** what to do when the connection is not writable */
+    protected final UnwritablePolicy   unwritablePolicy      = UnwritablePolicy.parse(ConfigManager
+                                                                 .invoke_unwritable_policy());
+
+    /** max time to wait for an unwritable connection, time unit: ms */
+    protected final int                unwritableWaitTimeout = ConfigManager
+                                                                 .invoke_unwritable_wait_timeout();
+
+    /** whether to compress requests if not specified by invoke context */
+    protected final boolean            compressSwitch        = ConfigManager.compress_switch();
+
     /**
      * default constructor
      */
@@ -116,6 +144,7 @@ public abstract class RpcRemoting extends BaseRemoting {
      */
     public void oneway(final Connection conn, final Object request,
                        final InvokeContext invokeContext) throws RemotingException {
+        checkWritable(conn, -1);
         RequestCommand requestCommand = (RequestCommand) toRemotingCommand(request, conn,
             invokeContext, -1);
         requestCommand.setType(RpcCommandType.REQUEST_ONEWAY);
@@ -176,11 +205,14 @@ public abstract class RpcRemoting extends BaseRemoting {
                              final InvokeContext invokeContext, final int timeoutMillis)
                                                                                         throws RemotingException,
                                                                                         InterruptedException {
-        RemotingCommand requestCommand = toRemotingCommand(request, conn, invokeContext,
-            timeoutMillis);
+        if (request instanceof StreamBody) {
+            return invokeStreamSync(conn, (StreamBody) request, invokeContext, timeoutMillis);
+        }
+        int timeout = checkWritable(conn, remainingTimeout(invokeContext, timeoutMillis));
+        RemotingCommand requestCommand = toRemotingCommand(request, conn, invokeContext, timeout);
         preProcessInvokeContext(invokeContext, requestCommand, conn);
         ResponseCommand responseCommand = (ResponseCommand) super.invokeSync(conn, requestCommand,
-            timeoutMillis);
+            timeout);
         responseCommand.setInvokeContext(invokeContext);
 
         Object responseObject = RpcResponseResolver.resolveResponseObject(responseCommand,
@@ -188,6 +220,48 @@ public abstract class RpcRemoting extends BaseRemoting {
         return responseObject;
     }
 
+    /**
+     * Send the message of stream body as request, followed by the chunks of its stream in the current thread.
+     * The timeout covers both the transfer of stream and the waiting for response.
+     */
+    private Object invokeStreamSync(final Connection conn, final StreamBody request,
+                                    final InvokeContext invokeContext, final int timeoutMillis)
+                                                                                               throws RemotingException,
+                                                                                               InterruptedException {
+        String addr = RemotingUtil.parseRemoteAddress(conn.getChannel());
+        if (null == request.getMessage()) {
+            throw new IllegalArgumentException("message of stream body should not be null!");
+        }
+        StreamRegistry registry = conn.getStreamRegistry();
+        if (!registry.isSupported()) {
+            throw new IllegalArgumentException(
+                "Stream is only supported by protocol v2, the address is " + addr);
+        }
+        int timeout = checkWritable(conn, remainingTimeout(invokeContext, timeoutMillis));
+        long deadline = System.currentTimeMillis() + timeout;
+        RpcCommand requestCommand = (RpcCommand) toRemotingCommand(request.getMessage(), conn,
+            invokeContext, timeout);
+        requestCommand.getProtocolSwitch().turnOn(ProtocolSwitch.STREAM_SWITCH_INDEX);
+        preProcessInvokeContext(invokeContext, requestCommand, conn);
+        OutboundStream stream = registry.createOutbound(requestCommand.getId(), false,
+            requestCommand.getProtocolSwitch());
+        InvokeFuture future = super.invokeWithFuture(conn, requestCommand, timeout);
+        try {
+            stream.transfer(request.getStream(), deadline);
+        } catch (IOException e) {
+            if (null != conn.removeInvokeFuture(requestCommand.getId())) {
+                future.cancelTimeout();
+                future.putResponse(this.getCommandFactory().createSendFailedResponse(
+                    conn.getRemoteAddress(), e));
+            }
+            logger.error("Send stream failed, id={}, the address is {}", requestCommand.getId(),
+                addr, e);
+        }
+        ResponseCommand responseCommand = (ResponseCommand) future.waitResponse();
+        responseCommand.setInvokeContext(invokeContext);
+        return RpcResponseResolver.resolveResponseObject(responseCommand, addr);
+    }
+
     /**
      * Rpc invocation with future returned.<br>
      * Notice! DO NOT modify the request object concurrently when this method is called.
@@ -241,14 +315,97 @@ public abstract class RpcRemoting extends BaseRemoting {
                                               final InvokeContext invokeContext,
                                               final int timeoutMillis) throws RemotingException {
 
-        RemotingCommand requestCommand = toRemotingCommand(request, conn, invokeContext,
-            timeoutMillis);
+        int timeout = checkWritable(conn, remainingTimeout(invokeContext, timeoutMillis));
+        RemotingCommand requestCommand = toRemotingCommand(request, conn, invokeContext, timeout);
 
         preProcessInvokeContext(invokeContext, requestCommand, conn);
-        InvokeFuture future = super.invokeWithFuture(conn, requestCommand, timeoutMillis);
+        InvokeFuture future = super.invokeWithFuture(conn, requestCommand, timeout);
         return new RpcResponseFuture(RemotingUtil.parseRemoteAddress(conn.getChannel()), future);
     }
 
+    /**
+     * Rpc batch invocation with future returned.<br>
+     * Notice! DO NOT modify the request objects concurrently when this method is called.
+     * 
+     * @param addr
+     * @param requests
+     * @param timeoutMillis
+     * @return
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcBatchResponseFuture invokeBatchWithFuture(final String addr, final List<?> requests,
+                                                        final int timeoutMillis)
+                                                                                throws RemotingException,
+                                                                                InterruptedException {
+        Url url = this.addressParser.parse(addr);
+        return this.invokeBatchWithFuture(url, requests, timeoutMillis);
+    }
+
+    /**
+     * Rpc batch invocation with future returned.<br>
+     * Notice! DO NOT modify the request objects concurrently when this method is called.
+     * 
+     * @param url
+     * @param requests
+     * @param timeoutMillis
+     * @return
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public abstract RpcBatchResponseFuture invokeBatchWithFuture(final Url url,
+                                                                 final List<?> requests,
+                                                                 final int timeoutMillis)
+                                                                                         throws RemotingException,
+                                                                                         InterruptedException;
+
+    /**
+     * Rpc batch invocation with future returned.<br>
+     * All the requests are written to the connection with only one flush, 
+     * a request failed to serialize is recorded as a failed element rather than failing the whole batch.<br>
+     * Notice! DO NOT modify the request objects concurrently when this method is called.
+     * 
+     * @param conn
+     * @param requests
+     * @param timeoutMillis
+     * @return
+     */
+    public RpcBatchResponseFuture invokeBatchWithFuture(final Connection conn,
+                                                        final List<?> requests,
+                                                        final int timeoutMillis) {
+        RpcResponseFuture[] futures = new RpcResponseFuture[requests.size()];
+        Throwable[] failures = new Throwable[requests.size()];
+        try {
+            checkWritable(conn, timeoutMillis);
+        } catch (InvokeUnwritableException e) {
+            for (int i = 0; i < failures.length; ++i) {
+                failures[i] = e;
+            }
+            return new RpcBatchResponseFuture(futures, failures);
+        }
+        List<RemotingCommand> requestCommands = new ArrayList<RemotingCommand>(requests.size());
+        int[] indexes = new int[requests.size()];
+        for (int i = 0; i < requests.size(); ++i) {
+            try {
+                RemotingCommand requestCommand = toRemotingCommand(requests.get(i), conn, null,
+                    timeoutMillis);
+                preProcessInvokeContext(null, requestCommand, conn);
+                indexes[requestCommands.size()] = i;
+                requestCommands.add(requestCommand);
+            } catch (SerializationException e) {
+                failures[i] = e;
+            }
+        }
+
+        String addr = RemotingUtil.parseRemoteAddress(conn.getChannel());
+        List<InvokeFuture> invokeFutures = super.invokeBatchWithFutures(conn, requestCommands,
+            timeoutMillis);
+        for (int i = 0; i < invokeFutures.size(); ++i) {
+            futures[indexes[i]] = new RpcResponseFuture(addr, invokeFutures.get(i));
+        }
+        return new RpcBatchResponseFuture(futures, failures);
+    }
+
     /**
      * Rpc invocation with callback.<br>
      * Notice! DO NOT modify the request object concurrently when this method is called.
@@ -302,10 +459,221 @@ public abstract class RpcRemoting extends BaseRemoting {
                                    final InvokeContext invokeContext,
                                    final InvokeCallback invokeCallback, final int timeoutMillis)
                                                                                                 throws RemotingException {
-        RemotingCommand requestCommand = toRemotingCommand(request, conn, invokeContext,
-            timeoutMillis);
+        int timeout = checkWritable(conn, remainingTimeout(invokeContext, timeoutMillis));
+        RemotingCommand requestCommand = toRemotingCommand(request, conn, invokeContext, timeout);
+        preProcessInvokeContext(invokeContext, requestCommand, conn);
+        super.invokeWithCallback(conn, requestCommand, invokeCallback, timeout);
+    }
+
+    /**
+     * Rpc async invocation, the returned future is completed by the response without parking a thread.<br>
+     * Notice! DO NOT modify the request object concurrently when this method is called.
+     * 
+     * @param addr
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final String addr, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        Url url = this.addressParser.parse(addr);
+        return this.invokeAsync(url, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Rpc async invocation, the returned future is completed by the response without parking a thread.<br>
+     * Notice! DO NOT modify the request object concurrently when this method is called.
+     * 
+     * @param url
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Url url, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        RpcAsyncResponseFuture future = new RpcAsyncResponseFuture();
+        this.invokeWithCallback(url, request, invokeContext, future.getCallback(), timeoutMillis);
+        return future;
+    }
+
+    /**
+     * Rpc async invocation, the returned future is completed by the response without parking a thread.<br>
+     * Notice! DO NOT modify the request object concurrently when this method is called.
+     * 
+     * @param conn
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return
+     * @throws RemotingException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Connection conn, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException {
+        RpcAsyncResponseFuture future = new RpcAsyncResponseFuture();
+        this.invokeWithCallback(conn, request, invokeContext, future.getCallback(), timeoutMillis);
+        return future;
+    }
+
+    /**
+     * Rpc invocation with all the responses returned in a stream, the partial ones followed by the final one.<br>
+     * Notice! DO NOT modify the request object concurrently when this method is called.
+     * 
+     * @param addr
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis timeout of all the responses
+     * @return
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public ResponseStream invokeWithResponseStream(final String addr, final Object request,
+                                                   final InvokeContext invokeContext,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException,
+                                                                           InterruptedException {
+        Url url = this.addressParser.parse(addr);
+        return this.invokeWithResponseStream(url, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Rpc invocation with all the responses returned in a stream, the partial ones followed by the final one.<br>
+     * Notice! DO NOT modify the request object concurrently when this method is called.
+     * 
+     * @param url
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis timeout of all the responses
+     * @return
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public abstract ResponseStream invokeWithResponseStream(final Url url, final Object request,
+                                                            final InvokeContext invokeContext,
+                                                            final int timeoutMillis)
+                                                                                    throws RemotingException,
+                                                                                    InterruptedException;
+
+    /**
+     * Rpc invocation with all the responses returned in a stream, the partial ones followed by the final one.<br>
+     * Notice! DO NOT modify the request object concurrently when this method is called.
+     * 
+     * @param conn
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis timeout of all the responses
+     * @return
+     * @throws RemotingException
+     */
+    public ResponseStream invokeWithResponseStream(final Connection conn, final Object request,
+                                                   final InvokeContext invokeContext,
+                                                   final int timeoutMillis)
+                                                                           throws RemotingException {
+        StreamRegistry registry = conn.getStreamRegistry();
+        if (!registry.isSupported()) {
+            throw new IllegalArgumentException(
+                "Response stream is only supported by protocol v2, the address is "
+                        + RemotingUtil.parseRemoteAddress(conn.getChannel()));
+        }
+        int timeout = checkWritable(conn, remainingTimeout(invokeContext, timeoutMillis));
+        RpcCommand requestCommand = (RpcCommand) toRemotingCommand(request, conn, invokeContext,
+            timeout);
+        requestCommand.getProtocolSwitch().turnOn(ProtocolSwitch.PARTIAL_SWITCH_INDEX);
         preProcessInvokeContext(invokeContext, requestCommand, conn);
-        super.invokeWithCallback(conn, requestCommand, invokeCallback, timeoutMillis);
+        ResponseStream stream = registry
+            .createResponseStream(requestCommand.getId(), invokeContext);
+        super.invokeWithCallback(conn, requestCommand, stream, timeout);
+        return stream;
+    }
+
+    /**
+     * The timeout of invocation, limited by the deadline in invoke context if any.
+     * 
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return
+     * @throws InvokeTimeoutException if the deadline has passed
+     */
+    protected int remainingTimeout(InvokeContext invokeContext, int timeoutMillis)
+                                                                                  throws InvokeTimeoutException {
+        if (null == invokeContext) {
+            return timeoutMillis;
+        }
+        Long deadline = invokeContext.get(InvokeContext.BOLT_INVOKE_DEADLINE);
+        if (null == deadline) {
+            return timeoutMillis;
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            throw new InvokeTimeoutException("Deadline exceeded " + (-remaining)
+                                             + "ms before invocation");
+        }
+        return (int) Math.min(timeoutMillis, remaining);
+    }
+
+    /**
+     * Check whether the connection is available, an unwritable one is left to {@link #checkWritable}
+     * if an {@link UnwritablePolicy} is specified.
+     * 
+     * @param conn
+     * @throws RemotingException
+     */
+    protected void checkConnection(Connection conn) throws RemotingException {
+        this.connectionManager.check(conn, UnwritablePolicy.NONE == this.unwritablePolicy);
+    }
+
+    /**
+     * Apply the {@link UnwritablePolicy} if the connection is not writable,
+     * i.e. its outbound buffer is above the high watermark.
+     * 
+     * @param conn
+     * @param timeoutMillis timeout of invocation, negative for oneway
+     * @return the timeout left after waiting
+     * @throws InvokeUnwritableException if the connection is still not writable
+     */
+    protected int checkWritable(Connection conn, int timeoutMillis)
+                                                                   throws InvokeUnwritableException {
+        if (UnwritablePolicy.NONE == this.unwritablePolicy || conn.getChannel().isWritable()) {
+            return timeoutMillis;
+        }
+        String addr = RemotingUtil.parseRemoteAddress(conn.getChannel());
+        // never block the io thread, writability can not change while it is blocked
+        if (UnwritablePolicy.WAIT == this.unwritablePolicy
+            && !conn.getChannel().eventLoop().inEventLoop()) {
+            long waitMillis = timeoutMillis > 0 ? Math.min(timeoutMillis,
+                this.unwritableWaitTimeout) : this.unwritableWaitTimeout;
+            long start = System.currentTimeMillis();
+            boolean writable;
+            try {
+                writable = conn.awaitWritable(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InvokeUnwritableException(
+                    "Interrupted when waiting for connection writable, the address is " + addr, e);
+            }
+            if (writable) {
+                UnwritableStats.onWaited();
+                if (timeoutMillis <= 0) {
+                    return timeoutMillis;
+                }
+                return (int) Math.max(1, timeoutMillis - (System.currentTimeMillis() - start));
+            }
+            UnwritableStats.onWaitTimeout();
+            throw new InvokeUnwritableException("Connection still unwritable after waiting "
+                                                + waitMillis + "ms, the address is " + addr);
+        }
+        UnwritableStats.onFailed();
+        throw new InvokeUnwritableException("Connection unwritable, the address is " + addr);
     }
 
     /**
@@ -320,7 +688,18 @@ public abstract class RpcRemoting extends BaseRemoting {
     protected RemotingCommand toRemotingCommand(Object request, Connection conn,
                                                 InvokeContext invokeContext, int timeoutMillis)
                                                                                                throws SerializationException {
-        RpcRequestCommand command = this.getCommandFactory().createRequestCommand(request);
+        if (request instanceof StreamBody) {
+            throw new IllegalArgumentException("Stream body is only supported by invokeSync!");
+        }
+        RpcRequestCommand command;
+        int id = IDGenerator.nextId(conn);
+        if (this.getCommandFactory() instanceof RpcCommandFactory) {
+            command = ((RpcCommandFactory) this.getCommandFactory()).createRequestCommand(request,
+                id);
+        } else {
+            command = this.getCommandFactory().createRequestCommand(request);
+            command.setId(id);
+        }
 
         if (null != invokeContext) {
             // set client custom serializer for request command if not null
@@ -340,22 +719,73 @@ public abstract class RpcRemoting extends BaseRemoting {
             Boolean crcSwitch = invokeContext.get(InvokeContext.BOLT_CRC_SWITCH,
                 ProtocolSwitch.CRC_SWITCH_DEFAULT_VALUE);
             if (null != crcSwitch && crcSwitch) {
-                command.setProtocolSwitch(ProtocolSwitch
-                    .create(new int[] { ProtocolSwitch.CRC_SWITCH_INDEX }));
+                command.setProtocolSwitch(createCrcSwitch(conn));
             }
         } else {
             // enable crc by default, if there is no invoke context.
-            command.setProtocolSwitch(ProtocolSwitch
-                .create(new int[] { ProtocolSwitch.CRC_SWITCH_INDEX }));
+            command.setProtocolSwitch(createCrcSwitch(conn));
+        }
+        // compress only if the peer supports it, then if set `true` for key `InvokeContext.BOLT_COMPRESS_SWITCH`,
+        // or declared by the url, or configured by `Configs.COMPRESS_SWITCH`
+        if (isCompressSupported(conn)) {
+            Boolean compress = null == invokeContext ? null : invokeContext
+                .<Boolean> get(InvokeContext.BOLT_COMPRESS_SWITCH);
+            if (null == compress ? (this.compressSwitch || isCompressDeclared(conn)) : compress) {
+                command.getProtocolSwitch().turnOn(ProtocolSwitch.COMPRESS_SWITCH_INDEX);
+            }
         }
         command.setTimeout(timeoutMillis);
         command.setRequestClass(request.getClass().getName());
         command.setInvokeContext(invokeContext);
-        command.serialize();
+        if (null != invokeContext) {
+            invokeContext.mark(InvokePhase.CLIENT_SERIALIZE_START);
+        }
+        RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+        if (null != metrics) {
+            long startNanos = System.nanoTime();
+            command.serialize();
+            metrics.onRequestSerialized(command.getRequestClass(), System.nanoTime() - startNanos);
+        } else {
+            command.serialize();
+        }
+        if (null != invokeContext) {
+            invokeContext.mark(InvokePhase.CLIENT_REQUEST_SERIALIZED);
+        }
         logDebugInfo(command);
         return command;
     }
 
+    /**
+     * crc switch of the request, use crc32c if the url of connection specified {@link RpcConfigs#CRC32C_KEY}
+     *
+     * @param conn
+     * @return
+     */
+    private ProtocolSwitch createCrcSwitch(Connection conn) {
+        if (null != conn && null != conn.getUrl() && conn.getUrl().isCrc32c()) {
+            return ProtocolSwitch.create(new int[] { ProtocolSwitch.CRC_SWITCH_INDEX,
+                    ProtocolSwitch.CRC32C_SWITCH_INDEX });
+        }
+        return ProtocolSwitch.create(new int[] { ProtocolSwitch.CRC_SWITCH_INDEX });
+    }
+
+    /**
+     * whether the peer of connection supports the compress switch, as a peer not supporting it takes the compressed content as it is.
+     * it is declared by {@link RpcConfigs#COMPRESS_KEY} in url, or shown by a compressed command received from the peer.
+     *
+     * @param conn
+     * @return
+     */
+    private boolean isCompressSupported(Connection conn) {
+        return null != conn
+               && (isCompressDeclared(conn) || Boolean.TRUE.equals(conn.getChannel()
+                   .attr(Connection.COMPRESS).get()));
+    }
+
+    private boolean isCompressDeclared(Connection conn) {
+        return null != conn.getUrl() && conn.getUrl().isCompress();
+    }
+
     protected abstract void preProcessInvokeContext(InvokeContext invokeContext,
                                                     RemotingCommand cmd, Connection connection);
 
@@ -373,8 +803,23 @@ public abstract class RpcRemoting extends BaseRemoting {
      */
     @Override
     protected InvokeFuture createInvokeFuture(RemotingCommand request, InvokeContext invokeContext) {
-        return new DefaultInvokeFuture(request.getId(), null, null, request.getProtocolCode()
-            .getFirstByte(), this.getCommandFactory(), invokeContext);
+        return startMetrics(new DefaultInvokeFuture(request.getId(), null, null, request
+            .getProtocolCode().getFirstByte(), this.getCommandFactory(), invokeContext), request);
+    }
+
+    /**
+     * The content of response is copied out of the inbound buffer once received,
+     * as nobody releases the buffer if the response is never read.
+     *
+     * @see com.alipay.remoting.BaseRemoting#createReturnedInvokeFuture(com.alipay.remoting.RemotingCommand, com.alipay.remoting.InvokeContext)
+     */
+    @Override
+    protected InvokeFuture createReturnedInvokeFuture(RemotingCommand request,
+                                                      InvokeContext invokeContext) {
+        DefaultInvokeFuture future = new DefaultInvokeFuture(request.getId(), null, null, request
+            .getProtocolCode().getFirstByte(), this.getCommandFactory(), invokeContext);
+        future.setDetachContent(true);
+        return startMetrics(future, request);
     }
 
     /**
@@ -384,8 +829,19 @@ public abstract class RpcRemoting extends BaseRemoting {
     protected InvokeFuture createInvokeFuture(Connection conn, RemotingCommand request,
                                               InvokeContext invokeContext,
                                               InvokeCallback invokeCallback) {
-        return new DefaultInvokeFuture(request.getId(), new RpcInvokeCallbackListener(
+        return startMetrics(new DefaultInvokeFuture(request.getId(), new RpcInvokeCallbackListener(
             RemotingUtil.parseRemoteAddress(conn.getChannel())), invokeCallback, request
-            .getProtocolCode().getFirstByte(), this.getCommandFactory(), invokeContext);
+            .getProtocolCode().getFirstByte(), this.getCommandFactory(), invokeContext), request);
+    }
+
+    /**
+     * start to record the metrics of the invocation if metrics enabled
+     */
+    private DefaultInvokeFuture startMetrics(DefaultInvokeFuture future, RemotingCommand request) {
+        RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+        if (null != metrics && request instanceof RpcRequestCommand) {
+            future.startMetrics(metrics, ((RpcRequestCommand) request).getRequestClass());
+        }
+        return future;
     }
 }
@@ -16,8 +16,12 @@
  */
 package com.alipay.remoting.rpc;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.slf4j.Logger;
 
+import com.alipay.remoting.InvokePhase;
 import com.alipay.remoting.ResponseStatus;
 import com.alipay.remoting.exception.CodecException;
 import com.alipay.remoting.exception.ConnectionClosedException;
@@ -31,6 +35,7 @@ import com.alipay.remoting.rpc.exception.InvokeServerBusyException;
 import com.alipay.remoting.rpc.exception.InvokeServerException;
 import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
 import com.alipay.remoting.rpc.protocol.RpcResponseCommand;
+import com.alipay.remoting.rpc.stream.StreamBody;
 import com.alipay.remoting.util.StringUtils;
 
 /**
@@ -140,10 +145,32 @@ public class RpcResponseResolver {
      */
     private static Object toResponseObject(ResponseCommand responseCommand) throws CodecException {
         RpcResponseCommand response = (RpcResponseCommand) responseCommand;
-        response.deserialize();
+        InputStream stream = response.getResponseStream();
+        try {
+            response.deserialize();
+        } catch (CodecException e) {
+            if (null != stream) {
+                closeQuietly(stream);
+            }
+            throw e;
+        }
+        if (null != response.getInvokeContext()) {
+            response.getInvokeContext().mark(InvokePhase.CLIENT_RESPONSE_DESERIALIZED);
+        }
+        if (null != stream) {
+            return new StreamBody(response.getResponseObject(), stream);
+        }
         return response.getResponseObject();
     }
 
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            logger.warn("Close stream of response failed", e);
+        }
+    }
+
     /**
      * Convert remoting response command to throwable if it is a throwable, otherwise return null.
      */
@@ -34,12 +34,15 @@ import com.alipay.remoting.DefaultConnectionManager;
 import com.alipay.remoting.InvokeCallback;
 import com.alipay.remoting.InvokeContext;
 import com.alipay.remoting.NamedThreadFactory;
+import com.alipay.remoting.OutboundOverflowPolicy;
 import com.alipay.remoting.ProtocolCode;
 import com.alipay.remoting.ProtocolManager;
 import com.alipay.remoting.RandomSelectStrategy;
 import com.alipay.remoting.RemotingAddressParser;
 import com.alipay.remoting.RemotingProcessor;
 import com.alipay.remoting.RemotingServer;
+import com.alipay.remoting.ResponseOutboundLimiter;
+import com.alipay.remoting.RpcFlushConsolidationHandler;
 import com.alipay.remoting.ServerIdleHandler;
 import com.alipay.remoting.Url;
 import com.alipay.remoting.codec.Codec;
@@ -131,6 +134,9 @@ public class RpcServer extends AbstractRemotingServer {
     /** rpc codec */
     private Codec                                       codec                   = new RpcCodec();
 
+    /** limiter of pending outbound bytes of each connection when sending responses, null if no limit */
+    private ResponseOutboundLimiter                     responseOutboundLimiter;
+
     static {
         if (workerGroup instanceof NioEventLoopGroup) {
             ((NioEventLoopGroup) workerGroup).setIoRatio(ConfigManager.netty_io_ratio());
@@ -260,14 +266,24 @@ public class RpcServer extends AbstractRemotingServer {
         NettyEventLoopUtil.enableTriggeredMode(bootstrap);
 
         final boolean idleSwitch = ConfigManager.tcp_idle_switch();
+        final boolean flushConsolidation = ConfigManager.netty_flush_consolidation();
         final int idleTime = ConfigManager.tcp_server_idle();
         final ChannelHandler serverIdleHandler = new ServerIdleHandler();
         final RpcHandler rpcHandler = new RpcHandler(true, this.userProcessors);
+        initResponseOutboundLimiter();
+        final ResponseOutboundLimiter outboundLimiter = this.responseOutboundLimiter;
         this.bootstrap.childHandler(new ChannelInitializer<SocketChannel>() {
 
             @Override
             protected void initChannel(SocketChannel channel) {
                 ChannelPipeline pipeline = channel.pipeline();
+                if (flushConsolidation) {
+                    pipeline.addLast(
+                        "flushConsolidationHandler",
+                        new RpcFlushConsolidationHandler(ConfigManager
+                            .netty_flush_consolidation_max(), ConfigManager
+                            .netty_flush_consolidation_delay()));
+                }
                 pipeline.addLast("decoder", codec.newDecoder());
                 pipeline.addLast("encoder", codec.newEncoder());
                 if (idleSwitch) {
@@ -277,6 +293,9 @@ public class RpcServer extends AbstractRemotingServer {
                 }
                 pipeline.addLast("connectionEventHandler", connectionEventHandler);
                 pipeline.addLast("handler", rpcHandler);
+                if (null != outboundLimiter) {
+                    channel.attr(ResponseOutboundLimiter.LIMITER).set(outboundLimiter);
+                }
                 createConnection(channel);
             }
 
@@ -849,6 +868,117 @@ public class RpcServer extends AbstractRemotingServer {
             timeoutMillis);
     }
 
+    /**
+     * Async invocation using a string address, address format example - 127.0.0.1:12200?key1=value1&key2=value2 <br>
+     * The returned {@link RpcAsyncResponseFuture} is completed by the response, timeout or connection closed event directly, 
+     * no thread is parked for the outstanding request, you can add listeners to it to compose calls.
+     * <p>
+     * Notice:<br>
+     *   <ol>
+     *   <li><b>DO NOT modify the request object concurrently when this method is called.</b></li>
+     *   <li>When do invocation, use the string address to find a available client connection, if none then throw exception</li>
+     *   <li>Listeners without executor are notified in io thread, DO NOT block in them.</li>
+     *   </ol>
+     *
+     * @param addr
+     * @param request
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final String addr, final Object request,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        check();
+        return this.rpcRemoting.invokeAsync(addr, request, null, timeoutMillis);
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, common api notice please see {@link #invokeAsync(String, Object, int)}
+     *
+     * @param addr
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final String addr, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        check();
+        return this.rpcRemoting.invokeAsync(addr, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Async invocation using a parsed {@link Url}, common api notice please see {@link #invokeAsync(String, Object, int)}
+     *
+     * @param url
+     * @param request
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Url url, final Object request,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        check();
+        return this.rpcRemoting.invokeAsync(url, request, null, timeoutMillis);
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, common api notice please see {@link #invokeAsync(Url, Object, int)}
+     *
+     * @param url
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     * @throws InterruptedException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Url url, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException,
+                                                                      InterruptedException {
+        check();
+        return this.rpcRemoting.invokeAsync(url, request, invokeContext, timeoutMillis);
+    }
+
+    /**
+     * Async invocation using a {@link Connection}, common api notice please see {@link #invokeAsync(String, Object, int)}
+     *
+     * @param conn
+     * @param request
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Connection conn, final Object request,
+                                              final int timeoutMillis) throws RemotingException {
+        return this.rpcRemoting.invokeAsync(conn, request, null, timeoutMillis);
+    }
+
+    /**
+     * Async invocation with a {@link InvokeContext}, common api notice please see {@link #invokeAsync(Connection, Object, int)}
+     *
+     * @param conn
+     * @param request
+     * @param invokeContext
+     * @param timeoutMillis
+     * @return RpcAsyncResponseFuture
+     * @throws RemotingException
+     */
+    public RpcAsyncResponseFuture invokeAsync(final Connection conn, final Object request,
+                                              final InvokeContext invokeContext,
+                                              final int timeoutMillis) throws RemotingException {
+        return this.rpcRemoting.invokeAsync(conn, request, invokeContext, timeoutMillis);
+    }
+
     /**
      * check whether a client address connected
      *
@@ -905,6 +1035,40 @@ public class RpcServer extends AbstractRemotingServer {
             lowWaterMark, highWaterMark));
     }
 
+    /**
+     * Limit the pending outbound bytes of each connection when sending responses,
+     * so that a client slow to read can not make the server buffer responses unboundedly.
+     * <p>
+     * Notice: This api should be called before init server.
+     * If not called, the limit and policy are from system properties
+     * {@link com.alipay.remoting.config.Configs#SERVER_OUTBOUND_LIMIT}
+     * and {@link com.alipay.remoting.config.Configs#SERVER_OUTBOUND_POLICY}.
+     *
+     * @param limit max pending outbound bytes of each connection, 0 means no limit
+     * @param policy what to do when the limit exceeded
+     */
+    public void initResponseOutboundLimit(long limit, OutboundOverflowPolicy policy) {
+        this.responseOutboundLimiter = limit > 0 ? new ResponseOutboundLimiter(limit, policy)
+            : null;
+    }
+
+    /**
+     * init response outbound limiter from system properties if not specified
+     */
+    private void initResponseOutboundLimiter() {
+        if (null == this.responseOutboundLimiter) {
+            long limit = ConfigManager.server_response_outbound_limit();
+            if (limit > 0) {
+                this.responseOutboundLimiter = new ResponseOutboundLimiter(limit,
+                    OutboundOverflowPolicy.parse(ConfigManager.server_response_outbound_policy()));
+            }
+        }
+        if (null != this.responseOutboundLimiter) {
+            logger.warn("[server side] response outbound limit is {} bytes, policy is {}",
+                this.responseOutboundLimiter.getLimit(), this.responseOutboundLimiter.getPolicy());
+        }
+    }
+
     // ~~~ getter and setter
 
     /**
@@ -933,4 +1097,13 @@ public class RpcServer extends AbstractRemotingServer {
     public DefaultConnectionManager getConnectionManager() {
         return connectionManager;
     }
+
+    /**
+     * Getter method for property <tt>responseOutboundLimiter</tt>.
+     *
+     * @return property value of responseOutboundLimiter, null if no limit
+     */
+    public ResponseOutboundLimiter getResponseOutboundLimiter() {
+        return responseOutboundLimiter;
+    }
 }
@@ -16,6 +16,8 @@
  */
 package com.alipay.remoting.rpc;
 
+import java.util.List;
+
 import com.alipay.remoting.CommandFactory;
 import com.alipay.remoting.Connection;
 import com.alipay.remoting.DefaultConnectionManager;
@@ -25,6 +27,7 @@ import com.alipay.remoting.RemotingAddressParser;
 import com.alipay.remoting.RemotingCommand;
 import com.alipay.remoting.Url;
 import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.stream.ResponseStream;
 import com.alipay.remoting.util.RemotingUtil;
 
 /**
@@ -63,7 +66,7 @@ public class RpcServerRemoting extends RpcRemoting {
             throw new RemotingException("Client address [" + url.getUniqueKey()
                                         + "] not connected yet!");
         }
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         return this.invokeSync(conn, request, invokeContext, timeoutMillis);
     }
 
@@ -78,7 +81,7 @@ public class RpcServerRemoting extends RpcRemoting {
             throw new RemotingException("Client address [" + url.getOriginUrl()
                                         + "] not connected yet!");
         }
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         this.oneway(conn, request, invokeContext);
     }
 
@@ -93,10 +96,26 @@ public class RpcServerRemoting extends RpcRemoting {
             throw new RemotingException("Client address [" + url.getUniqueKey()
                                         + "] not connected yet!");
         }
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         return this.invokeWithFuture(conn, request, invokeContext, timeoutMillis);
     }
 
+    /**
+     * @see com.alipay.remoting.rpc.RpcRemoting#invokeBatchWithFuture(com.alipay.remoting.Url, java.util.List, int)
+     */
+    @Override
+    public RpcBatchResponseFuture invokeBatchWithFuture(Url url, List<?> requests, int timeoutMillis)
+                                                                                                     throws RemotingException,
+                                                                                                     InterruptedException {
+        Connection conn = this.connectionManager.get(url.getUniqueKey());
+        if (null == conn) {
+            throw new RemotingException("Client address [" + url.getUniqueKey()
+                                        + "] not connected yet!");
+        }
+        checkConnection(conn);
+        return this.invokeBatchWithFuture(conn, requests, timeoutMillis);
+    }
+
     /**
      * @see com.alipay.remoting.rpc.RpcRemoting#invokeWithCallback(com.alipay.remoting.Url, java.lang.Object, InvokeContext, com.alipay.remoting.InvokeCallback, int)
      */
@@ -109,10 +128,27 @@ public class RpcServerRemoting extends RpcRemoting {
             throw new RemotingException("Client address [" + url.getUniqueKey()
                                         + "] not connected yet!");
         }
-        this.connectionManager.check(conn);
+        checkConnection(conn);
         this.invokeWithCallback(conn, request, invokeContext, invokeCallback, timeoutMillis);
     }
 
+    /**
+     * @see com.alipay.remoting.rpc.RpcRemoting#invokeWithResponseStream(com.alipay.remoting.Url, java.lang.Object, InvokeContext, int)
+     */
+    @Override
+    public ResponseStream invokeWithResponseStream(Url url, Object request,
+                                                   InvokeContext invokeContext, int timeoutMillis)
+                                                                                                  throws RemotingException,
+                                                                                                  InterruptedException {
+        Connection conn = this.connectionManager.get(url.getUniqueKey());
+        if (null == conn) {
+            throw new RemotingException("Client address [" + url.getUniqueKey()
+                                        + "] not connected yet!");
+        }
+        checkConnection(conn);
+        return this.invokeWithResponseStream(conn, request, invokeContext, timeoutMillis);
+    }
+
     @Override
     protected void preProcessInvokeContext(InvokeContext invokeContext, RemotingCommand cmd,
                                            Connection connection) {
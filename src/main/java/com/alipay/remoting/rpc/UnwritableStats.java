@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alipay.remoting.UnwritablePolicy;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
+
+/**
+ * Counters of invocations on unwritable connections, see {@link com.alipay.remoting.UnwritablePolicy}
+ * 连接不可写时各处理策略的计数
+ *
+ * @author tsui
+ * @version $Id: UnwritableStats.java, v 0.1 2018-10-18 20:40 tsui Exp $
+ */
+public class UnwritableStats {
+
+    /** invocations failed fast */
+    private static final AtomicLong failed      = new AtomicLong();
+
+    /** invocations waited and then the connection became writable */
+    private static final AtomicLong waited      = new AtomicLong();
+
+    /** invocations waited but timeout */
+    private static final AtomicLong waitTimeout = new AtomicLong();
+
+    /** invocations routed to another connection */
+    private static final AtomicLong routed      = new AtomicLong();
+
+    private UnwritableStats() {
+    }
+
+    static void onFailed() {
+        failed.incrementAndGet();
+        record(UnwritablePolicy.FAIL, false);
+    }
+
+    static void onWaited() {
+        waited.incrementAndGet();
+        record(UnwritablePolicy.WAIT, true);
+    }
+
+    static void onWaitTimeout() {
+        waitTimeout.incrementAndGet();
+        record(UnwritablePolicy.WAIT, false);
+    }
+
+    static void onRouted() {
+        routed.incrementAndGet();
+        record(UnwritablePolicy.ROUTE, true);
+    }
+
+    private static void record(UnwritablePolicy policy, boolean passed) {
+        RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+        if (null != metrics) {
+            metrics.onUnwritable(policy, passed);
+        }
+    }
+
+    public static long getFailedCount() {
+        return failed.get();
+    }
+
+    public static long getWaitedCount() {
+        return waited.get();
+    }
+
+    public static long getWaitTimeoutCount() {
+        return waitTimeout.get();
+    }
+
+    public static long getRoutedCount() {
+        return routed.get();
+    }
+}
@@ -18,7 +18,9 @@ package com.alipay.remoting.rpc.protocol;
 
 import java.util.concurrent.Executor;
 
+import com.alipay.remoting.AdaptiveConcurrencyLimiter;
 import com.alipay.remoting.BizContext;
+import com.alipay.remoting.ConcurrencyLimiterManager;
 import com.alipay.remoting.DefaultBizContext;
 import com.alipay.remoting.RemotingContext;
 
@@ -31,7 +33,10 @@ import com.alipay.remoting.RemotingContext;
 public abstract class AbstractUserProcessor<T> implements UserProcessor<T> {
 
     /** executor selector, default null unless provide one using its setter method */
-    protected ExecutorSelector executorSelector;
+    protected ExecutorSelector                  executorSelector;
+
+    /** concurrency limiter, created on first use if enabled by config, or provide one using its setter method */
+    private volatile AdaptiveConcurrencyLimiter concurrencyLimiter;
 
     /**
      * Provide a default - {@link DefaultBizContext} implementation of {@link BizContext}.
@@ -69,6 +74,34 @@ public abstract class AbstractUserProcessor<T> implements UserProcessor<T> {
         this.executorSelector = executorSelector;
     }
 
+    /**
+     * Get the concurrency limiter of this processor, shared by all its interests.
+     *
+     * @return null if not provided and not enabled by {@link com.alipay.remoting.config.Configs#CONCURRENCY_LIMITER_SWITCH}
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        AdaptiveConcurrencyLimiter limiter = this.concurrencyLimiter;
+        if (null == limiter && ConcurrencyLimiterManager.isEnabled()) {
+            synchronized (this) {
+                limiter = this.concurrencyLimiter;
+                if (null == limiter) {
+                    limiter = ConcurrencyLimiterManager.newLimiter();
+                    this.concurrencyLimiter = limiter;
+                }
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Set the concurrency limiter of this processor, it takes effect even if the limiter is not enabled by config.
+     *
+     * @param concurrencyLimiter
+     */
+    public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
     /**
      * By default, return false, means not deserialize and process biz logic in io thread
      *
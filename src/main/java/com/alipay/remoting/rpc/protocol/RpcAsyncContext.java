@@ -16,10 +16,16 @@
  */
 package com.alipay.remoting.rpc.protocol;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import com.alipay.remoting.AsyncContext;
 import com.alipay.remoting.RemotingContext;
+import com.alipay.remoting.StreamingAsyncContext;
+import com.alipay.remoting.TimerHolder;
+import com.alipay.remoting.rpc.protocol.RpcRequestProcessor.ProcessTask;
+
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
 
 /**
  * Async biz context of Rpc.
@@ -27,7 +33,7 @@ import com.alipay.remoting.RemotingContext;
  * @author xiaomin.cxm
  * @version $Id: RpcAsyncContext.java, v 0.1 May 16, 2016 8:23:07 PM xiaomin.cxm Exp $
  */
-public class RpcAsyncContext implements AsyncContext {
+public class RpcAsyncContext implements StreamingAsyncContext {
     /** remoting context */
     private RemotingContext     ctx;
 
@@ -39,6 +45,12 @@ public class RpcAsyncContext implements AsyncContext {
     /** is response sent already */
     private AtomicBoolean       isResponseSentAlready = new AtomicBoolean();
 
+    /** process task holding the permit of concurrency limiter, released when the response sent */
+    private ProcessTask         task;
+
+    /** releases the permit if no response sent till the deadline of request */
+    private Timeout             permitTimeout;
+
     /**
      * Default constructor.
      *
@@ -59,10 +71,57 @@ public class RpcAsyncContext implements AsyncContext {
     @Override
     public void sendResponse(Object responseObject) {
         if (isResponseSentAlready.compareAndSet(false, true)) {
-            processor.sendResponseIfNecessary(this.ctx, cmd.getType(), processor
-                .getCommandFactory().createResponse(responseObject, this.cmd));
+            try {
+                processor.endPartialResponses(this.ctx, this.cmd);
+                processor.sendResponseIfNecessary(this.ctx, cmd.getType(), processor
+                    .getCommandFactory().createResponse(responseObject, this.cmd));
+            } finally {
+                releasePermit();
+            }
         } else {
             throw new IllegalStateException("Should not send rpc response repeatedly!");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Hold the permit of concurrency limiter acquired for the process task, till the response sent,
+     * or till the deadline of request in case the processor never sends one.
+     *
+     * @param task process task
+     * @param deadlineMillis deadline of the request
+     */
+    void holdPermit(ProcessTask task, long deadlineMillis) {
+        task.limiterHeld = true;
+        this.task = task;
+        long delay = Math.max(0, deadlineMillis - System.currentTimeMillis());
+        this.permitTimeout = TimerHolder.getTimer().newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                releasePermit();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Release the permit of concurrency limiter if held, only the first call takes effect.
+     */
+    void releasePermit() {
+        if (null != this.task) {
+            this.task.releaseLimiter();
+            if (null != this.permitTimeout) {
+                this.permitTimeout.cancel();
+            }
+        }
+    }
+
+    /**
+     * @see com.alipay.remoting.StreamingAsyncContext#sendPartialResponse(java.lang.Object)
+     */
+    @Override
+    public boolean sendPartialResponse(Object responseObject) {
+        if (isResponseSentAlready.get()) {
+            throw new IllegalStateException("Should not send partial response after the final one!");
+        }
+        return processor.sendPartialResponse(this.ctx, this.cmd, responseObject);
+    }
+}
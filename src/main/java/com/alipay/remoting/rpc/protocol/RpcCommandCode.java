@@ -28,9 +28,10 @@ public enum RpcCommandCode implements CommandCode {
     /**
      * (short) 1 代表RPC请求命令
      * (short) 2 代表RPC回复命令
+     * (short) 3 代表RPC流的分块或额度命令
      */
 
-    RPC_REQUEST((short) 1), RPC_RESPONSE((short) 2);
+    RPC_REQUEST((short) 1), RPC_RESPONSE((short) 2), RPC_STREAM((short) 3);
 
     private short value;
 
@@ -49,6 +50,8 @@ public enum RpcCommandCode implements CommandCode {
                 return RPC_REQUEST;
             case 2:
                 return RPC_RESPONSE;
+            case 3:
+                return RPC_STREAM;
         }
         throw new IllegalArgumentException("Unknown Rpc command code value: " + value);
     }
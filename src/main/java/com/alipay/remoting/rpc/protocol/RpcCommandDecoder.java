@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import com.alipay.remoting.CommandCode;
 import com.alipay.remoting.CommandDecoder;
 import com.alipay.remoting.ResponseStatus;
+import com.alipay.remoting.config.ConfigManager;
 import com.alipay.remoting.log.BoltLoggerFactory;
 import com.alipay.remoting.rpc.HeartbeatAckCommand;
 import com.alipay.remoting.rpc.HeartbeatCommand;
@@ -46,9 +47,13 @@ public class RpcCommandDecoder implements CommandDecoder {
 
     private int                 lessLen;
 
+    /** whether to hold the content by a retained slice of the inbound buffer */
+    private final boolean       zeroCopyDecode;
+
     {
         lessLen = RpcProtocol.getResponseHeaderLength() < RpcProtocol.getRequestHeaderLength() ? RpcProtocol
             .getResponseHeaderLength() : RpcProtocol.getRequestHeaderLength();
+        zeroCopyDecode = ConfigManager.codec_zero_copy_decode();
     }
 
     /**
@@ -96,6 +101,7 @@ public class RpcCommandDecoder implements CommandDecoder {
                             byte[] clazz = null;
                             byte[] header = null;
                             byte[] content = null;
+                            ByteBuf contentBuf = null;
                             if (in.readableBytes() >= classLen + headerLen + contentLen) {
                                 if (classLen > 0) {
                                     clazz = new byte[classLen];
@@ -106,8 +112,12 @@ public class RpcCommandDecoder implements CommandDecoder {
                                     in.readBytes(header);
                                 }
                                 if (contentLen > 0) {
-                                    content = new byte[contentLen];
-                                    in.readBytes(content);
+                                    if (zeroCopyDecode) {
+                                        contentBuf = in.readRetainedSlice(contentLen);
+                                    } else {
+                                        content = new byte[contentLen];
+                                        in.readBytes(content);
+                                    }
                                 }
                             } else {// not enough data
                                 in.resetReaderIndex();
@@ -115,7 +125,7 @@ public class RpcCommandDecoder implements CommandDecoder {
                             }
                             RequestCommand command;
                             if (cmdCode == CommandCode.HEARTBEAT_VALUE) {
-                                command = new HeartbeatCommand();
+                                command = new HeartbeatCommand(requestId);
                             } else {
                                 command = createRequestCommand(cmdCode);
                             }
@@ -127,6 +137,7 @@ public class RpcCommandDecoder implements CommandDecoder {
                             command.setClazz(clazz);
                             command.setHeader(header);
                             command.setContent(content);
+                            command.setContentBuf(contentBuf);
                             out.add(command);
 
                         } else {
@@ -146,6 +157,7 @@ public class RpcCommandDecoder implements CommandDecoder {
                             byte[] clazz = null;
                             byte[] header = null;
                             byte[] content = null;
+                            ByteBuf contentBuf = null;
                             if (in.readableBytes() >= classLen + headerLen + contentLen) {
                                 if (classLen > 0) {
                                     clazz = new byte[classLen];
@@ -156,8 +168,12 @@ public class RpcCommandDecoder implements CommandDecoder {
                                     in.readBytes(header);
                                 }
                                 if (contentLen > 0) {
-                                    content = new byte[contentLen];
-                                    in.readBytes(content);
+                                    if (zeroCopyDecode) {
+                                        contentBuf = in.readRetainedSlice(contentLen);
+                                    } else {
+                                        content = new byte[contentLen];
+                                        in.readBytes(content);
+                                    }
                                 }
                             } else {// not enough data
                                 in.resetReaderIndex();
@@ -178,6 +194,7 @@ public class RpcCommandDecoder implements CommandDecoder {
                             command.setClazz(clazz);
                             command.setHeader(header);
                             command.setContent(content);
+                            command.setContentBuf(contentBuf);
                             command.setResponseTimeMillis(System.currentTimeMillis());
                             command.setResponseHost((InetSocketAddress) ctx.channel()
                                 .remoteAddress());
@@ -207,7 +224,10 @@ public class RpcCommandDecoder implements CommandDecoder {
         return command;
     }
 
-    private RpcRequestCommand createRequestCommand(short cmdCode) {
+    private RequestCommand createRequestCommand(short cmdCode) {
+        if (cmdCode == RpcCommandCode.RPC_STREAM.value()) {
+            return new RpcStreamCommand();
+        }
         RpcRequestCommand command = new RpcRequestCommand();
         command.setCmdCode(RpcCommandCode.valueOf(cmdCode));
         command.setArriveTime(System.currentTimeMillis());
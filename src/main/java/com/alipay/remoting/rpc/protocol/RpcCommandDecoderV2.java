@@ -24,17 +24,25 @@ import org.slf4j.LoggerFactory;
 
 import com.alipay.remoting.CommandCode;
 import com.alipay.remoting.CommandDecoder;
+import com.alipay.remoting.Connection;
 import com.alipay.remoting.ResponseStatus;
+import com.alipay.remoting.compression.Compressor;
+import com.alipay.remoting.compression.CompressorManager;
+import com.alipay.remoting.config.ConfigManager;
 import com.alipay.remoting.config.switches.ProtocolSwitch;
+import com.alipay.remoting.exception.CodecException;
 import com.alipay.remoting.rpc.HeartbeatAckCommand;
 import com.alipay.remoting.rpc.HeartbeatCommand;
 import com.alipay.remoting.rpc.RequestCommand;
 import com.alipay.remoting.rpc.ResponseCommand;
+import com.alipay.remoting.rpc.RpcCommand;
 import com.alipay.remoting.rpc.RpcCommandType;
 import com.alipay.remoting.util.CrcUtil;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
 
 /**
  * Command decoder for Rpc v2.
@@ -49,9 +57,17 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
 
     private int                 lessLen;
 
+    /** max length of the content decompressed 解压后内容的最大长度 */
+    private final int           maxInflated;
+
+    /** whether to hold the content by a retained slice of the inbound buffer 是否以入站缓冲区切片持有内容 */
+    private final boolean       zeroCopyDecode;
+
     {
         lessLen = RpcProtocolV2.getResponseHeaderLength() < RpcProtocolV2.getRequestHeaderLength() ? RpcProtocolV2
             .getResponseHeaderLength() : RpcProtocolV2.getRequestHeaderLength();
+        maxInflated = ConfigManager.compress_max_inflated();
+        zeroCopyDecode = ConfigManager.codec_zero_copy_decode();
     }
 
     /**
@@ -106,7 +122,7 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
                             int contentLen = in.readInt();
                             byte[] clazz = null;
                             byte[] header = null;
-                            byte[] content = null;
+                            int contentIndex;
 
                             // decide the at-least bytes length for each version
                             int lengthAtLeastForV1 = classLen + headerLen + contentLen;
@@ -134,13 +150,11 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
                                     in.readBytes(header);
                                 }
                                 // 读取内容
-                                if (contentLen > 0) {
-                                    content = new byte[contentLen];
-                                    in.readBytes(content);
-                                }
+                                contentIndex = in.readerIndex();
+                                in.skipBytes(contentLen);
                                 if (version == RpcProtocolV2.PROTOCOL_VERSION_2 && crcSwitchOn) {
                                     //校验内容
-                                    checkCRC(in, startIndex);
+                                    checkCRC(in, startIndex, protocolSwitchValue);
                                 }
                             } else {// not enough data 不足够的数据,重置读指针
                                 in.resetReaderIndex();
@@ -150,7 +164,7 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
                             RequestCommand command;
                             //判断是心跳命令还是请求命令
                             if (cmdCode == CommandCode.HEARTBEAT_VALUE) {
-                                command = new HeartbeatCommand();
+                                command = new HeartbeatCommand(requestId);
                             } else {
                                 command = createRequestCommand(cmdCode);
                             }
@@ -163,7 +177,8 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
                             command.setTimeout(timeout);
                             command.setClazz(clazz);
                             command.setHeader(header);
-                            command.setContent(content);
+                            setContent(ctx, command, in, contentIndex, contentLen,
+                                protocolSwitchValue);
 
                             out.add(command);
                         } else {
@@ -183,7 +198,7 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
                             int contentLen = in.readInt();
                             byte[] clazz = null;
                             byte[] header = null;
-                            byte[] content = null;
+                            int contentIndex;
 
                             // decide the at-least bytes length for each version
                             int lengthAtLeastForV1 = classLen + headerLen + contentLen;
@@ -206,12 +221,10 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
                                     header = new byte[headerLen];
                                     in.readBytes(header);
                                 }
-                                if (contentLen > 0) {
-                                    content = new byte[contentLen];
-                                    in.readBytes(content);
-                                }
+                                contentIndex = in.readerIndex();
+                                in.skipBytes(contentLen);
                                 if (version == RpcProtocolV2.PROTOCOL_VERSION_2 && crcSwitchOn) {
-                                    checkCRC(in, startIndex);
+                                    checkCRC(in, startIndex, protocolSwitchValue);
                                 }
                             } else {// not enough data
                                 in.resetReaderIndex();
@@ -231,7 +244,8 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
                             command.setResponseStatus(ResponseStatus.valueOf(status));
                             command.setClazz(clazz);
                             command.setHeader(header);
-                            command.setContent(content);
+                            setContent(ctx, command, in, contentIndex, contentLen,
+                                protocolSwitchValue);
                             command.setResponseTimeMillis(System.currentTimeMillis());
                             command.setResponseHost((InetSocketAddress) ctx.channel()
                                 .remoteAddress());
@@ -257,12 +271,68 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
         }
     }
 
-    private void checkCRC(ByteBuf in, int startIndex) {
+    /**
+     * Set the content of the frame to command, which has passed crc check.
+     * If the compress switch is on, the content is prefixed by the code of compressor, and decompressed here.
+     */
+    private void setContent(ChannelHandlerContext ctx, RpcCommand command, ByteBuf in,
+                            int contentIndex, int contentLen, byte protocolSwitchValue)
+                                                                                       throws CodecException {
+        if (contentLen > 0
+            && ProtocolSwitch.isOn(ProtocolSwitch.COMPRESS_SWITCH_INDEX, protocolSwitchValue)) {
+            Attribute<Boolean> compressSupported = ctx.channel().attr(Connection.COMPRESS);
+            if (null == compressSupported.get()) {
+                // the peer supports compression, so that the commands sent to it may be compressed
+                compressSupported.set(Boolean.TRUE);
+            }
+            byte compressorCode = in.getByte(contentIndex);
+            ++contentIndex;
+            --contentLen;
+            if (compressorCode != CompressorManager.None) {
+                Compressor compressor = CompressorManager.getCompressor(compressorCode);
+                if (null == compressor) {
+                    throw new CodecException("Unknown compressor: " + compressorCode);
+                }
+                command.setCompressor(compressorCode);
+                // bounded by the max capacity, decompressed in io thread
+                int initialCapacity = Math.min(contentLen, maxInflated);
+                ByteBuf decompressed = zeroCopyDecode ? ctx.alloc().buffer(initialCapacity,
+                    maxInflated) : ctx.alloc().heapBuffer(initialCapacity, maxInflated);
+                try {
+                    compressor.decompress(in.slice(contentIndex, contentLen), decompressed);
+                    if (zeroCopyDecode) {
+                        command.setContentBuf(decompressed);
+                        decompressed = null;
+                    } else {
+                        command.setContent(ByteBufUtil.getBytes(decompressed));
+                    }
+                } finally {
+                    if (null != decompressed) {
+                        decompressed.release();
+                    }
+                }
+                return;
+            }
+        }
+        if (contentLen > 0) {
+            if (zeroCopyDecode) {
+                // retain only after the frame has passed crc check
+                command.setContentBuf(in.retainedSlice(contentIndex, contentLen));
+            } else {
+                byte[] content = new byte[contentLen];
+                in.getBytes(contentIndex, content);
+                command.setContent(content);
+            }
+        }
+    }
+
+    private void checkCRC(ByteBuf in, int startIndex, byte protocolSwitchValue) {
         int endIndex = in.readerIndex();
         int expectedCrc = in.readInt();
-        byte[] frame = new byte[endIndex - startIndex];
-        in.getBytes(startIndex, frame, 0, endIndex - startIndex);
-        int actualCrc = CrcUtil.crc32(frame);
+        int frameLength = endIndex - startIndex;
+        int actualCrc = ProtocolSwitch
+            .isOn(ProtocolSwitch.CRC32C_SWITCH_INDEX, protocolSwitchValue) ? CrcUtil.crc32c(in,
+            startIndex, frameLength) : CrcUtil.crc32(in, startIndex, frameLength);
         if (expectedCrc != actualCrc) {
             String err = "CRC check failed!";
             logger.error(err);
@@ -276,7 +346,10 @@ public class RpcCommandDecoderV2 implements CommandDecoder {
         return command;
     }
 
-    private RpcRequestCommand createRequestCommand(short cmdCode) {
+    private RequestCommand createRequestCommand(short cmdCode) {
+        if (cmdCode == RpcCommandCode.RPC_STREAM.value()) {
+            return new RpcStreamCommand();
+        }
         RpcRequestCommand command = new RpcRequestCommand();
         command.setCmdCode(RpcCommandCode.valueOf(cmdCode));
         command.setArriveTime(System.currentTimeMillis());
@@ -80,6 +80,7 @@ public class RpcCommandEncoder implements CommandEncoder {
                 }
                 out.writeShort(cmd.getClazzLength());
                 out.writeShort(cmd.getHeaderLength());
+                int contentLengthIndex = out.writerIndex();
                 out.writeInt(cmd.getContentLength());
                 if (cmd.getClazzLength() > 0) {
                     out.writeBytes(cmd.getClazz());
@@ -87,7 +88,10 @@ public class RpcCommandEncoder implements CommandEncoder {
                 if (cmd.getHeaderLength() > 0) {
                     out.writeBytes(cmd.getHeader());
                 }
-                if (cmd.getContentLength() > 0) {
+                if (cmd.isContentDeferred()) {
+                    // serialize into out directly, then back-patch the content length
+                    out.setInt(contentLengthIndex, cmd.serializeDeferredContent(out));
+                } else if (cmd.getContentLength() > 0 && !cmd.isContentDetached()) {
                     out.writeBytes(cmd.getContent());
                 }
             } else {
@@ -23,6 +23,9 @@ import org.slf4j.LoggerFactory;
 
 import com.alipay.remoting.CommandEncoder;
 import com.alipay.remoting.Connection;
+import com.alipay.remoting.compression.Compressor;
+import com.alipay.remoting.compression.CompressorManager;
+import com.alipay.remoting.config.ConfigManager;
 import com.alipay.remoting.config.switches.ProtocolSwitch;
 import com.alipay.remoting.rpc.RequestCommand;
 import com.alipay.remoting.rpc.ResponseCommand;
@@ -30,6 +33,7 @@ import com.alipay.remoting.rpc.RpcCommand;
 import com.alipay.remoting.util.CrcUtil;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.util.Attribute;
 
@@ -44,6 +48,13 @@ public class RpcCommandEncoderV2 implements CommandEncoder {
     /** logger  日志 */
     private static final Logger logger = LoggerFactory.getLogger("RpcRemoting");
 
+    /** content shorter than this is not compressed 短于此长度的内容不压缩 */
+    private final int           compressThreshold;
+
+    {
+        compressThreshold = ConfigManager.compress_threshold();
+    }
+
     /**
      * @see CommandEncoder#encode(ChannelHandlerContext, Serializable, ByteBuf)
      */
@@ -108,7 +119,8 @@ public class RpcCommandEncoderV2 implements CommandEncoder {
                 out.writeShort(cmd.getClazzLength());
                 //写入头部长度
                 out.writeShort(cmd.getHeaderLength());
-                //写入内容长度
+                //写入内容长度,延迟序列化时先预留位置
+                int contentLengthIndex = out.writerIndex();
                 out.writeInt(cmd.getContentLength());
                 //写入类
                 if (cmd.getClazzLength() > 0) {
@@ -119,16 +131,22 @@ public class RpcCommandEncoderV2 implements CommandEncoder {
                     out.writeBytes(cmd.getHeader());
                 }
                 //写入内容
-                if (cmd.getContentLength() > 0) {
+                if (cmd.getProtocolSwitch().isOn(ProtocolSwitch.COMPRESS_SWITCH_INDEX)) {
+                    // content prefixed by the compressor code, then back-patch the content length
+                    out.setInt(contentLengthIndex, writeCompressibleContent(ctx, cmd, out));
+                } else if (cmd.isContentDeferred()) {
+                    // serialize into out directly, then back-patch the content length
+                    out.setInt(contentLengthIndex, cmd.serializeDeferredContent(out));
+                } else if (cmd.getContentLength() > 0 && !cmd.isContentDetached()) {
                     out.writeBytes(cmd.getContent());
                 }
                 //通过判断协议是v2且crc功能是开启的,对内容进行循环冗余校验
                 if (ver == RpcProtocolV2.PROTOCOL_VERSION_2
                     && cmd.getProtocolSwitch().isOn(ProtocolSwitch.CRC_SWITCH_INDEX)) {
-                    // compute the crc32 and write to out
-                    byte[] frame = new byte[out.readableBytes()];
-                    out.getBytes(index, frame);
-                    out.writeInt(CrcUtil.crc32(frame));
+                    // compute the crc over the frame in place and write to out
+                    int frameLength = out.writerIndex() - index;
+                    out.writeInt(cmd.getProtocolSwitch().isOn(ProtocolSwitch.CRC32C_SWITCH_INDEX) ? CrcUtil
+                        .crc32c(out, index, frameLength) : CrcUtil.crc32(out, index, frameLength));
                 }
             } else {
                 // 抛出异常
@@ -140,4 +158,50 @@ public class RpcCommandEncoderV2 implements CommandEncoder {
             throw e;
         }
     }
+
+    /**
+     * Write the content prefixed by the code of compressor, or by {@link CompressorManager#None}
+     * if shorter than the threshold or not getting smaller by compression. Nothing written for empty content.
+     *
+     * @return the length of content written
+     */
+    private int writeCompressibleContent(ChannelHandlerContext ctx, RpcCommand cmd, ByteBuf out)
+                                                                                                throws Exception {
+        ByteBuf content;
+        if (cmd.isContentDeferred()) {
+            content = ctx.alloc().heapBuffer();
+            try {
+                cmd.serializeDeferredContent(content);
+            } catch (Exception e) {
+                content.release();
+                throw e;
+            }
+        } else if (cmd.getContentLength() > 0) {
+            content = Unpooled.wrappedBuffer(cmd.getContent());
+        } else {
+            return 0;
+        }
+        try {
+            int contentLength = content.readableBytes();
+            if (contentLength == 0) {
+                return 0;
+            }
+            int start = out.writerIndex();
+            Compressor compressor = CompressorManager.getCompressor(cmd.getCompressor());
+            if (contentLength >= compressThreshold && null != compressor) {
+                out.writeByte(cmd.getCompressor());
+                compressor.compress(content.duplicate(), out);
+                if (out.writerIndex() - start <= contentLength) {
+                    return out.writerIndex() - start;
+                }
+                // not compressible, rewind and send as it is
+                out.writerIndex(start);
+            }
+            out.writeByte(CompressorManager.None);
+            out.writeBytes(content);
+            return out.writerIndex() - start;
+        } finally {
+            content.release();
+        }
+    }
 }
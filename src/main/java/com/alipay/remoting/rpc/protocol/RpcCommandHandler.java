@@ -16,6 +16,7 @@
  */
 package com.alipay.remoting.rpc.protocol;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -33,6 +34,8 @@ import com.alipay.remoting.RemotingContext;
 import com.alipay.remoting.RemotingProcessor;
 import com.alipay.remoting.ResponseStatus;
 import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
 import com.alipay.remoting.rpc.RequestCommand;
 import com.alipay.remoting.rpc.ResponseCommand;
 import com.alipay.remoting.rpc.RpcCommand;
@@ -70,6 +73,9 @@ public class RpcCommandHandler implements CommandHandler {
         //process response
         this.processorManager.registerProcessor(RpcCommandCode.RPC_RESPONSE,
             new RpcResponseProcessor());
+        //process stream chunks and credits
+        this.processorManager
+            .registerProcessor(RpcCommandCode.RPC_STREAM, new RpcStreamProcessor());
 
         this.processorManager.registerProcessor(CommonCommandCode.HEARTBEAT,
             new RpcHeartBeatProcessor());
@@ -80,6 +86,9 @@ public class RpcCommandHandler implements CommandHandler {
                 public void doProcess(RemotingContext ctx, RemotingCommand msg) throws Exception {
                     logger.error("No processor available for command code {}, msgId {}",
                         msg.getCmdCode(), msg.getId());
+                    if (msg instanceof RpcCommand) {
+                        ((RpcCommand) msg).releaseContentBuf();
+                    }
                 }
             });
     }
@@ -95,16 +104,21 @@ public class RpcCommandHandler implements CommandHandler {
     /*
      * Handle the request(s).
      */
-    private void handle(final RemotingContext ctx, final Object msg) {
+    private void handle(final RemotingContext ctx, final Object origin) {
+        Object msg = origin;
         try {
             if (msg instanceof List) {
+                msg = processStreamCommands(ctx, (List<?>) msg);
+            }
+            if (msg instanceof List) {
+                final List<?> msgList = (List<?>) msg;
                 final Runnable handleTask = new Runnable() {
                     @Override
                     public void run() {
                         if (logger.isDebugEnabled()) {
-                            logger.debug("Batch message! size={}", ((List<?>) msg).size());
+                            logger.debug("Batch message! size={}", msgList.size());
                         }
-                        for (final Object m : (List<?>) msg) {
+                        for (final Object m : msgList) {
                             RpcCommandHandler.this.process(ctx, m);
                         }
                     }
@@ -116,7 +130,7 @@ public class RpcCommandHandler implements CommandHandler {
                 } else {
                     handleTask.run();
                 }
-            } else {
+            } else if (null != msg) {
                 process(ctx, msg);
             }
         } catch (final Throwable t) {
@@ -124,6 +138,33 @@ public class RpcCommandHandler implements CommandHandler {
         }
     }
 
+    /**
+     * Process the stream commands and partial responses in the list in io thread, to keep them in order.
+     *
+     * @return the rest commands, a single one if only one left, or null if none left
+     */
+    private Object processStreamCommands(RemotingContext ctx, List<?> msgList) {
+        List<Object> rest = null;
+        for (int i = 0; i < msgList.size(); i++) {
+            Object m = msgList.get(i);
+            if (m instanceof RpcStreamCommand || RpcResponseProcessor.isPartialResponse(m)) {
+                if (null == rest) {
+                    rest = new ArrayList<Object>(msgList.subList(0, i));
+                }
+                this.process(ctx, m);
+            } else if (null != rest) {
+                rest.add(m);
+            }
+        }
+        if (null == rest) {
+            return msgList;
+        }
+        if (rest.isEmpty()) {
+            return null;
+        }
+        return rest.size() == 1 ? rest.get(0) : rest;
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private void process(RemotingContext ctx, Object msg) {
         try {
@@ -153,8 +194,19 @@ public class RpcCommandHandler implements CommandHandler {
         final String emsg = "Exception caught when processing "
                             + ((msg instanceof RequestCommand) ? "request, id=" : "response, id=");
         logger.warn(emsg + id, t);
+        // the command failed to be dispatched, so nobody will deserialize its content any more
+        ((RpcCommand) msg).releaseContentBuf();
         if (msg instanceof RequestCommand) {
             final RequestCommand cmd = (RequestCommand) msg;
+            RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+            if (null != metrics && t instanceof RejectedExecutionException) {
+                // rejected by the concurrency limiter or the executor, oneway ones included
+                String interest = null;
+                if (cmd instanceof RpcRequestCommand) {
+                    interest = ((RpcRequestCommand) cmd).getRequestClass();
+                }
+                metrics.onRequestRejected(interest);
+            }
             if (cmd.getType() != RpcCommandType.REQUEST_ONEWAY) {
                 if (t instanceof RejectedExecutionException) {
                     final ResponseCommand response = this.commandFactory.createExceptionResponse(
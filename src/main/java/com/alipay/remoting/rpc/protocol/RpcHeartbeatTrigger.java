@@ -32,6 +32,7 @@ import com.alipay.remoting.log.BoltLoggerFactory;
 import com.alipay.remoting.rpc.DefaultInvokeFuture;
 import com.alipay.remoting.rpc.HeartbeatCommand;
 import com.alipay.remoting.rpc.ResponseCommand;
+import com.alipay.remoting.util.IDGenerator;
 import com.alipay.remoting.util.RemotingUtil;
 
 import io.netty.channel.ChannelFuture;
@@ -83,7 +84,7 @@ public class RpcHeartbeatTrigger implements HeartbeatTrigger {
             if (!heartbeatSwitch) {
                 return;
             }
-            final HeartbeatCommand heartbeat = new HeartbeatCommand();
+            final HeartbeatCommand heartbeat = new HeartbeatCommand(IDGenerator.nextId(conn));
 
             final InvokeFuture future = new DefaultInvokeFuture(heartbeat.getId(),
                 new InvokeCallbackListener() {
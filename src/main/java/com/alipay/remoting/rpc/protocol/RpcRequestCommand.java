@@ -16,6 +16,7 @@
  */
 package com.alipay.remoting.rpc.protocol;
 
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 
 import com.alipay.remoting.CustomSerializer;
@@ -51,6 +52,9 @@ public class RpcRequestCommand extends RequestCommand {
 
     private transient long    arriveTime       = -1;
 
+    /** stream following the request, received on server side */
+    private InputStream       requestStream;
+
     /**
      * create request command without id
      * 生成请求命令，无需编号
@@ -70,6 +74,18 @@ public class RpcRequestCommand extends RequestCommand {
         this.setId(IDGenerator.nextId());
     }
 
+    /**
+     * create request command with specified id and request object
+     * 用指定的id和请求实体生成请求命令
+     * @param request request object
+     * @param id request id
+     */
+    public RpcRequestCommand(Object request, int id) {
+        super(RpcCommandCode.RPC_REQUEST);
+        this.requestObject = request;
+        this.setId(id);
+    }
+
     @Override
     public void serializeClazz() throws SerializationException {
         if (this.requestClass != null) {
@@ -133,6 +149,9 @@ public class RpcRequestCommand extends RequestCommand {
                     && this.getCustomSerializer().serializeContent(this, invokeContext)) {
                     return;
                 }
+                if (this.deferContentSerialization(this.requestObject)) {
+                    return;
+                }
 
                 this.setContent(SerializerManager.getSerializer(this.getSerializer()).serialize(
                     this.requestObject));
@@ -153,7 +172,9 @@ public class RpcRequestCommand extends RequestCommand {
                     && this.getCustomSerializer().deserializeContent(this)) {
                     return;
                 }
-                if (this.getContent() != null) {
+                if (this.getContentBuf() != null) {
+                    this.setRequestObject(this.<Object> deserializeContentBuf(this.requestClass));
+                } else if (this.getContent() != null) {
                     this.setRequestObject(SerializerManager.getSerializer(this.getSerializer())
                         .deserialize(this.getContent(), this.requestClass));
                 }
@@ -162,6 +183,8 @@ public class RpcRequestCommand extends RequestCommand {
             } catch (Exception e) {
                 throw new DeserializationException(
                     "Exception caught when deserialize content of rpc request command!", e);
+            } finally {
+                this.releaseContentBuf();
             }
         }
     }
@@ -255,4 +278,22 @@ public class RpcRequestCommand extends RequestCommand {
     public void setArriveTime(long arriveTime) {
         this.arriveTime = arriveTime;
     }
+
+    /**
+     * Getter method for property <tt>requestStream</tt>.
+     *
+     * @return property value of requestStream
+     */
+    public InputStream getRequestStream() {
+        return requestStream;
+    }
+
+    /**
+     * Setter method for property <tt>requestStream</tt>.
+     *
+     * @param requestStream value to be assigned to property requestStream
+     */
+    public void setRequestStream(InputStream requestStream) {
+        this.requestStream = requestStream;
+    }
 }
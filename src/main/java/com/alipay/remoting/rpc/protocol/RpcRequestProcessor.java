@@ -16,6 +16,8 @@
  */
 package com.alipay.remoting.rpc.protocol;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -23,15 +25,25 @@ import java.util.concurrent.RejectedExecutionException;
 import org.slf4j.Logger;
 
 import com.alipay.remoting.AbstractRemotingProcessor;
+import com.alipay.remoting.AdaptiveConcurrencyLimiter;
 import com.alipay.remoting.CommandFactory;
+import com.alipay.remoting.ConcurrencyLimiterManager;
 import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.InvokePhase;
 import com.alipay.remoting.RemotingCommand;
 import com.alipay.remoting.RemotingContext;
+import com.alipay.remoting.ResponseOutboundLimiter;
 import com.alipay.remoting.ResponseStatus;
+import com.alipay.remoting.config.switches.ProtocolSwitch;
 import com.alipay.remoting.exception.DeserializationException;
 import com.alipay.remoting.exception.SerializationException;
 import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcMetricsRecorder;
 import com.alipay.remoting.rpc.RpcCommandType;
+import com.alipay.remoting.rpc.stream.OutboundStream;
+import com.alipay.remoting.rpc.stream.StreamBody;
+import com.alipay.remoting.rpc.stream.StreamRegistry;
 import com.alipay.remoting.util.RemotingUtil;
 
 import io.netty.channel.Channel;
@@ -75,6 +87,12 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
     @Override
     public void process(RemotingContext ctx, RpcRequestCommand cmd, ExecutorService defaultExecutor)
                                                                                                     throws Exception {
+        markTiming(ctx, InvokePhase.SERVER_REQUEST_ARRIVED);
+        if (cmd.getProtocolSwitch().isOn(ProtocolSwitch.STREAM_SWITCH_INDEX)) {
+            // claim the stream in io thread, before it expires as unclaimed and its chunks dropped
+            cmd.setRequestStream(ctx.getConnection().getStreamRegistry()
+                .claimInbound(cmd.getId(), false));
+        }
         if (!deserializeRequestCommand(ctx, cmd, RpcDeserializeLevel.DESERIALIZE_CLAZZ)) {
             return;
         }
@@ -82,6 +100,7 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
         if (userProcessor == null) {
             String errMsg = "No user processor found for request: " + cmd.getRequestClass();
             logger.error(errMsg);
+            cmd.releaseContentBuf();
             sendResponseIfNecessary(ctx, cmd.getType(), this.getCommandFactory()
                 .createExceptionResponse(cmd.getId(), errMsg));
             return;// must end process
@@ -90,13 +109,33 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
         // set timeout check state from user's processor
         ctx.setTimeoutDiscard(userProcessor.timeoutDiscard());
 
+        // discard the request expired before dispatched, e.g. waiting behind a batch of commands, 
+        // so that no more cost is spent on deserializing and executing it
+        long currentTimestamp = System.currentTimeMillis();
+        preProcessRemotingContext(ctx, cmd, currentTimestamp);
+        if (ctx.isTimeoutDiscard() && ctx.isRequestTimeout()) {
+            timeoutLog(cmd, currentTimestamp, ctx);// do some log
+            cmd.releaseContentBuf();
+            return;// then, discard this request
+        }
+
+        // reject early if the concurrent requests of user's processor exceed the limit
+        AdaptiveConcurrencyLimiter limiter = ConcurrencyLimiterManager.getLimiter(userProcessor);
+        if (limiter != null && !limiter.tryAcquire()) {
+            // recorded as rejected by RpcCommandHandler, which sends the busy response
+            throw new RejectedExecutionException("Concurrency limit " + limiter.getLimit()
+                                                 + " exceeded for " + cmd.getRequestClass());
+        }
+        ProcessTask task = new ProcessTask(ctx, cmd, limiter);
+
         // to check whether to process in io thread
         if (userProcessor.processInIOThread()) {
             if (!deserializeRequestCommand(ctx, cmd, RpcDeserializeLevel.DESERIALIZE_ALL)) {
+                task.releaseLimiter();
                 return;
             }
             // process in io thread
-            new ProcessTask(ctx, cmd).run();
+            task.run();
             return;// end
         }
 
@@ -108,6 +147,7 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
             // in case haven't deserialized in io thread
             // it need to deserialize clazz and header before using executor dispath strategy
             if (!deserializeRequestCommand(ctx, cmd, RpcDeserializeLevel.DESERIALIZE_HEADER)) {
+                task.releaseLimiter();
                 return;
             }
             //try get executor with strategy
@@ -121,20 +161,33 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
         }
 
         // use the final executor dispatch process task
-        executor.execute(new ProcessTask(ctx, cmd));
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.releaseLimiter();
+            throw e;
+        }
     }
 
     /**
      * @see com.alipay.remoting.AbstractRemotingProcessor#doProcess(com.alipay.remoting.RemotingContext, com.alipay.remoting.RemotingCommand)
      */
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
     public void doProcess(final RemotingContext ctx, RpcRequestCommand cmd) throws Exception {
+        doProcess(ctx, cmd, null);
+    }
+
+    /**
+     * process the request, with the process task holding the permit of concurrency limiter if any
+     */
+    private void doProcess(final RemotingContext ctx, RpcRequestCommand cmd, ProcessTask task) {
+        markTiming(ctx, InvokePhase.SERVER_PROCESS_START);
         long currentTimestamp = System.currentTimeMillis();
 
         preProcessRemotingContext(ctx, cmd, currentTimestamp);
         if (ctx.isTimeoutDiscard() && ctx.isRequestTimeout()) {
             timeoutLog(cmd, currentTimestamp, ctx);// do some log
+            cmd.releaseContentBuf();
             return;// then, discard this request
         }
         debugLog(ctx, cmd, currentTimestamp);
@@ -142,7 +195,8 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
         if (!deserializeRequestCommand(ctx, cmd, RpcDeserializeLevel.DESERIALIZE_ALL)) {
             return;
         }
-        dispatchToUserProcessor(ctx, cmd);
+        markTiming(ctx, InvokePhase.SERVER_REQUEST_DESERIALIZED);
+        dispatchToUserProcessor(ctx, cmd, task);
     }
 
     /**
@@ -153,10 +207,35 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
      * @param type type code
      * @param response remoting command
      */
-    public void sendResponseIfNecessary(final RemotingContext ctx, byte type,
+    public void sendResponseIfNecessary(final RemotingContext ctx, final byte type,
                                         final RemotingCommand response) {
         final int id = response.getId();
+        markTiming(ctx, InvokePhase.SERVER_USER_PROCESSED);
+        InputStream responseStream = response instanceof RpcResponseCommand ? ((RpcResponseCommand) response)
+            .getResponseStream() : null;
         if (type != RpcCommandType.REQUEST_ONEWAY) {
+            if (null != responseStream) {
+                String errMsg = checkResponseStream(ctx, (RpcResponseCommand) response);
+                if (null != errMsg) {
+                    logger.error(errMsg);
+                    closeQuietly(responseStream);
+                    sendResponseIfNecessary(ctx, type, this.getCommandFactory()
+                        .createExceptionResponse(id, errMsg));
+                    return;
+                }
+            }
+            // check before serializing, no cost spent on the response to be dropped
+            final Channel channel = ctx.getChannelContext().channel();
+            final ResponseOutboundLimiter outboundLimiter = ResponseOutboundLimiter.get(channel);
+            if (null != outboundLimiter && outboundLimiter.isOverflow(channel)) {
+                if (!handleOutboundOverflow(ctx, outboundLimiter, id)) {
+                    closeQuietly(responseStream);
+                    return;
+                }
+            }
+
+            RpcMetricsRecorder metrics = RpcMetrics.getRecorder();
+            long serializeStartNanos = null == metrics ? 0 : System.nanoTime();
             RemotingCommand serializedResponse = response;
             try {
                 response.serialize();
@@ -180,9 +259,37 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
                     .createExceptionResponse(id, t, errMsg);
             }
 
+            if (serializedResponse != response && null != responseStream) {
+                // an exception response is sent instead
+                closeQuietly(responseStream);
+                responseStream = null;
+            }
+            markTiming(ctx, InvokePhase.SERVER_RESPONSE_SERIALIZED);
+            if (null != metrics && serializedResponse instanceof RpcResponseCommand) {
+                metrics.onResponseSent(
+                    ((RpcResponseCommand) serializedResponse).getResponseStatus(),
+                    System.nanoTime() - serializeStartNanos);
+            }
+
+            OutboundStream outboundStream = null;
+            if (null != responseStream) {
+                // registered before the response written, so that the cancel from client is never missed
+                outboundStream = ctx
+                    .getConnection()
+                    .getStreamRegistry()
+                    .createOutbound(id, true,
+                        ((RpcResponseCommand) serializedResponse).getProtocolSwitch());
+            }
+            final RemotingCommand sentResponse = serializedResponse;
             ctx.writeAndFlush(serializedResponse).addListener(new ChannelFutureListener() {
                 @Override
                 public void operationComplete(ChannelFuture future) throws Exception {
+                    if (null != outboundLimiter) {
+                        outboundLimiter.tryResumeRead(channel);
+                    }
+                    if (future.isSuccess()) {
+                        markTiming(ctx, InvokePhase.SERVER_RESPONSE_WRITTEN);
+                    }
                     if (logger.isDebugEnabled()) {
                         logger.debug("Rpc response sent! requestId="
                                      + id
@@ -197,10 +304,23 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
                                     + ". The address is "
                                     + RemotingUtil.parseRemoteAddress(ctx.getChannelContext()
                                         .channel()), future.cause());
+                        if (isDeferredSerializationFailure(sentResponse, future.cause())) {
+                            // the content failed to be serialized in encoder, tell the client about it
+                            sendResponseIfNecessary(
+                                ctx,
+                                type,
+                                RpcRequestProcessor.this.getCommandFactory()
+                                    .createExceptionResponse(id,
+                                        ResponseStatus.SERVER_SERIAL_EXCEPTION, future.cause()));
+                        }
                     }
                 }
             });
+            if (null != outboundStream) {
+                transferResponseStream(ctx, id, outboundStream, responseStream);
+            }
         } else {
+            closeQuietly(responseStream);
             if (logger.isDebugEnabled()) {
                 logger.debug("Oneway rpc request received, do not send response, id=" + id
                              + ", the address is "
@@ -209,21 +329,193 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
         }
     }
 
+    /**
+     * Send a partial response of the request, waiting until the client grants credits to receive it.
+     *
+     * @param ctx remoting context
+     * @param cmd request command
+     * @param responseObject partial response object
+     * @return false if the client no longer receives
+     */
+    public boolean sendPartialResponse(RemotingContext ctx, RpcRequestCommand cmd,
+                                       Object responseObject) {
+        if (!cmd.getProtocolSwitch().isOn(ProtocolSwitch.PARTIAL_SWITCH_INDEX)) {
+            throw new IllegalStateException(
+                "Partial response is not accepted by the invocation, id=" + cmd.getId());
+        }
+        if (responseObject instanceof StreamBody) {
+            throw new IllegalArgumentException("Partial response can not be a stream body, id="
+                                               + cmd.getId());
+        }
+        if (ctx.getChannelContext().channel().eventLoop().inEventLoop()) {
+            throw new IllegalStateException("Partial response can not be sent from io thread, id="
+                                            + cmd.getId());
+        }
+        StreamRegistry registry = ctx.getConnection().getStreamRegistry();
+        Long deadline = ctx.getInvokeContext().get(InvokeContext.BOLT_INVOKE_DEADLINE);
+        try {
+            if (!registry.getOrCreateOutbound(cmd.getId(), true, cmd.getProtocolSwitch()).acquire(
+                null == deadline ? Long.MAX_VALUE : deadline)) {
+                return false;// cancelled by the client
+            }
+        } catch (IOException e) {
+            logger.warn("Stop sending partial responses, id=" + cmd.getId() + ". The address is "
+                        + RemotingUtil.parseRemoteAddress(ctx.getChannelContext().channel()), e);
+            registry.removeOutbound(cmd.getId(), true);
+            return false;
+        }
+        RpcResponseCommand response = (RpcResponseCommand) this.getCommandFactory().createResponse(
+            responseObject, cmd);
+        response.getProtocolSwitch().turnOn(ProtocolSwitch.PARTIAL_SWITCH_INDEX);
+        sendResponseIfNecessary(ctx, cmd.getType(), response);
+        return true;
+    }
+
+    /**
+     * Stop counting the credits of partial responses, called before sending the final response.
+     *
+     * @param ctx remoting context
+     * @param cmd request command
+     */
+    public void endPartialResponses(RemotingContext ctx, RpcRequestCommand cmd) {
+        if (cmd.getProtocolSwitch().isOn(ProtocolSwitch.PARTIAL_SWITCH_INDEX)) {
+            ctx.getConnection().getStreamRegistry().removeOutbound(cmd.getId(), true);
+        }
+    }
+
+    /**
+     * check whether the stream following the response can be sent
+     *
+     * @return error message if not
+     */
+    private String checkResponseStream(RemotingContext ctx, RpcResponseCommand response) {
+        Channel channel = ctx.getChannelContext().channel();
+        if (channel.eventLoop().inEventLoop()) {
+            return "Stream of response can not be sent from io thread, id=" + response.getId();
+        }
+        if (!ctx.getConnection().getStreamRegistry().isSupported()
+            || !response.getProtocolSwitch().isOn(ProtocolSwitch.STREAM_SWITCH_INDEX)) {
+            return "Stream of response is only supported by protocol v2, id=" + response.getId();
+        }
+        return null;
+    }
+
+    /**
+     * send the stream following the response in the current thread
+     */
+    private void transferResponseStream(RemotingContext ctx, int id, OutboundStream outboundStream,
+                                        InputStream responseStream) {
+        try {
+            outboundStream.transfer(responseStream, Long.MAX_VALUE);
+        } catch (IOException e) {
+            logger.error("Send stream of response failed, id=" + id + ". The address is "
+                         + RemotingUtil.parseRemoteAddress(ctx.getChannelContext().channel()), e);
+        }
+    }
+
+    private void closeQuietly(InputStream stream) {
+        if (null == stream) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException e) {
+            logger.warn("Close stream of response failed", e);
+        }
+    }
+
+    /**
+     * record the timestamp of phase in invoke context, if timing enabled
+     */
+    private void markTiming(RemotingContext ctx, InvokePhase phase) {
+        InvokeContext invokeContext = ctx.getInvokeContext();
+        if (null != invokeContext) {
+            invokeContext.mark(phase);
+        }
+    }
+
+    /**
+     * handle the response when the pending outbound bytes of connection exceed the limit
+     *
+     * @return whether to go on sending the response
+     */
+    private boolean handleOutboundOverflow(final RemotingContext ctx,
+                                           final ResponseOutboundLimiter outboundLimiter,
+                                           final int id) {
+        final Channel channel = ctx.getChannelContext().channel();
+        switch (outboundLimiter.getPolicy()) {
+            case DROP:
+                outboundLimiter.onDropped();
+                String errMsg = "Response dropped as pending outbound bytes exceed limit "
+                                + outboundLimiter.getLimit() + ", id=" + id;
+                logger
+                    .warn(errMsg + ". The address is " + RemotingUtil.parseRemoteAddress(channel));
+                RemotingCommand errorResponse = this.getCommandFactory().createExceptionResponse(
+                    id, errMsg);
+                try {
+                    errorResponse.serialize();
+                    ctx.writeAndFlush(errorResponse);
+                } catch (SerializationException e) {
+                    logger.error("serialize dropped response failed!", e);
+                }
+                return false;
+            case CLOSE:
+                outboundLimiter.closeChannel(channel);
+                return false;
+            default:
+                // still send the response, no more requests will come as reading paused
+                outboundLimiter.pauseRead(channel);
+                return true;
+        }
+    }
+
+    /**
+     * whether the response failed to be sent because its deferred content can not be serialized by the encoder.
+     * exception responses are excluded to avoid sending failure responses endlessly.
+     */
+    private boolean isDeferredSerializationFailure(RemotingCommand response, Throwable cause) {
+        if (!(response instanceof RpcResponseCommand)
+            || !((RpcResponseCommand) response).isContentDeferred()
+            || ((RpcResponseCommand) response).getResponseStatus() != ResponseStatus.SUCCESS) {
+            return false;
+        }
+        while (cause != null) {
+            if (cause instanceof SerializationException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
     /**
      * dispatch request command to user processor
      * @param ctx remoting context
      * @param cmd rpc request command
      */
-    private void dispatchToUserProcessor(RemotingContext ctx, RpcRequestCommand cmd) {
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void dispatchToUserProcessor(RemotingContext ctx, RpcRequestCommand cmd,
+                                         ProcessTask task) {
         final int id = cmd.getId();
         final byte type = cmd.getType();
         // processor here must not be null, for it have been checked before
         UserProcessor processor = ctx.getUserProcessor(cmd.getRequestClass());
+        if (null != cmd.getRequestStream()) {
+            ctx.getInvokeContext().put(InvokeContext.BOLT_REQUEST_STREAM, cmd.getRequestStream());
+        }
         if (processor instanceof AsyncUserProcessor) {
+            RpcAsyncContext asyncCtx = new RpcAsyncContext(ctx, cmd, this);
+            // the request is in process till the response sent by async context, or its deadline passed,
+            // a oneway request or one without timeout releases the permit once handleRequest returned
+            Long deadline = ctx.getInvokeContext().get(InvokeContext.BOLT_INVOKE_DEADLINE);
+            if (null != task && null != deadline) {
+                asyncCtx.holdPermit(task, deadline);
+            }
             try {
                 processor.handleRequest(processor.preHandleRequest(ctx, cmd.getRequestObject()),
-                    new RpcAsyncContext(ctx, cmd, this), cmd.getRequestObject());
+                    asyncCtx, cmd.getRequestObject());
             } catch (RejectedExecutionException e) {
+                asyncCtx.releasePermit();
                 logger
                     .warn("RejectedExecutionException occurred when do ASYNC process in RpcRequestProcessor");
                 sendResponseIfNecessary(ctx, type, this.getCommandFactory()
@@ -231,6 +523,8 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
             } catch (Throwable t) {
                 String errMsg = "AYSNC process rpc request failed in RpcRequestProcessor, id=" + id;
                 logger.error(errMsg, t);
+                asyncCtx.releasePermit();
+                endPartialResponses(ctx, cmd);
                 sendResponseIfNecessary(ctx, type, this.getCommandFactory()
                     .createExceptionResponse(id, t, errMsg));
             }
@@ -297,8 +591,12 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
         ctx.setArriveTimestamp(cmd.getArriveTime());
         ctx.setTimeout(cmd.getTimeout());
         ctx.setRpcCommandType(cmd.getType());
-        ctx.getInvokeContext().putIfAbsent(InvokeContext.BOLT_PROCESS_WAIT_TIME,
+        ctx.getInvokeContext().put(InvokeContext.BOLT_PROCESS_WAIT_TIME,
             currentTimestamp - cmd.getArriveTime());
+        if (cmd.getTimeout() > 0 && cmd.getType() != RpcCommandType.REQUEST_ONEWAY) {
+            ctx.getInvokeContext().put(InvokeContext.BOLT_INVOKE_DEADLINE,
+                cmd.getArriveTime() + cmd.getTimeout());
+        }
     }
 
     /**
@@ -349,12 +647,30 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
      */
     class ProcessTask implements Runnable {
 
-        RemotingContext   ctx;
-        RpcRequestCommand msg;
+        RemotingContext            ctx;
+        RpcRequestCommand          msg;
+        AdaptiveConcurrencyLimiter limiter;
+        boolean                    limiterHeld;
+        RpcMetricsRecorder         metrics;
+        long                       startNanos;
 
-        public ProcessTask(RemotingContext ctx, RpcRequestCommand msg) {
+        public ProcessTask(RemotingContext ctx, RpcRequestCommand msg,
+                           AdaptiveConcurrencyLimiter limiter) {
             this.ctx = ctx;
             this.msg = msg;
+            this.limiter = limiter;
+            this.metrics = RpcMetrics.getRecorder();
+            this.startNanos = (limiter == null && metrics == null) ? 0 : System.nanoTime();
+        }
+
+        /**
+         * release the permit of limiter with the latency since acquired, the time waiting in queue included
+         */
+        synchronized void releaseLimiter() {
+            if (this.limiter != null) {
+                this.limiter.release(System.nanoTime() - this.startNanos);
+                this.limiter = null;
+            }
         }
 
         /**
@@ -362,8 +678,13 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
          */
         @Override
         public void run() {
+            long runNanos = 0;
+            if (this.metrics != null) {
+                runNanos = System.nanoTime();
+                this.metrics.onProcessStart(msg.getRequestClass(), runNanos - this.startNanos);
+            }
             try {
-                RpcRequestProcessor.this.doProcess(ctx, msg);
+                RpcRequestProcessor.this.doProcess(ctx, msg, this);
             } catch (Throwable e) {
                 //protect the thread running this task
                 String remotingAddress = RemotingUtil.parseRemoteAddress(ctx.getChannelContext()
@@ -373,6 +694,15 @@ public class RpcRequestProcessor extends AbstractRemotingProcessor<RpcRequestCom
                         "Exception caught when process rpc request command in RpcRequestProcessor, Id="
                                 + msg.getId() + "! Invoke source address is [" + remotingAddress
                                 + "].", e);
+            } finally {
+                // in case the content has not been deserialized for any reason
+                msg.releaseContentBuf();
+                if (!this.limiterHeld) {
+                    releaseLimiter();
+                }
+                if (this.metrics != null) {
+                    this.metrics.onProcessEnd(msg.getRequestClass(), System.nanoTime() - runNanos);
+                }
             }
         }
 
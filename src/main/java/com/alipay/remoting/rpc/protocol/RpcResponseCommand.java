@@ -16,6 +16,7 @@
  */
 package com.alipay.remoting.rpc.protocol;
 
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 
 import com.alipay.remoting.CustomSerializer;
@@ -53,6 +54,9 @@ public class RpcResponseCommand extends ResponseCommand {
 
     private String            errorMsg;
 
+    /** stream following the response, to send on server side, or received on client side */
+    private InputStream       responseStream;
+
     public RpcResponseCommand() {
         super(RpcCommandCode.RPC_RESPONSE);
     }
@@ -118,6 +122,9 @@ public class RpcResponseCommand extends ResponseCommand {
                     && this.getCustomSerializer().serializeContent(this)) {
                     return;
                 }
+                if (this.deferContentSerialization(this.responseObject)) {
+                    return;
+                }
 
                 this.setContent(SerializerManager.getSerializer(this.getSerializer()).serialize(
                     this.responseObject));
@@ -138,7 +145,9 @@ public class RpcResponseCommand extends ResponseCommand {
                     && this.getCustomSerializer().deserializeContent(this, invokeContext)) {
                     return;
                 }
-                if (this.getContent() != null) {
+                if (this.getContentBuf() != null) {
+                    this.setResponseObject(this.<Object> deserializeContentBuf(this.responseClass));
+                } else if (this.getContent() != null) {
                     this.setResponseObject(SerializerManager.getSerializer(this.getSerializer())
                         .deserialize(this.getContent(), this.responseClass));
                 }
@@ -147,6 +156,8 @@ public class RpcResponseCommand extends ResponseCommand {
             } catch (Exception e) {
                 throw new DeserializationException(
                     "Exception caught when deserialize content of rpc response command!", e);
+            } finally {
+                this.releaseContentBuf();
             }
         }
 
@@ -253,4 +264,22 @@ public class RpcResponseCommand extends ResponseCommand {
     public void setErrorMsg(String errorMsg) {
         this.errorMsg = errorMsg;
     }
+
+    /**
+     * Getter method for property <tt>responseStream</tt>.
+     *
+     * @return property value of responseStream
+     */
+    public InputStream getResponseStream() {
+        return responseStream;
+    }
+
+    /**
+     * Setter method for property <tt>responseStream</tt>.
+     *
+     * @param responseStream value to be assigned to property responseStream
+     */
+    public void setResponseStream(InputStream responseStream) {
+        this.responseStream = responseStream;
+    }
 }
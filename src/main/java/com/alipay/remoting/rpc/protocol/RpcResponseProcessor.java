@@ -25,7 +25,10 @@ import com.alipay.remoting.Connection;
 import com.alipay.remoting.InvokeFuture;
 import com.alipay.remoting.RemotingCommand;
 import com.alipay.remoting.RemotingContext;
+import com.alipay.remoting.config.switches.ProtocolSwitch;
 import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.rpc.RpcCommand;
+import com.alipay.remoting.rpc.stream.InboundStream;
 import com.alipay.remoting.util.RemotingUtil;
 
 /**
@@ -52,6 +55,26 @@ public class RpcResponseProcessor extends AbstractRemotingProcessor<RemotingComm
         super(executor);
     }
 
+    /**
+     * Partial responses are handed over to their streams in io thread,
+     * so that they are kept in order, and ahead of the final response.
+     *
+     * @see com.alipay.remoting.AbstractRemotingProcessor#process
+     */
+    @Override
+    public void process(RemotingContext ctx, RemotingCommand msg, ExecutorService defaultExecutor)
+                                                                                                  throws Exception {
+        if (isPartialResponse(msg)) {
+            if (!ctx.getConnection().getStreamRegistry().onResponse((RpcResponseCommand) msg)) {
+                logger.warn("Cannot find response stream, maybe already closed or timeout, id={}",
+                    msg.getId());
+                ((RpcResponseCommand) msg).releaseContentBuf();
+            }
+        } else {
+            super.process(ctx, msg, defaultExecutor);
+        }
+    }
+
     /**
      * @see com.alipay.remoting.AbstractRemotingProcessor#doProcess
      */
@@ -60,15 +83,26 @@ public class RpcResponseProcessor extends AbstractRemotingProcessor<RemotingComm
 
         Connection conn = ctx.getChannelContext().channel().attr(Connection.CONNECTION).get();
         InvokeFuture future = conn.removeInvokeFuture(cmd.getId());
+        // the stream following the request is no longer wanted once responded
+        conn.getStreamRegistry().cancelOutboundRequest(cmd.getId());
+        InboundStream responseStream = claimResponseStream(conn, cmd);
         ClassLoader oldClassLoader = null;
         try {
             if (future != null) {
+                if (null != responseStream) {
+                    ((RpcResponseCommand) cmd).setResponseStream(responseStream);
+                }
                 if (future.getAppClassLoader() != null) {
                     oldClassLoader = Thread.currentThread().getContextClassLoader();
                     Thread.currentThread().setContextClassLoader(future.getAppClassLoader());
                 }
                 future.putResponse(cmd);
                 future.cancelTimeout();
+                if (cmd instanceof RpcResponseCommand
+                    && conn.getStreamRegistry().onResponse((RpcResponseCommand) cmd)) {
+                    // ends the response stream, instead of the callback
+                    return;
+                }
                 try {
                     future.executeInvokeCallback();
                 } catch (Exception e) {
@@ -80,6 +114,13 @@ public class RpcResponseProcessor extends AbstractRemotingProcessor<RemotingComm
                     .warn("Cannot find InvokeFuture, maybe already timeout, id={}, from={} ",
                         cmd.getId(),
                         RemotingUtil.parseRemoteAddress(ctx.getChannelContext().channel()));
+                if (cmd instanceof RpcCommand) {
+                    // nobody will deserialize this response any more
+                    ((RpcCommand) cmd).releaseContentBuf();
+                }
+                if (null != responseStream) {
+                    responseStream.close();
+                }
             }
         } finally {
             if (null != oldClassLoader) {
@@ -89,4 +130,24 @@ public class RpcResponseProcessor extends AbstractRemotingProcessor<RemotingComm
 
     }
 
+    /**
+     * whether more responses of the same request follow
+     */
+    static boolean isPartialResponse(Object msg) {
+        return msg instanceof RpcResponseCommand
+               && ((RpcResponseCommand) msg).getProtocolSwitch().isOn(
+                   ProtocolSwitch.PARTIAL_SWITCH_INDEX);
+    }
+
+    /**
+     * claim the stream following the response if any
+     */
+    private InboundStream claimResponseStream(Connection conn, RemotingCommand cmd) {
+        if (cmd instanceof RpcResponseCommand
+            && ((RpcResponseCommand) cmd).getProtocolSwitch().isOn(
+                ProtocolSwitch.STREAM_SWITCH_INDEX)) {
+            return conn.getStreamRegistry().claimInbound(cmd.getId(), true);
+        }
+        return null;
+    }
 }
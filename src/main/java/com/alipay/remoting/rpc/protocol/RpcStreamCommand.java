@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.protocol;
+
+import com.alipay.remoting.rpc.RequestCommand;
+import com.alipay.remoting.rpc.RpcCommandType;
+
+/**
+ * Stream command, a chunk of the stream following a request or response with the same id, or a credit granted by the receiver.
+ * 流命令, 跟随相同编号请求或回复的流分块, 或接收方授予的额度
+ *
+ * The header holds the flags in the first byte, followed by the count of credits in an int, and the content holds the data of chunk.
+ * An empty chunk with {@link #FLAG_END} ends the stream. The data of a file chunk is written as a file region
+ * right after the command instead of held in the content.
+ *
+ * @author tsui
+ * @version $Id: RpcStreamCommand.java, v 0.1 2018-10-18 23:20 tsui Exp $
+ */
+public class RpcStreamCommand extends RequestCommand {
+
+    /** For serialization  */
+    private static final long serialVersionUID = -2183525296853245470L;
+
+    /** the stream follows a response, otherwise a request */
+    public static final byte  FLAG_RESPONSE    = 0x01;
+    /** the last chunk of stream */
+    public static final byte  FLAG_END         = 0x02;
+    /** credits granted by the receiver, not a chunk */
+    public static final byte  FLAG_CREDIT      = 0x04;
+    /** with {@link #FLAG_END}, the sender aborted. with {@link #FLAG_CREDIT}, the receiver no longer wants the stream */
+    public static final byte  FLAG_CANCEL      = 0x08;
+
+    private static final int  HEADER_LENGTH    = 5;
+
+    /** length of the data written right after the command, e.g. a file region, not held by the command */
+    private transient int     detachedLength;
+
+    /**
+     * create stream command without id, for decoding
+     */
+    public RpcStreamCommand() {
+        super(RpcCommandType.REQUEST_ONEWAY, RpcCommandCode.RPC_STREAM);
+    }
+
+    /**
+     * create stream command
+     *
+     * @param id id of the request which the stream belongs to
+     * @param flags flags of command
+     * @param credits count of chunks credited, only for {@link #FLAG_CREDIT}
+     * @param data data of chunk, null if none
+     */
+    public RpcStreamCommand(int id, byte flags, int credits, byte[] data) {
+        this();
+        this.setId(id);
+        this.setHeader(new byte[] { flags, (byte) (credits >>> 24), (byte) (credits >>> 16),
+                (byte) (credits >>> 8), (byte) credits });
+        this.setContent(data);
+    }
+
+    /**
+     * create stream command of a chunk, whose data is written to the channel separately right after it
+     *
+     * @param id id of the request which the stream belongs to
+     * @param flags flags of command
+     * @param detachedLength length of data following the command
+     */
+    public RpcStreamCommand(int id, byte flags, int detachedLength) {
+        this(id, flags, 0, null);
+        this.detachedLength = detachedLength;
+    }
+
+    @Override
+    public int getContentLength() {
+        return this.detachedLength > 0 ? this.detachedLength : super.getContentLength();
+    }
+
+    @Override
+    public boolean isContentDetached() {
+        return this.detachedLength > 0;
+    }
+
+    public byte getFlags() {
+        byte[] header = this.getHeader();
+        return null == header || header.length < HEADER_LENGTH ? 0 : header[0];
+    }
+
+    public boolean isFlagOn(byte flag) {
+        return (this.getFlags() & flag) != 0;
+    }
+
+    public int getCredits() {
+        byte[] header = this.getHeader();
+        if (null == header || header.length < HEADER_LENGTH) {
+            return 0;
+        }
+        return (header[1] & 0xFF) << 24 | (header[2] & 0xFF) << 16 | (header[3] & 0xFF) << 8
+               | (header[4] & 0xFF);
+    }
+
+    @Override
+    public String toString() {
+        return "RpcStreamCommand[id=" + this.getId() + ", flags=" + this.getFlags() + ", credits="
+               + this.getCredits() + ", length=" + this.getContentLength() + "]";
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.protocol;
+
+import java.util.concurrent.ExecutorService;
+
+import com.alipay.remoting.AbstractRemotingProcessor;
+import com.alipay.remoting.RemotingContext;
+
+/**
+ * Processor for stream commands.
+ * The chunks are handed over to the stream in io thread, so that they are kept in order, and never blocked by the busy executors.
+ *
+ * @author tsui
+ * @version $Id: RpcStreamProcessor.java, v 0.1 2018-10-18 23:20 tsui Exp $
+ */
+public class RpcStreamProcessor extends AbstractRemotingProcessor<RpcStreamCommand> {
+
+    @Override
+    public void process(RemotingContext ctx, RpcStreamCommand msg, ExecutorService defaultExecutor)
+                                                                                                   throws Exception {
+        doProcess(ctx, msg);
+    }
+
+    @Override
+    public void doProcess(RemotingContext ctx, RpcStreamCommand cmd) {
+        ctx.getConnection().getStreamRegistry().onCommand(cmd);
+    }
+}
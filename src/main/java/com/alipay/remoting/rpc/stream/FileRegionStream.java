@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.stream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+
+/**
+ * Stream of a region of file. When following a request or response, its chunks are written to the socket
+ * as file regions, so that the bytes are copied by the kernel, e.g. by sendfile, instead of read into the heap.
+ * 文件区域流, 作为请求或回复的流发送时由内核直接拷贝文件内容
+ *
+ * The file channel is closed with the stream.
+ *
+ * @author tsui
+ * @version $Id: FileRegionStream.java, v 0.1 2018-10-18 23:50 tsui Exp $
+ */
+public class FileRegionStream extends InputStream {
+
+    private final FileChannel channel;
+
+    private final long        end;
+
+    private long              position;
+
+    /**
+     * stream of the whole file
+     *
+     * @param file file to read
+     * @throws IOException if failed to open the file
+     */
+    public FileRegionStream(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            this.channel = raf.getChannel();
+            this.position = 0;
+            this.end = this.channel.size();
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * stream of a region of file
+     *
+     * @param channel channel of the file, closed with the stream
+     * @param position start of region
+     * @param count bytes of region
+     * @throws IOException if failed to get the size of file
+     */
+    public FileRegionStream(FileChannel channel, long position, long count) throws IOException {
+        if (null == channel) {
+            throw new IllegalArgumentException("channel should not be null!");
+        }
+        if (position < 0 || count < 0 || position + count > channel.size()) {
+            throw new IllegalArgumentException("region out of file, position=" + position
+                                               + ", count=" + count + ", size=" + channel.size());
+        }
+        this.channel = channel;
+        this.position = position;
+        this.end = position + count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        long remaining = remaining();
+        if (remaining <= 0) {
+            return -1;
+        }
+        int n = this.channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)),
+            this.position);
+        if (n > 0) {
+            this.position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(remaining(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * bytes of region not read or sent yet
+     */
+    public long remaining() {
+        return this.end - this.position;
+    }
+
+    /**
+     * Take the next region to send, the file channel is left open when the region released.
+     *
+     * @param count bytes of region, no more than {@link #remaining()}
+     */
+    FileRegion nextRegion(int count) {
+        FileRegion region = new SharedFileRegion(this.channel, this.position, count);
+        this.position += count;
+        return region;
+    }
+
+    /**
+     * file region sharing the channel with the other regions of stream
+     */
+    private static class SharedFileRegion extends DefaultFileRegion {
+
+        SharedFileRegion(FileChannel channel, long position, long count) {
+            super(channel, position, count);
+        }
+
+        @Override
+        protected void deallocate() {
+            // the channel is closed with the stream
+        }
+    }
+}
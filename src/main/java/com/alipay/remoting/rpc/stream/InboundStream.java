@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.rpc.protocol.RpcStreamCommand;
+
+/**
+ * Stream of the chunks received, credits are granted back to the sender as the chunks consumed.
+ * The chunks queued are bounded by the window, the stream is aborted if the sender goes beyond it.
+ *
+ * @author tsui
+ * @version $Id: InboundStream.java, v 0.1 2018-10-18 23:20 tsui Exp $
+ */
+public class InboundStream extends InputStream {
+
+    private static final Logger         logger  = BoltLoggerFactory.getLogger("RpcRemoting");
+
+    private static final byte[]         END     = new byte[0];
+
+    private static final byte[]         ABORTED = new byte[0];
+
+    /** chunks consumed before credited back */
+    private static final int            BATCH   = Math.max(1, StreamRegistry.WINDOW / 2);
+
+    private final StreamRegistry        registry;
+
+    private final int                   id;
+
+    private final boolean               response;
+
+    private final BlockingQueue<byte[]> chunks  = new LinkedBlockingQueue<byte[]>();
+
+    private byte[]                      current;
+
+    private int                         position;
+
+    private int                         consumed;
+
+    private boolean                     finished;
+
+    private volatile boolean            closed;
+
+    private boolean                     ended;
+
+    private boolean                     claimed;
+
+    /** chunks dropped since aborted, e.g. beyond the window */
+    private boolean                     discarded;
+
+    /** unclaimed for too long, removed from the registry */
+    private boolean                     expired;
+
+    /** time created, time unit: ms */
+    private final long                  createdMillis;
+
+    InboundStream(StreamRegistry registry, int id, boolean response) {
+        this.registry = registry;
+        this.id = id;
+        this.response = response;
+        this.createdMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int n = Math.min(len, this.current.length - this.position);
+        System.arraycopy(this.current, this.position, b, off, n);
+        this.position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return null == this.current ? 0 : this.current.length - this.position;
+    }
+
+    /**
+     * Write the rest of the stream to the channel chunk by chunk as they arrive, e.g. a {@link java.nio.channels.FileChannel},
+     * without copying into another buffer.
+     *
+     * @param target channel to write into, not closed
+     * @return count of bytes written
+     * @throws IOException if failed to write, or the stream aborted, or timeout
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long count = 0;
+        while (nextChunk()) {
+            ByteBuffer buffer = ByteBuffer.wrap(this.current, this.position, this.current.length
+                                                                             - this.position);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            count += this.current.length - this.position;
+            this.position = this.current.length;
+        }
+        return count;
+    }
+
+    /**
+     * Stop receiving, the sender is told to cancel if the stream not ended yet.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.chunks.clear();
+        if (!this.finished) {
+            this.registry.send(this.id,
+                creditFlags((byte) (RpcStreamCommand.FLAG_CREDIT | RpcStreamCommand.FLAG_CANCEL)),
+                0, null, null);
+        }
+    }
+
+    /**
+     * whether all the chunks read
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    void onChunk(byte[] data, boolean end, boolean cancel) {
+        if (!this.closed && !this.discarded && null != data && data.length > 0) {
+            if (this.chunks.size() >= StreamRegistry.WINDOW) {
+                logger
+                    .warn("Chunks beyond the window of stream received, abort it, id={}", this.id);
+                discard();
+            } else {
+                this.chunks.offer(data);
+            }
+        }
+        if (end) {
+            this.chunks.offer(cancel ? ABORTED : END);
+            synchronized (this) {
+                this.ended = true;
+                unregisterIfDone();
+            }
+        }
+    }
+
+    /**
+     * Claimed by the request or response which the stream follows.
+     * The stream is unregistered when both claimed and ended, as the chunks may arrive first,
+     * and the chunks in flight after closed are still dropped by it until the end.
+     */
+    synchronized boolean claim() {
+        if (this.expired) {
+            return false;
+        }
+        this.claimed = true;
+        unregisterIfDone();
+        return true;
+    }
+
+    /**
+     * Expire the stream if not claimed in time, so that the chunks of no request or response are not kept forever.
+     *
+     * @param now current time in millis
+     * @return true if expired
+     */
+    synchronized boolean expireIfUnclaimed(long now) {
+        if (this.claimed || now - this.createdMillis < StreamRegistry.TIMEOUT) {
+            return false;
+        }
+        this.expired = true;
+        discard();
+        this.registry.removeInbound(this.id, this.response);
+        return true;
+    }
+
+    void abort() {
+        this.chunks.offer(ABORTED);
+    }
+
+    /**
+     * drop the chunks queued and the following ones, and tell the sender to cancel if not ended yet
+     */
+    private void discard() {
+        this.discarded = true;
+        this.chunks.clear();
+        this.chunks.offer(ABORTED);
+        if (!this.ended) {
+            this.registry.send(this.id,
+                creditFlags((byte) (RpcStreamCommand.FLAG_CREDIT | RpcStreamCommand.FLAG_CANCEL)),
+                0, null, null);
+        }
+    }
+
+    private void unregisterIfDone() {
+        if (this.ended && this.claimed) {
+            this.registry.removeInbound(this.id, this.response);
+        }
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        while (null == this.current || this.position >= this.current.length) {
+            if (this.finished) {
+                return false;
+            }
+            byte[] chunk = this.chunks.poll();
+            try {
+                if (null == chunk) {
+                    if (this.registry.getConnection().getChannel().eventLoop().inEventLoop()) {
+                        // the chunks are received by the io thread itself
+                        throw new IOException("Stream can not be read in io thread, id=" + this.id);
+                    }
+                    chunk = this.chunks.poll(StreamRegistry.TIMEOUT, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted when reading stream, id=" + this.id);
+            }
+            if (null == chunk) {
+                throw new IOException("Timeout when reading stream, id=" + this.id);
+            }
+            if (chunk == ABORTED) {
+                this.finished = true;
+                throw new IOException("Stream aborted by the sender or connection closed, id="
+                                      + this.id);
+            }
+            if (chunk == END) {
+                this.finished = true;
+                return false;
+            }
+            this.current = chunk;
+            this.position = 0;
+            if (++this.consumed >= BATCH) {
+                this.registry.send(this.id, creditFlags(RpcStreamCommand.FLAG_CREDIT),
+                    this.consumed, null, null);
+                this.consumed = 0;
+            }
+        }
+        return true;
+    }
+
+    private byte creditFlags(byte flags) {
+        return this.response ? (byte) (flags | RpcStreamCommand.FLAG_RESPONSE) : flags;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.config.switches.ProtocolSwitch;
+import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.rpc.protocol.RpcStreamCommand;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+
+/**
+ * Stream to send in chunks, no more chunks are sent than the credits granted by the receiver.
+ * The credits also limit the partial responses in flight, see {@link #acquire(long)}.
+ * Waiting for credits parks on a {@link Condition} instead of a monitor, which does not pin the carrier of a virtual thread.
+ *
+ * @author tsui
+ * @version $Id: OutboundStream.java, v 0.1 2018-10-18 23:20 tsui Exp $
+ */
+public class OutboundStream {
+
+    private static final Logger  logger = BoltLoggerFactory.getLogger("RpcRemoting");
+
+    private final StreamRegistry registry;
+
+    private final int            id;
+
+    private final boolean        response;
+
+    private final ProtocolSwitch protocolSwitch;
+
+    private int                  credits;
+
+    private boolean              cancelled;
+
+    private boolean              aborted;
+
+    private final Lock           lock;
+
+    /** signalled when credits granted, or cancelled, or aborted */
+    private final Condition      changed;
+
+    OutboundStream(StreamRegistry registry, int id, boolean response, ProtocolSwitch protocolSwitch) {
+        this.registry = registry;
+        this.id = id;
+        this.response = response;
+        this.protocolSwitch = protocolSwitch;
+        this.credits = StreamRegistry.WINDOW;
+        this.lock = new ReentrantLock();
+        this.changed = this.lock.newCondition();
+    }
+
+    /**
+     * Send all the bytes of source in chunks, blocking while the receiver has no credits left.
+     * The chunks of a {@link FileRegionStream} are sent as file regions, without reading the file.
+     * The source is closed at last.
+     *
+     * @param source bytes to send
+     * @param deadline time in millis to give up waiting for credits
+     * @return false if cancelled by the receiver
+     * @throws IOException if failed to read the source, or the connection closed, or timeout
+     */
+    public boolean transfer(final InputStream source, long deadline) throws IOException {
+        FileRegionStream file = source instanceof FileRegionStream ? (FileRegionStream) source
+            : null;
+        ChannelFuture last = null;
+        boolean ended = false;
+        try {
+            while (acquire(deadline)) {
+                if (null != file ? !sendRegion(file) : !sendChunk(source)) {
+                    last = this.registry.send(this.id, flags(RpcStreamCommand.FLAG_END), 0, null,
+                        this.protocolSwitch);
+                    ended = true;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            if (!ended) {
+                // tell the receiver to stop waiting
+                last = this.registry.send(this.id,
+                    flags((byte) (RpcStreamCommand.FLAG_END | RpcStreamCommand.FLAG_CANCEL)), 0,
+                    null, this.protocolSwitch);
+            }
+            this.registry.removeOutbound(this.id, this.response);
+            if (null != file && null != last) {
+                // the regions written before are still in flight until the end written
+                last.addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) throws Exception {
+                        closeSource(source);
+                    }
+                });
+            } else {
+                closeSource(source);
+            }
+        }
+    }
+
+    void grant(int count) {
+        this.lock.lock();
+        try {
+            this.credits += count;
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    void cancel() {
+        this.lock.lock();
+        try {
+            this.cancelled = true;
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    void abort() {
+        this.lock.lock();
+        try {
+            this.aborted = true;
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Take one credit, waiting until granted.
+     *
+     * @param deadline time in millis to give up waiting
+     * @return false if cancelled by the receiver
+     * @throws IOException if the connection closed, or timeout
+     */
+    public boolean acquire(long deadline) throws IOException {
+        long giveUp = Math.min(deadline, System.currentTimeMillis() + StreamRegistry.TIMEOUT);
+        this.lock.lock();
+        try {
+            while (this.credits <= 0 && !this.cancelled && !this.aborted) {
+                long wait = giveUp - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new IOException("Timeout when waiting for credits of stream, id="
+                                          + this.id);
+                }
+                try {
+                    this.changed.await(wait, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted when sending stream, id=" + this.id);
+                }
+            }
+            if (this.aborted) {
+                throw new IOException("Connection closed when sending stream, id=" + this.id);
+            }
+            if (this.cancelled) {
+                return false;
+            }
+            this.credits--;
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * send the next chunk read from source, false if no more bytes
+     */
+    private boolean sendChunk(InputStream source) throws IOException {
+        byte[] buffer = new byte[StreamRegistry.CHUNK_SIZE];
+        int length = readChunk(source, buffer);
+        if (length <= 0) {
+            return false;
+        }
+        if (length < buffer.length) {
+            byte[] chunk = new byte[length];
+            System.arraycopy(buffer, 0, chunk, 0, length);
+            buffer = chunk;
+        }
+        this.registry.send(this.id, flags((byte) 0), 0, buffer, this.protocolSwitch);
+        return true;
+    }
+
+    /**
+     * send the next region of file, false if no more bytes
+     */
+    private boolean sendRegion(FileRegionStream file) throws IOException {
+        int length = (int) Math.min(StreamRegistry.CHUNK_SIZE, file.remaining());
+        if (length <= 0) {
+            return false;
+        }
+        this.registry.sendRegion(this.id, flags((byte) 0), file.nextRegion(length),
+            this.protocolSwitch);
+        return true;
+    }
+
+    private void closeSource(InputStream source) {
+        try {
+            source.close();
+        } catch (IOException e) {
+            logger.warn("Close source of stream failed, id={}", this.id, e);
+        }
+    }
+
+    private int readChunk(InputStream source, byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int n = source.read(buffer, length, buffer.length - length);
+            if (n < 0) {
+                break;
+            }
+            length += n;
+        }
+        return length;
+    }
+
+    private byte flags(byte flags) {
+        return this.response ? (byte) (flags | RpcStreamCommand.FLAG_RESPONSE) : flags;
+    }
+}
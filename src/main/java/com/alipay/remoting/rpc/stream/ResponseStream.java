@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.stream;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.config.switches.ProtocolSwitch;
+import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.RpcResponseResolver;
+import com.alipay.remoting.rpc.exception.InvokeException;
+import com.alipay.remoting.rpc.protocol.RpcResponseCommand;
+import com.alipay.remoting.rpc.protocol.RpcStreamCommand;
+import com.alipay.remoting.util.RemotingUtil;
+
+/**
+ * Responses of a request, the partial ones sent by {@link com.alipay.remoting.StreamingAsyncContext#sendPartialResponse(Object)}
+ * followed by the final one. Credits are granted back to the server as the responses consumed,
+ * so that the server never sends far ahead of the consumer.
+ *
+ * The timeout of invocation covers all the responses. Close the stream to stop receiving before the final response.
+ * Notice: it is also the {@link InvokeCallback} of the invocation, which is only called by the remoting.
+ *
+ * @author tsui
+ * @version $Id: ResponseStream.java, v 0.1 2018-10-18 23:40 tsui Exp $
+ */
+public class ResponseStream implements InvokeCallback {
+
+    /** responses consumed before credited back */
+    private static final int            BATCH     = Math.max(1, StreamRegistry.WINDOW / 2);
+
+    private final StreamRegistry        registry;
+
+    private final int                   id;
+
+    private final InvokeContext         invokeContext;
+
+    private final String                address;
+
+    /** response commands, or the exception ending the stream */
+    private final BlockingQueue<Object> responses = new LinkedBlockingQueue<Object>();
+
+    private Object                      next;
+
+    private boolean                     fetched;
+
+    private boolean                     finished;
+
+    private volatile boolean            closed;
+
+    private int                         consumed;
+
+    ResponseStream(StreamRegistry registry, int id, InvokeContext invokeContext) {
+        this.registry = registry;
+        this.id = id;
+        this.invokeContext = invokeContext;
+        this.address = RemotingUtil.parseRemoteAddress(registry.getConnection().getChannel());
+    }
+
+    /**
+     * Whether there is another response, waiting until it arrives or the invocation ends.
+     *
+     * @return false if all the responses consumed
+     * @throws RemotingException if the invocation failed, e.g. timeout or exception thrown by server
+     * @throws InterruptedException
+     */
+    public boolean hasNext() throws RemotingException, InterruptedException {
+        if (this.fetched) {
+            return true;
+        }
+        if (this.finished) {
+            return false;
+        }
+        if (this.closed) {
+            throw new IllegalStateException("Response stream closed, id=" + this.id);
+        }
+        Object item = this.responses.take();
+        if (item instanceof Throwable) {
+            this.finished = true;
+            Throwable t = (Throwable) item;
+            throw t instanceof RemotingException ? (RemotingException) t : new InvokeException(
+                t.getMessage(), t);
+        }
+        RpcResponseCommand response = (RpcResponseCommand) item;
+        boolean partial = response.getProtocolSwitch().isOn(ProtocolSwitch.PARTIAL_SWITCH_INDEX);
+        if (!partial) {
+            this.finished = true;
+        }
+        response.setInvokeContext(this.invokeContext);
+        try {
+            this.next = RpcResponseResolver.resolveResponseObject(response, this.address);
+        } catch (RemotingException e) {
+            if (partial) {
+                close();
+            }
+            this.finished = true;
+            throw e;
+        }
+        this.fetched = true;
+        if (partial && ++this.consumed >= BATCH) {
+            this.registry.send(this.id,
+                (byte) (RpcStreamCommand.FLAG_CREDIT | RpcStreamCommand.FLAG_RESPONSE),
+                this.consumed, null, null);
+            this.consumed = 0;
+        }
+        return true;
+    }
+
+    /**
+     * The next response, waiting until it arrives.
+     *
+     * @return response object
+     * @throws RemotingException if the invocation failed
+     * @throws InterruptedException
+     * @throws NoSuchElementException if all the responses consumed
+     */
+    public Object next() throws RemotingException, InterruptedException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more response, id=" + this.id);
+        }
+        Object response = this.next;
+        this.next = null;
+        this.fetched = false;
+        return response;
+    }
+
+    /**
+     * Stop receiving, the server is told to stop sending partial responses if not finished yet.
+     */
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.registry.removeResponseStream(this.id);
+        if (!this.finished) {
+            this.registry
+                .send(
+                    this.id,
+                    (byte) (RpcStreamCommand.FLAG_CREDIT | RpcStreamCommand.FLAG_RESPONSE | RpcStreamCommand.FLAG_CANCEL),
+                    0, null, null);
+        }
+        releaseAll();
+    }
+
+    void onResponse(RpcResponseCommand response) {
+        this.responses.offer(response);
+        if (this.closed) {
+            releaseAll();
+        }
+    }
+
+    /**
+     * @see InvokeCallback#onResponse(Object)
+     */
+    @Override
+    public void onResponse(Object result) {
+        // the final response is handed over as a command by the registry, never resolved here
+    }
+
+    /**
+     * @see InvokeCallback#onException(Throwable)
+     */
+    @Override
+    public void onException(Throwable e) {
+        this.registry.removeResponseStream(this.id);
+        this.responses.offer(e);
+    }
+
+    /**
+     * @see InvokeCallback#getExecutor()
+     */
+    @Override
+    public Executor getExecutor() {
+        return null;
+    }
+
+    private void releaseAll() {
+        Object item;
+        while (null != (item = this.responses.poll())) {
+            if (item instanceof RpcResponseCommand) {
+                ((RpcResponseCommand) item).releaseContentBuf();
+            }
+        }
+    }
+}
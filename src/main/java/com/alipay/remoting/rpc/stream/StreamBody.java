@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.stream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * A message followed by a stream of bytes, which is sent in bounded chunks instead of as a whole.
+ * 跟随字节流的消息, 字节流按有限大小的分块发送
+ *
+ * <ul>
+ *     <li>Request: invoke {@link com.alipay.remoting.rpc.RpcClient#invokeSync} with it, the message is dispatched to the user processor of its class,
+ *     which reads the stream from {@link com.alipay.remoting.InvokeContext#BOLT_REQUEST_STREAM} of the invoke context.
+ *     The stream ends when the response is sent.</li>
+ *     <li>Response: return it from a user processor, or send it by {@link com.alipay.remoting.AsyncContext},
+ *     then the client gets a stream body with the same message, and the stream to read the chunks.</li>
+ * </ul>
+ *
+ * The sender closes the stream after all the bytes sent. The receiver should read the stream to the end or close it.
+ * A file is sent by the kernel via {@link FileRegionStream}, and the {@link InboundStream} received can be written to a file
+ * by {@link InboundStream#transferTo(java.nio.channels.WritableByteChannel)}.
+ * Notice: the stream of response can not be sent from io thread.
+ *
+ * @author tsui
+ * @version $Id: StreamBody.java, v 0.1 2018-10-18 23:20 tsui Exp $
+ */
+public class StreamBody {
+
+    /** message sent as the request or response object, must not be null for request */
+    private final Object      message;
+
+    /** bytes following the message */
+    private final InputStream stream;
+
+    public StreamBody(Object message, InputStream stream) {
+        if (null == stream) {
+            throw new IllegalArgumentException("stream should not be null!");
+        }
+        this.message = message;
+        this.stream = stream;
+    }
+
+    /**
+     * message followed by the content of file
+     *
+     * @param message message sent as the request or response object
+     * @param file file to send
+     * @throws IOException if failed to open the file
+     */
+    public StreamBody(Object message, File file) throws IOException {
+        this(message, new FileRegionStream(file));
+    }
+
+    /**
+     * message followed by a region of file
+     *
+     * @param message message sent as the request or response object
+     * @param channel channel of the file, closed after sent
+     * @param position start of region
+     * @param count bytes of region
+     * @throws IOException if failed to get the size of file
+     */
+    public StreamBody(Object message, FileChannel channel, long position, long count)
+                                                                                     throws IOException {
+        this(message, new FileRegionStream(channel, position, count));
+    }
+
+    /**
+     * Getter method for property <tt>message</tt>.
+     *
+     * @return property value of message
+     */
+    public Object getMessage() {
+        return message;
+    }
+
+    /**
+     * Getter method for property <tt>stream</tt>.
+     *
+     * @return property value of stream
+     */
+    public InputStream getStream() {
+        return stream;
+    }
+}
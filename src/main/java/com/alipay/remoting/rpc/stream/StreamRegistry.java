@@ -0,0 +1,408 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.stream;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.ProtocolCode;
+import com.alipay.remoting.config.ConfigManager;
+import com.alipay.remoting.config.switches.ProtocolSwitch;
+import com.alipay.remoting.log.BoltLoggerFactory;
+import com.alipay.remoting.rpc.protocol.RpcProtocolV2;
+import com.alipay.remoting.rpc.protocol.RpcResponseCommand;
+import com.alipay.remoting.rpc.protocol.RpcStreamCommand;
+import com.alipay.remoting.util.ConcurrentIntObjectHashMap;
+import com.alipay.remoting.util.RemotingUtil;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.FileRegion;
+
+/**
+ * Streams in flight of a connection, keyed by the id of request which they belong to.
+ * Streams following requests and responses are kept apart, so that the ids of both sides never clash.
+ *
+ * @author tsui
+ * @version $Id: StreamRegistry.java, v 0.1 2018-10-18 23:20 tsui Exp $
+ */
+public class StreamRegistry {
+
+    private static final Logger                              logger            = BoltLoggerFactory
+                                                                                   .getLogger("RpcRemoting");
+
+    /** max bytes of each chunk */
+    static final int                                         CHUNK_SIZE        = ConfigManager
+                                                                                   .stream_chunk_size();
+
+    /** max chunks sent before credited */
+    static final int                                         WINDOW            = ConfigManager
+                                                                                   .stream_window();
+
+    /** max time to wait for the peer, time unit: ms */
+    static final int                                         TIMEOUT           = ConfigManager
+                                                                                   .stream_timeout();
+
+    private static final int                                 SEGMENTS          = 4;
+
+    private final Connection                                 connection;
+
+    private final ConcurrentIntObjectHashMap<InboundStream>  inboundRequests   = new ConcurrentIntObjectHashMap<InboundStream>(
+                                                                                   SEGMENTS,
+                                                                                   ConcurrentIntObjectHashMap.DEFAULT_SEGMENT_CAPACITY);
+
+    private final ConcurrentIntObjectHashMap<InboundStream>  inboundResponses  = new ConcurrentIntObjectHashMap<InboundStream>(
+                                                                                   SEGMENTS,
+                                                                                   ConcurrentIntObjectHashMap.DEFAULT_SEGMENT_CAPACITY);
+
+    private final ConcurrentIntObjectHashMap<OutboundStream> outboundRequests  = new ConcurrentIntObjectHashMap<OutboundStream>(
+                                                                                   SEGMENTS,
+                                                                                   ConcurrentIntObjectHashMap.DEFAULT_SEGMENT_CAPACITY);
+
+    private final ConcurrentIntObjectHashMap<OutboundStream> outboundResponses = new ConcurrentIntObjectHashMap<OutboundStream>(
+                                                                                   SEGMENTS,
+                                                                                   ConcurrentIntObjectHashMap.DEFAULT_SEGMENT_CAPACITY);
+
+    private final ConcurrentIntObjectHashMap<ResponseStream> responseStreams   = new ConcurrentIntObjectHashMap<ResponseStream>(
+                                                                                   SEGMENTS,
+                                                                                   ConcurrentIntObjectHashMap.DEFAULT_SEGMENT_CAPACITY);
+
+    /** last time the unclaimed inbound streams swept, time unit: ms */
+    private volatile long                                    lastSweepMillis   = System
+                                                                                   .currentTimeMillis();
+
+    public StreamRegistry(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Get the stream to receive, called when the request or response it follows arrives.
+     * The chunks may arrive earlier, as the request or response may be processed in another thread.
+     *
+     * @param id id of request
+     * @param response whether the stream follows a response
+     * @return stream to read
+     */
+    public InboundStream claimInbound(int id, boolean response) {
+        InboundStream stream = getOrCreateInbound(id, response);
+        while (!stream.claim()) {
+            // expired just now, its chunks dropped
+            stream = getOrCreateInbound(id, response);
+        }
+        return stream;
+    }
+
+    /**
+     * Register the stream to send, before sending the request or response it follows.
+     *
+     * @param id id of request
+     * @param response whether the stream follows a response
+     * @param protocolSwitch protocol switch of the request or response, also used for the chunks
+     * @return stream to transfer
+     */
+    public OutboundStream createOutbound(int id, boolean response, ProtocolSwitch protocolSwitch) {
+        ProtocolSwitch chunkSwitch = ProtocolSwitch.create(protocolSwitch.toByte());
+        chunkSwitch.turnOff(ProtocolSwitch.STREAM_SWITCH_INDEX);
+        OutboundStream stream = new OutboundStream(this, id, response, chunkSwitch);
+        if (null != outbounds(response).putIfAbsent(id, stream)) {
+            throw new IllegalStateException("Stream of id " + id + " is already being sent");
+        }
+        return stream;
+    }
+
+    /**
+     * Get the stream registered to send, or register one if none, e.g. for the credits of partial responses.
+     *
+     * @param id id of request
+     * @param response whether the stream follows a response
+     * @param protocolSwitch protocol switch of the request or response
+     * @return stream registered
+     */
+    public OutboundStream getOrCreateOutbound(int id, boolean response,
+                                              ProtocolSwitch protocolSwitch) {
+        OutboundStream stream = outbounds(response).get(id);
+        if (null == stream) {
+            try {
+                stream = createOutbound(id, response, protocolSwitch);
+            } catch (IllegalStateException e) {
+                // registered concurrently
+                stream = outbounds(response).get(id);
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Unregister the stream to send.
+     *
+     * @param id id of request
+     * @param response whether the stream follows a response
+     */
+    public void removeOutbound(int id, boolean response) {
+        outbounds(response).remove(id);
+    }
+
+    /**
+     * Register the stream to receive the responses of request, before sending the request.
+     *
+     * @param id id of request
+     * @param invokeContext invoke context of request
+     * @return stream of responses
+     */
+    public ResponseStream createResponseStream(int id, InvokeContext invokeContext) {
+        ResponseStream stream = new ResponseStream(this, id, invokeContext);
+        this.responseStreams.put(id, stream);
+        return stream;
+    }
+
+    /**
+     * Hand over the response to its stream.
+     *
+     * @param response partial or final response
+     * @return false if no stream found, e.g. closed or timeout
+     */
+    public boolean onResponse(RpcResponseCommand response) {
+        boolean partial = response.getProtocolSwitch().isOn(ProtocolSwitch.PARTIAL_SWITCH_INDEX);
+        ResponseStream stream = null;
+        if (!this.responseStreams.isEmpty()) {
+            stream = partial ? this.responseStreams.get(response.getId()) : this.responseStreams
+                .remove(response.getId());
+        }
+        if (null == stream) {
+            if (partial) {
+                // tell the server to stop sending
+                send(
+                    response.getId(),
+                    (byte) (RpcStreamCommand.FLAG_CREDIT | RpcStreamCommand.FLAG_RESPONSE | RpcStreamCommand.FLAG_CANCEL),
+                    0, null, null);
+            }
+            return false;
+        }
+        stream.onResponse(response);
+        return true;
+    }
+
+    /**
+     * Stop sending the stream following the request, called when the response arrives.
+     *
+     * @param id id of request
+     */
+    public void cancelOutboundRequest(int id) {
+        if (this.outboundRequests.isEmpty()) {
+            return;
+        }
+        OutboundStream stream = this.outboundRequests.get(id);
+        if (null != stream) {
+            stream.cancel();
+        }
+    }
+
+    /**
+     * Handle the chunk or credit received.
+     *
+     * @param cmd stream command
+     */
+    public void onCommand(RpcStreamCommand cmd) {
+        boolean response = cmd.isFlagOn(RpcStreamCommand.FLAG_RESPONSE);
+        if (cmd.isFlagOn(RpcStreamCommand.FLAG_CREDIT)) {
+            OutboundStream stream = outbounds(response).get(cmd.getId());
+            if (null == stream) {
+                // already finished
+                return;
+            }
+            if (cmd.isFlagOn(RpcStreamCommand.FLAG_CANCEL)) {
+                stream.cancel();
+            } else {
+                stream.grant(cmd.getCredits());
+            }
+        } else {
+            getOrCreateInbound(cmd.getId(), response)
+                .onChunk(cmd.getContent(), cmd.isFlagOn(RpcStreamCommand.FLAG_END),
+                    cmd.isFlagOn(RpcStreamCommand.FLAG_CANCEL));
+            long now = System.currentTimeMillis();
+            if (now - this.lastSweepMillis >= TIMEOUT) {
+                this.lastSweepMillis = now;
+                expireUnclaimed(now);
+            }
+        }
+    }
+
+    /**
+     * Abort all the streams, called when the connection closed.
+     */
+    public void closeAll() {
+        abortInbounds(this.inboundRequests.removeAll());
+        abortInbounds(this.inboundResponses.removeAll());
+        abortOutbounds(this.outboundRequests.removeAll());
+        abortOutbounds(this.outboundResponses.removeAll());
+        // ended by the invoke callbacks of connection closed
+        this.responseStreams.removeAll();
+    }
+
+    /**
+     * Whether streams can be sent to the peer, as the protocol switch is only carried by protocol v2.
+     *
+     * @return true if supported
+     */
+    public boolean isSupported() {
+        ProtocolCode protocolCode = this.connection.getChannel().attr(Connection.PROTOCOL).get();
+        return null != protocolCode && protocolCode.getFirstByte() == RpcProtocolV2.PROTOCOL_CODE;
+    }
+
+    /**
+     * Count of the streams in flight.
+     *
+     * @return count
+     */
+    public int size() {
+        return this.inboundRequests.size() + this.inboundResponses.size()
+               + this.outboundRequests.size() + this.outboundResponses.size()
+               + this.responseStreams.size();
+    }
+
+    /**
+     * Expire the inbound streams unclaimed for the timeout, e.g. the chunks of a request never arrived.
+     *
+     * @param now current time in millis
+     * @return count of streams expired
+     */
+    int expireUnclaimed(long now) {
+        int count = expireUnclaimed(this.inboundRequests, now)
+                    + expireUnclaimed(this.inboundResponses, now);
+        if (count > 0) {
+            logger.warn("{} unclaimed streams expired, the address is {}", count,
+                RemotingUtil.parseRemoteAddress(this.connection.getChannel()));
+        }
+        return count;
+    }
+
+    void removeInbound(int id, boolean response) {
+        inbounds(response).remove(id);
+    }
+
+    void removeResponseStream(int id) {
+        this.responseStreams.remove(id);
+    }
+
+    Connection getConnection() {
+        return this.connection;
+    }
+
+    /**
+     * write a stream command to the connection
+     */
+    ChannelFuture send(final int id, byte flags, int credits, byte[] data,
+                       ProtocolSwitch protocolSwitch) {
+        RpcStreamCommand cmd = new RpcStreamCommand(id, flags, credits, data);
+        if (null != protocolSwitch) {
+            cmd.setProtocolSwitch(protocolSwitch);
+        }
+        return this.connection.getChannel().writeAndFlush(cmd).addListener(sendFailedLogger(id));
+    }
+
+    /**
+     * write a stream command followed by the file region as its data, both in the io thread
+     * so that no other command is written in between
+     */
+    void sendRegion(final int id, byte flags, final FileRegion region, ProtocolSwitch protocolSwitch)
+                                                                                                     throws IOException {
+        final RpcStreamCommand cmd = new RpcStreamCommand(id, flags, (int) region.count());
+        // the crc covers the frame written by the encoder only, and the region can not be compressed
+        ProtocolSwitch regionSwitch = ProtocolSwitch.create(null == protocolSwitch ? 0
+            : protocolSwitch.toByte());
+        regionSwitch.turnOff(ProtocolSwitch.CRC_SWITCH_INDEX);
+        regionSwitch.turnOff(ProtocolSwitch.CRC32C_SWITCH_INDEX);
+        regionSwitch.turnOff(ProtocolSwitch.COMPRESS_SWITCH_INDEX);
+        cmd.setProtocolSwitch(regionSwitch);
+        final Channel channel = this.connection.getChannel();
+        try {
+            channel.eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    channel.write(cmd).addListener(sendFailedLogger(id));
+                    channel.writeAndFlush(region).addListener(sendFailedLogger(id));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new IOException("Connection closed when sending stream, id=" + id, e);
+        }
+    }
+
+    private ChannelFutureListener sendFailedLogger(final int id) {
+        return new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                    logger.error("Send stream command failed, id={}, the address is {}", id,
+                        RemotingUtil.parseRemoteAddress(future.channel()), future.cause());
+                }
+            }
+        };
+    }
+
+    private InboundStream getOrCreateInbound(int id, boolean response) {
+        ConcurrentIntObjectHashMap<InboundStream> inbounds = inbounds(response);
+        InboundStream stream = inbounds.get(id);
+        if (null == stream) {
+            InboundStream newStream = new InboundStream(this, id, response);
+            stream = inbounds.putIfAbsent(id, newStream);
+            if (null == stream) {
+                stream = newStream;
+            }
+        }
+        return stream;
+    }
+
+    private ConcurrentIntObjectHashMap<InboundStream> inbounds(boolean response) {
+        return response ? this.inboundResponses : this.inboundRequests;
+    }
+
+    private ConcurrentIntObjectHashMap<OutboundStream> outbounds(boolean response) {
+        return response ? this.outboundResponses : this.outboundRequests;
+    }
+
+    private int expireUnclaimed(ConcurrentIntObjectHashMap<InboundStream> inbounds, long now) {
+        int count = 0;
+        if (inbounds.isEmpty()) {
+            return count;
+        }
+        for (InboundStream stream : inbounds.values()) {
+            if (stream.expireIfUnclaimed(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void abortInbounds(List<InboundStream> streams) {
+        for (InboundStream stream : streams) {
+            stream.abort();
+        }
+    }
+
+    private void abortOutbounds(List<OutboundStream> streams) {
+        for (OutboundStream stream : streams) {
+            stream.abort();
+        }
+    }
+}
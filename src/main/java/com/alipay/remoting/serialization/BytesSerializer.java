@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.serialization;
+
+import java.nio.ByteBuffer;
+
+import com.alipay.remoting.exception.CodecException;
+
+/**
+ * Passthrough serializer of raw bytes, for the content already encoded by the application.<br>
+ * byte[] is sent as it is without copy, and {@link ByteBuffer} with its remaining bytes.
+ * Other objects, e.g. a String returned by the user processor, fall back to {@link SerializerManager#Hessian2}.
+ * 原始字节透传序列化程序, 非字节类型的对象回退到 Hessian2
+ *
+ * @author tsui
+ * @version $Id: BytesSerializer.java, v 0.1 2018-10-18 22:00 tsui Exp $
+ */
+public class BytesSerializer implements Serializer {
+
+    private static final String BYTES_CLASS = byte[].class.getName();
+
+    /**
+     * @see com.alipay.remoting.serialization.Serializer#serialize(java.lang.Object)
+     */
+    @Override
+    public byte[] serialize(Object obj) throws CodecException {
+        if (obj instanceof byte[]) {
+            return (byte[]) obj;
+        }
+        if (obj instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) obj).duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+        return fallback().serialize(obj);
+    }
+
+    /**
+     * @see com.alipay.remoting.serialization.Serializer#deserialize(byte[], java.lang.String)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T deserialize(byte[] data, String classOfT) throws CodecException {
+        if (BYTES_CLASS.equals(classOfT)) {
+            return (T) data;
+        }
+        if (isByteBuffer(classOfT)) {
+            return (T) ByteBuffer.wrap(data);
+        }
+        return fallback().deserialize(data, classOfT);
+    }
+
+    /**
+     * the class name of a ByteBuffer sent is its implementation, e.g. java.nio.HeapByteBuffer
+     */
+    private static boolean isByteBuffer(String classOfT) {
+        return null != classOfT && classOfT.startsWith("java.nio.")
+               && classOfT.endsWith("ByteBuffer");
+    }
+
+    private static Serializer fallback() throws CodecException {
+        Serializer serializer = SerializerManager.getSerializer(SerializerManager.Hessian2);
+        if (null == serializer) {
+            throw new CodecException("No fallback serializer for objects other than bytes!");
+        }
+        return serializer;
+    }
+}
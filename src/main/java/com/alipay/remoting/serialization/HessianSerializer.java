@@ -19,9 +19,12 @@ package com.alipay.remoting.serialization;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import com.alipay.hessian.ClassNameResolver;
 import com.alipay.hessian.internal.InternalNameBlackListFilter;
+import com.alipay.remoting.config.ConfigManager;
 import com.alipay.remoting.exception.CodecException;
 import com.caucho.hessian.io.Hessian2Input;
 import com.caucho.hessian.io.Hessian2Output;
@@ -33,7 +36,7 @@ import com.caucho.hessian.io.SerializerFactory;
  * @author jiangping
  * @version $Id: HessianSerializer.java, v 0.1 2015-10-4 PM9:51:55 tao Exp $
  */
-public class HessianSerializer implements Serializer {
+public class HessianSerializer implements StreamSerializer {
 
     private SerializerFactory serializerFactory = new SerializerFactory();
 
@@ -49,8 +52,28 @@ public class HessianSerializer implements Serializer {
      */
     @Override
     public byte[] serialize(Object obj) throws CodecException {
-        ByteArrayOutputStream byteArray = new ByteArrayOutputStream();
-        Hessian2Output output = new Hessian2Output(byteArray);
+        ReusableBuffer buffer = ReusableBuffer.THREAD_LOCAL.get();
+        if (buffer.inUse) {
+            // serialize called again while writing obj, e.g. by a custom hessian serializer
+            ByteArrayOutputStream byteArray = new ByteArrayOutputStream();
+            serialize(obj, byteArray);
+            return byteArray.toByteArray();
+        }
+        buffer.inUse = true;
+        try {
+            serialize(obj, buffer);
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * @see com.alipay.remoting.serialization.StreamSerializer#serialize(java.lang.Object, java.io.OutputStream)
+     */
+    @Override
+    public void serialize(Object obj, OutputStream out) throws CodecException {
+        Hessian2Output output = new Hessian2Output(out);
         output.setSerializerFactory(serializerFactory);
         try {
             output.writeObject(obj);
@@ -58,19 +81,25 @@ public class HessianSerializer implements Serializer {
         } catch (IOException e) {
             throw new CodecException("IOException occurred when Hessian serializer encode!", e);
         }
-
-        byte[] bytes = byteArray.toByteArray();
-        return bytes;
     }
 
     /**
      * 
      * @see com.alipay.remoting.serialization.Serializer#deserialize(byte[], java.lang.String)
      */
-    @SuppressWarnings("unchecked")
     @Override
     public <T> T deserialize(byte[] data, String classOfT) throws CodecException {
-        Hessian2Input input = new Hessian2Input(new ByteArrayInputStream(data));
+        return deserialize(new ByteArrayInputStream(data), classOfT);
+    }
+
+    /**
+     *
+     * @see com.alipay.remoting.serialization.StreamSerializer#deserialize(java.io.InputStream, java.lang.String)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T deserialize(InputStream in, String classOfT) throws CodecException {
+        Hessian2Input input = new Hessian2Input(in);
         input.setSerializerFactory(serializerFactory);
         Object resultObject;
         try {
@@ -82,4 +111,38 @@ public class HessianSerializer implements Serializer {
         return (T) resultObject;
     }
 
+    /**
+     * Growable output buffer reused by one thread, so that serializing does not start from
+     * a tiny array and copy it on every growth. Dropped when grown beyond the retained limit.
+     */
+    private static final class ReusableBuffer extends ByteArrayOutputStream {
+
+        /** initial capacity of the serialize buffer of each thread */
+        static final int                         INITIAL_SIZE = 1024;
+
+        /** max capacity of the serialize buffer kept by each thread after use */
+        static final int                         MAX_RETAINED = ConfigManager
+                                                                  .serializer_buffer_max_retained();
+
+        static final ThreadLocal<ReusableBuffer> THREAD_LOCAL = new ThreadLocal<ReusableBuffer>() {
+                                                                  @Override
+                                                                  protected ReusableBuffer initialValue() {
+                                                                      return new ReusableBuffer();
+                                                                  }
+                                                              };
+
+        private boolean                          inUse;
+
+        ReusableBuffer() {
+            super(INITIAL_SIZE);
+        }
+
+        void release() {
+            reset();
+            if (buf.length > MAX_RETAINED) {
+                buf = new byte[INITIAL_SIZE];
+            }
+            inUse = false;
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alipay.remoting.exception.CodecException;
+
+/**
+ * Protobuf serializer of the messages generated by protoc, i.e. implementations of com.google.protobuf.MessageLite.<br>
+ * protobuf-java is optional, this serializer is registered by {@link SerializerManager} only if it is present.
+ * Objects other than protobuf messages, e.g. a String returned by the user processor, fall back to {@link SerializerManager#Hessian2}.
+ * Protobuf 序列化程序, 非 protobuf 消息的对象回退到 Hessian2
+ *
+ * @author tsui
+ * @version $Id: ProtobufSerializer.java, v 0.1 2018-10-18 22:10 tsui Exp $
+ */
+public class ProtobufSerializer implements StreamSerializer {
+
+    public static final String                      MESSAGE_CLASS = "com.google.protobuf.MessageLite";
+
+    /** placeholder of the classes which are not protobuf messages */
+    private static final Method                     NOT_MESSAGE;
+
+    private final Class<?>                          messageClass;
+
+    private final Method                            toByteArray;
+
+    private final Method                            writeTo;
+
+    /** parseFrom(InputStream) of message classes, keyed by class name */
+    private final ConcurrentHashMap<String, Method> parsers       = new ConcurrentHashMap<String, Method>();
+
+    static {
+        try {
+            NOT_MESSAGE = Object.class.getMethod("toString");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if protobuf-java is absent, check by {@link #isAvailable()} first
+     */
+    public ProtobufSerializer() {
+        try {
+            this.messageClass = Class.forName(MESSAGE_CLASS);
+            this.toByteArray = this.messageClass.getMethod("toByteArray");
+            this.writeTo = this.messageClass.getMethod("writeTo", OutputStream.class);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("protobuf-java is absent!", e);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unsupported protobuf version!", e);
+        }
+    }
+
+    /**
+     * Whether protobuf-java is present.
+     *
+     * @return
+     */
+    public static boolean isAvailable() {
+        try {
+            Class.forName(MESSAGE_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.alipay.remoting.serialization.Serializer#serialize(java.lang.Object)
+     */
+    @Override
+    public byte[] serialize(Object obj) throws CodecException {
+        if (!this.messageClass.isInstance(obj)) {
+            return fallback().serialize(obj);
+        }
+        return (byte[]) invoke(this.toByteArray, obj, null);
+    }
+
+    /**
+     * @see com.alipay.remoting.serialization.StreamSerializer#serialize(java.lang.Object, java.io.OutputStream)
+     */
+    @Override
+    public void serialize(Object obj, OutputStream out) throws CodecException {
+        if (!this.messageClass.isInstance(obj)) {
+            fallback().serialize(obj, out);
+            return;
+        }
+        invoke(this.writeTo, obj, out);
+    }
+
+    /**
+     * @see com.alipay.remoting.serialization.Serializer#deserialize(byte[], java.lang.String)
+     */
+    @Override
+    public <T> T deserialize(byte[] data, String classOfT) throws CodecException {
+        return deserialize(new ByteArrayInputStream(data), classOfT);
+    }
+
+    /**
+     * @see com.alipay.remoting.serialization.StreamSerializer#deserialize(java.io.InputStream, java.lang.String)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T deserialize(InputStream in, String classOfT) throws CodecException {
+        Method parser = getParser(classOfT);
+        if (parser == NOT_MESSAGE) {
+            return fallback().deserialize(in, classOfT);
+        }
+        return (T) invoke(parser, null, in);
+    }
+
+    /**
+     * find the static parseFrom(InputStream) of the message class generated by protoc
+     */
+    private Method getParser(String classOfT) {
+        if (null == classOfT) {
+            return NOT_MESSAGE;
+        }
+        Method parser = this.parsers.get(classOfT);
+        if (null == parser) {
+            try {
+                Class<?> clazz = loadClass(classOfT);
+                parser = this.messageClass.isAssignableFrom(clazz) ? clazz.getMethod("parseFrom",
+                    InputStream.class) : NOT_MESSAGE;
+            } catch (ClassNotFoundException e) {
+                // leave it to the fallback serializer
+                parser = NOT_MESSAGE;
+            } catch (NoSuchMethodException e) {
+                // not generated by protoc
+                parser = NOT_MESSAGE;
+            }
+            Method prev = this.parsers.putIfAbsent(classOfT, parser);
+            if (null != prev) {
+                parser = prev;
+            }
+        }
+        return parser;
+    }
+
+    /**
+     * load without initializing, as the class name comes from the wire
+     */
+    private static Class<?> loadClass(String className) throws ClassNotFoundException {
+        ClassLoader boltClassLoader = ProtobufSerializer.class.getClassLoader();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (null == classLoader || classLoader == boltClassLoader) {
+            return Class.forName(className, false, boltClassLoader);
+        }
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            // try the class loader of bolt
+            return Class.forName(className, false, boltClassLoader);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object arg) throws CodecException {
+        try {
+            return null == arg ? method.invoke(target) : method.invoke(target, arg);
+        } catch (InvocationTargetException e) {
+            throw new CodecException("Exception occurred when protobuf serializer "
+                                     + method.getName() + "!", e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new CodecException("Can not access " + method + " of protobuf message!", e);
+        }
+    }
+
+    private static StreamSerializer fallback() throws CodecException {
+        Serializer serializer = SerializerManager.getSerializer(SerializerManager.Hessian2);
+        if (!(serializer instanceof StreamSerializer)) {
+            throw new CodecException(
+                "No fallback serializer for objects other than protobuf messages!");
+        }
+        return (StreamSerializer) serializer;
+    }
+}
@@ -35,9 +35,22 @@ public class SerializerManager {
      */
     public static final byte    Hessian2    = 1;
     //public static final byte    Json        = 2;
+    /**
+     * 原始字节透传
+     */
+    public static final byte    Bytes       = 3;
+    /**
+     * Protobuf, 仅当 protobuf-java 存在时注册
+     */
+    public static final byte    Protobuf    = 4;
 
     static {
         addSerializer(Hessian2, new HessianSerializer());
+        addSerializer(Bytes, new BytesSerializer());
+        // protobuf-java is optional
+        if (ProtobufSerializer.isAvailable()) {
+            addSerializer(Protobuf, new ProtobufSerializer());
+        }
     }
 
     public static Serializer getSerializer(int idx) {
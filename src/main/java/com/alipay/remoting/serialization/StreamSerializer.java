@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.serialization;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.alipay.remoting.exception.CodecException;
+
+/**
+ * Serializer which is able to work on streams directly, so that content can be read from or written to
+ * a network buffer without being copied into a byte[] first.
+ * 可直接基于流工作的序列化程序，内容无需经过字节数组即可读写网络缓冲区。
+ *
+ * @author tsui
+ * @version $Id: StreamSerializer.java, v 0.1 2018-10-18 10:12 tsui Exp $
+ */
+public interface StreamSerializer extends Serializer {
+    /**
+     * Encode object into the output stream.
+     * 将对象编码到输出流。
+     * @param obj target object
+     * @param out output stream to write serialized result
+     */
+    void serialize(final Object obj, OutputStream out) throws CodecException;
+
+    /**
+     * Decode Object from the input stream.
+     * 从输入流中解码对象。
+     * @param in input stream of serialized data
+     * @param classOfT class of original data
+     */
+    <T> T deserialize(final InputStream in, String classOfT) throws CodecException;
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.util;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alipay.remoting.NamedThreadFactory;
+
+/**
+ * A clock of coarse precision, which is cheaper to read than {@link System#currentTimeMillis()}.<br>
+ * 粗粒度时钟, 由后台线程定时刷新, 适用于记录访问时间等对精度不敏感的场景
+ *
+ * @author tsui
+ * @version $Id: CoarseClock.java, v 0.1 2018-10-18 19:50 tsui Exp $
+ */
+public class CoarseClock {
+
+    /** refresh interval, time unit: ms */
+    public static final long     PRECISION = 10;
+
+    private static volatile long now       = System.currentTimeMillis();
+
+    static {
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("Bolt-coarse-clock", true));
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                now = System.currentTimeMillis();
+            }
+        }, PRECISION, PRECISION, TimeUnit.MILLISECONDS);
+    }
+
+    private CoarseClock() {
+    }
+
+    /**
+     * Current time in milliseconds, which may lag behind the system clock by at most about {@link #PRECISION}.
+     *
+     * @return current time
+     */
+    public static long currentTimeMillis() {
+        return now;
+    }
+}
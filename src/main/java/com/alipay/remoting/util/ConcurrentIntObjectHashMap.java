@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap.PrimitiveEntry;
+
+/**
+ * Concurrent map keyed by primitive int, used for the in-flight request tables of a connection.
+ *
+ * <p>Keys are spread over a fixed number of segments by their low bits, each segment is an open addressing
+ * {@link IntObjectHashMap} guarded by its own monitor, so put/get/remove never box the key into an {@link Integer}
+ * and requests with sequential ids land on different segments.
+ *
+ * @author tsui
+ * @version $Id: ConcurrentIntObjectHashMap.java, v 0.1 2018-10-18 16:05 tsui Exp $
+ */
+public class ConcurrentIntObjectHashMap<V> {
+
+    /** default number of segments, must be power of two */
+    public static final int    DEFAULT_SEGMENTS         = 16;
+
+    /** default initial capacity of each segment */
+    public static final int    DEFAULT_SEGMENT_CAPACITY = 4;
+
+    private final Segment<V>[] segments;
+
+    private final int          mask;
+
+    /**
+     * Constructor with default segments and capacity.
+     */
+    public ConcurrentIntObjectHashMap() {
+        this(DEFAULT_SEGMENTS, DEFAULT_SEGMENT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param segments number of segments, will be rounded up to power of two
+     * @param segmentCapacity initial capacity of each segment
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentIntObjectHashMap(int segments, int segmentCapacity) {
+        if (segments <= 0 || segmentCapacity <= 0) {
+            throw new IllegalArgumentException("Illegal segments [" + segments
+                                               + "] or segment capacity [" + segmentCapacity
+                                               + "], must be positive.");
+        }
+        int size = 1;
+        while (size < segments) {
+            size <<= 1;
+        }
+        this.segments = new Segment[size];
+        for (int i = 0; i < size; ++i) {
+            this.segments[i] = new Segment<V>(segmentCapacity);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Get the value mapped by key.
+     *
+     * @param key
+     * @return value or null if absent
+     */
+    public V get(int key) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.map.get(key);
+        }
+    }
+
+    /**
+     * Put the value and return the previous one.
+     *
+     * @param key
+     * @param value not null
+     * @return previous value or null
+     */
+    public V put(int key, V value) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            V prev = segment.map.put(key, value);
+            segment.size = segment.map.size();
+            return prev;
+        }
+    }
+
+    /**
+     * Put the value only if no value mapped by key.
+     *
+     * @param key
+     * @param value not null
+     * @return the existing value, or null if put succeed
+     */
+    public V putIfAbsent(int key, V value) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            V prev = segment.map.get(key);
+            if (prev == null) {
+                segment.map.put(key, value);
+                segment.size = segment.map.size();
+            }
+            return prev;
+        }
+    }
+
+    /**
+     * Remove the value mapped by key.
+     *
+     * @param key
+     * @return the removed value or null
+     */
+    public V remove(int key) {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment) {
+            V prev = segment.map.remove(key);
+            if (prev != null) {
+                segment.size = segment.map.size();
+            }
+            return prev;
+        }
+    }
+
+    /**
+     * Remove all values and return them.
+     *
+     * @return the removed values
+     */
+    public List<V> removeAll() {
+        List<V> values = new ArrayList<V>();
+        for (Segment<V> segment : this.segments) {
+            synchronized (segment) {
+                if (segment.size > 0) {
+                    values.addAll(segment.map.values());
+                    segment.map.clear();
+                    segment.size = 0;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Remove the values accepted by the filter and return them, each segment locked while filtered.
+     *
+     * @param filter called under the monitor of segment, should be cheap
+     * @return the removed values, empty if none
+     */
+    public List<V> removeIf(Filter<? super V> filter) {
+        List<V> values = null;
+        for (Segment<V> segment : this.segments) {
+            synchronized (segment) {
+                if (segment.size == 0) {
+                    continue;
+                }
+                Iterator<PrimitiveEntry<V>> it = segment.map.entries().iterator();
+                while (it.hasNext()) {
+                    V value = it.next().value();
+                    if (filter.accept(value)) {
+                        it.remove();
+                        if (values == null) {
+                            values = new ArrayList<V>();
+                        }
+                        values.add(value);
+                    }
+                }
+                segment.size = segment.map.size();
+            }
+        }
+        return values == null ? Collections.<V> emptyList() : values;
+    }
+
+    /**
+     * Snapshot of the values.
+     *
+     * @return copied values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<V>();
+        for (Segment<V> segment : this.segments) {
+            synchronized (segment) {
+                if (segment.size > 0) {
+                    values.addAll(segment.map.values());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Approximate size, the segments are not locked together.
+     *
+     * @return size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : this.segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Whether there is no mapping, the segments are not locked together.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        for (Segment<V> segment : this.segments) {
+            if (segment.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Segment<V> segmentFor(int key) {
+        return this.segments[key & this.mask];
+    }
+
+    /**
+     * Filter of values to remove.
+     */
+    public interface Filter<V> {
+        /**
+         * @param value
+         * @return true to remove the value
+         */
+        boolean accept(V value);
+    }
+
+    /**
+     * One segment of the map, guarded by its own monitor.
+     */
+    private static final class Segment<V> {
+        final IntObjectHashMap<V> map;
+
+        /** written under the monitor, read without it by size/isEmpty */
+        volatile int              size;
+
+        Segment(int capacity) {
+            this.map = new IntObjectHashMap<V>(capacity);
+        }
+    }
+}
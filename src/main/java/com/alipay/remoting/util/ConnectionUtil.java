@@ -43,14 +43,14 @@ public class ConnectionUtil {
         return null;
     }
 
-    public static void addIdPoolKeyMapping(Integer id, String group, Channel channel) {
+    public static void addIdPoolKeyMapping(int id, String group, Channel channel) {
         Connection connection = getConnectionFromChannel(channel);
         if (connection != null) {
             connection.addIdPoolKeyMapping(id, group);
         }
     }
 
-    public static String removeIdPoolKeyMapping(Integer id, Channel channel) {
+    public static String removeIdPoolKeyMapping(int id, Channel channel) {
         Connection connection = getConnectionFromChannel(channel);
         if (connection != null) {
             return connection.removeIdPoolKeyMapping(id);
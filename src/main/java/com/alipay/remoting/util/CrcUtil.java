@@ -17,6 +17,9 @@
 package com.alipay.remoting.util;
 
 import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import io.netty.buffer.ByteBuf;
 
 /**
  * CRC32 utility.
@@ -62,4 +65,144 @@ public class CrcUtil {
         return ret;
     }
 
+    /**
+     * Compute CRC32 code for the given region of a {@link ByteBuf}, without copying the region into a new array.
+     *
+     * @param buf
+     * @param index
+     * @param length
+     * @return
+     */
+    public static final int crc32(ByteBuf buf, int index, int length) {
+        return checksum(CRC_32_THREAD_LOCAL.get(), buf, index, length);
+    }
+
+    /**
+     * Compute CRC32C (Castagnoli) code for byte[].
+     *
+     * @param array
+     * @param offset
+     * @param length
+     * @return
+     */
+    public static final int crc32c(byte[] array, int offset, int length) {
+        Checksum crc32c = ThreadLocals.CRC_32C.get();
+        crc32c.update(array, offset, length);
+        int ret = (int) crc32c.getValue();
+        crc32c.reset();
+        return ret;
+    }
+
+    /**
+     * Compute CRC32C (Castagnoli) code for the given region of a {@link ByteBuf}, without copying the region into a new array.
+     *
+     * @param buf
+     * @param index
+     * @param length
+     * @return
+     */
+    public static final int crc32c(ByteBuf buf, int index, int length) {
+        return checksum(ThreadLocals.CRC_32C.get(), buf, index, length);
+    }
+
+    /**
+     * Feed the region into the checksum: heap buffers are read in place, others through a small per thread scratch array.
+     */
+    private static int checksum(Checksum checksum, ByteBuf buf, int index, int length) {
+        try {
+            if (buf.hasArray()) {
+                checksum.update(buf.array(), buf.arrayOffset() + index, length);
+            } else {
+                byte[] scratch = ThreadLocals.SCRATCH.get();
+                int end = index + length;
+                while (index < end) {
+                    int len = Math.min(scratch.length, end - index);
+                    buf.getBytes(index, scratch, 0, len);
+                    checksum.update(scratch, 0, len);
+                    index += len;
+                }
+            }
+            return (int) checksum.getValue();
+        } finally {
+            checksum.reset();
+        }
+    }
+
+    /**
+     * Use the intrinsified java.util.zip.CRC32C when running on jdk9+, otherwise fall back to a table driven one.
+     */
+    private static Checksum newCrc32c() {
+        try {
+            return (Checksum) Class.forName("java.util.zip.CRC32C").getConstructor().newInstance();
+        } catch (Throwable e) {
+            return new Crc32c();
+        }
+    }
+
+    /**
+     * Per thread checksum of CRC32C and scratch array, created on first use as most connections use neither.
+     */
+    private static final class ThreadLocals {
+
+        /** size of the scratch array used to feed non-array backed buffers into the checksum */
+        static final int                   SCRATCH_SIZE = 8 * 1024;
+
+        static final ThreadLocal<Checksum> CRC_32C      = new ThreadLocal<Checksum>() {
+                                                            @Override
+                                                            protected Checksum initialValue() {
+                                                                return newCrc32c();
+                                                            }
+                                                        };
+
+        static final ThreadLocal<byte[]>   SCRATCH      = new ThreadLocal<byte[]>() {
+                                                            @Override
+                                                            protected byte[] initialValue() {
+                                                                return new byte[SCRATCH_SIZE];
+                                                            }
+                                                        };
+    }
+
+    /**
+     * Table driven CRC32C (Castagnoli, reflected polynomial 0x82F63B78).
+     */
+    static final class Crc32c implements Checksum {
+
+        private static final int[] TABLE = new int[256];
+
+        static {
+            for (int i = 0; i < 256; ++i) {
+                int crc = i;
+                for (int j = 0; j < 8; ++j) {
+                    crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x82F63B78 : crc >>> 1;
+                }
+                TABLE[i] = crc;
+            }
+        }
+
+        private int                crc   = 0xFFFFFFFF;
+
+        @Override
+        public void update(int b) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xFF];
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            int c = crc;
+            for (int i = off, end = off + len; i < end; ++i) {
+                c = (c >>> 8) ^ TABLE[(c ^ b[i]) & 0xFF];
+            }
+            crc = c;
+        }
+
+        @Override
+        public long getValue() {
+            return (~crc) & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xFFFFFFFF;
+        }
+    }
 }
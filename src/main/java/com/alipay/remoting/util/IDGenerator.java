@@ -18,6 +18,9 @@ package com.alipay.remoting.util;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.config.ConfigManager;
+
 /**
  * IDGenerator is used for generating request id in integer form.
  *  以整形格式生成请求id
@@ -27,6 +30,13 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class IDGenerator {
     private static final AtomicInteger id = new AtomicInteger(0);
 
+    /** whether allocate id from the sequence of each connection */
+    private static final boolean       PER_CONNECTION_ID;
+
+    static {
+        PER_CONNECTION_ID = ConfigManager.request_id_per_connection();
+    }
+
     /**
      * generate the next id
      *  生成下一个id
@@ -36,6 +46,20 @@ public class IDGenerator {
         return id.incrementAndGet();
     }
 
+    /**
+     * generate the next id for a request sent over the connection,
+     * from the sequence of the connection if {@link com.alipay.remoting.config.Configs#REQUEST_ID_PER_CONNECTION} is on
+     *  为连接上发送的请求生成下一个id
+     * @param connection
+     * @return
+     */
+    public static int nextId(Connection connection) {
+        if (PER_CONNECTION_ID && connection != null) {
+            return connection.nextRequestId();
+        }
+        return nextId();
+    }
+
     /**
      * 重置id
      */
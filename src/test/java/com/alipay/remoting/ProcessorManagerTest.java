@@ -16,9 +16,12 @@
  */
 package com.alipay.remoting;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.alipay.remoting.config.Configs;
 import com.alipay.remoting.rpc.protocol.RpcCommandCode;
 import com.alipay.remoting.rpc.protocol.RpcRequestProcessor;
 
@@ -45,4 +48,35 @@ public class ProcessorManagerTest {
         Assert.assertEquals(processorManager.getProcessor(cmd1), rpcRequestProcessor2);
         Assert.assertEquals(processorManager.getProcessor(cmd2), rpcRequestProcessor2);
     }
-}
\ No newline at end of file
+
+    /**
+     * test the default executor in virtual thread mode, falls back to thread pool if not supported
+     */
+    @Test
+    public void testVirtualThreadDefaultExecutor() {
+        System.setProperty(Configs.TP_VIRTUAL_THREAD, "true");
+        System.setProperty(Configs.TP_VIRTUAL_MAX_CONCURRENCY, "100");
+        try {
+            ProcessorManager processorManager = new ProcessorManager();
+            boolean virtualThreadSupported = true;
+            try {
+                Thread.class.getMethod("ofVirtual");
+            } catch (NoSuchMethodException e) {
+                virtualThreadSupported = false;
+            }
+            if (virtualThreadSupported) {
+                Assert
+                    .assertTrue(processorManager.getDefaultExecutor() instanceof ConcurrencyLimitedExecutor);
+                Assert.assertEquals(100, ((ConcurrencyLimitedExecutor) processorManager
+                    .getDefaultExecutor()).getMaxConcurrency());
+            } else {
+                Assert
+                    .assertTrue(processorManager.getDefaultExecutor() instanceof ThreadPoolExecutor);
+            }
+            processorManager.getDefaultExecutor().shutdown();
+        } finally {
+            System.clearProperty(Configs.TP_VIRTUAL_THREAD);
+            System.clearProperty(Configs.TP_VIRTUAL_MAX_CONCURRENCY);
+        }
+    }
+}
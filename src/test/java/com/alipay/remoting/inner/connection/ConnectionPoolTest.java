@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.connection;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.ConnectionPool;
+import com.alipay.remoting.ConnectionSelectStrategy;
+import com.alipay.remoting.RandomSelectStrategy;
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.config.switches.GlobalSwitch;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * test for {@link ConnectionPool}
+ *
+ * @author tsui
+ * @version $Id: ConnectionPoolTest.java, v 0.1 2018-10-18 20:10 tsui Exp $
+ */
+public class ConnectionPoolTest {
+
+    @Test
+    public void testAddAndRemove() {
+        ConnectionPool pool = new ConnectionPool(new RandomSelectStrategy());
+        Assert.assertNull(pool.get());
+
+        Connection a = new Connection(new EmbeddedChannel());
+        Connection b = new Connection(new EmbeddedChannel());
+        pool.add(a);
+        pool.add(a);
+        pool.add(b);
+        Assert.assertEquals(2, pool.size());
+        Assert.assertTrue(pool.contains(a));
+        Assert.assertFalse(a.noRef());
+
+        List<Connection> all = pool.getAll();
+        pool.removeAndTryClose(a);
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals(1, pool.size());
+        Assert.assertFalse(pool.contains(a));
+        Assert.assertTrue(a.noRef());
+        Assert.assertFalse(a.isFine());
+        Assert.assertSame(b, pool.get());
+
+        pool.removeAllAndTryClose();
+        Assert.assertTrue(pool.isEmpty());
+        Assert.assertNull(pool.get());
+    }
+
+    @Test
+    public void testSnapshotPassedToStrategyIsImmutable() {
+        final boolean[] immutable = new boolean[1];
+        ConnectionPool pool = new ConnectionPool(new ConnectionSelectStrategy() {
+            @Override
+            public Connection select(List<Connection> conns) {
+                try {
+                    conns.clear();
+                } catch (UnsupportedOperationException e) {
+                    immutable[0] = true;
+                }
+                return conns.get(0);
+            }
+        });
+        Connection conn = new Connection(new EmbeddedChannel());
+        pool.add(conn);
+        Assert.assertSame(conn, pool.get());
+        Assert.assertTrue(immutable[0]);
+        Assert.assertTrue(pool.getLastAccessTimestamp() > 0);
+    }
+
+    @Test
+    public void testRandomSelectSkipServiceStatusOff() {
+        GlobalSwitch globalSwitch = new GlobalSwitch();
+        globalSwitch.turnOn(GlobalSwitch.CONN_MONITOR_SWITCH);
+        ConnectionPool pool = new ConnectionPool(new RandomSelectStrategy(globalSwitch));
+        for (int i = 0; i < 16; ++i) {
+            Connection conn = new Connection(new EmbeddedChannel());
+            conn.setAttribute(Configs.CONN_SERVICE_STATUS, Configs.CONN_SERVICE_STATUS_OFF);
+            pool.add(conn);
+        }
+        Assert.assertNull(pool.get());
+
+        Connection on = new Connection(new EmbeddedChannel());
+        pool.add(on);
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertSame(on, pool.get());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.connection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.LeastOutstandingSelectStrategy;
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.config.switches.GlobalSwitch;
+import com.alipay.remoting.rpc.DefaultInvokeFuture;
+import com.alipay.remoting.rpc.RpcCommandFactory;
+import com.alipay.remoting.rpc.protocol.RpcProtocol;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * test for {@link LeastOutstandingSelectStrategy}
+ *
+ * @author tsui
+ * @version $Id: LeastOutstandingSelectStrategyTest.java, v 0.1 2018-10-18 18:40 tsui Exp $
+ */
+public class LeastOutstandingSelectStrategyTest {
+
+    private RpcCommandFactory factory = new RpcCommandFactory();
+
+    @Test
+    public void testSelectLessOutstanding() {
+        Connection busy = newConnection(10);
+        Connection idle = newConnection(1);
+        List<Connection> conns = new ArrayList<Connection>();
+        conns.add(busy);
+        conns.add(idle);
+
+        LeastOutstandingSelectStrategy strategy = new LeastOutstandingSelectStrategy();
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertSame(idle, strategy.select(conns));
+        }
+    }
+
+    @Test
+    public void testAvoidUnwritable() {
+        Connection unwritable = newConnection(0);
+        EmbeddedChannel channel = (EmbeddedChannel) unwritable.getChannel();
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 2));
+        channel.write(Unpooled.wrappedBuffer(new byte[16]));
+        Assert.assertFalse(channel.isWritable());
+        Connection writable = newConnection(5);
+        List<Connection> conns = new ArrayList<Connection>();
+        conns.add(unwritable);
+        conns.add(writable);
+
+        LeastOutstandingSelectStrategy strategy = new LeastOutstandingSelectStrategy();
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertSame(writable, strategy.select(conns));
+        }
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testSkipUnavailable() {
+        GlobalSwitch globalSwitch = new GlobalSwitch();
+        globalSwitch.turnOn(GlobalSwitch.CONN_MONITOR_SWITCH);
+        List<Connection> conns = new ArrayList<Connection>();
+        for (int i = 0; i < 8; ++i) {
+            Connection conn = newConnection(0);
+            conn.setAttribute(Configs.CONN_SERVICE_STATUS, Configs.CONN_SERVICE_STATUS_OFF);
+            conns.add(conn);
+        }
+        Connection closed = newConnection(0);
+        closed.getChannel().close();
+        conns.add(closed);
+
+        LeastOutstandingSelectStrategy strategy = new LeastOutstandingSelectStrategy(globalSwitch);
+        Assert.assertNull(strategy.select(conns));
+
+        Connection available = newConnection(3);
+        conns.add(available);
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertSame(available, strategy.select(conns));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        LeastOutstandingSelectStrategy strategy = new LeastOutstandingSelectStrategy();
+        Assert.assertNull(strategy.select(null));
+        Assert.assertNull(strategy.select(new ArrayList<Connection>()));
+    }
+
+    private Connection newConnection(int outstanding) {
+        Connection conn = new Connection(new EmbeddedChannel());
+        for (int i = 0; i < outstanding; ++i) {
+            conn.addInvokeFuture(new DefaultInvokeFuture(conn.nextRequestId(), null, null,
+                RpcProtocol.PROTOCOL_CODE, factory));
+        }
+        Assert.assertEquals(outstanding, conn.getInvokeFutureCount());
+        return conn;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.connection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.RpcFlushConsolidationHandler;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * test for {@link RpcFlushConsolidationHandler}
+ *
+ * @author tsui
+ * @version $Id: RpcFlushConsolidationHandlerTest.java, v 0.1 2018-10-18 21:30 tsui Exp $
+ */
+public class RpcFlushConsolidationHandlerTest {
+
+    @Test
+    public void testFlushAtEndOfTask() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcFlushConsolidationHandler(256, 0));
+        // notice: embedded channel runs pending tasks on each write, so write before flush here
+        channel.pipeline().write("a");
+        channel.pipeline().write("b");
+        channel.pipeline().flush();
+        channel.pipeline().flush();
+        Assert.assertTrue(channel.outboundMessages().isEmpty());
+
+        channel.runPendingTasks();
+        Assert.assertEquals(2, channel.outboundMessages().size());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushAfterMaxFlushes() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcFlushConsolidationHandler(2, 0));
+        channel.pipeline().write("a");
+        channel.pipeline().write("b");
+        channel.pipeline().flush();
+        Assert.assertTrue(channel.outboundMessages().isEmpty());
+        channel.pipeline().flush();
+        Assert.assertEquals(2, channel.outboundMessages().size());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushAtReadComplete() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcFlushConsolidationHandler(256, 0),
+            new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                    ctx.writeAndFlush(msg);
+                }
+            });
+        channel.pipeline().fireChannelRead("a");
+        channel.pipeline().fireChannelRead("b");
+        channel.runPendingTasks();
+        Assert.assertTrue(channel.outboundMessages().isEmpty());
+
+        channel.pipeline().fireChannelReadComplete();
+        Assert.assertEquals(2, channel.outboundMessages().size());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushBeforeClose() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcFlushConsolidationHandler(256,
+            1000 * 1000));
+        channel.pipeline().write("a");
+        channel.pipeline().flush();
+        channel.runPendingTasks();
+        Assert.assertTrue(channel.outboundMessages().isEmpty());
+
+        channel.close();
+        Assert.assertEquals(1, channel.outboundMessages().size());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testIllegalArgs() {
+        try {
+            new RpcFlushConsolidationHandler(0, 0);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new RpcFlushConsolidationHandler(1, -1);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
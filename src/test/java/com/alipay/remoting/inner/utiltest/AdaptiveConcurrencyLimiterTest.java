@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.utiltest;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.AdaptiveConcurrencyLimiter;
+
+/**
+ * test adaptive concurrency limiter
+ *
+ * @author tsui
+ * @version $Id: AdaptiveConcurrencyLimiterTest.java, v 0.1 2018-10-18 16:05 tsui Exp $
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1000000L;
+
+    @Test
+    public void testRejectAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 10);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        Assert.assertEquals(1, limiter.getRejectedCount());
+        limiter.release(MS);
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testGrowWhenLatencyStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 2.0, 10);
+        for (int i = 0; i < 50; i++) {
+            runWindow(limiter, limiter.getLimit(), 10, MS);
+        }
+        Assert.assertTrue(limiter.getLimit() > 10);
+        Assert.assertTrue(limiter.getLimit() <= 100);
+        Assert.assertEquals(MS, limiter.getNoLoadRttNanos());
+    }
+
+    @Test
+    public void testNoGrowWhenNotSaturated() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 2.0, 10);
+        for (int i = 0; i < 50; i++) {
+            runWindow(limiter, 1, 10, MS);
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testShrinkWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 100, 2.0, 10);
+        runWindow(limiter, limiter.getLimit(), 10, MS);
+        int limitBefore = limiter.getLimit();
+        for (int i = 0; i < 50; i++) {
+            runWindow(limiter, limiter.getLimit(), 10, 10 * MS);
+        }
+        Assert.assertTrue(limiter.getLimit() < limitBefore);
+        Assert.assertTrue(limiter.getLimit() >= 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalArgument() {
+        new AdaptiveConcurrencyLimiter(10, 0, 100, 2.0, 10);
+    }
+
+    /**
+     * acquire concurrency permits then release them with the latency, until window samples collected
+     */
+    private void runWindow(AdaptiveConcurrencyLimiter limiter, int concurrency, int samples,
+                           long rttNanos) {
+        int released = 0;
+        while (released < samples) {
+            int acquired = 0;
+            for (int i = 0; i < concurrency && limiter.tryAcquire(); i++) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired && released < samples; i++) {
+                limiter.release(rttNanos);
+                released++;
+            }
+            // release the rest without counting them in this window
+            while (limiter.getInFlight() > 0) {
+                limiter.release(rttNanos);
+                released++;
+            }
+        }
+    }
+}
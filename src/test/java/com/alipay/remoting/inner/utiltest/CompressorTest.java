@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.utiltest;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.compression.Compressor;
+import com.alipay.remoting.compression.CompressorManager;
+import com.alipay.remoting.exception.CodecException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+/**
+ * test for the default compressors
+ *
+ * @author tsui
+ * @version $Id: CompressorTest.java, v 0.1 2018-10-18 23:00 tsui Exp $
+ */
+public class CompressorTest {
+
+    private Compressor deflate = CompressorManager.getCompressor(CompressorManager.Deflate);
+
+    @Test
+    public void testDeflateHeapAndDirect() throws Exception {
+        // larger than the chunk, to cover chunked input and output
+        byte[] bytes = new byte[50000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 31);
+        }
+        ByteBuf heapOut = Unpooled.buffer();
+        deflate.compress(Unpooled.wrappedBuffer(bytes), heapOut);
+        ByteBuf directOut = Unpooled.directBuffer();
+        deflate.compress(Unpooled.directBuffer().writeBytes(bytes), directOut);
+        Assert.assertTrue(heapOut.readableBytes() < bytes.length / 10);
+        Assert.assertEquals(heapOut, directOut);
+
+        ByteBuf heapResult = Unpooled.buffer();
+        deflate.decompress(heapOut, heapResult);
+        ByteBuf directResult = Unpooled.directBuffer();
+        deflate.decompress(directOut, directResult);
+        Assert.assertArrayEquals(bytes, ByteBufUtil.getBytes(heapResult));
+        Assert.assertArrayEquals(bytes, ByteBufUtil.getBytes(directResult));
+    }
+
+    @Test
+    public void testDeflateRandom() throws Exception {
+        byte[] bytes = new byte[20000];
+        new Random().nextBytes(bytes);
+        ByteBuf compressed = Unpooled.buffer();
+        deflate.compress(Unpooled.wrappedBuffer(bytes), compressed);
+        ByteBuf result = Unpooled.buffer();
+        deflate.decompress(compressed, result);
+        Assert.assertArrayEquals(bytes, ByteBufUtil.getBytes(result));
+    }
+
+    @Test
+    public void testDeflateTruncated() throws Exception {
+        byte[] bytes = new byte[20000];
+        new Random().nextBytes(bytes);
+        ByteBuf compressed = Unpooled.buffer();
+        deflate.compress(Unpooled.wrappedBuffer(bytes), compressed);
+        compressed.writerIndex(compressed.writerIndex() - 10);
+        try {
+            deflate.decompress(compressed, Unpooled.buffer());
+            Assert.fail("Should not reach here!");
+        } catch (CodecException e) {
+            // expected
+        }
+        // the inflater is reset for the next use
+        compressed = Unpooled.buffer();
+        deflate.compress(Unpooled.wrappedBuffer(bytes), compressed);
+        ByteBuf result = Unpooled.buffer();
+        deflate.decompress(compressed, result);
+        Assert.assertArrayEquals(bytes, ByteBufUtil.getBytes(result));
+    }
+
+    @Test
+    public void testDeflateBeyondMaxCapacity() throws Exception {
+        // a small frame inflating into a huge content
+        byte[] bytes = new byte[1024 * 1024];
+        ByteBuf compressed = Unpooled.buffer();
+        deflate.compress(Unpooled.wrappedBuffer(bytes), compressed);
+        Assert.assertTrue(compressed.readableBytes() < 2048);
+        try {
+            deflate.decompress(compressed.duplicate(), Unpooled.buffer(2048, 64 * 1024));
+            Assert.fail("Should not reach here!");
+        } catch (CodecException e) {
+            // expected
+        }
+        ByteBuf result = Unpooled.buffer(2048, bytes.length);
+        deflate.decompress(compressed, result);
+        Assert.assertArrayEquals(bytes, ByteBufUtil.getBytes(result));
+    }
+
+    @Test
+    public void testUnknownCompressor() {
+        Assert.assertNull(CompressorManager.getCompressor(100));
+        Assert.assertNull(CompressorManager.getCompressor(CompressorManager.None));
+        try {
+            CompressorManager.addCompressor(CompressorManager.None, deflate);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.utiltest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alipay.remoting.ConcurrencyLimitedExecutor;
+
+/**
+ * test concurrency limited executor
+ *
+ * @author tsui
+ * @version $Id: ConcurrencyLimitedExecutorTest.java, v 0.1 2018-10-18 14:30 tsui Exp $
+ */
+public class ConcurrencyLimitedExecutorTest {
+
+    private ConcurrencyLimitedExecutor executor;
+
+    @Before
+    public void init() {
+        ExecutorService delegate = Executors.newCachedThreadPool();
+        executor = new ConcurrencyLimitedExecutor(delegate, 2);
+    }
+
+    @After
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRejectWhenLimitExceeded() throws Exception {
+        final CountDownLatch block = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                finished.countDown();
+            }
+        };
+        executor.execute(task);
+        executor.execute(task);
+        Assert.assertEquals(2, executor.getActiveCount());
+        try {
+            executor.execute(task);
+            Assert.fail("Should not reach here!");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        Assert.assertEquals(2, executor.getActiveCount());
+
+        block.countDown();
+        Assert.assertTrue(finished.await(3, TimeUnit.SECONDS));
+        // permits are released after the tasks finished
+        for (int i = 0; i < 100 && executor.getActiveCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, executor.getActiveCount());
+        final CountDownLatch again = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                again.countDown();
+            }
+        });
+        Assert.assertTrue(again.await(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReleaseWhenDelegateRejects() {
+        executor.shutdown();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            Assert.fail("Should not reach here!");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        Assert.assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalLimit() {
+        new ConcurrencyLimitedExecutor(Executors.newSingleThreadExecutor(), 0);
+    }
+}
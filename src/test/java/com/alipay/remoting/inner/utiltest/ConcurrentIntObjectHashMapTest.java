@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.utiltest;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.util.ConcurrentIntObjectHashMap;
+
+/**
+ * test for {@link ConcurrentIntObjectHashMap}
+ *
+ * @author tsui
+ * @version $Id: ConcurrentIntObjectHashMapTest.java, v 0.1 2018-10-18 16:30 tsui Exp $
+ */
+public class ConcurrentIntObjectHashMapTest {
+
+    @Test
+    public void testBasic() {
+        ConcurrentIntObjectHashMap<String> map = new ConcurrentIntObjectHashMap<String>();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.putIfAbsent(1, "a"));
+        Assert.assertEquals("a", map.putIfAbsent(1, "b"));
+        Assert.assertEquals("a", map.get(1));
+        Assert.assertEquals("a", map.put(1, "c"));
+        Assert.assertNull(map.put(-17, "d"));
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("d", map.get(-17));
+        Assert.assertNull(map.get(2));
+
+        Assert.assertEquals("c", map.remove(1));
+        Assert.assertNull(map.remove(1));
+        Assert.assertFalse(map.isEmpty());
+
+        List<String> removed = map.removeAll();
+        Assert.assertEquals(1, removed.size());
+        Assert.assertEquals("d", removed.get(0));
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testRemoveIf() {
+        ConcurrentIntObjectHashMap<Integer> map = new ConcurrentIntObjectHashMap<Integer>(4, 1);
+        for (int i = 0; i < 100; ++i) {
+            map.put(i, i);
+        }
+        List<Integer> removed = map.removeIf(new ConcurrentIntObjectHashMap.Filter<Integer>() {
+            @Override
+            public boolean accept(Integer value) {
+                return value % 3 == 0;
+            }
+        });
+        Assert.assertEquals(34, removed.size());
+        Assert.assertEquals(66, map.size());
+        Assert.assertNull(map.get(99));
+        Assert.assertEquals(Integer.valueOf(98), map.get(98));
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(i % 3 != 0, map.get(i) != null);
+        }
+        Assert.assertTrue(map.removeIf(new ConcurrentIntObjectHashMap.Filter<Integer>() {
+            @Override
+            public boolean accept(Integer value) {
+                return value < 0;
+            }
+        }).isEmpty());
+    }
+
+    @Test
+    public void testIllegalArgs() {
+        try {
+            new ConcurrentIntObjectHashMap<String>(0, 4);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentPutRemove() throws InterruptedException {
+        final ConcurrentIntObjectHashMap<Integer> map = new ConcurrentIntObjectHashMap<Integer>(3,
+            1);
+        final int threads = 8;
+        final int perThread = 10000;
+        final AtomicInteger failed = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; ++t) {
+            final int base = t * perThread;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = base; i < base + perThread; ++i) {
+                            if (map.putIfAbsent(i, i) != null) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                        for (int i = base; i < base + perThread; i += 2) {
+                            if (map.remove(i) == null) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+        Assert.assertEquals(0, failed.get());
+        Assert.assertEquals(threads * perThread / 2, map.size());
+        Assert.assertEquals(threads * perThread / 2, map.values().size());
+        Assert.assertEquals(Integer.valueOf(1), map.get(1));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.utiltest;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.util.CrcUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * test for crc computed on byte buf regions
+ *
+ * @author tsui
+ * @version $Id: CrcUtilTest.java, v 0.1 2018-10-18 15:10 tsui Exp $
+ */
+public class CrcUtilTest {
+
+    @Test
+    public void testCrc32cCheckValue() {
+        byte[] check = "123456789".getBytes();
+        Assert.assertEquals(0xE3069283, CrcUtil.crc32c(check, 0, check.length));
+        Assert.assertEquals(0xCBF43926, CrcUtil.crc32(check));
+    }
+
+    @Test
+    public void testByteBufRegion() {
+        // larger than the scratch array, to cover chunked update
+        byte[] bytes = new byte[20000];
+        new Random().nextBytes(bytes);
+        int offset = 7;
+        int length = bytes.length - 19;
+
+        ByteBuf heap = Unpooled.wrappedBuffer(bytes);
+        ByteBuf direct = Unpooled.directBuffer(bytes.length).writeBytes(bytes);
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponents(true, Unpooled.wrappedBuffer(bytes, 0, 1000),
+            Unpooled.wrappedBuffer(bytes, 1000, bytes.length - 1000));
+        try {
+            int crc32 = CrcUtil.crc32(bytes, offset, length);
+            int crc32c = CrcUtil.crc32c(bytes, offset, length);
+            Assert.assertNotEquals(crc32, crc32c);
+            for (ByteBuf buf : new ByteBuf[] { heap, direct, composite }) {
+                Assert.assertEquals(crc32, CrcUtil.crc32(buf, offset, length));
+                Assert.assertEquals(crc32c, CrcUtil.crc32c(buf, offset, length));
+                Assert.assertEquals(0, buf.readerIndex());
+            }
+        } finally {
+            heap.release();
+            direct.release();
+            composite.release();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.inner.utiltest;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.metrics.LatencyHistogram;
+
+/**
+ * test latency histogram
+ *
+ * @author tsui
+ * @version $Id: LatencyHistogramTest.java, v 0.1 2018-10-18 21:10 tsui Exp $
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(99), 0);
+        Assert.assertEquals(0, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < LatencyHistogram.SUB_BUCKETS; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(LatencyHistogram.SUB_BUCKETS, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(1));
+        Assert.assertEquals(3, histogram.getPercentile(50));
+        Assert.assertEquals(LatencyHistogram.SUB_BUCKETS - 1, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testPercentileError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(100000, histogram.getCount());
+        Assert.assertEquals(100000, histogram.getMax());
+        Assert.assertEquals(50000.5, histogram.getMean(), 0.001);
+        double maxError = 1.0 / LatencyHistogram.SUB_BUCKETS;
+        for (double p : new double[] { 10, 50, 90, 99, 99.9 }) {
+            long expected = (long) (p * 1000);
+            long actual = histogram.getPercentile(p);
+            Assert.assertTrue(p + ": " + actual, actual >= expected);
+            Assert.assertTrue(p + ": " + actual, actual <= expected * (1 + maxError));
+        }
+        Assert.assertEquals(100000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testNanosAndClamp() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(2500);
+        histogram.recordNanos(-1);
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(3, histogram.getCount());
+        Assert.assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(33));
+        Assert.assertEquals(2, histogram.getPercentile(66));
+        Assert.assertEquals(LatencyHistogram.MAX_VALUE, histogram.getPercentile(100));
+    }
+}
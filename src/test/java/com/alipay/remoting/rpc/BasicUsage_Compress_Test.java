@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+
+/**
+ * basic usage test for the content compression of protocol v2, turned on by {@link InvokeContext#BOLT_COMPRESS_SWITCH}
+ * for the server declared by {@link RpcConfigs#COMPRESS_KEY}
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_Compress_Test.java, v 0.1 2018-10-18 23:00 tsui Exp $
+ */
+public class BasicUsage_Compress_Test {
+    static Logger logger      = LoggerFactory.getLogger(BasicUsage_Compress_Test.class);
+
+    BoltServer    server;
+    RpcClient     client;
+
+    int           port        = PortScan.select();
+    String        addr        = "127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=2&_COMPRESS=true";
+
+    int           invokeTimes = 5;
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        // echo the request twice, so the response is larger than the request
+        server.registerUserProcessor(new SyncUserProcessor<String>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, String request) throws Exception {
+                return request + request;
+            }
+
+            @Override
+            public String interest() {
+                return String.class.getName();
+            }
+        });
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testSyncLargeContent() throws Exception {
+        String req = repeat("hello world compress ", 10000);
+        for (int i = 0; i < invokeTimes; i++) {
+            String res = (String) client.invokeSync(addr, req, compressContext(), 3000);
+            Assert.assertEquals(req + req, res);
+        }
+    }
+
+    @Test
+    public void testSyncSmallContent() throws Exception {
+        // shorter than the threshold, sent uncompressed
+        String req = "hello world";
+        for (int i = 0; i < invokeTimes; i++) {
+            String res = (String) client.invokeSync(addr, req, compressContext(), 3000);
+            Assert.assertEquals(req + req, res);
+        }
+    }
+
+    @Test
+    public void testSyncWithCrcOff() throws Exception {
+        String req = repeat("hello world compress ", 10000);
+        for (int i = 0; i < invokeTimes; i++) {
+            InvokeContext invokeContext = compressContext();
+            invokeContext.putIfAbsent(InvokeContext.BOLT_CRC_SWITCH, false);
+            String res = (String) client.invokeSync(addr, req, invokeContext, 3000);
+            Assert.assertEquals(req + req, res);
+        }
+    }
+
+    @Test
+    public void testFutureProtocolV2_1() throws Exception {
+        String req = repeat("hello world future ", 10000);
+        for (int i = 0; i < invokeTimes; i++) {
+            RpcResponseFuture future = client.invokeWithFuture(
+                "127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=1&_COMPRESS=true", req,
+                compressContext(), 3000);
+            Assert.assertEquals(req + req, future.get());
+        }
+    }
+
+    @Test
+    public void testNotCompressedIfNotDeclared() throws Exception {
+        // the server is not known to support compression, so the switch takes no effect
+        String req = repeat("hello world compress ", 10000);
+        String res = (String) client.invokeSync("127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=2",
+            req, compressContext(), 3000);
+        Assert.assertEquals(req + req, res);
+        Assert.assertFalse(isCompressReceivedByServer());
+    }
+
+    @Test
+    public void testCompressedByDefaultIfDeclared() throws Exception {
+        String req = repeat("hello world compress ", 10000);
+        Assert.assertEquals(req + req, client.invokeSync(addr, req, 3000));
+        Assert.assertTrue(isCompressReceivedByServer());
+    }
+
+    private boolean isCompressReceivedByServer() {
+        for (List<Connection> conns : server.getRpcServer().getConnectionManager().getAll()
+            .values()) {
+            for (Connection conn : conns) {
+                if (Boolean.TRUE.equals(conn.getChannel().attr(Connection.COMPRESS).get())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private InvokeContext compressContext() {
+        InvokeContext invokeContext = new InvokeContext();
+        invokeContext.putIfAbsent(InvokeContext.BOLT_COMPRESS_SWITCH, true);
+        return invokeContext;
+    }
+
+    private String repeat(String str, int times) {
+        StringBuilder sb = new StringBuilder(str.length() * times);
+        for (int i = 0; i < times; i++) {
+            sb.append(str);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.AdaptiveConcurrencyLimiter;
+import com.alipay.remoting.AsyncContext;
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.ConnectionEventType;
+import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.common.AsyncServerUserProcessor;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.CONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.DISCONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleClientUserProcessor;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+import com.alipay.remoting.rpc.exception.InvokeServerBusyException;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+import com.alipay.remoting.rpc.protocol.AsyncUserProcessor;
+
+/**
+ * basic usage test with the concurrency limiter of user processor
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_ConcurrencyLimiter_Test.java, v 0.1 2018-10-18 16:30 tsui Exp $
+ */
+public class BasicUsage_ConcurrencyLimiter_Test {
+    static Logger              logger                    = LoggerFactory
+                                                             .getLogger(BasicUsage_ConcurrencyLimiter_Test.class);
+
+    BoltServer                 server;
+    RpcClient                  client;
+
+    int                        port                      = PortScan.select();
+    String                     addr                      = "127.0.0.1:" + port;
+
+    int                        concurrency               = 6;
+
+    // enough threads and queue, so that only the limiter rejects requests
+    SimpleServerUserProcessor  serverUserProcessor       = new SimpleServerUserProcessor(300, 8, 8,
+                                                             60, 100);
+    SimpleClientUserProcessor  clientUserProcessor       = new SimpleClientUserProcessor();
+    CONNECTEventProcessor      clientConnectProcessor    = new CONNECTEventProcessor();
+    CONNECTEventProcessor      serverConnectProcessor    = new CONNECTEventProcessor();
+    DISCONNECTEventProcessor   clientDisConnectProcessor = new DISCONNECTEventProcessor();
+    DISCONNECTEventProcessor   serverDisConnectProcessor = new DISCONNECTEventProcessor();
+
+    AdaptiveConcurrencyLimiter limiter                   = new AdaptiveConcurrencyLimiter(2, 2, 2,
+                                                             2.0, 10);
+
+    @Before
+    public void init() {
+        serverUserProcessor.setConcurrencyLimiter(limiter);
+
+        server = new BoltServer(port, true);
+        server.start();
+        server.addConnectionEventProcessor(ConnectionEventType.CONNECT, serverConnectProcessor);
+        server.addConnectionEventProcessor(ConnectionEventType.CLOSE, serverDisConnectProcessor);
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.addConnectionEventProcessor(ConnectionEventType.CONNECT, clientConnectProcessor);
+        client.addConnectionEventProcessor(ConnectionEventType.CLOSE, clientDisConnectProcessor);
+        client.registerUserProcessor(clientUserProcessor);
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testRejectBeyondLimit() throws Exception {
+        RequestBody req = new RequestBody(1, "hello world limiter");
+        List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(client.invokeWithFuture(addr, req, 3000));
+        }
+        int success = 0;
+        int busy = 0;
+        for (RpcResponseFuture future : futures) {
+            try {
+                Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, future.get(3000));
+                success++;
+            } catch (InvokeServerBusyException e) {
+                busy++;
+            } catch (RemotingException e) {
+                logger.error("Unexpected exception", e);
+                Assert.fail("Should not reach here!");
+            }
+        }
+        Assert.assertEquals(2, success);
+        Assert.assertEquals(concurrency - 2, busy);
+        Assert.assertEquals(concurrency - 2, limiter.getRejectedCount());
+
+        // permits are released after processed, a moment after the response sent
+        for (int i = 0; i < 100 && limiter.getInFlight() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, limiter.getInFlight());
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+            client.invokeSync(addr, req, 3000));
+    }
+
+    @Test
+    public void testAsyncProcessorHoldsPermitTillResponseSent() throws Exception {
+        // the async processor returns at once, but the response is sent 300ms later
+        int asyncPort = PortScan.select();
+        AsyncServerUserProcessor asyncProcessor = new AsyncServerUserProcessor(300);
+        AdaptiveConcurrencyLimiter asyncLimiter = new AdaptiveConcurrencyLimiter(2, 2, 2, 2.0, 10);
+        asyncProcessor.setConcurrencyLimiter(asyncLimiter);
+        BoltServer asyncServer = new BoltServer(asyncPort, true);
+        asyncServer.start();
+        asyncServer.registerUserProcessor(asyncProcessor);
+        try {
+            RequestBody req = new RequestBody(1, "hello world limiter");
+            List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(client.invokeWithFuture("127.0.0.1:" + asyncPort, req, 3000));
+            }
+            int success = 0;
+            int busy = 0;
+            for (RpcResponseFuture future : futures) {
+                try {
+                    Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, future.get(3000));
+                    success++;
+                } catch (InvokeServerBusyException e) {
+                    busy++;
+                }
+            }
+            Assert.assertEquals(2, success);
+            Assert.assertEquals(2, busy);
+            Assert.assertEquals(2, asyncLimiter.getRejectedCount());
+            for (int i = 0; i < 100 && asyncLimiter.getInFlight() > 0; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, asyncLimiter.getInFlight());
+        } finally {
+            asyncServer.stop();
+        }
+    }
+
+    @Test
+    public void testAsyncProcessorNeverResponds() throws Exception {
+        // the permit is released by the deadline of request, or once returned for oneway
+        int asyncPort = PortScan.select();
+        final AtomicInteger handled = new AtomicInteger();
+        AsyncUserProcessor<RequestBody> silentProcessor = new AsyncUserProcessor<RequestBody>() {
+            @Override
+            public void handleRequest(BizContext bizCtx, AsyncContext asyncCtx, RequestBody request) {
+                handled.incrementAndGet();
+            }
+
+            @Override
+            public String interest() {
+                return RequestBody.class.getName();
+            }
+        };
+        AdaptiveConcurrencyLimiter silentLimiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 10);
+        silentProcessor.setConcurrencyLimiter(silentLimiter);
+        BoltServer silentServer = new BoltServer(asyncPort, true);
+        silentServer.start();
+        silentServer.registerUserProcessor(silentProcessor);
+        String silentAddr = "127.0.0.1:" + asyncPort;
+        try {
+            RequestBody req = new RequestBody(1, "hello world limiter");
+            for (int i = 1; i <= 3; i++) {
+                client.oneway(silentAddr, req);
+                for (int j = 0; j < 100 && handled.get() < i; j++) {
+                    Thread.sleep(10);
+                }
+                Assert.assertEquals(i, handled.get());
+                for (int j = 0; j < 100 && silentLimiter.getInFlight() > 0; j++) {
+                    Thread.sleep(10);
+                }
+                Assert.assertEquals(0, silentLimiter.getInFlight());
+            }
+
+            for (int i = 0; i < 3; i++) {
+                try {
+                    client.invokeSync(silentAddr, req, 200);
+                    Assert.fail("Should not reach here!");
+                } catch (InvokeTimeoutException e) {
+                    // expected, not rejected as busy
+                }
+                for (int j = 0; j < 100 && silentLimiter.getInFlight() > 0; j++) {
+                    Thread.sleep(10);
+                }
+                Assert.assertEquals(0, silentLimiter.getInFlight());
+            }
+            Assert.assertEquals(6, handled.get());
+            Assert.assertEquals(0, silentLimiter.getRejectedCount());
+        } finally {
+            silentServer.stop();
+        }
+    }
+
+    @Test
+    public void testLimiterPerProcessor() throws Exception {
+        // another server in the same jvm, its processor of the same interest has no limiter
+        int anotherPort = PortScan.select();
+        SimpleServerUserProcessor anotherProcessor = new SimpleServerUserProcessor(300, 8, 8, 60,
+            100);
+        BoltServer another = new BoltServer(anotherPort, true);
+        another.start();
+        another.registerUserProcessor(anotherProcessor);
+        try {
+            Assert.assertNull(anotherProcessor.getConcurrencyLimiter());
+            RequestBody req = new RequestBody(1, "hello world limiter");
+            List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(client.invokeWithFuture("127.0.0.1:" + anotherPort, req, 3000));
+            }
+            for (RpcResponseFuture future : futures) {
+                Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, future.get(3000));
+            }
+            Assert.assertEquals(0, limiter.getRejectedCount());
+        } finally {
+            another.stop();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.ConnectionEventType;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.Url;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.CONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.DISCONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleClientUserProcessor;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+
+/**
+ * basic usage test for protocol v2.2 with crc32c frame check, specified by {@link RpcConfigs#CRC32C_KEY}
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_Crc32c_Test.java, v 0.1 2018-10-18 15:20 tsui Exp $
+ */
+public class BasicUsage_Crc32c_Test {
+    static Logger             logger                    = LoggerFactory
+                                                            .getLogger(BasicUsage_Crc32c_Test.class);
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                      = PortScan.select();
+    String                    addr                      = "127.0.0.1:" + port
+                                                          + "?_PROTOCOL=2&_VERSION=2&_CRC32C=true";
+
+    int                       invokeTimes               = 5;
+
+    SimpleServerUserProcessor serverUserProcessor       = new SimpleServerUserProcessor();
+    SimpleClientUserProcessor clientUserProcessor       = new SimpleClientUserProcessor();
+    CONNECTEventProcessor     clientConnectProcessor    = new CONNECTEventProcessor();
+    CONNECTEventProcessor     serverConnectProcessor    = new CONNECTEventProcessor();
+    DISCONNECTEventProcessor  clientDisConnectProcessor = new DISCONNECTEventProcessor();
+    DISCONNECTEventProcessor  serverDisConnectProcessor = new DISCONNECTEventProcessor();
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.addConnectionEventProcessor(ConnectionEventType.CONNECT, serverConnectProcessor);
+        server.addConnectionEventProcessor(ConnectionEventType.CLOSE, serverDisConnectProcessor);
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.addConnectionEventProcessor(ConnectionEventType.CONNECT, clientConnectProcessor);
+        client.addConnectionEventProcessor(ConnectionEventType.CLOSE, clientDisConnectProcessor);
+        client.registerUserProcessor(clientUserProcessor);
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testParseUrl() {
+        RpcAddressParser parser = new RpcAddressParser();
+        Url url = parser.parse(addr);
+        Assert.assertTrue(url.isCrc32c());
+        url = parser.parse("127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=2");
+        Assert.assertFalse(url.isCrc32c());
+    }
+
+    @Test
+    public void testSync() throws Exception {
+        RequestBody req = new RequestBody(1, "hello world sync");
+        for (int i = 0; i < invokeTimes; i++) {
+            String res = (String) client.invokeSync(addr, req, 3000);
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, res);
+        }
+
+        Assert.assertTrue(serverConnectProcessor.isConnected());
+        Assert.assertEquals(1, serverConnectProcessor.getConnectTimes());
+        Assert.assertEquals(invokeTimes, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testSyncWithCrcOff() throws Exception {
+        RequestBody req = new RequestBody(1, "hello world sync");
+        for (int i = 0; i < invokeTimes; i++) {
+            InvokeContext invokeContext = new InvokeContext();
+            invokeContext.putIfAbsent(InvokeContext.BOLT_CRC_SWITCH, false);
+            String res = (String) client.invokeSync(addr, req, invokeContext, 3000);
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, res);
+        }
+        Assert.assertEquals(invokeTimes, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testFuture() throws Exception {
+        RequestBody req = new RequestBody(2, "hello world future");
+        for (int i = 0; i < invokeTimes; i++) {
+            RpcResponseFuture future = client.invokeWithFuture(addr, req, 3000);
+            String res = (String) future.get();
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, res);
+        }
+        Assert.assertEquals(invokeTimes, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testOneway() throws Exception {
+        RequestBody req = new RequestBody(2, "hello world oneway");
+        for (int i = 0; i < invokeTimes; i++) {
+            client.oneway(addr, req);
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(invokeTimes, serverUserProcessor.getInvokeTimes());
+    }
+}
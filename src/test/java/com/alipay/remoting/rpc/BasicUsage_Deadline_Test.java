@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+
+/**
+ * basic usage test of deadline propagated to nested invocations
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_Deadline_Test.java, v 0.1 2018-10-18 17:20 tsui Exp $
+ */
+public class BasicUsage_Deadline_Test {
+    static Logger       logger            = LoggerFactory.getLogger(BasicUsage_Deadline_Test.class);
+
+    static final String DEADLINE_EXCEEDED = "deadline exceeded";
+    static final String BACK_RETURN       = "back";
+
+    BoltServer          frontServer;
+    BoltServer          backServer;
+    RpcClient           client;
+    RpcClient           nestedClient;
+
+    int                 frontPort         = PortScan.select();
+    int                 backPort          = PortScan.select();
+    String              frontAddr         = "127.0.0.1:" + frontPort;
+    String              backAddr          = "127.0.0.1:" + backPort;
+
+    volatile int        frontDelay        = 0;
+    final AtomicInteger backTimeout       = new AtomicInteger();
+    final AtomicInteger backInvokeTimes   = new AtomicInteger();
+
+    @Before
+    public void init() {
+        backServer = new BoltServer(backPort, true);
+        backServer.start();
+        backServer.registerUserProcessor(new SyncUserProcessor<RequestBody>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, RequestBody request) throws Exception {
+                backInvokeTimes.incrementAndGet();
+                backTimeout.set(bizCtx.getClientTimeout());
+                return BACK_RETURN;
+            }
+
+            @Override
+            public String interest() {
+                return RequestBody.class.getName();
+            }
+        });
+
+        nestedClient = new RpcClient();
+        nestedClient.init();
+
+        frontServer = new BoltServer(frontPort, true);
+        frontServer.start();
+        frontServer.registerUserProcessor(new SyncUserProcessor<RequestBody>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, RequestBody request) throws Exception {
+                Thread.sleep(frontDelay);
+                // carry the deadline of the request to the nested invocation
+                InvokeContext nestedCtx = new InvokeContext();
+                nestedCtx.put(InvokeContext.BOLT_INVOKE_DEADLINE,
+                    bizCtx.getInvokeContext().get(InvokeContext.BOLT_INVOKE_DEADLINE));
+                try {
+                    return nestedClient.invokeSync(backAddr, request, nestedCtx, 10000);
+                } catch (InvokeTimeoutException e) {
+                    return DEADLINE_EXCEEDED;
+                }
+            }
+
+            @Override
+            public String interest() {
+                return RequestBody.class.getName();
+            }
+        });
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            frontServer.stop();
+            backServer.stop();
+            nestedClient.shutdown();
+            client.shutdown();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testDeadlinePropagated() throws Exception {
+        frontDelay = 300;
+        RequestBody req = new RequestBody(1, "hello world deadline");
+        Assert.assertEquals(BACK_RETURN, client.invokeSync(frontAddr, req, 2000));
+        // the nested invocation only has the time left of the 2000ms
+        Assert.assertTrue(backTimeout.get() > 0);
+        Assert.assertTrue("timeout of nested invocation is " + backTimeout.get(),
+            backTimeout.get() <= 2000 - frontDelay);
+    }
+
+    @Test
+    public void testDeadlineExceededBeforeNestedInvoke() throws Exception {
+        frontDelay = 600;
+        RequestBody req = new RequestBody(1, "hello world deadline");
+        try {
+            client.invokeSync(frontAddr, req, 500);
+            Assert.fail("Should not reach here!");
+        } catch (InvokeTimeoutException e) {
+            // expected, caller gives up
+        }
+        Thread.sleep(frontDelay);
+        // the nested invocation is not sent at all
+        Assert.assertEquals(0, backInvokeTimes.get());
+    }
+
+    @Test
+    public void testRemainingTimeout() throws Exception {
+        RpcClientRemoting remoting = new RpcClientRemoting(null, null, null);
+        Assert.assertEquals(1000, remoting.remainingTimeout(null, 1000));
+        Assert.assertEquals(1000, remoting.remainingTimeout(new InvokeContext(), 1000));
+
+        InvokeContext ctx = new InvokeContext();
+        ctx.put(InvokeContext.BOLT_INVOKE_DEADLINE, System.currentTimeMillis() + 10000);
+        Assert.assertEquals(1000, remoting.remainingTimeout(ctx, 1000));
+        ctx.put(InvokeContext.BOLT_INVOKE_DEADLINE, System.currentTimeMillis() + 500);
+        Assert.assertTrue(remoting.remainingTimeout(ctx, 1000) <= 500);
+        ctx.put(InvokeContext.BOLT_INVOKE_DEADLINE, System.currentTimeMillis() - 1);
+        try {
+            remoting.remainingTimeout(ctx, 1000);
+            Assert.fail("Should not reach here!");
+        } catch (InvokeTimeoutException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+import com.alipay.remoting.rpc.stream.InboundStream;
+import com.alipay.remoting.rpc.stream.StreamBody;
+
+/**
+ * basic usage test for sending files as the streams following requests and responses
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_FileTransfer_Test.java, v 0.1 2018-10-18 23:50 tsui Exp $
+ */
+public class BasicUsage_FileTransfer_Test {
+    static Logger logger   = LoggerFactory.getLogger(BasicUsage_FileTransfer_Test.class);
+
+    BoltServer    server;
+    RpcClient     client;
+
+    int           port     = PortScan.select();
+    String        addr     = "127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=2";
+
+    /** much larger than the window of chunks */
+    int           dataSize = 5 * 1024 * 1024 + 7;
+
+    File          source;
+
+    @Before
+    public void init() throws Exception {
+        source = tempFile();
+        FileOutputStream out = new FileOutputStream(source);
+        try {
+            out.write(data(dataSize));
+        } finally {
+            out.close();
+        }
+
+        server = new BoltServer(port, true);
+        server.start();
+        server.registerUserProcessor(new SyncUserProcessor<String>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, String request) throws Exception {
+                if ("download".equals(request)) {
+                    return new StreamBody("ok", source);
+                }
+                InboundStream stream = bizCtx.getInvokeContext().get(
+                    InvokeContext.BOLT_REQUEST_STREAM);
+                File target = tempFile();
+                FileChannel channel = new FileOutputStream(target).getChannel();
+                try {
+                    Assert.assertEquals(target.length(), 0);
+                    long count = stream.transferTo(channel);
+                    Assert.assertEquals(count, channel.size());
+                } finally {
+                    channel.close();
+                }
+                return target.length() + ":" + crc(readFile(target));
+            }
+
+            @Override
+            public String interest() {
+                return String.class.getName();
+            }
+        });
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testUploadFile() throws Exception {
+        byte[] data = data(dataSize);
+        for (int i = 0; i < 3; i++) {
+            Object res = client.invokeSync(addr, new StreamBody("upload", source), 10000);
+            Assert.assertEquals(data.length + ":" + crc(data), res);
+        }
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    @Test
+    public void testUploadRegion() throws Exception {
+        byte[] data = data(dataSize);
+        int position = 1000;
+        int count = 3 * 1024 * 1024;
+        FileChannel channel = new RandomAccessFile(source, "r").getChannel();
+        Object res = client.invokeSync(addr, new StreamBody("upload", channel, position, count),
+            10000);
+        CRC32 crc = new CRC32();
+        crc.update(data, position, count);
+        Assert.assertEquals(count + ":" + crc.getValue(), res);
+        // closed after all regions written
+        Thread.sleep(100);
+        Assert.assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void testUploadEmptyRegion() throws Exception {
+        FileChannel channel = new RandomAccessFile(source, "r").getChannel();
+        Assert.assertEquals("0:0",
+            client.invokeSync(addr, new StreamBody("upload", channel, 10, 0), 3000));
+    }
+
+    @Test
+    public void testRegionOutOfFile() throws Exception {
+        FileChannel channel = new RandomAccessFile(source, "r").getChannel();
+        try {
+            new StreamBody("upload", channel, 10, dataSize);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            logger.info("expected", e);
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Test
+    public void testDownloadToFile() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            StreamBody body = (StreamBody) client.invokeSync(addr, "download", 10000);
+            Assert.assertEquals("ok", body.getMessage());
+            File target = tempFile();
+            FileChannel channel = new FileOutputStream(target).getChannel();
+            try {
+                Assert.assertEquals(dataSize,
+                    ((InboundStream) body.getStream()).transferTo(channel));
+            } finally {
+                channel.close();
+            }
+            Assert.assertArrayEquals(data(dataSize), readFile(target));
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    private static File tempFile() throws Exception {
+        File file = File.createTempFile("bolt-file-transfer", ".tmp");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static byte[] readFile(File file) throws Exception {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            byte[] data = new byte[(int) raf.length()];
+            raf.readFully(data);
+            return data;
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static long crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.ConnectionEventType;
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.CONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.DISCONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleClientUserProcessor;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+
+/**
+ * basic usage test with flushes of connections merged by {@link com.alipay.remoting.RpcFlushConsolidationHandler}
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_FlushConsolidation_Test.java, v 0.1 2018-10-18 21:45 tsui Exp $
+ */
+public class BasicUsage_FlushConsolidation_Test {
+    static {
+        // must be set before the client and server are initialized
+        System.setProperty(Configs.NETTY_FLUSH_CONSOLIDATION, "true");
+        System.setProperty(Configs.NETTY_FLUSH_CONSOLIDATE_DELAY, "50");
+    }
+
+    static Logger             logger                    = LoggerFactory
+                                                            .getLogger(BasicUsage_FlushConsolidation_Test.class);
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                      = PortScan.select();
+    String                    addr                      = "127.0.0.1:" + port;
+    String                    addrV1                    = addr + "?_PROTOCOL=1";
+    String                    addrV2                    = addr + "?_PROTOCOL=2&_VERSION=2";
+
+    int                       invokeTimes               = 5;
+
+    SimpleServerUserProcessor serverUserProcessor       = new SimpleServerUserProcessor(0, 8, 8,
+                                                            60, 100);
+    SimpleClientUserProcessor clientUserProcessor       = new SimpleClientUserProcessor();
+    CONNECTEventProcessor     clientConnectProcessor    = new CONNECTEventProcessor();
+    CONNECTEventProcessor     serverConnectProcessor    = new CONNECTEventProcessor();
+    DISCONNECTEventProcessor  clientDisConnectProcessor = new DISCONNECTEventProcessor();
+    DISCONNECTEventProcessor  serverDisConnectProcessor = new DISCONNECTEventProcessor();
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.addConnectionEventProcessor(ConnectionEventType.CONNECT, serverConnectProcessor);
+        server.addConnectionEventProcessor(ConnectionEventType.CLOSE, serverDisConnectProcessor);
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.addConnectionEventProcessor(ConnectionEventType.CONNECT, clientConnectProcessor);
+        client.addConnectionEventProcessor(ConnectionEventType.CLOSE, clientDisConnectProcessor);
+        client.registerUserProcessor(clientUserProcessor);
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testSyncProtocolV1() throws InterruptedException {
+        doTestSync(addrV1, new RequestBody(1, "hello world sync"));
+    }
+
+    @Test
+    public void testSyncProtocolV2() throws InterruptedException {
+        doTestSync(addrV2, new RequestBody(1, "hello world sync"));
+    }
+
+    @Test
+    public void testSyncLargeContent() throws InterruptedException {
+        doTestSync(addrV2, new RequestBody(1, 1024 * 1024));
+    }
+
+    @Test
+    public void testFuture() throws InterruptedException {
+        RequestBody req = new RequestBody(2, "hello world future");
+        for (int i = 0; i < invokeTimes; i++) {
+            try {
+                InvokeContext invokeContext = new InvokeContext();
+                invokeContext.putIfAbsent(InvokeContext.BOLT_CRC_SWITCH, i % 2 == 0);
+                RpcResponseFuture future = client
+                    .invokeWithFuture(addrV2, req, invokeContext, 3000);
+                Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, future.get());
+            } catch (RemotingException e) {
+                String errMsg = "RemotingException caught in future!";
+                logger.error(errMsg, e);
+                Assert.fail(errMsg);
+            }
+        }
+        Assert.assertEquals(invokeTimes, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testCallbackBurst() throws InterruptedException {
+        final int burst = 50;
+        final CountDownLatch latch = new CountDownLatch(burst);
+        final AtomicInteger succeed = new AtomicInteger();
+        RequestBody req = new RequestBody(3, "hello world callback");
+        for (int i = 0; i < burst; i++) {
+            try {
+                client.invokeWithCallback(addrV2, req, new InvokeCallback() {
+                    @Override
+                    public void onResponse(Object result) {
+                        if (RequestBody.DEFAULT_SERVER_RETURN_STR.equals(result)) {
+                            succeed.incrementAndGet();
+                        }
+                        latch.countDown();
+                    }
+
+                    @Override
+                    public void onException(Throwable e) {
+                        logger.error("Callback failed!", e);
+                        latch.countDown();
+                    }
+
+                    @Override
+                    public Executor getExecutor() {
+                        return null;
+                    }
+                }, 3000);
+            } catch (RemotingException e) {
+                String errMsg = "RemotingException caught in callback!";
+                logger.error(errMsg, e);
+                Assert.fail(errMsg);
+            }
+        }
+        Assert.assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(burst, succeed.get());
+        Assert.assertEquals(burst, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testOneway() throws InterruptedException {
+        RequestBody req = new RequestBody(2, "hello world oneway");
+        for (int i = 0; i < invokeTimes; i++) {
+            try {
+                client.oneway(addrV2, req);
+                Thread.sleep(100);
+            } catch (RemotingException e) {
+                String errMsg = "RemotingException caught in oneway!";
+                logger.error(errMsg, e);
+                Assert.fail(errMsg);
+            }
+        }
+        Assert.assertEquals(invokeTimes, serverUserProcessor.getInvokeTimes());
+    }
+
+    private void doTestSync(String address, RequestBody req) throws InterruptedException {
+        for (int i = 0; i < invokeTimes; i++) {
+            try {
+                String res = (String) client.invokeSync(address, req, 3000);
+                Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, res);
+            } catch (RemotingException e) {
+                String errMsg = "RemotingException caught in sync!";
+                logger.error(errMsg, e);
+                Assert.fail(errMsg);
+            }
+        }
+        Assert.assertTrue(serverConnectProcessor.isConnected());
+        Assert.assertEquals(invokeTimes, serverUserProcessor.getInvokeTimes());
+    }
+}
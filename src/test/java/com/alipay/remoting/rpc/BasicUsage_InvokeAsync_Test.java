@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.ConnectionEventType;
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.exception.ConnectionClosedException;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.CONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.DISCONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleClientUserProcessor;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+
+/**
+ * basic usage test of async invocation
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_InvokeAsync_Test.java, v 0.1 2018-10-18 11:50 tsui Exp $
+ */
+public class BasicUsage_InvokeAsync_Test {
+    static Logger             logger                    = LoggerFactory
+                                                            .getLogger(BasicUsage_InvokeAsync_Test.class);
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                      = PortScan.select();
+    String                    ip                        = "127.0.0.1";
+    String                    addr                      = "127.0.0.1:" + port;
+
+    int                       serverDelay               = 300;
+
+    SimpleServerUserProcessor serverUserProcessor       = new SimpleServerUserProcessor(
+                                                            serverDelay, 8, 8, 60, 100);
+    SimpleClientUserProcessor clientUserProcessor       = new SimpleClientUserProcessor();
+    CONNECTEventProcessor     clientConnectProcessor    = new CONNECTEventProcessor();
+    CONNECTEventProcessor     serverConnectProcessor    = new CONNECTEventProcessor();
+    DISCONNECTEventProcessor  clientDisConnectProcessor = new DISCONNECTEventProcessor();
+    DISCONNECTEventProcessor  serverDisConnectProcessor = new DISCONNECTEventProcessor();
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.addConnectionEventProcessor(ConnectionEventType.CONNECT, serverConnectProcessor);
+        server.addConnectionEventProcessor(ConnectionEventType.CLOSE, serverDisConnectProcessor);
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.addConnectionEventProcessor(ConnectionEventType.CONNECT, clientConnectProcessor);
+        client.addConnectionEventProcessor(ConnectionEventType.CLOSE, clientDisConnectProcessor);
+        client.registerUserProcessor(clientUserProcessor);
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testInvokeAsync() throws Exception {
+        RequestBody req = new RequestBody(1, "hello world async");
+        RpcAsyncResponseFuture future = client.invokeAsync(addr, req, 3000);
+        Assert.assertFalse(future.isDone());
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, future.get(3, TimeUnit.SECONDS));
+        Assert.assertTrue(future.isDone());
+        Assert.assertTrue(future.isSuccess());
+        Assert.assertNull(future.getCause());
+        Assert.assertEquals(1, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testListener() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final AtomicReference<Object> first = new AtomicReference<Object>();
+        final AtomicReference<Object> second = new AtomicReference<Object>();
+        final RequestBody req = new RequestBody(1, "hello world async");
+        // compose the second call in the listener of the first one, no thread is blocked
+        client.invokeAsync(addr, req, 3000).addListener(new TestListener(latch, first) {
+            @Override
+            public void onResponse(Object result) {
+                super.onResponse(result);
+                try {
+                    client.invokeAsync(addr, req, 3000)
+                        .addListener(new TestListener(latch, second));
+                } catch (Exception e) {
+                    logger.error("Invoke failed!", e);
+                }
+            }
+        });
+        Assert.assertTrue(latch.await(3, TimeUnit.SECONDS));
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, first.get());
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, second.get());
+
+        // listener added after done is notified at once
+        RpcAsyncResponseFuture future = client.invokeAsync(addr, req, 3000);
+        future.get();
+        CountDownLatch doneLatch = new CountDownLatch(1);
+        AtomicReference<Object> result = new AtomicReference<Object>();
+        future.addListener(new TestListener(doneLatch, result));
+        Assert.assertEquals(0, doneLatch.getCount());
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, result.get());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        RequestBody req = new RequestBody(1, "hello world async");
+        RpcAsyncResponseFuture future = client.invokeAsync(addr, req, serverDelay / 3);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Object> result = new AtomicReference<Object>();
+        future.addListener(new TestListener(latch, result));
+        Assert.assertTrue(latch.await(3, TimeUnit.SECONDS));
+        Assert.assertTrue(result.get() instanceof InvokeTimeoutException);
+        Assert.assertFalse(future.isSuccess());
+        try {
+            future.get();
+            Assert.fail("Should not reach here!");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof InvokeTimeoutException);
+        }
+    }
+
+    @Test
+    public void testConnectionClosed() throws Exception {
+        Connection conn = client.createStandaloneConnection(ip, port, 1000);
+        RequestBody req = new RequestBody(1, "hello world async");
+        RpcAsyncResponseFuture future = client.invokeAsync(conn, req, 3000);
+        conn.close();
+        try {
+            future.get(3, TimeUnit.SECONDS);
+            Assert.fail("Should not reach here!");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ConnectionClosedException);
+        }
+    }
+
+    @Test
+    public void testServerInvokeAsync() throws Exception {
+        client.getConnection(addr, 1000);
+        String remoteAddr = serverConnectProcessor.getRemoteAddr();
+        Assert.assertNotNull(remoteAddr);
+        RequestBody req = new RequestBody(1, "hello world server async");
+        RpcAsyncResponseFuture future = server.getRpcServer().invokeAsync(remoteAddr, req, 3000);
+        Assert.assertEquals(RequestBody.DEFAULT_CLIENT_RETURN_STR, future.get(3, TimeUnit.SECONDS));
+        Assert.assertEquals(1, clientUserProcessor.getInvokeTimes());
+    }
+
+    static class TestListener implements InvokeCallback {
+        private final CountDownLatch          latch;
+        private final AtomicReference<Object> holder;
+
+        TestListener(CountDownLatch latch, AtomicReference<Object> holder) {
+            this.latch = latch;
+            this.holder = holder;
+        }
+
+        @Override
+        public void onResponse(Object result) {
+            holder.set(result);
+            latch.countDown();
+        }
+
+        @Override
+        public void onException(Throwable e) {
+            holder.set(e);
+            latch.countDown();
+        }
+
+        @Override
+        public Executor getExecutor() {
+            return null;
+        }
+    }
+}
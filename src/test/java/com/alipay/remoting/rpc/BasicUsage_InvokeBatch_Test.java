@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.ConnectionEventType;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.CONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.DISCONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleClientUserProcessor;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+
+/**
+ * basic usage test of batch invocation
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_InvokeBatch_Test.java, v 0.1 2018-10-18 10:40 tsui Exp $
+ */
+public class BasicUsage_InvokeBatch_Test {
+    static Logger             logger                    = LoggerFactory
+                                                            .getLogger(BasicUsage_InvokeBatch_Test.class);
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                      = PortScan.select();
+    String                    ip                        = "127.0.0.1";
+    String                    addr                      = "127.0.0.1:" + port;
+
+    int                       batchSize                 = 16;
+
+    SimpleServerUserProcessor serverUserProcessor       = new SimpleServerUserProcessor(0, 8, 32,
+                                                            60, 100);
+    SimpleClientUserProcessor clientUserProcessor       = new SimpleClientUserProcessor();
+    CONNECTEventProcessor     clientConnectProcessor    = new CONNECTEventProcessor();
+    CONNECTEventProcessor     serverConnectProcessor    = new CONNECTEventProcessor();
+    DISCONNECTEventProcessor  clientDisConnectProcessor = new DISCONNECTEventProcessor();
+    DISCONNECTEventProcessor  serverDisConnectProcessor = new DISCONNECTEventProcessor();
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.addConnectionEventProcessor(ConnectionEventType.CONNECT, serverConnectProcessor);
+        server.addConnectionEventProcessor(ConnectionEventType.CLOSE, serverDisConnectProcessor);
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.addConnectionEventProcessor(ConnectionEventType.CONNECT, clientConnectProcessor);
+        client.addConnectionEventProcessor(ConnectionEventType.CLOSE, clientDisConnectProcessor);
+        client.registerUserProcessor(clientUserProcessor);
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testInvokeBatch() throws Exception {
+        List<RequestBody> requests = new ArrayList<RequestBody>();
+        for (int i = 0; i < batchSize; i++) {
+            requests.add(new RequestBody(i, "hello world batch"));
+        }
+        RpcBatchResult result = client.invokeBatch(addr, requests, 3000);
+        Assert.assertEquals(batchSize, result.size());
+        Assert.assertTrue(result.isAllSuccess());
+        for (int i = 0; i < batchSize; i++) {
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, result.getResponse(i));
+        }
+        Assert.assertEquals(batchSize, serverUserProcessor.getInvokeTimes());
+        Assert.assertEquals(1, serverConnectProcessor.getConnectTimes());
+    }
+
+    @Test
+    public void testInvokeBatchWithFuture() throws Exception {
+        Connection conn = client.createStandaloneConnection(ip, port, 1000);
+        List<RequestBody> requests = new ArrayList<RequestBody>();
+        for (int i = 0; i < batchSize; i++) {
+            requests.add(new RequestBody(i, "hello world batch future"));
+        }
+        RpcBatchResponseFuture future = client.invokeBatchWithFuture(conn, requests, 3000);
+        Assert.assertEquals(batchSize, future.size());
+        RpcBatchResult result = future.get(3000);
+        Assert.assertTrue(future.isDone());
+        Assert.assertTrue(result.isAllSuccess());
+        Assert.assertEquals(batchSize, result.getResponses().size());
+        Assert.assertEquals(batchSize, serverUserProcessor.getInvokeTimes());
+        Assert.assertTrue(conn.isInvokeFutureMapFinish());
+    }
+
+    @Test
+    public void testPartialFailure() throws Exception {
+        List<Object> requests = new ArrayList<Object>();
+        requests.add(new RequestBody(1, "hello world batch"));
+        // no user processor registered for String
+        requests.add("no processor");
+        requests.add(new RequestBody(2, "hello world batch"));
+        RpcBatchResult result = client.invokeBatch(addr, requests, 3000);
+        Assert.assertEquals(3, result.size());
+        Assert.assertFalse(result.isAllSuccess());
+        Assert.assertTrue(result.isSuccess(0));
+        Assert.assertFalse(result.isSuccess(1));
+        Assert.assertNotNull(result.getException(1));
+        Assert.assertNull(result.getResponse(1));
+        Assert.assertTrue(result.isSuccess(2));
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, result.getResponse(2));
+        Assert.assertEquals(2, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testEmptyBatch() throws Exception {
+        RpcBatchResult result = client.invokeBatch(addr, new ArrayList<Object>(), 3000);
+        Assert.assertEquals(0, result.size());
+        Assert.assertTrue(result.isAllSuccess());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.AdaptiveConcurrencyLimiter;
+import com.alipay.remoting.OutboundOverflowPolicy;
+import com.alipay.remoting.ResponseStatus;
+import com.alipay.remoting.UnwritablePolicy;
+import com.alipay.remoting.metrics.DefaultRpcMetricsRecorder;
+import com.alipay.remoting.metrics.LatencyPhase;
+import com.alipay.remoting.metrics.RpcMetrics;
+import com.alipay.remoting.metrics.RpcStats;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+import com.alipay.remoting.rpc.exception.InvokeServerBusyException;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+
+/**
+ * basic usage test with metrics recorded
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_Metrics_Test.java, v 0.1 2018-10-18 21:20 tsui Exp $
+ */
+public class BasicUsage_Metrics_Test {
+    static Logger             logger              = LoggerFactory
+                                                      .getLogger(BasicUsage_Metrics_Test.class);
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                = PortScan.select();
+    String                    addr                = "127.0.0.1:" + port;
+
+    int                       invokeTimes         = 10;
+
+    SimpleServerUserProcessor serverUserProcessor = new SimpleServerUserProcessor(100);
+
+    DefaultRpcMetricsRecorder metrics             = new DefaultRpcMetricsRecorder();
+
+    @Before
+    public void init() {
+        RpcMetrics.setRecorder(metrics);
+
+        server = new BoltServer(port);
+        server.start();
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        RpcMetrics.setRecorder(null);
+        try {
+            client.shutdown();
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        RequestBody req = new RequestBody(1, "hello world metrics");
+        String interest = RequestBody.class.getName();
+        for (int i = 0; i < invokeTimes; i++) {
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+                client.invokeSync(addr, req, 3000));
+        }
+        try {
+            client.invokeSync(addr, req, 10);
+            Assert.fail("Should not reach here!");
+        } catch (InvokeTimeoutException e) {
+            // expected
+        }
+        Assert.assertEquals(0, metrics.getClientInFlight());
+
+        Assert.assertEquals(1, metrics.getClientTargetStats().size());
+        RpcStats target = metrics.getClientTargetStats().values().iterator().next();
+        Assert.assertEquals(invokeTimes + 1, target.getCount());
+        Assert.assertEquals(invokeTimes, target.getCount(ResponseStatus.SUCCESS));
+        Assert.assertEquals(1, target.getCount(ResponseStatus.TIMEOUT));
+        Assert.assertEquals(invokeTimes + 1, target.getLatency(LatencyPhase.ROUND_TRIP).getCount());
+        Assert.assertTrue(target.getLatency(LatencyPhase.ROUND_TRIP).getPercentile(50) >= 100000);
+
+        RpcStats clientInterest = metrics.getClientInterestStats().get(interest);
+        Assert.assertEquals(invokeTimes + 1, clientInterest.getCount());
+        Assert.assertEquals(invokeTimes + 1, clientInterest.getLatency(LatencyPhase.SERIALIZE)
+            .getCount());
+
+        // the timeout request is still processed by server
+        Thread.sleep(200);
+        Assert.assertEquals(0, metrics.getServerInFlight());
+        RpcStats serverInterest = metrics.getServerInterestStats().get(interest);
+        Assert.assertEquals(invokeTimes + 1, serverInterest.getCount());
+        Assert.assertEquals(invokeTimes + 1, serverInterest.getLatency(LatencyPhase.QUEUE)
+            .getCount());
+        Assert
+            .assertTrue(serverInterest.getLatency(LatencyPhase.PROCESS).getPercentile(50) >= 100000);
+        Assert.assertEquals(invokeTimes + 1,
+            metrics.getServerResponseStats().getCount(ResponseStatus.SUCCESS));
+
+        Assert.assertTrue(metrics.getBytesRead() > 0);
+        Assert.assertTrue(metrics.getBytesWritten() > 0);
+
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(RpcMetrics.OBJECT_NAME);
+        Assert.assertEquals(metrics.getBytesRead(), mbeanServer.getAttribute(name, "BytesRead"));
+        Map<String, String> targets = metrics.getClientTargets();
+        Assert.assertTrue(targets.get(addr).contains("TIMEOUT=1"));
+        Assert.assertNotNull(mbeanServer.getAttribute(name, "ClientTargets"));
+    }
+
+    @Test
+    public void testRejectedAndOverflowRecorded() throws Exception {
+        serverUserProcessor.setConcurrencyLimiter(new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 10));
+        RequestBody req = new RequestBody(1, "hello world metrics");
+        List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(client.invokeWithFuture(addr, req, 3000));
+        }
+        int busy = 0;
+        for (RpcResponseFuture future : futures) {
+            try {
+                future.get(3000);
+            } catch (InvokeServerBusyException e) {
+                busy++;
+            }
+        }
+        Assert.assertTrue(busy > 0);
+        Assert.assertEquals(busy, metrics.getServerRejected());
+        Assert.assertEquals(busy, metrics.getServerInterestStats().get(RequestBody.class.getName())
+            .getCount(ResponseStatus.SERVER_THREADPOOL_BUSY));
+
+        metrics.onUnwritable(UnwritablePolicy.WAIT, true);
+        metrics.onUnwritable(UnwritablePolicy.WAIT, false);
+        metrics.onOutboundOverflow(OutboundOverflowPolicy.DROP);
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(RpcMetrics.OBJECT_NAME);
+        Assert.assertEquals((long) busy, mbeanServer.getAttribute(name, "ServerRejected"));
+        Assert.assertEquals(Long.valueOf(1), metrics.getClientUnwritable().get("WAIT.passed"));
+        Assert.assertEquals(Long.valueOf(1), metrics.getClientUnwritable().get("WAIT.failed"));
+        Assert.assertEquals(2, metrics.getClientUnwritable().size());
+        Assert.assertEquals(Long.valueOf(1), metrics.getServerOutboundOverflow().get("DROP"));
+        Assert.assertNotNull(mbeanServer.getAttribute(name, "ClientUnwritable"));
+        Assert.assertNotNull(mbeanServer.getAttribute(name, "ServerOutboundOverflow"));
+    }
+
+    @Test
+    public void testExecutorRejectedRecorded() throws Exception {
+        // one thread and one queued, the rest rejected by the executor of user processor
+        int busyPort = PortScan.select();
+        String busyAddr = "127.0.0.1:" + busyPort;
+        BoltServer busyServer = new BoltServer(busyPort);
+        busyServer.start();
+        busyServer.registerUserProcessor(new SimpleServerUserProcessor(300, 1, 1, 60, 1));
+        try {
+            RequestBody req = new RequestBody(1, "hello world metrics");
+            List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(client.invokeWithFuture(busyAddr, req, 3000));
+            }
+            int busy = 0;
+            for (RpcResponseFuture future : futures) {
+                try {
+                    future.get(3000);
+                } catch (InvokeServerBusyException e) {
+                    busy++;
+                }
+            }
+            Assert.assertTrue(busy > 0);
+            Assert.assertEquals(busy, metrics.getServerRejected());
+            Assert.assertEquals(
+                busy,
+                metrics.getServerInterestStats().get(RequestBody.class.getName())
+                    .getCount(ResponseStatus.SERVER_THREADPOOL_BUSY));
+        } finally {
+            busyServer.stop();
+        }
+    }
+}
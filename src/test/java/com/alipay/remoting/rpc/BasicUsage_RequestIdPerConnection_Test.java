@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.ConnectionEventType;
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.CONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.DISCONNECTEventProcessor;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleClientUserProcessor;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+import com.alipay.remoting.rpc.protocol.RpcProtocol;
+
+/**
+ * basic usage test with request ids allocated by each connection
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_RequestIdPerConnection_Test.java, v 0.1 2018-10-18 17:12 tsui Exp $
+ */
+public class BasicUsage_RequestIdPerConnection_Test {
+    static {
+        // must be set before IDGenerator is initialized
+        System.setProperty(Configs.REQUEST_ID_PER_CONNECTION, "true");
+    }
+
+    static Logger             logger                    = LoggerFactory
+                                                            .getLogger(BasicUsage_RequestIdPerConnection_Test.class);
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                      = PortScan.select();
+    String                    ip                        = "127.0.0.1";
+    String                    addr                      = "127.0.0.1:" + port;
+
+    int                       invokeTimes               = 5;
+
+    SimpleServerUserProcessor serverUserProcessor       = new SimpleServerUserProcessor(0, 8, 8,
+                                                            60, 100);
+    SimpleClientUserProcessor clientUserProcessor       = new SimpleClientUserProcessor();
+    CONNECTEventProcessor     clientConnectProcessor    = new CONNECTEventProcessor();
+    CONNECTEventProcessor     serverConnectProcessor    = new CONNECTEventProcessor();
+    DISCONNECTEventProcessor  clientDisConnectProcessor = new DISCONNECTEventProcessor();
+    DISCONNECTEventProcessor  serverDisConnectProcessor = new DISCONNECTEventProcessor();
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.addConnectionEventProcessor(ConnectionEventType.CONNECT, serverConnectProcessor);
+        server.addConnectionEventProcessor(ConnectionEventType.CLOSE, serverDisConnectProcessor);
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.addConnectionEventProcessor(ConnectionEventType.CONNECT, clientConnectProcessor);
+        client.addConnectionEventProcessor(ConnectionEventType.CLOSE, clientDisConnectProcessor);
+        client.registerUserProcessor(clientUserProcessor);
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testIdSequenceOfConnection() throws Exception {
+        Connection conn1 = client.createStandaloneConnection(ip, port, 1000);
+        Connection conn2 = client.createStandaloneConnection(ip, port, 1000);
+        RequestBody req = new RequestBody(1, "hello world sync");
+        for (int i = 0; i < invokeTimes; i++) {
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+                client.invokeSync(conn1, req, 3000));
+        }
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+            client.invokeSync(conn2, req, 3000));
+
+        // each connection has its own sequence
+        Assert.assertEquals(invokeTimes + 1, conn1.nextRequestId());
+        Assert.assertEquals(2, conn2.nextRequestId());
+        Assert.assertEquals(invokeTimes + 1, serverUserProcessor.getInvokeTimes());
+    }
+
+    @Test
+    public void testWrapAround() throws Exception {
+        Connection conn = client.createStandaloneConnection(ip, port, 1000);
+        Field field = Connection.class.getDeclaredField("requestIdSeq");
+        field.setAccessible(true);
+        ((AtomicInteger) field.get(conn)).set(Integer.MAX_VALUE - 1);
+        Assert.assertEquals(Integer.MAX_VALUE, conn.nextRequestId());
+
+        // after wrapping around, ids of in-flight requests must be skipped
+        conn.addInvokeFuture(new DefaultInvokeFuture(Integer.MIN_VALUE + 1, null, null,
+            RpcProtocol.PROTOCOL_CODE, null));
+        Assert.assertEquals(Integer.MIN_VALUE, conn.nextRequestId());
+        Assert.assertEquals(Integer.MIN_VALUE + 2, conn.nextRequestId());
+        conn.removeInvokeFuture(Integer.MIN_VALUE + 1);
+
+        // zero is never used
+        ((AtomicInteger) field.get(conn)).set(-1);
+        Assert.assertEquals(1, conn.nextRequestId());
+
+        RequestBody req = new RequestBody(1, "hello world sync");
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+            client.invokeSync(conn, req, 3000));
+    }
+
+    @Test
+    public void testConcurrentInvoke() throws Exception {
+        final Connection conn = client.createStandaloneConnection(ip, port, 1000);
+        final int threads = 8;
+        final AtomicInteger failed = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; ++t) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < invokeTimes; i++) {
+                            RequestBody req = new RequestBody(1, "hello world sync");
+                            Object res = client.invokeSync(conn, req, 3000);
+                            if (!RequestBody.DEFAULT_SERVER_RETURN_STR.equals(res)) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        logger.error("Invoke failed!", e);
+                        failed.incrementAndGet();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+        Assert.assertEquals(0, failed.get());
+        Assert.assertEquals(threads * invokeTimes, serverUserProcessor.getInvokeTimes());
+        Assert.assertEquals(threads * invokeTimes + 1, conn.nextRequestId());
+    }
+}
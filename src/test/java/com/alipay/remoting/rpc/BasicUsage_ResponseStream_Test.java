@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.AsyncContext;
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.StreamingAsyncContext;
+import com.alipay.remoting.config.ConfigManager;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.exception.InvokeServerException;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+import com.alipay.remoting.rpc.protocol.AsyncUserProcessor;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+import com.alipay.remoting.rpc.stream.ResponseStream;
+
+/**
+ * basic usage test for the partial responses of a request, received by a response stream
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_ResponseStream_Test.java, v 0.1 2018-10-18 23:40 tsui Exp $
+ */
+public class BasicUsage_ResponseStream_Test {
+    static Logger  logger  = LoggerFactory.getLogger(BasicUsage_ResponseStream_Test.class);
+
+    BoltServer     server;
+    RpcClient      client;
+
+    int            port    = PortScan.select();
+    String         addr    = "127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=2";
+
+    AtomicInteger  sent    = new AtomicInteger();
+    CountDownLatch stopped = new CountDownLatch(1);
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        // "count:n" sends n partial responses, "error:n" throws after them, "hang:n" never ends them
+        server.registerUserProcessor(new AsyncUserProcessor<String>() {
+            @Override
+            public void handleRequest(BizContext bizCtx, AsyncContext asyncCtx, String request) {
+                String[] parts = request.split(":");
+                int count = Integer.parseInt(parts[1]);
+                // the async context of rpc is able to send partial responses
+                StreamingAsyncContext streamingCtx = (StreamingAsyncContext) asyncCtx;
+                for (int i = 0; i < count; i++) {
+                    if (!streamingCtx.sendPartialResponse(i)) {
+                        stopped.countDown();
+                        asyncCtx.sendResponse("stopped");
+                        return;
+                    }
+                    sent.incrementAndGet();
+                }
+                if ("error".equals(parts[0])) {
+                    throw new RuntimeException("error after partial responses");
+                }
+                if ("count".equals(parts[0])) {
+                    asyncCtx.sendResponse("done");
+                }
+            }
+
+            @Override
+            public String interest() {
+                return String.class.getName();
+            }
+        });
+        server.registerUserProcessor(new SyncUserProcessor<Integer>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, Integer request) throws Exception {
+                return request + 1;
+            }
+
+            @Override
+            public String interest() {
+                return Integer.class.getName();
+            }
+        });
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testPartialResponses() throws Exception {
+        for (int n = 0; n < 3; n++) {
+            ResponseStream stream = client.invokeWithResponseStream(addr, "count:100", 5000);
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(i, stream.next());
+            }
+            Assert.assertTrue(stream.hasNext());
+            Assert.assertEquals("done", stream.next());
+            Assert.assertFalse(stream.hasNext());
+        }
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        ResponseStream stream = client.invokeWithResponseStream(addr, "count:100", 5000);
+        Thread.sleep(300);
+        // no more than the window sent before consumed
+        Assert.assertEquals(ConfigManager.stream_window(), sent.get());
+        Assert.assertEquals(0, stream.next());
+        int count = 1;
+        while (stream.hasNext()) {
+            stream.next();
+            count++;
+        }
+        Assert.assertEquals(101, count);
+    }
+
+    @Test
+    public void testCloseEarly() throws Exception {
+        ResponseStream stream = client.invokeWithResponseStream(addr, "count:10000", 5000);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(i, stream.next());
+        }
+        stream.close();
+        Assert.assertTrue(stopped.await(3, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    @Test
+    public void testSyncProcessor() throws Exception {
+        ResponseStream stream = client.invokeWithResponseStream(addr, 1, 3000);
+        Assert.assertEquals(2, stream.next());
+        Assert.assertFalse(stream.hasNext());
+    }
+
+    @Test
+    public void testServerException() throws Exception {
+        ResponseStream stream = client.invokeWithResponseStream(addr, "error:2", 3000);
+        Assert.assertEquals(0, stream.next());
+        Assert.assertEquals(1, stream.next());
+        try {
+            stream.next();
+            Assert.fail("Should not reach here!");
+        } catch (InvokeServerException e) {
+            logger.info("expected", e);
+        }
+        Assert.assertFalse(stream.hasNext());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        ResponseStream stream = client.invokeWithResponseStream(addr, "hang:1", 500);
+        Assert.assertEquals(0, stream.next());
+        try {
+            stream.next();
+            Assert.fail("Should not reach here!");
+        } catch (InvokeTimeoutException e) {
+            logger.info("expected", e);
+        }
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    @Test
+    public void testProtocolV1NotSupported() throws Exception {
+        try {
+            client.invokeWithResponseStream("127.0.0.1:" + port, "count:1", 3000);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            logger.info("expected", e);
+        }
+    }
+}
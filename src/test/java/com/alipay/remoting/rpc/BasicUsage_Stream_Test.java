@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+import com.alipay.remoting.rpc.stream.StreamBody;
+
+/**
+ * basic usage test for the streams following requests and responses, sent in chunks with credits
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_Stream_Test.java, v 0.1 2018-10-18 23:20 tsui Exp $
+ */
+public class BasicUsage_Stream_Test {
+    static Logger logger   = LoggerFactory.getLogger(BasicUsage_Stream_Test.class);
+
+    BoltServer    server;
+    RpcClient     client;
+
+    int           port     = PortScan.select();
+    String        addr     = "127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=2";
+
+    /** much larger than the window of chunks */
+    int           dataSize = 5 * 1024 * 1024 + 7;
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.registerUserProcessor(new SyncUserProcessor<String>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, String request) throws Exception {
+                if (request.startsWith("download:")) {
+                    int size = Integer.parseInt(request.substring("download:".length()));
+                    return new StreamBody("ok", new ByteArrayInputStream(data(size)));
+                }
+                InputStream stream = bizCtx.getInvokeContext().get(
+                    InvokeContext.BOLT_REQUEST_STREAM);
+                if ("close".equals(request)) {
+                    Assert.assertTrue(stream.read(new byte[1024]) > 0);
+                    stream.close();
+                    return "closed";
+                }
+                byte[] received = readAll(stream);
+                return received.length + ":" + crc(received);
+            }
+
+            @Override
+            public String interest() {
+                return String.class.getName();
+            }
+        });
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testUpload() throws Exception {
+        byte[] data = data(dataSize);
+        for (int i = 0; i < 3; i++) {
+            Object res = client.invokeSync(addr, new StreamBody("upload", new ByteArrayInputStream(
+                data)), 10000);
+            Assert.assertEquals(data.length + ":" + crc(data), res);
+        }
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    @Test
+    public void testUploadEmpty() throws Exception {
+        Object res = client.invokeSync(addr, new StreamBody("upload", new ByteArrayInputStream(
+            new byte[0])), 3000);
+        Assert.assertEquals("0:0", res);
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Object res = client.invokeSync(addr, "download:" + dataSize, 10000);
+            Assert.assertTrue(res instanceof StreamBody);
+            StreamBody body = (StreamBody) res;
+            Assert.assertEquals("ok", body.getMessage());
+            Assert.assertArrayEquals(data(dataSize), readAll(body.getStream()));
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    @Test
+    public void testDownloadClosedEarly() throws Exception {
+        StreamBody body = (StreamBody) client.invokeSync(addr, "download:" + dataSize, 3000);
+        Assert.assertTrue(body.getStream().read(new byte[1024]) > 0);
+        body.getStream().close();
+        // the server stops sending, and the connection keeps working
+        Thread.sleep(500);
+        Connection conn = client.getConnection(addr, 1000);
+        Assert.assertEquals(0, conn.getStreamRegistry().size());
+        Assert.assertEquals("ok",
+            ((StreamBody) client.invokeSync(addr, "download:10", 3000)).getMessage());
+    }
+
+    @Test
+    public void testDownloadClosedAtOnce() throws Exception {
+        StreamBody body = (StreamBody) client.invokeSync(addr, "download:" + dataSize, 3000);
+        body.getStream().close();
+        // the cancel arriving at once is not missed, the server stops sending without waiting for timeout
+        Thread.sleep(500);
+        for (List<Connection> conns : server.getRpcServer().getConnectionManager().getAll()
+            .values()) {
+            for (Connection conn : conns) {
+                Assert.assertEquals(0, conn.getStreamRegistry().size());
+            }
+        }
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+    }
+
+    @Test
+    public void testUploadClosedEarly() throws Exception {
+        Object res = client.invokeSync(addr, new StreamBody("close", new ByteArrayInputStream(
+            data(dataSize))), 10000);
+        Assert.assertEquals("closed", res);
+        Thread.sleep(500);
+        Assert.assertEquals(0, client.getConnection(addr, 1000).getStreamRegistry().size());
+        byte[] data = data(1000);
+        Assert
+            .assertEquals(data.length + ":" + crc(data), client.invokeSync(addr, new StreamBody(
+                "upload", new ByteArrayInputStream(data)), 3000));
+    }
+
+    @Test
+    public void testProtocolV1NotSupported() throws Exception {
+        try {
+            client.invokeSync("127.0.0.1:" + port, new StreamBody("upload",
+                new ByteArrayInputStream(new byte[10])), 3000);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            logger.info("expected", e);
+        }
+    }
+
+    @Test
+    public void testFutureNotSupported() throws Exception {
+        try {
+            client.invokeWithFuture(addr, new StreamBody("upload", new ByteArrayInputStream(
+                new byte[10])), 3000);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            logger.info("expected", e);
+        }
+    }
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static long crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+
+    private static byte[] readAll(InputStream stream) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = stream.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        stream.close();
+        return out.toByteArray();
+    }
+}
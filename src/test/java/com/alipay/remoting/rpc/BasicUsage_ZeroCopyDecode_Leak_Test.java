@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetectorFactory;
+
+/**
+ * test that the content decoded as retained slice is not leaked by the futures never read
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_ZeroCopyDecode_Leak_Test.java, v 0.1 2018-10-19 11:10 tsui Exp $
+ */
+public class BasicUsage_ZeroCopyDecode_Leak_Test {
+    static Logger              logger      = LoggerFactory
+                                               .getLogger(BasicUsage_ZeroCopyDecode_Leak_Test.class);
+
+    static final AtomicInteger leaks       = new AtomicInteger();
+
+    static {
+        // must be set before the protocols and the buffers are initialized
+        System.setProperty(Configs.CODEC_ZERO_COPY_DECODE, "true");
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        ResourceLeakDetectorFactory
+            .setResourceLeakDetectorFactory(new CountingLeakDetectorFactory());
+    }
+
+    BoltServer                 server;
+    RpcClient                  client;
+
+    int                        port        = PortScan.select();
+    String                     addr        = "127.0.0.1:" + port + "?_PROTOCOL=2&_VERSION=2";
+
+    int                        invokeTimes = 50;
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.registerUserProcessor(new SimpleServerUserProcessor());
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testFutureNeverRead() throws Exception {
+        RequestBody req = new RequestBody(1, "hello world future");
+        List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+        for (int i = 0; i < invokeTimes; i++) {
+            futures.add(client.invokeWithFuture(addr, req, 3000));
+        }
+        RpcBatchResponseFuture batch = client.invokeBatchWithFuture(addr, repeat(req, invokeTimes),
+            3000);
+        for (int i = 0; i < batch.size(); i++) {
+            futures.add(batch.getFuture(i));
+        }
+        batch = null;
+        for (RpcResponseFuture future : futures) {
+            for (int i = 0; i < 300 && !future.isDone(); i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(future.isDone());
+        }
+        // the responses are dropped without being read
+        futures.clear();
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            // leaks are reported when tracking the buffers allocated later
+            for (int j = 0; j < 100; j++) {
+                ByteBufAllocator.DEFAULT.buffer(1024).release();
+            }
+            client.invokeSync(addr, req, 3000);
+        }
+        Assert.assertEquals(0, leaks.get());
+    }
+
+    private static List<RequestBody> repeat(RequestBody req, int times) {
+        List<RequestBody> requests = new ArrayList<RequestBody>(times);
+        for (int i = 0; i < times; i++) {
+            requests.add(req);
+        }
+        return requests;
+    }
+
+    static class CountingLeakDetectorFactory extends ResourceLeakDetectorFactory {
+        @Override
+        public <T> ResourceLeakDetector<T> newResourceLeakDetector(Class<T> resource,
+                                                                   int samplingInterval,
+                                                                   long maxActive) {
+            return new ResourceLeakDetector<T>(resource, samplingInterval, maxActive) {
+                @Override
+                protected void reportTracedLeak(String resourceType, String records) {
+                    leaks.incrementAndGet();
+                    super.reportTracedLeak(resourceType, records);
+                }
+
+                @Override
+                protected void reportUntracedLeak(String resourceType) {
+                    leaks.incrementAndGet();
+                    super.reportUntracedLeak(resourceType);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.invokecontext;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.InvokePhase;
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.rpc.RpcClient;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+
+/**
+ * basic usage test with the timing of invocation phases recorded in invoke context
+ *
+ * @author tsui
+ * @version $Id: BasicUsage_InvokeContext_Timing_Test.java, v 0.1 2018-10-18 21:50 tsui Exp $
+ */
+public class BasicUsage_InvokeContext_Timing_Test {
+    static {
+        // must be set before the invoke context initialized
+        System.setProperty(Configs.INVOKE_TIMING_SWITCH, "true");
+    }
+
+    static Logger                        logger        = LoggerFactory
+                                                           .getLogger(BasicUsage_InvokeContext_Timing_Test.class);
+
+    BoltServer                           server;
+    RpcClient                            client;
+
+    int                                  port          = PortScan.select();
+    String                               addr          = "127.0.0.1:" + port;
+
+    final AtomicReference<InvokeContext> serverContext = new AtomicReference<InvokeContext>();
+
+    static final InvokePhase[]           CLIENT_PHASES = { InvokePhase.CLIENT_INVOKE_START,
+            InvokePhase.CLIENT_CONN_ACQUIRED, InvokePhase.CLIENT_SERIALIZE_START,
+            InvokePhase.CLIENT_REQUEST_SERIALIZED, InvokePhase.CLIENT_REQUEST_WRITTEN,
+            InvokePhase.CLIENT_RESPONSE_RECEIVED, InvokePhase.CLIENT_RESPONSE_DESERIALIZED };
+
+    static final InvokePhase[]           SERVER_PHASES = { InvokePhase.SERVER_REQUEST_ARRIVED,
+            InvokePhase.SERVER_PROCESS_START, InvokePhase.SERVER_REQUEST_DESERIALIZED,
+            InvokePhase.SERVER_USER_PROCESSED, InvokePhase.SERVER_RESPONSE_SERIALIZED,
+            InvokePhase.SERVER_RESPONSE_WRITTEN       };
+
+    @Before
+    public void init() {
+        server = new BoltServer(port);
+        server.start();
+        server.registerUserProcessor(new SyncUserProcessor<RequestBody>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, RequestBody request) throws Exception {
+                serverContext.set(bizCtx.getInvokeContext());
+                Thread.sleep(20);
+                return RequestBody.DEFAULT_SERVER_RETURN_STR;
+            }
+
+            @Override
+            public String interest() {
+                return RequestBody.class.getName();
+            }
+        });
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            client.shutdown();
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testSyncTiming() throws Exception {
+        InvokeContext invokeContext = new InvokeContext();
+        Assert.assertTrue(invokeContext.isTimingEnabled());
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+            client.invokeSync(addr, new RequestBody(1, "hello timing"), invokeContext, 3000));
+        assertOrdered(invokeContext, CLIENT_PHASES);
+        Assert.assertTrue(invokeContext.getElapsedNanos(InvokePhase.CLIENT_REQUEST_WRITTEN,
+            InvokePhase.CLIENT_RESPONSE_RECEIVED) >= 20000000L);
+
+        // the response is written after the client received it
+        Thread.sleep(100);
+        InvokeContext serverInvokeContext = serverContext.get();
+        assertOrdered(serverInvokeContext, SERVER_PHASES);
+        Assert
+            .assertTrue(serverInvokeContext.getElapsedNanos(
+                InvokePhase.SERVER_REQUEST_DESERIALIZED, InvokePhase.SERVER_USER_PROCESSED) >= 20000000L);
+    }
+
+    @Test
+    public void testCallbackTiming() throws Exception {
+        final InvokeContext invokeContext = new InvokeContext();
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        client.invokeWithCallback(addr, new RequestBody(1, "hello timing"), invokeContext,
+            new InvokeCallback() {
+                @Override
+                public void onResponse(Object response) {
+                    result.set(response);
+                }
+
+                @Override
+                public void onException(Throwable e) {
+                    result.set(e);
+                }
+
+                @Override
+                public Executor getExecutor() {
+                    return null;
+                }
+            }, 3000);
+        for (int i = 0; i < 100 && result.get() == null; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, result.get());
+        assertOrdered(invokeContext, CLIENT_PHASES);
+    }
+
+    @Test
+    public void testClear() {
+        InvokeContext invokeContext = new InvokeContext();
+        invokeContext.mark(InvokePhase.CLIENT_INVOKE_START);
+        Assert.assertTrue(invokeContext.getTimestamp(InvokePhase.CLIENT_INVOKE_START) != 0);
+        Assert.assertEquals(-1, invokeContext.getElapsedNanos(InvokePhase.CLIENT_INVOKE_START,
+            InvokePhase.CLIENT_CONN_ACQUIRED));
+        invokeContext.clear();
+        Assert.assertTrue(invokeContext.isTimingEnabled());
+        Assert.assertEquals(0, invokeContext.getTimestamp(InvokePhase.CLIENT_INVOKE_START));
+    }
+
+    private void assertOrdered(InvokeContext invokeContext, InvokePhase[] phases) {
+        for (int i = 1; i < phases.length; i++) {
+            long elapsed = invokeContext.getElapsedNanos(phases[i - 1], phases[i]);
+            Assert.assertTrue(phases[i - 1] + " -> " + phases[i] + ": " + elapsed, elapsed >= 0);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.InvokeContext;
+import com.alipay.remoting.rpc.RpcClient;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.exception.InvokeServerException;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+import com.alipay.remoting.serialization.Serializer;
+import com.alipay.remoting.serialization.SerializerManager;
+
+/**
+ * test the passthrough serializer of raw bytes
+ *
+ * @author tsui
+ * @version $Id: BytesSerializerTest.java, v 0.1 2018-10-18 22:20 tsui Exp $
+ */
+public class BytesSerializerTest {
+    static Logger logger = LoggerFactory.getLogger(BytesSerializerTest.class);
+
+    BoltServer    server;
+    RpcClient     client;
+
+    int           port   = PortScan.select();
+    String        addr   = "127.0.0.1:" + port;
+
+    @Before
+    public void init() {
+        server = new BoltServer(port);
+        server.start();
+        // echo the bytes reversed, or fail on empty bytes
+        server.registerUserProcessor(new SyncUserProcessor<byte[]>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, byte[] request) throws Exception {
+                if (request.length == 0) {
+                    throw new IllegalArgumentException("empty bytes");
+                }
+                byte[] response = new byte[request.length];
+                for (int i = 0; i < request.length; i++) {
+                    response[i] = request[request.length - 1 - i];
+                }
+                return response;
+            }
+
+            @Override
+            public String interest() {
+                return byte[].class.getName();
+            }
+        });
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        try {
+            client.shutdown();
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testPassthrough() throws Exception {
+        Serializer serializer = SerializerManager.getSerializer(SerializerManager.Bytes);
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        Assert.assertSame(bytes, serializer.serialize(bytes));
+        Assert.assertSame(bytes, serializer.deserialize(bytes, byte[].class.getName()));
+
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, 1, 2, 3 });
+        buffer.get();
+        byte[] serialized = serializer.serialize(buffer);
+        Assert.assertArrayEquals(bytes, serialized);
+        Assert.assertEquals(1, buffer.position());
+        ByteBuffer deserialized = serializer.deserialize(serialized, buffer.getClass().getName());
+        Assert.assertEquals(ByteBuffer.wrap(bytes), deserialized);
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        Serializer serializer = SerializerManager.getSerializer(SerializerManager.Bytes);
+        byte[] serialized = serializer.serialize("hello");
+        Assert.assertArrayEquals(SerializerManager.getSerializer(SerializerManager.Hessian2)
+            .serialize("hello"), serialized);
+        Assert.assertEquals("hello", serializer.deserialize(serialized, String.class.getName()));
+    }
+
+    @Test
+    public void testInvoke() throws Exception {
+        InvokeContext invokeContext = new InvokeContext();
+        invokeContext.put(InvokeContext.BOLT_CUSTOM_SERIALIZER, SerializerManager.Bytes);
+        byte[] response = (byte[]) client.invokeSync(addr, new byte[] { 1, 2, 3 }, invokeContext,
+            3000);
+        Assert.assertTrue(Arrays.equals(new byte[] { 3, 2, 1 }, response));
+
+        invokeContext = new InvokeContext();
+        invokeContext.put(InvokeContext.BOLT_CUSTOM_SERIALIZER, SerializerManager.Bytes);
+        try {
+            client.invokeSync(addr, new byte[0], invokeContext, 3000);
+            Assert.fail("Should not reach here!");
+        } catch (InvokeServerException e) {
+            Assert.assertTrue(true);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.serializer;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.serialization.HessianSerializer;
+
+/**
+ * Test the reuse of the serialize buffer in {@link HessianSerializer}
+ *
+ * @author tsui
+ * @version $Id: HessianSerializerTest.java, v 0.1 2018-10-18 22:40 tsui Exp $
+ */
+public class HessianSerializerTest {
+
+    private HessianSerializer serializer = new HessianSerializer();
+
+    @Test
+    public void testSerializeRepeatedly() throws Exception {
+        RequestBody first = new RequestBody(1, "hello world");
+        byte[] firstBytes = serializer.serialize(first);
+        byte[] firstCopy = Arrays.copyOf(firstBytes, firstBytes.length);
+
+        RequestBody second = new RequestBody(2, "hello bolt, a longer message than the first one");
+        byte[] secondBytes = serializer.serialize(second);
+
+        // the returned bytes must not be shared with the reused buffer
+        Assert.assertArrayEquals(firstCopy, firstBytes);
+        Assert.assertEquals(first.toString(),
+            serializer.deserialize(firstBytes, RequestBody.class.getName()).toString());
+        Assert.assertEquals(second.toString(),
+            serializer.deserialize(secondBytes, RequestBody.class.getName()).toString());
+    }
+
+    @Test
+    public void testSerializeLargeThenSmall() throws Exception {
+        // larger than the retained limit, so the buffer is dropped after use
+        byte[] large = new byte[1024 * 1024];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        byte[] largeBytes = serializer.serialize(large);
+        byte[] largeResult = serializer.deserialize(largeBytes, byte[].class.getName());
+        Assert.assertArrayEquals(large, largeResult);
+
+        String small = "small";
+        byte[] smallBytes = serializer.serialize(small);
+        Assert.assertTrue(smallBytes.length < 16);
+        Assert.assertEquals(small, serializer.deserialize(smallBytes, String.class.getName()));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.serializer;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.alipay.remoting.serialization.ProtobufSerializer;
+import com.alipay.remoting.serialization.SerializerManager;
+
+/**
+ * test the optional protobuf serializer, skipped if protobuf-java is absent
+ *
+ * @author tsui
+ * @version $Id: ProtobufSerializerTest.java, v 0.1 2018-10-19 10:20 tsui Exp $
+ */
+public class ProtobufSerializerTest {
+
+    private static final String STRING_VALUE = "com.google.protobuf.StringValue";
+
+    /** set by the static initializer of {@link NotInitialized} */
+    static volatile boolean     initialized;
+
+    @Test
+    public void testAbsent() {
+        Assume.assumeFalse(ProtobufSerializer.isAvailable());
+        Assert.assertNull(SerializerManager.getSerializer(SerializerManager.Protobuf));
+        try {
+            new ProtobufSerializer();
+            Assert.fail("Should not reach here!");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(true);
+        }
+    }
+
+    @Test
+    public void testMessage() throws Exception {
+        Assume.assumeTrue(ProtobufSerializer.isAvailable());
+        ProtobufSerializer serializer = new ProtobufSerializer();
+        Object message = stringValue("hello");
+        byte[] serialized = serializer.serialize(message);
+        Assert.assertEquals(message, serializer.deserialize(serialized, STRING_VALUE));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize(message, out);
+        Assert.assertArrayEquals(serialized, out.toByteArray());
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        Assume.assumeTrue(ProtobufSerializer.isAvailable());
+        ProtobufSerializer serializer = new ProtobufSerializer();
+        byte[] serialized = serializer.serialize("hello");
+        Assert.assertArrayEquals(SerializerManager.getSerializer(SerializerManager.Hessian2)
+            .serialize("hello"), serialized);
+        Assert.assertEquals("hello", serializer.deserialize(serialized, String.class.getName()));
+    }
+
+    @Test
+    public void testClassNotInitialized() throws Exception {
+        Assume.assumeTrue(ProtobufSerializer.isAvailable());
+        ProtobufSerializer serializer = new ProtobufSerializer();
+        byte[] serialized = serializer.serialize("hello");
+        // not a protobuf message, falls back to hessian without initializing the class named
+        try {
+            serializer.deserialize(serialized, NotInitialized.class.getName());
+        } catch (Exception e) {
+            Assert.assertTrue(true);
+        }
+        Assert.assertFalse(initialized);
+    }
+
+    private static Object stringValue(String value) throws Exception {
+        Object builder = Class.forName(STRING_VALUE).getMethod("newBuilder").invoke(null);
+        builder.getClass().getMethod("setValue", String.class).invoke(builder, value);
+        return builder.getClass().getMethod("build").invoke(builder);
+    }
+
+    static class NotInitialized {
+        static {
+            initialized = true;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.stream;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.rpc.protocol.RpcStreamCommand;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * test the bounds of the streams received, by the window and the timeout of unclaimed ones
+ *
+ * @author tsui
+ * @version $Id: StreamRegistryTest.java, v 0.1 2018-10-19 11:00 tsui Exp $
+ */
+public class StreamRegistryTest {
+
+    EmbeddedChannel channel;
+    StreamRegistry  registry;
+
+    @Before
+    public void init() {
+        channel = new EmbeddedChannel();
+        registry = new Connection(channel).getStreamRegistry();
+    }
+
+    @Test
+    public void testAbortBeyondWindow() throws Exception {
+        for (int i = 0; i < StreamRegistry.WINDOW + 3; i++) {
+            registry.onCommand(new RpcStreamCommand(1, (byte) 0, 0, new byte[] { (byte) i }));
+        }
+        // the sender is told to cancel once
+        RpcStreamCommand cancel = channel.readOutbound();
+        Assert.assertNotNull(cancel);
+        Assert.assertTrue(cancel.isFlagOn(RpcStreamCommand.FLAG_CREDIT));
+        Assert.assertTrue(cancel.isFlagOn(RpcStreamCommand.FLAG_CANCEL));
+        Assert.assertNull(channel.readOutbound());
+
+        InboundStream stream = registry.claimInbound(1, false);
+        try {
+            stream.read();
+            Assert.fail("Should not reach here!");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("aborted"));
+        }
+    }
+
+    @Test
+    public void testExpireUnclaimed() throws Exception {
+        registry.onCommand(new RpcStreamCommand(1, (byte) 0, 0, new byte[] { 1 }));
+        registry.onCommand(new RpcStreamCommand(2, RpcStreamCommand.FLAG_RESPONSE, 0,
+            new byte[] { 2 }));
+        registry.claimInbound(2, true);
+        Assert.assertEquals(2, registry.size());
+
+        Assert.assertEquals(0, registry.expireUnclaimed(System.currentTimeMillis()));
+        Assert.assertEquals(1,
+            registry.expireUnclaimed(System.currentTimeMillis() + StreamRegistry.TIMEOUT));
+        Assert.assertEquals(1, registry.size());
+        RpcStreamCommand cancel = channel.readOutbound();
+        Assert.assertEquals(1, cancel.getId());
+        Assert.assertTrue(cancel.isFlagOn(RpcStreamCommand.FLAG_CANCEL));
+
+        // claimed late, the chunks dropped are not seen
+        registry.onCommand(new RpcStreamCommand(1, RpcStreamCommand.FLAG_END, 0, null));
+        InboundStream stream = registry.claimInbound(1, false);
+        Assert.assertEquals(-1, stream.read());
+        Assert.assertEquals(1, registry.size());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alipay.remoting.ShardedWheelTimer;
+
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+
+/**
+ * test for {@link ShardedWheelTimer}
+ *
+ * @author tsui
+ * @version $Id: ShardedWheelTimerTest.java, v 0.1 2018-10-18 19:40 tsui Exp $
+ */
+public class ShardedWheelTimerTest {
+
+    ShardedWheelTimer timer;
+
+    @Before
+    public void init() {
+        timer = new ShardedWheelTimer("TestTimer", 4, 10, 64);
+    }
+
+    @After
+    public void stop() {
+        timer.stop();
+    }
+
+    @Test
+    public void testTimeoutFromMultiThreads() throws InterruptedException {
+        final int threads = 8;
+        final int perThread = 100;
+        final CountDownLatch expired = new CountDownLatch(threads * perThread / 2);
+        final AtomicInteger cancelledRun = new AtomicInteger();
+        final CountDownLatch registered = new CountDownLatch(threads);
+        for (int t = 0; t < threads; ++t) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; ++i) {
+                        final boolean cancel = i % 2 == 0;
+                        Timeout timeout = timer.newTimeout(new TimerTask() {
+                            @Override
+                            public void run(Timeout timeout) throws Exception {
+                                if (cancel) {
+                                    cancelledRun.incrementAndGet();
+                                } else {
+                                    expired.countDown();
+                                }
+                            }
+                        }, cancel ? 200 : 50, TimeUnit.MILLISECONDS);
+                        if (cancel) {
+                            timeout.cancel();
+                        }
+                    }
+                    registered.countDown();
+                }
+            }).start();
+        }
+        registered.await();
+        Assert.assertTrue(expired.await(3000, TimeUnit.MILLISECONDS));
+        Thread.sleep(300);
+        Assert.assertEquals(0, cancelledRun.get());
+        Assert.assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    public void testPendingAndLag() throws InterruptedException {
+        Assert.assertEquals(4, timer.shards());
+        Assert.assertEquals(0, timer.pendingTimeouts());
+        timer.newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+            }
+        }, 10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, timer.pendingTimeouts());
+
+        // block one wheel long enough to be seen by its lag probe
+        timer.newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                Thread.sleep(ShardedWheelTimer.LAG_PROBE_INTERVAL + 500);
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        Thread.sleep(ShardedWheelTimer.LAG_PROBE_INTERVAL * 3);
+        Assert.assertTrue(timer.lagMillis() > 0);
+    }
+
+    @Test
+    public void testSweep() throws InterruptedException {
+        final AtomicInteger swept = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        ShardedWheelTimer.Sweepable target = new ShardedWheelTimer.Sweepable() {
+            @Override
+            public boolean sweep(long nowNanos) {
+                if (swept.incrementAndGet() < 5) {
+                    return true;
+                }
+                done.countDown();
+                return false;
+            }
+        };
+        timer.sweep(target);
+        timer.sweep(target);
+        Assert.assertTrue(done.await(3000, TimeUnit.MILLISECONDS));
+        // removed once returned false
+        Thread.sleep(100);
+        Assert.assertEquals(5, swept.get());
+        Assert.assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    public void testIllegalShards() {
+        try {
+            new ShardedWheelTimer("TestTimer", 0, 10, 64);
+            Assert.fail("Should not reach here!");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
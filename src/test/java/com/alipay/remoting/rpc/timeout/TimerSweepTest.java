@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.InvokeCallback;
+import com.alipay.remoting.TimerHolder;
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.rpc.RpcClient;
+import com.alipay.remoting.rpc.RpcResponseFuture;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
+
+/**
+ * Timeout test with the invoke futures expired by sweeping connections, see {@link Configs#TIMER_SWEEP_SWITCH}
+ *
+ * @author tsui
+ * @version $Id: TimerSweepTest.java, v 0.1 2018-10-19 11:25 tsui Exp $
+ */
+public class TimerSweepTest {
+
+    static Logger             logger              = LoggerFactory.getLogger(TimerSweepTest.class);
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                = PortScan.select();
+    String                    addr                = "127.0.0.1:" + port;
+
+    int                       timeout             = 250;
+
+    SimpleServerUserProcessor serverUserProcessor = new SimpleServerUserProcessor(timeout * 2);
+
+    @Before
+    public void init() {
+        System.setProperty(Configs.TIMER_SWEEP_SWITCH, "true");
+        server = new BoltServer(port);
+        server.start();
+        server.registerUserProcessor(serverUserProcessor);
+
+        client = new RpcClient();
+        client.init();
+    }
+
+    @After
+    public void stop() {
+        System.clearProperty(Configs.TIMER_SWEEP_SWITCH);
+        try {
+            client.shutdown();
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testFutureExpired() throws Exception {
+        RequestBody req = new RequestBody(1, "Hello world!");
+        List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.invokeWithFuture(addr, req, timeout));
+        }
+        // no timeout registered for each invocation
+        Assert.assertEquals(0, TimerHolder.pendingTimeouts());
+        Connection conn = client.getConnection(addr, 1000);
+        Assert.assertEquals(5, conn.getInvokeFutureCount());
+
+        long start = System.currentTimeMillis();
+        for (RpcResponseFuture future : futures) {
+            try {
+                future.get(timeout * 4);
+                Assert.fail("Should not reach here!");
+            } catch (InvokeTimeoutException e) {
+                // expected
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        Assert.assertTrue(elapsed >= timeout - 50 && elapsed < timeout * 2);
+        Assert.assertEquals(0, conn.getInvokeFutureCount());
+    }
+
+    @Test
+    public void testFutureOK() throws Exception {
+        RequestBody req = new RequestBody(1, "Hello world!");
+        RpcResponseFuture future = client.invokeWithFuture(addr, req, timeout * 4);
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR, future.get(timeout * 4));
+    }
+
+    @Test
+    public void testCallbackExpired() throws Exception {
+        RequestBody req = new RequestBody(3, "Hello world!");
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Class<?>> ret = new ArrayList<Class<?>>();
+        client.invokeWithCallback(addr, req, new InvokeCallback() {
+
+            @Override
+            public void onResponse(Object result) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onException(Throwable e) {
+                ret.add(e.getClass());
+                latch.countDown();
+            }
+
+            @Override
+            public Executor getExecutor() {
+                return null;
+            }
+
+        }, timeout);
+        Assert.assertTrue(latch.await(timeout * 4, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, ret.size());
+        Assert.assertEquals(InvokeTimeoutException.class, ret.get(0));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.watermark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.BizContext;
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.OutboundOverflowPolicy;
+import com.alipay.remoting.ResponseOutboundLimiter;
+import com.alipay.remoting.rpc.RpcClient;
+import com.alipay.remoting.rpc.RpcResponseFuture;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.exception.InvokeServerException;
+import com.alipay.remoting.rpc.protocol.SyncUserProcessor;
+
+/**
+ * test for the limit of pending outbound bytes when server sends responses to a client slow to read
+ *
+ * @author tsui
+ * @version $Id: ResponseOutboundLimitTest.java, v 0.1 2018-10-18 22:10 tsui Exp $
+ */
+public class ResponseOutboundLimitTest {
+    static Logger               logger       = LoggerFactory
+                                                 .getLogger(ResponseOutboundLimitTest.class);
+
+    private static final int    LIMIT        = 1024 * 1024;
+
+    private static final int    INVOKE_TIMES = 100;
+
+    /** the responses are far more than what socket buffers can hold */
+    private static final byte[] BIG_RESPONSE = new byte[256 * 1024];
+
+    BoltServer                  server;
+    RpcClient                   client;
+
+    int                         port         = PortScan.select();
+    String                      addr         = "127.0.0.1:" + port;
+
+    @After
+    public void stop() {
+        if (null != client) {
+            client.shutdown();
+        }
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testPause() throws Exception {
+        ResponseOutboundLimiter limiter = start(OutboundOverflowPolicy.PAUSE);
+        Connection conn = client.getConnection(addr, 1000);
+        List<RpcResponseFuture> futures = invokeWithReadingStopped(conn);
+        Assert.assertTrue(waitFor(limiter, OutboundOverflowPolicy.PAUSE));
+
+        conn.getChannel().config().setAutoRead(true);
+        for (RpcResponseFuture future : futures) {
+            Assert.assertArrayEquals(BIG_RESPONSE, (byte[]) future.get(10000));
+        }
+        long deadline = System.currentTimeMillis() + 3000;
+        while (limiter.getResumedCount() < limiter.getPausedCount()
+               && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(limiter.getPausedCount(), limiter.getResumedCount());
+    }
+
+    @Test
+    public void testDrop() throws Exception {
+        ResponseOutboundLimiter limiter = start(OutboundOverflowPolicy.DROP);
+        Connection conn = client.getConnection(addr, 1000);
+        List<RpcResponseFuture> futures = invokeWithReadingStopped(conn);
+        Assert.assertTrue(waitFor(limiter, OutboundOverflowPolicy.DROP));
+
+        conn.getChannel().config().setAutoRead(true);
+        int dropped = 0;
+        for (RpcResponseFuture future : futures) {
+            try {
+                Assert.assertArrayEquals(BIG_RESPONSE, (byte[]) future.get(10000));
+            } catch (InvokeServerException e) {
+                ++dropped;
+            }
+        }
+        Assert.assertTrue(dropped > 0);
+        Assert.assertEquals(limiter.getDroppedCount(), dropped);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        ResponseOutboundLimiter limiter = start(OutboundOverflowPolicy.CLOSE);
+        Connection conn = client.getConnection(addr, 1000);
+        invokeWithReadingStopped(conn);
+        Assert.assertTrue(waitFor(limiter, OutboundOverflowPolicy.CLOSE));
+        Assert.assertEquals(1, limiter.getClosedCount());
+
+        conn.getChannel().config().setAutoRead(true);
+        long deadline = System.currentTimeMillis() + 3000;
+        while (conn.isFine() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(conn.isFine());
+    }
+
+    private ResponseOutboundLimiter start(OutboundOverflowPolicy policy) {
+        server = new BoltServer(port);
+        server.getRpcServer().initResponseOutboundLimit(LIMIT, policy);
+        server.registerUserProcessor(new SyncUserProcessor<RequestBody>() {
+            @Override
+            public Object handleRequest(BizContext bizCtx, RequestBody request) {
+                return BIG_RESPONSE;
+            }
+
+            @Override
+            public String interest() {
+                return RequestBody.class.getName();
+            }
+        });
+        Assert.assertTrue(server.start());
+        client = new RpcClient();
+        client.init();
+        return server.getRpcServer().getResponseOutboundLimiter();
+    }
+
+    private List<RpcResponseFuture> invokeWithReadingStopped(Connection conn) throws Exception {
+        conn.getChannel().config().setAutoRead(false);
+        List<RpcResponseFuture> futures = new ArrayList<RpcResponseFuture>();
+        for (int i = 0; i < INVOKE_TIMES; ++i) {
+            futures.add(client.invokeWithFuture(conn, new RequestBody(i, "hello"), 10000));
+        }
+        return futures;
+    }
+
+    private boolean waitFor(ResponseOutboundLimiter limiter, OutboundOverflowPolicy policy)
+                                                                                           throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            long count = policy == OutboundOverflowPolicy.PAUSE ? limiter.getPausedCount()
+                : policy == OutboundOverflowPolicy.DROP ? limiter.getDroppedCount() : limiter
+                    .getClosedCount();
+            if (count > 0) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
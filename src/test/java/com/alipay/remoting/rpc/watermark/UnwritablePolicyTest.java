@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.remoting.rpc.watermark;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alipay.remoting.Connection;
+import com.alipay.remoting.config.Configs;
+import com.alipay.remoting.rpc.RpcClient;
+import com.alipay.remoting.rpc.UnwritableStats;
+import com.alipay.remoting.rpc.common.BoltServer;
+import com.alipay.remoting.rpc.common.PortScan;
+import com.alipay.remoting.rpc.common.RequestBody;
+import com.alipay.remoting.rpc.common.SimpleServerUserProcessor;
+import com.alipay.remoting.rpc.exception.InvokeUnwritableException;
+
+/**
+ * test for policies of invoking on unwritable connection
+ *
+ * @author tsui
+ * @version $Id: UnwritablePolicyTest.java, v 0.1 2018-10-18 21:00 tsui Exp $
+ */
+public class UnwritablePolicyTest {
+    static Logger             logger              = LoggerFactory
+                                                      .getLogger(UnwritablePolicyTest.class);
+
+    /** index of the user defined writability used to mark a channel unwritable in test */
+    private static final int  WRITABILITY_INDEX   = 1;
+
+    BoltServer                server;
+    RpcClient                 client;
+
+    int                       port                = PortScan.select();
+    String                    addr                = "127.0.0.1:" + port;
+
+    SimpleServerUserProcessor serverUserProcessor = new SimpleServerUserProcessor();
+
+    @Before
+    public void init() {
+        server = new BoltServer(port, true);
+        server.start();
+        server.registerUserProcessor(serverUserProcessor);
+    }
+
+    @After
+    public void stop() {
+        System.clearProperty(Configs.INVOKE_UNWRITABLE_POLICY);
+        System.clearProperty(Configs.INVOKE_UNWRITABLE_TIMEOUT);
+        if (null != client) {
+            client.shutdown();
+        }
+        try {
+            server.stop();
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            logger.error("Stop server failed!", e);
+        }
+    }
+
+    @Test
+    public void testFail() throws Exception {
+        startClient("fail");
+        Connection conn = client.getConnection(addr, 1000);
+        setWritable(conn, false);
+        long failed = UnwritableStats.getFailedCount();
+        try {
+            client.invokeSync(addr, new RequestBody(1, "hello"), 1000);
+            Assert.fail("should not reach here");
+        } catch (InvokeUnwritableException e) {
+            // expected
+        }
+        Assert.assertEquals(failed + 1, UnwritableStats.getFailedCount());
+        Assert.assertEquals(0, serverUserProcessor.getInvokeTimes());
+
+        setWritable(conn, true);
+        Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+            client.invokeSync(addr, new RequestBody(1, "hello"), 1000));
+    }
+
+    @Test
+    public void testWait() throws Exception {
+        System.setProperty(Configs.INVOKE_UNWRITABLE_TIMEOUT, "300");
+        startClient("wait");
+        final Connection conn = client.getConnection(addr, 1000);
+        setWritable(conn, false);
+        long waitTimeout = UnwritableStats.getWaitTimeoutCount();
+        long start = System.currentTimeMillis();
+        try {
+            client.invokeSync(addr, new RequestBody(1, "hello"), 3000);
+            Assert.fail("should not reach here");
+        } catch (InvokeUnwritableException e) {
+            // expected
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start >= 300);
+        Assert.assertEquals(waitTimeout + 1, UnwritableStats.getWaitTimeoutCount());
+
+        long waited = UnwritableStats.getWaitedCount();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    setWritable(conn, true);
+                }
+            }, 100, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+                client.invokeSync(addr, new RequestBody(1, "hello"), 3000));
+        } finally {
+            scheduler.shutdown();
+        }
+        Assert.assertEquals(waited + 1, UnwritableStats.getWaitedCount());
+    }
+
+    @Test
+    public void testRoute() throws Exception {
+        startClient("route");
+        String connNumAddr = addr + "?_CONNECTIONNUM=2&_CONNECTIONWARMUP=true";
+        Connection conn = client.getConnection(connNumAddr, 1000);
+        Assert.assertEquals(2, client.getAllManagedConnections().get(conn.getUrl().getUniqueKey())
+            .size());
+        setWritable(conn, false);
+
+        long routed = UnwritableStats.getRoutedCount();
+        for (int i = 0; i < 20; ++i) {
+            Assert.assertEquals(RequestBody.DEFAULT_SERVER_RETURN_STR,
+                client.invokeSync(connNumAddr, new RequestBody(1, "hello"), 1000));
+        }
+        Assert.assertTrue(UnwritableStats.getRoutedCount() > routed);
+        Assert.assertEquals(20, serverUserProcessor.getInvokeTimes());
+    }
+
+    private void startClient(String policy) {
+        System.setProperty(Configs.INVOKE_UNWRITABLE_POLICY, policy);
+        client = new RpcClient();
+        client.init();
+    }
+
+    private void setWritable(Connection conn, boolean writable) {
+        conn.getChannel().unsafe().outboundBuffer()
+            .setUserDefinedWritability(WRITABILITY_INDEX, writable);
+    }
+}